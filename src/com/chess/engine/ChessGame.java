@@ -1,19 +1,115 @@
 package com.chess.engine;
 
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+
 import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+import com.chess.engine.player.Perft;
+import com.chess.engine.player.ai.AlphaBeta;
+import com.chess.engine.player.ai.SearchLimits;
+import com.chess.engine.player.ai.SearchResult;
+import com.chess.engine.player.ai.StandardBoardEvaluator;
+import com.chess.engine.player.ai.TranspositionTable;
+import com.chess.engine.uci.UciProtocol;
+import com.chess.pgn.FenUtilities;
 
 /**
- * Little class used to test some functionalities
+ * Entry point of the engine : speaks the UCI protocol on the standard streams,
+ * or prints the initial board with the "board" argument, or counts the positions
+ * reached after some moves with the "perft depth [fen]" arguments, or searches
+ * a fixed set of positions with the "bench [depth]" arguments
  * @author antsalin
  *
  */
 public class ChessGame {
 
-	public static void main(String[] args) {
+	/** The depth of the bench searches when none is given */
+	private static final int DEFAULT_BENCH_DEPTH = 4;
+
+	/** The positions searched by the bench : openings, middle games with tactics and endgames */
+	private static final String[] BENCH_POSITIONS = {
+		FenUtilities.STANDARD_FEN,
+		"r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+		"r1bqkbnr/pppp1ppp/2n5/4p3/2B1P3/5N2/PPPP1PPP/RNBQK2R b KQkq - 3 3",
+		"rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+		"r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+		"r1bq1rk1/pp2bppp/2n1pn2/3p4/2PP4/2N1PN2/PP1B1PPP/R2QKB1R w KQ - 0 8",
+		"2r3k1/pp3ppp/2n5/3p4/3P4/2P2N2/PP3PPP/2R3K1 w - - 0 1",
+		"8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+		"8/8/4k3/3p4/3P4/4K3/8/8 w - - 0 1",
+		"6k1/5ppp/8/8/8/8/5PPP/3R2K1 w - - 0 1",
+		"8/5pk1/6p1/7p/7P/6P1/5PK1/3R4 b - - 0 40",
+		"4k3/8/8/8/8/8/8/R3K2R w KQ - 0 1",
+	};
+
+	public static void main(String[] args) throws IOException {
+		
+		if (args.length > 0 && args[0].equals("board")) {
+			Board board = Board.createStandardBoard();
+			
+			System.out.println(board);
+			return;
+		}
+		
+		if (args.length > 1 && args[0].equals("perft")) {
+			perft(Integer.parseInt(args[1]), args.length > 2 ?
+					FenUtilities.createGameFromFEN(String.join(" ", Arrays.copyOfRange(args, 2, args.length))) :
+					Board.createStandardBoard());
+			return;
+		}
 		
-		Board board = Board.createStandardBoard();
+		if (args.length > 0 && args[0].equals("bench")) {
+			bench(args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_BENCH_DEPTH);
+			return;
+		}
 		
-		System.out.println(board);
+		new UciProtocol(System.in, System.out).run();
+	}
+
+	/**
+	 * Searches the bench positions at a fixed depth with a single thread, then prints the total
+	 * number of nodes, which changes only when the behaviour of the search changes, and the speed
+	 * @param depth The depth of the searches
+	 */
+	private static void bench(final int depth) {
+		long totalNodes = 0;
+		long totalNanos = 0;
+		for (int i = 0; i < BENCH_POSITIONS.length; i++) {
+			// Each position begins with empty tables, so that the node counts don't depend on each other
+			final AlphaBeta search = new AlphaBeta(new StandardBoardEvaluator(), depth,
+					new TranspositionTable(TranspositionTable.DEFAULT_SIZE_MB));
+			final Board board = FenUtilities.createGameFromFEN(BENCH_POSITIONS[i]);
+			final long start = System.nanoTime();
+			final SearchResult result = search.search(board, SearchLimits.depth(depth));
+			totalNanos += System.nanoTime() - start;
+			totalNodes += result.getNodes();
+			System.out.println("Position " + (i + 1) + "/" + BENCH_POSITIONS.length + " : " + result.getNodes() +
+					" nodes, bestmove " + result.getBestMove() + " score " + result.getScore());
+		}
+		final long millis = Math.max(1, totalNanos / 1000000);
+		System.out.println();
+		System.out.println("Total time (ms) : " + millis);
+		System.out.println("Nodes searched  : " + totalNodes);
+		System.out.println("Nodes/second    : " + totalNodes * 1000 / millis);
+	}
+
+	/**
+	 * Prints the number of positions reached after each legal move, then the total and the speed
+	 * @param depth The number of moves
+	 * @param board The starting board
+	 */
+	private static void perft(final int depth, final Board board) {
+		final long start = System.nanoTime();
+		long total = 0;
+		for (final Map.Entry<Move, Long> entry : Perft.divide(board, depth).entrySet()) {
+			System.out.println(entry.getKey() + ": " + entry.getValue());
+			total += entry.getValue();
+		}
+		final long millis = Math.max(1, (System.nanoTime() - start) / 1000000);
+		System.out.println();
+		System.out.println("Nodes searched: " + total + " (" + millis + " ms, " + total * 1000 / millis + " nodes/s)");
 	}
 
 }
@@ -0,0 +1,64 @@
+package com.chess.engine.analysis;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.player.ai.SearchResult;
+import com.chess.pgn.FenUtilities;
+
+/**
+ * Describes the analysis of one position of a batch
+ * @author antsalin
+ *
+ */
+public final class AnalysisResult {
+
+	/** The index of the position in the batch, starting at 0 */
+	private final long index;
+
+	/** The analysed position */
+	private final Board board;
+
+	/** The result of the search of the position */
+	private final SearchResult searchResult;
+
+	/**
+	 * Constructor
+	 * @param index The index of the position in the batch
+	 * @param board The analysed position
+	 * @param searchResult The result of the search of the position
+	 */
+	AnalysisResult(final long index, final Board board, final SearchResult searchResult) {
+		this.index = index;
+		this.board = board;
+		this.searchResult = searchResult;
+	}
+
+	/**
+	 * Gets the index of the position in the batch : the results are published
+	 * as soon as they are known, not in the order of the batch
+	 * @return The index of the position, starting at 0
+	 */
+	public long getIndex() {
+		return this.index;
+	}
+
+	/**
+	 * Gets the analysed position
+	 * @return The board
+	 */
+	public Board getBoard() {
+		return this.board;
+	}
+
+	/**
+	 * Gets the result of the search of the position
+	 * @return The search result
+	 */
+	public SearchResult getSearchResult() {
+		return this.searchResult;
+	}
+
+	@Override
+	public String toString() {
+		return this.index + " " + FenUtilities.createFENFromGame(this.board) + " : " + this.searchResult;
+	}
+}
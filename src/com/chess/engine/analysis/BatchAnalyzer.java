@@ -0,0 +1,251 @@
+package com.chess.engine.analysis;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+import com.chess.engine.player.MoveTransition;
+import com.chess.engine.player.ai.AlphaBeta;
+import com.chess.engine.player.ai.BoardEvaluator;
+import com.chess.engine.player.ai.SearchLimits;
+import com.chess.engine.player.ai.StandardBoardEvaluator;
+import com.chess.engine.player.ai.TranspositionTable;
+import com.chess.pgn.FenUtilities;
+
+/**
+ * Analyses batches of positions (for example every position of a game) at a fixed depth.
+ * Each position is searched by a task of a work-stealing pool, within a node budget, and all
+ * the searches share the same transposition table : the related positions of a batch reuse
+ * the results of each other. The results are published as soon as they are known.
+ * @author antsalin
+ *
+ */
+public final class BatchAnalyzer implements AutoCloseable {
+
+	/** The function used to evaluate the leaves of the searches */
+	private final BoardEvaluator evaluator;
+
+	/** The limits of the search of each position (depth and node budget) */
+	private final SearchLimits limits;
+
+	/** The table shared by all the searches */
+	private final TranspositionTable transpositionTable;
+
+	/** The threads running the searches */
+	private final ForkJoinPool pool;
+
+	/** The search of each thread of the pool (a search is not thread safe) */
+	private final ThreadLocal<AlphaBeta> searches;
+
+	/**
+	 * Constructor
+	 * @param evaluator The function used to evaluate the leaves of the searches
+	 * @param limits The limits of the search of each position : its depth and its node budget
+	 * @param transpositionTable The table shared by all the searches
+	 * @param parallelism The number of threads running the searches
+	 */
+	public BatchAnalyzer(final BoardEvaluator evaluator, final SearchLimits limits,
+			final TranspositionTable transpositionTable, final int parallelism) {
+		this.evaluator = evaluator;
+		this.limits = limits;
+		this.transpositionTable = transpositionTable;
+		this.pool = new ForkJoinPool(parallelism);
+		this.searches = new ThreadLocal<AlphaBeta>() {
+			@Override
+			protected AlphaBeta initialValue() {
+				final AlphaBeta search = new AlphaBeta(BatchAnalyzer.this.evaluator, BatchAnalyzer.this.limits.getDepth(),
+						BatchAnalyzer.this.transpositionTable);
+				// The generation of the table changes once per batch, see submitAll
+				search.setTableAging(false);
+				return search;
+			}
+		};
+	}
+
+	/**
+	 * Analyses a batch of positions. The positions are read by the calling thread and searched
+	 * by the pool; the subscriber receives the results as soon as they are known, then is completed
+	 * once every position has been analysed (or receives the error of the first failed search)
+	 * @param positions The positions to analyse
+	 * @param subscriber The subscriber receiving the results
+	 */
+	public void analyze(final Stream<Board> positions, final Flow.Subscriber<? super AnalysisResult> subscriber) {
+		final SubmissionPublisher<AnalysisResult> publisher = new SubmissionPublisher<>();
+		publisher.subscribe(subscriber);
+		submitAll(positions, publisher);
+	}
+
+	/**
+	 * Analyses a batch of positions, giving each result to a callback as soon as it is known.
+	 * The callback is called by one thread at a time
+	 * @param positions The positions to analyse
+	 * @param callback The function receiving the results
+	 * @return A future completed once every position has been analysed
+	 */
+	public CompletableFuture<Void> analyze(final Stream<Board> positions, final Consumer<AnalysisResult> callback) {
+		final SubmissionPublisher<AnalysisResult> publisher = new SubmissionPublisher<>();
+		final CompletableFuture<Void> completion = publisher.consume(callback);
+		submitAll(positions, publisher);
+		return completion;
+	}
+
+	/**
+	 * Submits a search for each position, and closes the publisher after the last result.
+	 * The batch starts a new generation of the table, shared by all its searches so that
+	 * they don't age the entries of each other
+	 * @param positions The positions to analyse
+	 * @param publisher The publisher of the results
+	 */
+	private void submitAll(final Stream<Board> positions, final SubmissionPublisher<AnalysisResult> publisher) {
+		this.transpositionTable.newSearch();
+		// One for each running search, plus one until all the positions are submitted
+		final AtomicInteger pending = new AtomicInteger(1);
+		long index = 0;
+		final Iterator<Board> iterator = positions.iterator();
+		while (iterator.hasNext()) {
+			final Board board = iterator.next();
+			final long positionIndex = index++;
+			pending.incrementAndGet();
+			this.pool.execute(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						final AlphaBeta search = BatchAnalyzer.this.searches.get();
+						publisher.submit(new AnalysisResult(positionIndex, board,
+								search.search(board, BatchAnalyzer.this.limits)));
+					} catch (final RuntimeException e) {
+						publisher.closeExceptionally(e);
+					}
+					if (pending.decrementAndGet() == 0) {
+						publisher.close();
+					}
+				}
+			});
+		}
+		if (pending.decrementAndGet() == 0) {
+			publisher.close();
+		}
+	}
+
+	/**
+	 * Gets the table shared by all the searches
+	 * @return The transposition table
+	 */
+	public TranspositionTable getTranspositionTable() {
+		return this.transpositionTable;
+	}
+
+	@Override
+	public void close() {
+		this.pool.shutdownNow();
+	}
+
+	/**
+	 * Analyses positions from the command line and measures the throughput.
+	 * Options : -fens file (one FEN per line, default : the positions of a game of the engine against itself),
+	 * -depth N, -nodes N (budget of each position), -threads N, -hash MB
+	 * @param args The command line options
+	 * @throws IOException If the position file can't be read
+	 * @throws InterruptedException If the analysis is interrupted
+	 * @throws ExecutionException If a search fails
+	 */
+	public static void main(final String[] args) throws IOException, InterruptedException, ExecutionException {
+		String fenFile = null;
+		int depth = 4;
+		long nodes = -1;
+		int threads = Runtime.getRuntime().availableProcessors();
+		int hashMb = TranspositionTable.DEFAULT_SIZE_MB;
+		for (int i = 0; i + 1 < args.length; i += 2) {
+			final String value = args[i + 1];
+			switch (args[i]) {
+			case "-fens":
+				fenFile = value;
+				break;
+			case "-depth":
+				depth = Integer.parseInt(value);
+				break;
+			case "-nodes":
+				nodes = Long.parseLong(value);
+				break;
+			case "-threads":
+				threads = Integer.parseInt(value);
+				break;
+			case "-hash":
+				hashMb = Integer.parseInt(value);
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown option : " + args[i]);
+			}
+		}
+
+		final List<Board> positions = fenFile == null ? playGame(60) : readPositions(fenFile);
+		final SearchLimits limits = new SearchLimits.Builder().setDepth(depth).setNodes(nodes).build();
+		final LongAdder searchedNodes = new LongAdder();
+		final long startTime = System.currentTimeMillis();
+		try (BatchAnalyzer analyzer = new BatchAnalyzer(new StandardBoardEvaluator(), limits,
+				new TranspositionTable(hashMb), threads)) {
+			analyzer.analyze(positions.stream(), new Consumer<AnalysisResult>() {
+				@Override
+				public void accept(final AnalysisResult result) {
+					searchedNodes.add(result.getSearchResult().getNodes());
+					System.out.println(result);
+				}
+			}).get();
+		}
+		final long elapsedMillis = Math.max(1, System.currentTimeMillis() - startTime);
+		System.out.println(String.format("%d positions at depth %d in %d ms : %.0f positions/min/core, %d nodes/s",
+				positions.size(), depth, elapsedMillis, positions.size() * 60000.0 / elapsedMillis / threads,
+				searchedNodes.sum() * 1000 / elapsedMillis));
+	}
+
+	/**
+	 * Reads positions from a file
+	 * @param path The path of the file : one FEN string per line, lines starting with # are ignored
+	 * @return The positions
+	 * @throws IOException If the file can't be read
+	 */
+	private static List<Board> readPositions(final String path) throws IOException {
+		final List<Board> positions = new ArrayList<>();
+		for (final String line : Files.readAllLines(Paths.get(path), StandardCharsets.UTF_8)) {
+			final String fen = line.trim();
+			if (!fen.isEmpty() && !fen.startsWith("#")) {
+				positions.add(FenUtilities.createGameFromFEN(fen));
+			}
+		}
+		return positions;
+	}
+
+	/**
+	 * Plays a quick game of the engine against itself
+	 * @param maxHalfMoves The maximum number of half moves of the game
+	 * @return Every position of the game
+	 */
+	private static List<Board> playGame(final int maxHalfMoves) {
+		final AlphaBeta search = new AlphaBeta(new StandardBoardEvaluator(), 2);
+		final List<Board> positions = new ArrayList<>();
+		Board board = Board.createStandardBoard();
+		positions.add(board);
+		for (int i = 0; i < maxHalfMoves && !board.getGameStatus().isGameOver(); i++) {
+			final Move move = search.execute(board);
+			final MoveTransition transition = board.currentPlayer().makeMove(move);
+			board = transition.getTransitionBoard();
+			positions.add(board);
+		}
+		return positions;
+	}
+}
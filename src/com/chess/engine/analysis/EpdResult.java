@@ -0,0 +1,122 @@
+package com.chess.engine.analysis;
+
+import java.util.List;
+
+import com.chess.engine.board.Move;
+import com.chess.engine.player.ai.SearchResult;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Describes the search of one position of an EPD test suite : whether the engine found
+ * a best move ("bm") and avoided the moves to avoid ("am"), and when it found it for good
+ * @author antsalin
+ *
+ */
+public final class EpdResult {
+
+	/** The index of the position in the suite, starting at 0 */
+	private final int index;
+
+	/** The id of the position ("id" operation), or its index when it has none */
+	private final String id;
+
+	/** The moves solving the position, empty if any move not avoided solves it */
+	private final List<Move> bestMoves;
+
+	/** The moves that must not be played */
+	private final List<Move> avoidMoves;
+
+	/** The result of the search */
+	private final SearchResult searchResult;
+
+	/** The time of the first iteration from which the best move always solved the position, -1 if unsolved */
+	private final long solveTimeMillis;
+
+	/** The depth of the first iteration from which the best move always solved the position, -1 if unsolved */
+	private final int solveDepth;
+
+	/**
+	 * Constructor
+	 * @param index The index of the position in the suite
+	 * @param id The id of the position
+	 * @param bestMoves The moves solving the position
+	 * @param avoidMoves The moves that must not be played
+	 * @param searchResult The result of the search
+	 * @param solveTimeMillis The time to solution, -1 if unsolved
+	 * @param solveDepth The depth to solution, -1 if unsolved
+	 */
+	EpdResult(final int index, final String id, final List<Move> bestMoves, final List<Move> avoidMoves,
+			final SearchResult searchResult, final long solveTimeMillis, final int solveDepth) {
+		this.index = index;
+		this.id = id;
+		this.bestMoves = ImmutableList.copyOf(bestMoves);
+		this.avoidMoves = ImmutableList.copyOf(avoidMoves);
+		this.searchResult = searchResult;
+		this.solveTimeMillis = solveTimeMillis;
+		this.solveDepth = solveDepth;
+	}
+
+	/**
+	 * Gets the index of the position in the suite
+	 * @return The index of the position, starting at 0
+	 */
+	public int getIndex() {
+		return this.index;
+	}
+
+	/**
+	 * Gets the id of the position
+	 * @return The "id" operation of the position, or its index when it has none
+	 */
+	public String getId() {
+		return this.id;
+	}
+
+	/**
+	 * Gets the result of the search
+	 * @return The search result
+	 */
+	public SearchResult getSearchResult() {
+		return this.searchResult;
+	}
+
+	/**
+	 * Tells if the engine solved the position : its move is a best move and not a move to avoid
+	 * @return A boolean telling whether the position was solved or not
+	 */
+	public boolean isSolved() {
+		return this.solveTimeMillis >= 0;
+	}
+
+	/**
+	 * Gets the time to solution
+	 * @return The time of the first iteration from which the best move always solved the position, -1 if unsolved
+	 */
+	public long getSolveTimeMillis() {
+		return this.solveTimeMillis;
+	}
+
+	/**
+	 * Gets the depth to solution
+	 * @return The depth of the first iteration from which the best move always solved the position, -1 if unsolved
+	 */
+	public int getSolveDepth() {
+		return this.solveDepth;
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder text = new StringBuilder(isSolved() ? "solved " : "FAILED ").append(this.id);
+		if (!this.bestMoves.isEmpty()) {
+			text.append(" bm ").append(this.bestMoves);
+		}
+		if (!this.avoidMoves.isEmpty()) {
+			text.append(" am ").append(this.avoidMoves);
+		}
+		text.append(" : ").append(this.searchResult.getBestMove()).append(" depth ").append(this.searchResult.getDepth());
+		if (isSolved()) {
+			text.append(", found at depth ").append(this.solveDepth).append(" in ").append(this.solveTimeMillis).append(" ms");
+		}
+		return text.toString();
+	}
+}
@@ -0,0 +1,309 @@
+package com.chess.engine.analysis;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+import com.chess.engine.player.ai.AlphaBeta;
+import com.chess.engine.player.ai.SearchLimits;
+import com.chess.engine.player.ai.SearchListener;
+import com.chess.engine.player.ai.SearchResult;
+import com.chess.engine.player.ai.StandardBoardEvaluator;
+import com.chess.engine.player.ai.TranspositionTable;
+import com.chess.pgn.FenUtilities;
+import com.chess.pgn.SanUtilities;
+
+/**
+ * Runs a test suite stored as EPD : each line holds a position and its operations, the best
+ * moves ("bm") and the moves to avoid ("am") in SAN, and its "id". The positions are searched
+ * in parallel, each one by a single thread with an empty transposition table, and the runner
+ * records when the engine found the solution for good : the time and the depth of the first
+ * iteration from which the best move always solved the position
+ * @author antsalin
+ *
+ */
+public final class EpdSuiteRunner implements AutoCloseable {
+
+	/** The percentiles of the time to solution in the report */
+	private static final double[] PERCENTILES = {0.5, 0.9, 0.95, 0.99};
+
+	/** The limits of the search of each position */
+	private final SearchLimits limits;
+
+	/** The threads running the searches */
+	private final ExecutorService executor;
+
+	/** The search of each thread, with its own transposition table */
+	private final ThreadLocal<AlphaBeta> searches;
+
+	/**
+	 * Constructor
+	 * @param limits The limits of the search of each position : time, nodes and/or depth
+	 * @param threads The number of positions searched at the same time
+	 * @param hashSizeMb The size of the transposition table of each thread, in megabytes
+	 */
+	public EpdSuiteRunner(final SearchLimits limits, final int threads, final int hashSizeMb) {
+		this.limits = limits;
+		this.executor = Executors.newFixedThreadPool(threads);
+		this.searches = new ThreadLocal<AlphaBeta>() {
+			@Override
+			protected AlphaBeta initialValue() {
+				return new AlphaBeta(new StandardBoardEvaluator(), SearchLimits.MAX_DEPTH, new TranspositionTable(hashSizeMb));
+			}
+		};
+	}
+
+	/**
+	 * Runs a test suite
+	 * @param lines The EPD lines of the suite
+	 * @param consumer Receives the result of each position as soon as it is known, may be null
+	 * @return The results, in the order of the suite
+	 * @throws InterruptedException If the run is interrupted
+	 * @throws ExecutionException If a line can't be read, or a search fails
+	 */
+	public List<EpdResult> run(final List<String> lines, final Consumer<EpdResult> consumer)
+			throws InterruptedException, ExecutionException {
+		final CompletionService<EpdResult> completionService = new ExecutorCompletionService<>(this.executor);
+		for (int i = 0; i < lines.size(); i++) {
+			final int index = i;
+			completionService.submit(() -> searchPosition(index, lines.get(index)));
+		}
+		final EpdResult[] results = new EpdResult[lines.size()];
+		for (int i = 0; i < lines.size(); i++) {
+			final EpdResult result = completionService.take().get();
+			results[result.getIndex()] = result;
+			if (consumer != null) {
+				consumer.accept(result);
+			}
+		}
+		return Arrays.asList(results);
+	}
+
+	@Override
+	public void close() {
+		this.executor.shutdownNow();
+	}
+
+	/**
+	 * Searches a position of the suite
+	 * @param index The index of the position in the suite
+	 * @param line The EPD line of the position
+	 * @return The result of the position
+	 */
+	private EpdResult searchPosition(final int index, final String line) {
+		final Board board = FenUtilities.createGameFromFEN(line);
+		final List<Move> bestMoves = new ArrayList<>();
+		final List<Move> avoidMoves = new ArrayList<>();
+		String id = String.valueOf(index + 1);
+		for (final String operation : operations(line)) {
+			final String[] tokens = operation.split("\\s+");
+			for (int i = 1; i < tokens.length; i++) {
+				if (tokens[0].equals("bm")) {
+					bestMoves.add(SanUtilities.createMoveFromSan(board, tokens[i]));
+				} else if (tokens[0].equals("am")) {
+					avoidMoves.add(SanUtilities.createMoveFromSan(board, tokens[i]));
+				}
+			}
+			if (tokens[0].equals("id") && tokens.length > 1) {
+				id = operation.substring(2).trim().replace("\"", "");
+			}
+		}
+
+		final SolutionTracker tracker = new SolutionTracker(bestMoves, avoidMoves);
+		final AlphaBeta search = this.searches.get();
+		search.getTranspositionTable().clear();
+		search.setListener(tracker);
+		final SearchResult result;
+		try {
+			result = search.search(board, this.limits);
+		} finally {
+			search.setListener(null);
+		}
+		if (!tracker.isSolution(result.getBestMove())) {
+			return new EpdResult(index, id, bestMoves, avoidMoves, result, -1, -1);
+		}
+		if (tracker.solveDepth < 0) {
+			// The search stopped before the end of its first iteration
+			return new EpdResult(index, id, bestMoves, avoidMoves, result, result.getTimeMillis(), result.getDepth());
+		}
+		return new EpdResult(index, id, bestMoves, avoidMoves, result, tracker.solveTimeMillis, tracker.solveDepth);
+	}
+
+	/**
+	 * Gives the operations of an EPD line : the text after the four position fields, split at the semicolons
+	 * @param line The EPD line
+	 * @return The operations ("bm Nf3", "id \"WAC.001\"",...)
+	 */
+	private static List<String> operations(final String line) {
+		final String[] fields = line.trim().split("\\s+", 5);
+		if (fields.length < 5) {
+			return Collections.emptyList();
+		}
+		final List<String> operations = new ArrayList<>();
+		for (final String operation : fields[4].split(";")) {
+			if (!operation.trim().isEmpty()) {
+				operations.add(operation.trim());
+			}
+		}
+		return operations;
+	}
+
+	/**
+	 * Follows the iterations of a search to find when its best move solved the position for good
+	 * @author antsalin
+	 *
+	 */
+	private static final class SolutionTracker implements SearchListener {
+
+		/** The moves solving the position, empty if any move not avoided solves it */
+		private final List<Move> bestMoves;
+
+		/** The moves that must not be played */
+		private final List<Move> avoidMoves;
+
+		/** The time of the first iteration of the current run of solving iterations, -1 if none */
+		private long solveTimeMillis = -1;
+
+		/** The depth of the first iteration of the current run of solving iterations, -1 if none */
+		private int solveDepth = -1;
+
+		/**
+		 * Constructor
+		 * @param bestMoves The moves solving the position
+		 * @param avoidMoves The moves that must not be played
+		 */
+		SolutionTracker(final List<Move> bestMoves, final List<Move> avoidMoves) {
+			this.bestMoves = bestMoves;
+			this.avoidMoves = avoidMoves;
+		}
+
+		@Override
+		public void onIteration(final SearchResult result) {
+			if (result.getLineRank() != 1) {
+				return;
+			}
+			if (!isSolution(result.getBestMove())) {
+				this.solveTimeMillis = -1;
+				this.solveDepth = -1;
+			} else if (this.solveDepth < 0) {
+				this.solveTimeMillis = result.getTimeMillis();
+				this.solveDepth = result.getDepth();
+			}
+		}
+
+		/**
+		 * Tells if a move solves the position
+		 * @param move The move
+		 * @return A boolean telling whether the move is a best move and not a move to avoid
+		 */
+		boolean isSolution(final Move move) {
+			return move != null && (this.bestMoves.isEmpty() || this.bestMoves.contains(move)) &&
+					!this.avoidMoves.contains(move);
+		}
+	}
+
+	/**
+	 * Runs a test suite from the command line and prints the solved positions and the percentiles
+	 * of the time to solution.
+	 * Options : -epd file (required), -time ms (per position, default 1000), -nodes N, -depth N,
+	 * -threads N, -hash MB (size of the table of each thread)
+	 * @param args The command line options
+	 * @throws IOException If the suite can't be read
+	 * @throws InterruptedException If the run is interrupted
+	 * @throws ExecutionException If a line can't be read, or a search fails
+	 */
+	public static void main(final String[] args) throws IOException, InterruptedException, ExecutionException {
+		String epdFile = null;
+		long moveTime = 1000;
+		long nodes = -1;
+		int depth = SearchLimits.MAX_DEPTH;
+		int threads = Runtime.getRuntime().availableProcessors();
+		int hashMb = TranspositionTable.DEFAULT_SIZE_MB;
+		for (int i = 0; i + 1 < args.length; i += 2) {
+			final String value = args[i + 1];
+			switch (args[i]) {
+			case "-epd":
+				epdFile = value;
+				break;
+			case "-time":
+				moveTime = Long.parseLong(value);
+				break;
+			case "-nodes":
+				nodes = Long.parseLong(value);
+				break;
+			case "-depth":
+				depth = Integer.parseInt(value);
+				break;
+			case "-threads":
+				threads = Integer.parseInt(value);
+				break;
+			case "-hash":
+				hashMb = Integer.parseInt(value);
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown option : " + args[i]);
+			}
+		}
+		if (epdFile == null) {
+			throw new IllegalArgumentException("The test suite is required : -epd file");
+		}
+
+		final List<String> lines = new ArrayList<>();
+		for (final String line : Files.readAllLines(Paths.get(epdFile), StandardCharsets.UTF_8)) {
+			if (!line.trim().isEmpty() && !line.startsWith("#")) {
+				lines.add(line.trim());
+			}
+		}
+		final SearchLimits limits = new SearchLimits.Builder().setDepth(depth).setMoveTime(moveTime).setNodes(nodes).build();
+		final long startTime = System.currentTimeMillis();
+		final List<EpdResult> results;
+		try (EpdSuiteRunner runner = new EpdSuiteRunner(limits, threads, hashMb)) {
+			results = runner.run(lines, new Consumer<EpdResult>() {
+				@Override
+				public void accept(final EpdResult result) {
+					System.out.println(result);
+				}
+			});
+		}
+		final long elapsedMillis = Math.max(1, System.currentTimeMillis() - startTime);
+
+		final List<Long> solveTimes = new ArrayList<>();
+		long totalNodes = 0;
+		long solveDepths = 0;
+		for (final EpdResult result : results) {
+			totalNodes += result.getSearchResult().getNodes();
+			if (result.isSolved()) {
+				solveTimes.add(result.getSolveTimeMillis());
+				solveDepths += result.getSolveDepth();
+			}
+		}
+		Collections.sort(solveTimes);
+		System.out.println();
+		System.out.println(String.format("solved %d/%d (%.1f%%) in %d ms with %d threads, %d nodes/s",
+				solveTimes.size(), results.size(), 100.0 * solveTimes.size() / Math.max(1, results.size()),
+				elapsedMillis, threads, totalNodes * 1000 / elapsedMillis));
+		if (!solveTimes.isEmpty()) {
+			final StringBuilder percentiles = new StringBuilder("time to solution :");
+			for (final double percentile : PERCENTILES) {
+				final int rank = (int) Math.ceil(percentile * solveTimes.size()) - 1;
+				percentiles.append(String.format(" p%.0f %d ms,", percentile * 100, solveTimes.get(Math.max(0, rank))));
+			}
+			percentiles.append(" max ").append(solveTimes.get(solveTimes.size() - 1)).append(" ms");
+			System.out.println(percentiles);
+			System.out.println(String.format("mean depth to solution : %.1f", (double) solveDepths / solveTimes.size()));
+		}
+	}
+}
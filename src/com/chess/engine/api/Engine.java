@@ -0,0 +1,272 @@
+package com.chess.engine.api;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.BooleanSupplier;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.player.ai.AlphaBeta;
+import com.chess.engine.player.ai.BoardEvaluator;
+import com.chess.engine.player.ai.SearchLimits;
+import com.chess.engine.player.ai.SearchListener;
+import com.chess.engine.player.ai.SearchResult;
+import com.chess.engine.player.ai.StandardBoardEvaluator;
+import com.chess.engine.player.ai.TranspositionTable;
+
+/**
+ * The entry point of a program embedding the engine : the searches are asked with
+ * {@link #submit(EngineRequest)} and answered with a future, so the caller never waits for them.
+ * A fixed number of workers run the searches, the other requests wait in a bounded queue : when
+ * the queue is full, the new requests fail at once rather than piling up (backpressure).
+ * Cancelling a future removes its request from the queue, or stops its search at the next
+ * check of the clock. All the searches share the same transposition table, whose generation
+ * only changes when a search begins while no other one is running : the concurrent searches
+ * use the same generation, so that none of them ages the entries of the others
+ * @author antsalin
+ *
+ */
+public final class Engine implements AutoCloseable {
+
+	/** The threads running the searches, with the bounded queue of the waiting requests */
+	private final ThreadPoolExecutor executor;
+
+	/** The search of each worker (a search is not thread safe) */
+	private final ThreadLocal<AlphaBeta> searches;
+
+	/** The table shared by all the searches */
+	private final TranspositionTable transpositionTable;
+
+	/** The number of searches running, to start a new generation of the table when the engine was idle */
+	private final AtomicInteger runningSearches = new AtomicInteger();
+
+	/**
+	 * Constructor
+	 * @param builder The builder used to create the engine
+	 */
+	private Engine(final Builder builder) {
+		final BoardEvaluator evaluator = builder.evaluator;
+		this.transpositionTable = new TranspositionTable(builder.hashSizeMb);
+		this.searches = new ThreadLocal<AlphaBeta>() {
+			@Override
+			protected AlphaBeta initialValue() {
+				final AlphaBeta search = new AlphaBeta(evaluator, SearchLimits.MAX_DEPTH, Engine.this.transpositionTable);
+				search.setTableAging(false);
+				return search;
+			}
+		};
+		final AtomicInteger workerCount = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(builder.workers, builder.workers, 0, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<Runnable>(builder.queueCapacity), new ThreadFactory() {
+					@Override
+					public Thread newThread(final Runnable runnable) {
+						final Thread thread = new Thread(runnable, "engine-worker-" + workerCount.incrementAndGet());
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+	}
+
+	/**
+	 * Asks the best move of a board
+	 * @param board The board to search
+	 * @param limits The limits of the search
+	 * @return The future result of the search
+	 */
+	public CompletableFuture<SearchResult> bestMove(final Board board, final SearchLimits limits) {
+		return submit(new EngineRequest.Builder(board).setLimits(limits).build());
+	}
+
+	/**
+	 * Asks the analysis of a board : the listener receives the result of each iteration
+	 * (each line of each iteration in a Multi-PV search)
+	 * @param board The board to search
+	 * @param limits The limits of the search
+	 * @param listener The object notified after each iteration, from a thread of the engine
+	 * @return The future result of the search
+	 */
+	public CompletableFuture<SearchResult> analyze(final Board board, final SearchLimits limits,
+			final SearchListener listener) {
+		return submit(new EngineRequest.Builder(board).setLimits(limits).setListener(listener).build());
+	}
+
+	/**
+	 * Submits a search. The future fails with a RejectedExecutionException if the queue is full,
+	 * or with a TimeoutException if the deadline of the request passes before its search begins
+	 * @param request The search to run
+	 * @return The future result of the search
+	 */
+	public CompletableFuture<SearchResult> submit(final EngineRequest request) {
+		final CompletableFuture<SearchResult> future = new CompletableFuture<>();
+		final Runnable task = new Runnable() {
+			@Override
+			public void run() {
+				runSearch(request, future);
+			}
+		};
+		try {
+			this.executor.execute(task);
+		} catch (final RejectedExecutionException e) {
+			future.completeExceptionally(e);
+			return future;
+		}
+		future.whenComplete(new BiConsumer<SearchResult, Throwable>() {
+			@Override
+			public void accept(final SearchResult result, final Throwable error) {
+				// A request cancelled before its search began frees its place in the queue
+				Engine.this.executor.remove(task);
+			}
+		});
+		return future;
+	}
+
+	/**
+	 * Gets the number of requests waiting for a worker
+	 * @return The number of waiting requests
+	 */
+	public int getQueuedRequests() {
+		return this.executor.getQueue().size();
+	}
+
+	/**
+	 * Gets the number of searches running
+	 * @return The number of busy workers
+	 */
+	public int getRunningSearches() {
+		return this.executor.getActiveCount();
+	}
+
+	/**
+	 * Gets the table shared by all the searches
+	 * @return The transposition table
+	 */
+	public TranspositionTable getTranspositionTable() {
+		return this.transpositionTable;
+	}
+
+	/**
+	 * Stops the workers : the waiting requests are never searched, and the running searches
+	 * are interrupted
+	 */
+	@Override
+	public void close() {
+		this.executor.shutdownNow();
+	}
+
+	/**
+	 * Runs the search of a request on a worker, and completes its future
+	 * @param request The request
+	 * @param future The future of the request
+	 */
+	private void runSearch(final EngineRequest request, final CompletableFuture<SearchResult> future) {
+		if (future.isDone()) {
+			// Cancelled while waiting
+			return;
+		}
+		SearchLimits limits = request.getLimits();
+		if (request.getDeadline() >= 0) {
+			final long remainingMillis = request.getDeadline() - System.currentTimeMillis();
+			if (remainingMillis <= 0) {
+				future.completeExceptionally(new TimeoutException("The deadline passed before the search began"));
+				return;
+			}
+			limits = new SearchLimits.Builder(limits).setMoveTime(limits.isTimed() ?
+					Math.min(limits.getMoveTimeMillis(), remainingMillis) : remainingMillis).build();
+		}
+
+		final AlphaBeta search = this.searches.get();
+		search.setListener(request.getListener());
+		search.setCancellation(new BooleanSupplier() {
+			@Override
+			public boolean getAsBoolean() {
+				return future.isDone() || Thread.currentThread().isInterrupted();
+			}
+		});
+		if (this.runningSearches.getAndIncrement() == 0) {
+			this.transpositionTable.newSearch();
+		}
+		try {
+			future.complete(search.search(request.getBoard(), limits));
+		} catch (final RuntimeException e) {
+			future.completeExceptionally(e);
+		} finally {
+			this.runningSearches.decrementAndGet();
+			search.setListener(null);
+			search.setCancellation(null);
+		}
+	}
+
+	/**
+	 * Describes an engine builder
+	 * @author antsalin
+	 *
+	 */
+	public static class Builder {
+
+		/** The number of threads running the searches */
+		private int workers = Runtime.getRuntime().availableProcessors();
+
+		/** The number of requests that can wait for a worker */
+		private int queueCapacity = 256;
+
+		/** The size of the transposition table, in megabytes */
+		private int hashSizeMb = TranspositionTable.DEFAULT_SIZE_MB;
+
+		/** The function used to evaluate the leaves of the searches */
+		private BoardEvaluator evaluator = new StandardBoardEvaluator();
+
+		/**
+		 * Sets the number of threads running the searches
+		 * @param workers The number of workers
+		 * @return The new engine builder
+		 */
+		public Builder setWorkers(final int workers) {
+			this.workers = workers;
+			return this;
+		}
+
+		/**
+		 * Sets the number of requests that can wait for a worker
+		 * @param queueCapacity The capacity of the queue
+		 * @return The new engine builder
+		 */
+		public Builder setQueueCapacity(final int queueCapacity) {
+			this.queueCapacity = queueCapacity;
+			return this;
+		}
+
+		/**
+		 * Sets the size of the transposition table shared by the searches
+		 * @param hashSizeMb The size in megabytes
+		 * @return The new engine builder
+		 */
+		public Builder setHashSize(final int hashSizeMb) {
+			this.hashSizeMb = hashSizeMb;
+			return this;
+		}
+
+		/**
+		 * Sets the function used to evaluate the leaves of the searches
+		 * @param evaluator The evaluator, which must be thread safe
+		 * @return The new engine builder
+		 */
+		public Builder setEvaluator(final BoardEvaluator evaluator) {
+			this.evaluator = evaluator;
+			return this;
+		}
+
+		/**
+		 * Builds the engine and starts its workers
+		 * @return The new engine
+		 */
+		public Engine build() {
+			return new Engine(this);
+		}
+	}
+}
@@ -0,0 +1,145 @@
+package com.chess.engine.api;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.player.ai.SearchLimits;
+import com.chess.engine.player.ai.SearchListener;
+
+/**
+ * Describes a search asked to the {@link Engine} : the board, the limits of the search,
+ * the object following its progress and the time at which its answer is no longer useful
+ * @author antsalin
+ *
+ */
+public final class EngineRequest {
+
+	/** The board to search */
+	private final Board board;
+
+	/** The limits of the search */
+	private final SearchLimits limits;
+
+	/** The object notified after each iteration of the search, may be null */
+	private final SearchListener listener;
+
+	/** The time at which the search has to be over, in milliseconds (negative if none) */
+	private final long deadline;
+
+	/**
+	 * Constructor
+	 * @param builder The builder used to create the request
+	 */
+	private EngineRequest(final Builder builder) {
+		this.board = builder.board;
+		this.limits = builder.limits;
+		this.listener = builder.listener;
+		this.deadline = builder.deadline;
+	}
+
+	/**
+	 * Gets the board to search
+	 * @return The board
+	 */
+	public Board getBoard() {
+		return this.board;
+	}
+
+	/**
+	 * Gets the limits of the search
+	 * @return The search limits
+	 */
+	public SearchLimits getLimits() {
+		return this.limits;
+	}
+
+	/**
+	 * Gets the object notified after each iteration of the search
+	 * @return The listener, or null if there is none
+	 */
+	public SearchListener getListener() {
+		return this.listener;
+	}
+
+	/**
+	 * Gets the time at which the search has to be over
+	 * @return The deadline in milliseconds (as given by System.currentTimeMillis), negative if none
+	 */
+	public long getDeadline() {
+		return this.deadline;
+	}
+
+	/**
+	 * Describes an engine request builder
+	 * @author antsalin
+	 *
+	 */
+	public static class Builder {
+
+		/** The board to search */
+		private final Board board;
+
+		/** The limits of the search */
+		private SearchLimits limits = SearchLimits.depth(SearchLimits.MAX_DEPTH);
+
+		/** The object notified after each iteration */
+		private SearchListener listener;
+
+		/** The time at which the search has to be over */
+		private long deadline = -1;
+
+		/**
+		 * Constructor
+		 * @param board The board to search
+		 */
+		public Builder(final Board board) {
+			this.board = board;
+		}
+
+		/**
+		 * Sets the limits of the search
+		 * @param limits The search limits
+		 * @return The new request builder
+		 */
+		public Builder setLimits(final SearchLimits limits) {
+			this.limits = limits;
+			return this;
+		}
+
+		/**
+		 * Sets the object notified after each iteration of the search, from a thread of the engine
+		 * @param listener The listener
+		 * @return The new request builder
+		 */
+		public Builder setListener(final SearchListener listener) {
+			this.listener = listener;
+			return this;
+		}
+
+		/**
+		 * Sets the time at which the search has to be over : a request still waiting at this time
+		 * fails, and a running search stops and gives its best move
+		 * @param deadline The deadline in milliseconds (as given by System.currentTimeMillis), negative if none
+		 * @return The new request builder
+		 */
+		public Builder setDeadline(final long deadline) {
+			this.deadline = deadline;
+			return this;
+		}
+
+		/**
+		 * Sets the deadline of the search from now
+		 * @param timeoutMillis The time the request can take, waiting included, in milliseconds
+		 * @return The new request builder
+		 */
+		public Builder setTimeout(final long timeoutMillis) {
+			return setDeadline(System.currentTimeMillis() + timeoutMillis);
+		}
+
+		/**
+		 * Builds the request
+		 * @return The new request
+		 */
+		public EngineRequest build() {
+			return new EngineRequest(this);
+		}
+	}
+}
@@ -0,0 +1,245 @@
+package com.chess.engine.board;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.pieces.Piece;
+import com.chess.engine.pieces.Piece.PieceType;
+
+/**
+ * The tiles attacked by each side of a board : a bitboard of the attacked tiles
+ * (bit i is the tile i) and the number of pieces attacking each tile.
+ * A piece attacks the tiles it could capture on, so a slider attacks the tiles of its rays
+ * up to and including the first occupied tile, and a pawn attacks its two diagonal tiles.
+ * The map of a board is built from the map of the previous board : only the pieces whose
+ * attacks can have changed are recomputed, which are the pieces on the tiles the move changed
+ * and the sliders whose rays go through these tiles.
+ * @author antsalin
+ *
+ */
+final class AttackMap {
+
+	/** The row and column steps of the rook rays, followed by the bishop rays */
+	static final int[][] RAY_STEPS = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}, {-1, -1}, {-1, 1}, {1, -1}, {1, 1}};
+
+	/** Number of rook rays at the beginning of {@link #RAY_STEPS} */
+	static final int NUM_ROOK_RAYS = 4;
+
+	/** The tiles attacked by each side, indexed by alliance ordinal */
+	private final long[] attackedTiles;
+
+	/** The number of pieces attacking each tile, at (alliance ordinal * 64 + tile) */
+	private final byte[] attackerCounts;
+
+	/**
+	 * Constructor
+	 * @param attackedTiles The tiles attacked by each side
+	 * @param attackerCounts The number of pieces attacking each tile
+	 */
+	private AttackMap(final long[] attackedTiles, final byte[] attackerCounts) {
+		this.attackedTiles = attackedTiles;
+		this.attackerCounts = attackerCounts;
+	}
+
+	/**
+	 * Calculates the attack map of a board from scratch
+	 * @param boardConfig The piece of each tile (null for an empty tile)
+	 * @return The attack map
+	 */
+	static AttackMap calculate(final Piece[] boardConfig) {
+		final AttackMap map = new AttackMap(new long[2], new byte[2 * BoardUtils.NUM_TILES]);
+		for (final Piece piece : boardConfig) {
+			if (piece != null) {
+				map.addAttacks(piece, boardConfig, 1);
+			}
+		}
+		return map;
+	}
+
+	/**
+	 * Calculates the attack map of a board from the attack map of the previous board
+	 * @param previousBoard The previous board
+	 * @param boardConfig The piece of each tile of the new board (null for an empty tile)
+	 * @return The attack map of the new board
+	 */
+	static AttackMap update(final Board previousBoard, final Piece[] boardConfig) {
+		final Piece[] previousConfig = previousBoard.getBoardConfig();
+
+		// The tiles whose piece changed, and the sliders that attacked them
+		long changedTiles = 0L;
+		for (int tile = 0; tile < BoardUtils.NUM_TILES; tile++) {
+			if (previousConfig[tile] != boardConfig[tile]) {
+				changedTiles |= 1L << tile;
+			}
+		}
+		long recomputedTiles = changedTiles;
+		for (long tiles = changedTiles; tiles != 0; tiles &= tiles - 1) {
+			recomputedTiles |= findSliderAttackers(Long.numberOfTrailingZeros(tiles), previousConfig);
+		}
+
+		final AttackMap previousMap = previousBoard.getAttackMap();
+		final AttackMap map = new AttackMap(previousMap.attackedTiles.clone(), previousMap.attackerCounts.clone());
+		for (long tiles = recomputedTiles; tiles != 0; tiles &= tiles - 1) {
+			final int tile = Long.numberOfTrailingZeros(tiles);
+			if (previousConfig[tile] != null) {
+				map.addAttacks(previousConfig[tile], previousConfig, -1);
+			}
+			if (boardConfig[tile] != null) {
+				map.addAttacks(boardConfig[tile], boardConfig, 1);
+			}
+		}
+		return map;
+	}
+
+	/**
+	 * Tells if a tile is attacked by a side
+	 * @param tile The tile
+	 * @param alliance The attacking side
+	 * @return A boolean telling whether the tile is attacked or not
+	 */
+	boolean isTileAttacked(final int tile, final Alliance alliance) {
+		return (this.attackedTiles[alliance.ordinal()] & (1L << tile)) != 0;
+	}
+
+	/**
+	 * Gets the number of pieces of a side attacking a tile
+	 * @param tile The tile
+	 * @param alliance The attacking side
+	 * @return The number of attackers
+	 */
+	int getAttackerCount(final int tile, final Alliance alliance) {
+		return this.attackerCounts[alliance.ordinal() * BoardUtils.NUM_TILES + tile];
+	}
+
+	/**
+	 * Gets the tiles attacked by a side
+	 * @param alliance The attacking side
+	 * @return The bitboard of the attacked tiles
+	 */
+	long getAttackedTiles(final Alliance alliance) {
+		return this.attackedTiles[alliance.ordinal()];
+	}
+
+	/**
+	 * Finds the sliders (of both sides) attacking a tile
+	 * @param tile The tile
+	 * @param boardConfig The piece of each tile
+	 * @return The bitboard of the tiles of the sliders
+	 */
+	private static long findSliderAttackers(final int tile, final Piece[] boardConfig) {
+		long sliders = 0L;
+		for (int ray = 0; ray < RAY_STEPS.length; ray++) {
+			int row = tile / BoardUtils.NUM_TILES_PER_ROW + RAY_STEPS[ray][0];
+			int column = tile % BoardUtils.NUM_TILES_PER_ROW + RAY_STEPS[ray][1];
+			while (isOnBoard(row, column)) {
+				final Piece piece = boardConfig[row * BoardUtils.NUM_TILES_PER_ROW + column];
+				if (piece != null) {
+					if (isSliderOfRay(piece.getPieceType(), ray)) {
+						sliders |= 1L << piece.getPiecePosition();
+					}
+					break;
+				}
+				row += RAY_STEPS[ray][0];
+				column += RAY_STEPS[ray][1];
+			}
+		}
+		return sliders;
+	}
+
+	/**
+	 * Tells if a piece type slides along a ray
+	 * @param pieceType The piece type
+	 * @param ray The index of the ray in {@link #RAY_STEPS}
+	 * @return A boolean telling whether the piece slides along the ray or not
+	 */
+	static boolean isSliderOfRay(final PieceType pieceType, final int ray) {
+		if (pieceType == PieceType.QUEEN) {
+			return true;
+		}
+		return pieceType == (ray < NUM_ROOK_RAYS ? PieceType.ROOK : PieceType.BISHOP);
+	}
+
+	/**
+	 * Adds (or removes) the attacks of a piece to the attacker counts and the attacked tiles
+	 * @param piece The piece
+	 * @param boardConfig The piece of each tile, which stops the rays of the sliders
+	 * @param count 1 to add the attacks, -1 to remove them
+	 */
+	private void addAttacks(final Piece piece, final Piece[] boardConfig, final int count) {
+		final int offset = piece.getAlliance().ordinal() * BoardUtils.NUM_TILES;
+		final int row = piece.getPiecePosition() / BoardUtils.NUM_TILES_PER_ROW;
+		final int column = piece.getPiecePosition() % BoardUtils.NUM_TILES_PER_ROW;
+		switch (piece.getPieceType()) {
+		case PAWN:
+			// A pawn goes toward the higher tiles when its direction is 1
+			final int pawnRow = row + piece.getAlliance().getDirection();
+			addAttack(offset, pawnRow, column - 1, count);
+			addAttack(offset, pawnRow, column + 1, count);
+			break;
+		case KNIGHT:
+			for (final byte target : BoardUtils.KNIGHT_TARGETS[piece.getPiecePosition()]) {
+				addAttack(offset, target, count);
+			}
+			break;
+		case KING:
+			for (final byte target : BoardUtils.KING_TARGETS[piece.getPiecePosition()]) {
+				addAttack(offset, target, count);
+			}
+			break;
+		default:
+			for (int ray = 0; ray < RAY_STEPS.length; ray++) {
+				if (!isSliderOfRay(piece.getPieceType(), ray)) {
+					continue;
+				}
+				int rayRow = row + RAY_STEPS[ray][0];
+				int rayColumn = column + RAY_STEPS[ray][1];
+				while (isOnBoard(rayRow, rayColumn)) {
+					addAttack(offset, rayRow, rayColumn, count);
+					if (boardConfig[rayRow * BoardUtils.NUM_TILES_PER_ROW + rayColumn] != null) {
+						break;
+					}
+					rayRow += RAY_STEPS[ray][0];
+					rayColumn += RAY_STEPS[ray][1];
+				}
+			}
+			break;
+		}
+	}
+
+	/**
+	 * Adds (or removes) an attack on a tile, if the tile is on the board
+	 * @param offset The offset of the attacking side in the attacker counts
+	 * @param row The row of the tile
+	 * @param column The column of the tile
+	 * @param count 1 to add the attack, -1 to remove it
+	 */
+	private void addAttack(final int offset, final int row, final int column, final int count) {
+		if (isOnBoard(row, column)) {
+			addAttack(offset, row * BoardUtils.NUM_TILES_PER_ROW + column, count);
+		}
+	}
+
+	/**
+	 * Adds (or removes) an attack on a tile
+	 * @param offset The offset of the attacking side in the attacker counts
+	 * @param tile The tile
+	 * @param count 1 to add the attack, -1 to remove it
+	 */
+	private void addAttack(final int offset, final int tile, final int count) {
+		final int attackers = this.attackerCounts[offset + tile] += count;
+		final int side = offset / BoardUtils.NUM_TILES;
+		if (attackers == 0) {
+			this.attackedTiles[side] &= ~(1L << tile);
+		} else {
+			this.attackedTiles[side] |= 1L << tile;
+		}
+	}
+
+	/**
+	 * Tells if a row and a column are on the board
+	 * @param row The row
+	 * @param column The column
+	 * @return A boolean telling whether the tile is on the board or not
+	 */
+	static boolean isOnBoard(final int row, final int column) {
+		return row >= 0 && row < BoardUtils.NUM_TILES_PER_ROW && column >= 0 && column < BoardUtils.NUM_TILES_PER_ROW;
+	}
+}
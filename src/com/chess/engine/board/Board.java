@@ -2,16 +2,17 @@ package com.chess.engine.board;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 import com.chess.engine.Alliance;
+import com.chess.engine.metrics.EngineMetrics;
 import com.chess.engine.pieces.Bishop;
 import com.chess.engine.pieces.King;
 import com.chess.engine.pieces.Knight;
 import com.chess.engine.pieces.Pawn;
 import com.chess.engine.pieces.Piece;
+import com.chess.engine.pieces.Piece.PieceType;
+import com.chess.engine.pieces.PieceUtils;
 import com.chess.engine.pieces.Queen;
 import com.chess.engine.pieces.Rook;
 import com.chess.engine.player.BlackPlayer;
@@ -21,11 +22,49 @@ import com.google.common.collect.ImmutableList;
 
 public class Board {
 	
+	/** Castling state bit : white can still castle on the king side */
+	public static final int WHITE_KING_SIDE_CASTLE = 1;
+	
+	/** Castling state bit : white can still castle on the queen side */
+	public static final int WHITE_QUEEN_SIDE_CASTLE = 2;
+	
+	/** Castling state bit : black can still castle on the king side */
+	public static final int BLACK_KING_SIDE_CASTLE = 4;
+	
+	/** Castling state bit : black can still castle on the queen side */
+	public static final int BLACK_QUEEN_SIDE_CASTLE = 8;
+	
+	/** The castling state bits of all the castling rights */
+	public static final int ALL_CASTLING_RIGHTS = 15;
+	
+	/** Castling state bit : white has castled */
+	public static final int WHITE_CASTLED = 16;
+	
+	/** Castling state bit : black has castled */
+	public static final int BLACK_CASTLED = 32;
+	
+	/** The en passant tile of a board where no pawn can be taken en passant */
+	public static final int NO_EN_PASSANT = -1;
+	
+	/** The number of bits counting the pieces of one type and one alliance in the material key */
+	private static final int MATERIAL_KEY_BITS = 4;
+	
+	/**
+	 * The castling rights kept when a piece leaves or reaches each tile :
+	 * a move touching a king or rook starting tile loses the matching rights
+	 */
+	private static final int[] CASTLING_RIGHTS_MASK = initCastlingRightsMask();
+	
 	/**
 	 * A tile list that represents the game board at a moment of the game
 	 */
 	private final List<Tile> gameBoard;
 	
+	/**
+	 * The piece of each tile, indexed by tile id (null for an empty tile)
+	 */
+	private final Piece[] boardConfig;
+	
 	/**
 	 * A collection of all the active white pieces
 	 */
@@ -36,6 +75,36 @@ public class Board {
 	 */
 	private final Collection<Piece> blackPieces;
 	
+	/**
+	 * The tiles attacked by each side
+	 */
+	private final AttackMap attackMap;
+	
+	/**
+	 * The tiles occupied by the white pieces, as a bitboard
+	 */
+	private final long whiteOccupiedTiles;
+	
+	/**
+	 * The tiles occupied by the black pieces, as a bitboard
+	 */
+	private final long blackOccupiedTiles;
+	
+	/**
+	 * The castling rights and the castles already done, see {@link #WHITE_KING_SIDE_CASTLE} and {@link #WHITE_CASTLED}
+	 */
+	private final byte castlingState;
+	
+	/**
+	 * The tile a pawn can move to when taking en passant, {@link #NO_EN_PASSANT} if there is none
+	 */
+	private final byte enPassantTile;
+	
+	/**
+	 * The alliance of the player that has to move
+	 */
+	private final Alliance moveMaker;
+	
 	/**
 	 * The white player
 	 */
@@ -50,35 +119,98 @@ public class Board {
 	 * The current player
 	 */
 	private final Player currentPlayer;
+	
+	/**
+	 * The Zobrist hash of the board
+	 */
+	private final long zobristHash;
+	
+	/**
+	 * The material key of the board : the number of pieces of each type and alliance
+	 */
+	private final long materialKey;
+
+	/**
+	 * The status of the game, computed the first time it is asked
+	 */
+	private GameStatus gameStatus;
 
 	/**
 	 * Constructor
 	 * @param builder The builder used to create the game board
 	 */
 	private Board(final Builder builder) {
-		this.gameBoard = createGameBoard(builder);
+		this.boardConfig = builder.boardConfig.clone();
+		this.gameBoard = createGameBoard(this.boardConfig);
+		this.castlingState = (byte) builder.castlingState;
+		this.enPassantTile = (byte) builder.enPassantTile;
+		this.moveMaker = builder.nextMoveMaker;
 		this.whitePieces = calculateActivePieces(this.gameBoard, Alliance.WHITE);
 		this.blackPieces = calculateActivePieces(this.gameBoard, Alliance.BLACK);
+		this.whiteOccupiedTiles = calculateOccupiedTiles(this.whitePieces);
+		this.blackOccupiedTiles = calculateOccupiedTiles(this.blackPieces);
+		this.attackMap = builder.previousBoard == null ? AttackMap.calculate(builder.boardConfig)
+				: AttackMap.update(builder.previousBoard, builder.boardConfig);
 		
-		final Collection<Move> whiteStandardLegalMoves = calculateLegalMoves(this.whitePieces);
-		final Collection<Move> blackStandardLegalMoves = calculateLegalMoves(this.blackPieces);
+		final Collection<Move> whiteStandardLegalMoves = calculateLegalMoves(this.whitePieces, Alliance.WHITE);
+		final Collection<Move> blackStandardLegalMoves = calculateLegalMoves(this.blackPieces, Alliance.BLACK);
 		
 		this.whitePlayer = new WhitePlayer(this, whiteStandardLegalMoves, blackStandardLegalMoves);
 		this.blackPlayer = new BlackPlayer(this, blackStandardLegalMoves, whiteStandardLegalMoves);
 		
 		this.currentPlayer = builder.nextMoveMaker.choosePlayer(this.whitePlayer, this.blackPlayer);
+		this.zobristHash = calculateZobristHash(builder.nextMoveMaker);
+		this.materialKey = calculateMaterialKey(this.whitePieces) + calculateMaterialKey(this.blackPieces);
+		
+		if (EngineMetrics.ENABLED) {
+			EngineMetrics.boardBuilt();
+		}
+	}
+	
+	/**
+	 * Calculates the Zobrist hash of the board
+	 * @param moveMaker The player that has to move
+	 * @return The Zobrist hash of the board
+	 */
+	private long calculateZobristHash(final Alliance moveMaker) {
+		long hash = Zobrist.moveMakerKey(moveMaker) ^ Zobrist.castlingKey(this.castlingState & ALL_CASTLING_RIGHTS) ^
+				Zobrist.enPassantKey(this.enPassantTile);
+		for (final Piece piece : this.whitePieces) {
+			hash ^= Zobrist.pieceKey(piece);
+		}
+		for (final Piece piece : this.blackPieces) {
+			hash ^= Zobrist.pieceKey(piece);
+		}
+		return hash;
 	}
 
 	/**
-	 * Method that gets all the legal moves for a set of pieces
+	 * Method that gets all the legal moves for a set of pieces. The moves of all
+	 * the pawns are calculated at once, see {@link Pawn#calculatePawnMoves(Board, Alliance, long)}
 	 * @param activePieces The set of pieces
+	 * @param alliance The alliance of the pieces
 	 * @return All the legal moves
 	 */
-	private Collection<Move> calculateLegalMoves(Collection<Piece> activePieces) {
-		List<Move> legalMoves = new ArrayList<>();
-		for (Piece p: activePieces) {
-			Collection<Move> currentLegalMoves = p.calculateLegalMoves(this);
+	private Collection<Move> calculateLegalMoves(final Collection<Piece> activePieces, final Alliance alliance) {
+		final List<Move> legalMoves = new ArrayList<>();
+		long pawns = 0L;
+		for (final Piece p: activePieces) {
+			if (p.getPieceType() == PieceType.PAWN) {
+				pawns |= 1L << p.getPiecePosition();
+				continue;
+			}
+			final Collection<Move> currentLegalMoves = p.calculateLegalMoves(this);
 			legalMoves.addAll(currentLegalMoves);
+			if (EngineMetrics.ENABLED) {
+				EngineMetrics.movesGenerated(p.getPieceType(), currentLegalMoves.size());
+			}
+		}
+		if (pawns != 0) {
+			final Collection<Move> pawnMoves = Pawn.calculatePawnMoves(this, alliance, pawns);
+			legalMoves.addAll(pawnMoves);
+			if (EngineMetrics.ENABLED) {
+				EngineMetrics.movesGenerated(PieceType.PAWN, pawnMoves.size());
+			}
 		}
 		return ImmutableList.copyOf(legalMoves);
 	}
@@ -103,18 +235,97 @@ public class Board {
 	}
 
 	/**
-	 * A method that creates a game board using a builder
-	 * @param builder The builder that will be used
-	 * @return The game board generated by the builder
+	 * Calculates the material key of some pieces
+	 * @param pieces The pieces
+	 * @return The material key of the pieces, see {@link #getMaterialKey()}
 	 */
-	private List<Tile> createGameBoard(Builder builder) {
+	private static long calculateMaterialKey(final Collection<Piece> pieces) {
+		long key = 0L;
+		for (final Piece piece : pieces) {
+			if (!piece.getPieceType().isKing()) {
+				key += 1L << materialKeyShift(piece.getAlliance(), piece.getPieceType());
+			}
+		}
+		return key;
+	}
+	
+	/**
+	 * Gives the position of the count of a piece type and alliance in the material key
+	 * @param alliance The alliance
+	 * @param pieceType The piece type (not the king)
+	 * @return The position of the lowest bit of the count
+	 */
+	private static int materialKeyShift(final Alliance alliance, final PieceType pieceType) {
+		return ((alliance.isWhite() ? 0 : PieceType.KING.ordinal()) + pieceType.ordinal()) * MATERIAL_KEY_BITS;
+	}
+	
+	/**
+	 * Gets the number of pieces of a type and an alliance from a material key
+	 * @param materialKey The material key, see {@link #getMaterialKey()}
+	 * @param alliance The alliance
+	 * @param pieceType The piece type (not the king)
+	 * @return The number of pieces
+	 */
+	public static int countPieces(final long materialKey, final Alliance alliance, final PieceType pieceType) {
+		return (int) (materialKey >>> materialKeyShift(alliance, pieceType)) & ((1 << MATERIAL_KEY_BITS) - 1);
+	}
+
+	/**
+	 * Calculates the tiles occupied by some pieces
+	 * @param pieces The pieces
+	 * @return The bitboard of the tiles of the pieces
+	 */
+	private static long calculateOccupiedTiles(final Collection<Piece> pieces) {
+		long occupiedTiles = 0L;
+		for (final Piece piece : pieces) {
+			occupiedTiles |= 1L << piece.getPiecePosition();
+		}
+		return occupiedTiles;
+	}
+
+	/**
+	 * A method that creates a game board from the piece of each tile
+	 * @param boardConfig The piece of each tile
+	 * @return The game board
+	 */
+	private static List<Tile> createGameBoard(final Piece[] boardConfig) {
 		final Tile[] tiles = new Tile[BoardUtils.NUM_TILES];
 		for (int i = 0; i < BoardUtils.NUM_TILES; i++) {
-			tiles[i] = Tile.createTile(i, builder.boardConfig.get(i));
+			tiles[i] = Tile.createTile(i, boardConfig[i]);
 		}
 		return ImmutableList.copyOf(tiles);
 	}
 	
+	/**
+	 * Creates the castling rights kept when a piece leaves or reaches each tile
+	 * @return The castling rights mask of each tile
+	 */
+	private static int[] initCastlingRightsMask() {
+		final int[] mask = new int[BoardUtils.NUM_TILES];
+		for (int i = 0; i < BoardUtils.NUM_TILES; i++) {
+			mask[i] = ~0;
+		}
+		mask[0] = ~BLACK_QUEEN_SIDE_CASTLE;
+		mask[4] = ~(BLACK_KING_SIDE_CASTLE | BLACK_QUEEN_SIDE_CASTLE);
+		mask[7] = ~BLACK_KING_SIDE_CASTLE;
+		mask[56] = ~WHITE_QUEEN_SIDE_CASTLE;
+		mask[60] = ~(WHITE_KING_SIDE_CASTLE | WHITE_QUEEN_SIDE_CASTLE);
+		mask[63] = ~WHITE_KING_SIDE_CASTLE;
+		return mask;
+	}
+	
+	/**
+	 * Calculates the castling state after a move
+	 * @param castlingState The castling state before the move
+	 * @param currentCoordinate The tile the moved piece leaves
+	 * @param destinationCoordinate The tile the moved piece reaches
+	 * @return The castling state after the move
+	 */
+	static int updateCastlingState(final int castlingState, final int currentCoordinate,
+			final int destinationCoordinate) {
+		return castlingState & CASTLING_RIGHTS_MASK[currentCoordinate] & CASTLING_RIGHTS_MASK[destinationCoordinate];
+	}
+	
 	/**
 	 * Creates the initial board with all the pieces at their initial position
 	 * @return The initial board
@@ -162,8 +373,9 @@ public class Board {
 		builder.setPiece(new Knight(62, Alliance.WHITE));
 		builder.setPiece(new Rook  (63, Alliance.WHITE));
 		
-		// The white player is the first player to move
+		// The white player is the first player to move, and both players can castle
 		builder.setMoveMaker(Alliance.WHITE);
+		builder.setCastlingState(ALL_CASTLING_RIGHTS);
 		
 		return builder.build();
 	}
@@ -174,7 +386,7 @@ public class Board {
 	 * @return The tile
 	 */
 	public Tile getTile(final int tileCoord) {
-		return null;
+		return this.gameBoard.get(tileCoord);
 	}
 	
 	/**
@@ -185,6 +397,144 @@ public class Board {
 		return this.currentPlayer;
 	}
 	
+	/**
+	 * Gets the Zobrist hash of the board : two boards with the same pieces
+	 * and the same player to move have the same hash
+	 * @return The Zobrist hash of the board
+	 */
+	public long getZobristHash() {
+		return this.zobristHash;
+	}
+
+	/**
+	 * Gets the castling state of the board : the castling rights
+	 * ({@link #WHITE_KING_SIDE_CASTLE},...) and the castles already done ({@link #WHITE_CASTLED},...)
+	 * @return The castling state bits
+	 */
+	public int getCastlingState() {
+		return this.castlingState;
+	}
+	
+	/**
+	 * Tells if a castling right is still available
+	 * @param castlingRight The castling right ({@link #WHITE_KING_SIDE_CASTLE},...)
+	 * @return A boolean telling whether the right is available or not
+	 */
+	public boolean hasCastlingRight(final int castlingRight) {
+		return (this.castlingState & castlingRight) != 0;
+	}
+	
+	/**
+	 * Tells if a player has already castled
+	 * @param alliance The player
+	 * @return A boolean telling whether the player has castled or not
+	 */
+	public boolean hasCastled(final Alliance alliance) {
+		return (this.castlingState & (alliance.isWhite() ? WHITE_CASTLED : BLACK_CASTLED)) != 0;
+	}
+	
+	/**
+	 * Gets the tile a pawn can move to when taking en passant : the tile a pawn
+	 * of the opponent has just jumped over, when a pawn stands next to it
+	 * @return The en passant tile, {@link #NO_EN_PASSANT} if there is none
+	 */
+	public int getEnPassantTile() {
+		return this.enPassantTile;
+	}
+	
+	/**
+	 * Gets the alliance of the player that has to move. Unlike {@link #currentPlayer()},
+	 * it is known while the moves of the players are computed
+	 * @return The alliance of the player to move
+	 */
+	public Alliance getMoveMaker() {
+		return this.moveMaker;
+	}
+	
+	/**
+	 * Gets the tiles occupied by the pieces of a side
+	 * @param alliance The side
+	 * @return A bitboard of the occupied tiles : bit i is set when the tile i holds a piece of the side
+	 */
+	public long getOccupiedTiles(final Alliance alliance) {
+		return alliance.isWhite() ? this.whiteOccupiedTiles : this.blackOccupiedTiles;
+	}
+
+	/**
+	 * Tells if a tile is attacked by a side : the tile is attacked if a piece of this side
+	 * could capture a piece standing on it
+	 * @param tileCoord The tile coordinate
+	 * @param alliance The attacking side
+	 * @return A boolean telling whether the tile is attacked or not
+	 */
+	public boolean isTileAttacked(final int tileCoord, final Alliance alliance) {
+		return this.attackMap.isTileAttacked(tileCoord, alliance);
+	}
+
+	/**
+	 * Gets the number of pieces of a side attacking a tile
+	 * @param tileCoord The tile coordinate
+	 * @param alliance The attacking side
+	 * @return The number of attackers
+	 */
+	public int getAttackerCount(final int tileCoord, final Alliance alliance) {
+		return this.attackMap.getAttackerCount(tileCoord, alliance);
+	}
+
+	/**
+	 * Gets all the tiles attacked by a side
+	 * @param alliance The attacking side
+	 * @return A bitboard of the attacked tiles : bit i is set when the tile i is attacked
+	 */
+	public long getAttackedTiles(final Alliance alliance) {
+		return this.attackMap.getAttackedTiles(alliance);
+	}
+
+	/**
+	 * Gets the attack map of the board, used to build the attack map of the next board
+	 * @return The attack map
+	 */
+	AttackMap getAttackMap() {
+		return this.attackMap;
+	}
+
+	/**
+	 * Gets the piece of each tile, which must not be modified
+	 * @return The piece of each tile, indexed by tile id (null for an empty tile)
+	 */
+	Piece[] getBoardConfig() {
+		return this.boardConfig;
+	}
+
+	/**
+	 * Gets the material key of the board : the number of pieces of each type (kings excluded)
+	 * and alliance, 4 bits per count. Two boards with the same pieces, wherever they are,
+	 * have the same key, see {@link #countPieces(long, Alliance, PieceType)}
+	 * @return The material key
+	 */
+	public long getMaterialKey() {
+		return this.materialKey;
+	}
+
+	/**
+	 * Gets the status of the game for the player that has to move. The status is computed
+	 * the first time it is asked and then kept, as the board never changes. Two threads can
+	 * compute it at the same time, but they find the same value
+	 * @return The status of the game
+	 */
+	public GameStatus getGameStatus() {
+		GameStatus status = this.gameStatus;
+		if (status == null) {
+			if (this.currentPlayer.hasAnyLegalMove()) {
+				status = GameStatus.IN_PROGRESS;
+			} else {
+				status = this.currentPlayer.isInCheck() ? GameStatus.CHECKMATE : GameStatus.STALEMATE;
+			}
+			this.gameStatus = status;
+		}
+		return status;
+	}
+	
 	@Override
 	public String toString() {
 		final StringBuilder builder = new StringBuilder();
@@ -207,29 +557,89 @@ public class Board {
 	public static class Builder{
 		
 		/**
-		 * Associates each piece to a tile id
+		 * The piece of each tile, indexed by tile id (null for an empty tile)
 		 */
-		Map<Integer, Piece> boardConfig;
+		final Piece[] boardConfig;
 		
 		/**
 		 * Next player to move
 		 */
 		Alliance nextMoveMaker;
 		
+		/**
+		 * The board the new board comes from, if any : its attack map is updated
+		 * instead of computing the attack map of the new board from scratch
+		 */
+		Board previousBoard;
+		
+		/**
+		 * The castling rights and the castles already done
+		 */
+		int castlingState;
+		
+		/**
+		 * The tile a pawn can move to when taking en passant
+		 */
+		int enPassantTile;
+		
 		/**
 		 * Basic constructor
 		 */
 		public Builder() {
-			this.boardConfig = new HashMap<>();
+			this.boardConfig = new Piece[BoardUtils.NUM_TILES];
+			this.enPassantTile = NO_EN_PASSANT;
 		}
 		
 		/**
-		 * Puts a piece at its position in the board
+		 * Constructor starting from the pieces and the castling state of a board
+		 * @param board The board to copy
+		 */
+		public Builder(final Board board) {
+			this.boardConfig = board.boardConfig.clone();
+			this.castlingState = board.castlingState;
+			this.enPassantTile = NO_EN_PASSANT;
+		}
+		
+		/**
+		 * Puts a piece at its position in the board.
+		 * The shared instance of the piece is used, so that all the boards hold the same pieces
 		 * @param piece The piece we want to place on the board
 		 * @return The new board builder
 		 */
 		public Builder setPiece(final Piece piece) {
-			this.boardConfig.put(piece.getPiecePosition(), piece);
+			final int position = piece.getPiecePosition();
+			this.boardConfig[position] = PieceUtils.getPiece(piece.getPieceType(), piece.getAlliance(),
+					position, piece.isFirstMove());
+			return this;
+		}
+		
+		/**
+		 * Removes the piece of a tile
+		 * @param tileCoord The tile coordinate
+		 * @return The new board builder
+		 */
+		public Builder clearTile(final int tileCoord) {
+			this.boardConfig[tileCoord] = null;
+			return this;
+		}
+		
+		/**
+		 * Sets the castling state : the castling rights and the castles already done
+		 * @param castlingState The castling state bits, see {@link Board#WHITE_KING_SIDE_CASTLE} and {@link Board#WHITE_CASTLED}
+		 * @return The new board builder
+		 */
+		public Builder setCastlingState(final int castlingState) {
+			this.castlingState = castlingState;
+			return this;
+		}
+		
+		/**
+		 * Sets the tile a pawn can move to when taking en passant
+		 * @param enPassantTile The en passant tile, {@link Board#NO_EN_PASSANT} if there is none
+		 * @return The new board builder
+		 */
+		public Builder setEnPassantTile(final int enPassantTile) {
+			this.enPassantTile = enPassantTile;
 			return this;
 		}
 		
@@ -243,6 +653,16 @@ public class Board {
 			return this;
 		}
 		
+		/**
+		 * Sets the board the new board comes from, when the new board is the result of a move
+		 * @param board The previous board
+		 * @return The new board builder
+		 */
+		public Builder setPreviousBoard(final Board board) {
+			this.previousBoard = board;
+			return this;
+		}
+		
 		/**
 		 * Builds a new board
 		 * @return The new board
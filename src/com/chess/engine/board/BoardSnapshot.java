@@ -0,0 +1,176 @@
+package com.chess.engine.board;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.pieces.Piece;
+import com.chess.engine.pieces.Piece.PieceType;
+import com.chess.engine.pieces.PieceUtils;
+
+/**
+ * A compact and immutable copy of a board, to keep many positions (game histories, caches,...)
+ * without keeping their tiles, pieces, players and move lists. A snapshot holds 28 bytes : the
+ * bitboard of the occupied tiles, 4 bits for the piece of each occupied tile (in the order of the
+ * tiles, at most 32 pieces) and the player to move, the castling state and the en passant tile.
+ * The board is built again with {@link #inflate()}. As with a FEN string, the pieces of the
+ * inflated board are all marked as not moved yet : the castling state keeps the castling rights
+ * @author antsalin
+ *
+ */
+public final class BoardSnapshot {
+
+	/** The maximum number of pieces of a snapshot */
+	public static final int MAX_PIECES = 32;
+
+	/** The number of bits of the code of a piece */
+	private static final int PIECE_CODE_BITS = 4;
+
+	/** The number of piece codes stored in a long */
+	private static final int PIECES_PER_LONG = Long.SIZE / PIECE_CODE_BITS;
+
+	/** The number of piece types */
+	private static final int NUM_PIECE_TYPES = PieceType.values().length;
+
+	/** The state bit telling that black is to move */
+	private static final int BLACK_TO_MOVE = 1;
+
+	/** The shift of the castling state in the state */
+	private static final int CASTLING_SHIFT = 1;
+
+	/** The mask of the castling state, once shifted */
+	private static final int CASTLING_MASK = 0x3F;
+
+	/** The shift of the en passant tile (plus one, 0 for none) in the state */
+	private static final int EN_PASSANT_SHIFT = 7;
+
+	/** The bitboard of the occupied tiles (bit i is the tile i) */
+	private final long occupiedTiles;
+
+	/** The codes of the first 16 pieces, the first piece in the lowest bits */
+	private final long lowPieces;
+
+	/** The codes of the next 16 pieces */
+	private final long highPieces;
+
+	/** The player to move, the castling state and the en passant tile */
+	private final int state;
+
+	/**
+	 * Constructor
+	 * @param occupiedTiles The bitboard of the occupied tiles
+	 * @param lowPieces The codes of the first 16 pieces
+	 * @param highPieces The codes of the next 16 pieces
+	 * @param state The player to move, the castling state and the en passant tile
+	 */
+	private BoardSnapshot(final long occupiedTiles, final long lowPieces, final long highPieces, final int state) {
+		this.occupiedTiles = occupiedTiles;
+		this.lowPieces = lowPieces;
+		this.highPieces = highPieces;
+		this.state = state;
+	}
+
+	/**
+	 * Creates the snapshot of a board
+	 * @param board The board
+	 * @return The snapshot of the board
+	 * @throws IllegalArgumentException If the board has more than {@link #MAX_PIECES} pieces
+	 */
+	public static BoardSnapshot of(final Board board) {
+		final Piece[] boardConfig = board.getBoardConfig();
+		long occupiedTiles = 0L;
+		final long[] pieces = new long[2];
+		int count = 0;
+		for (int tile = 0; tile < BoardUtils.NUM_TILES; tile++) {
+			final Piece piece = boardConfig[tile];
+			if (piece == null) {
+				continue;
+			}
+			if (count == MAX_PIECES) {
+				throw new IllegalArgumentException("A snapshot can't hold more than " + MAX_PIECES + " pieces");
+			}
+			occupiedTiles |= 1L << tile;
+			final long code = piece.getAlliance().ordinal() * NUM_PIECE_TYPES + piece.getPieceType().ordinal();
+			pieces[count / PIECES_PER_LONG] |= code << (count % PIECES_PER_LONG * PIECE_CODE_BITS);
+			count++;
+		}
+		final int state = (board.currentPlayer().getAlliance().isBlack() ? BLACK_TO_MOVE : 0) |
+				board.getCastlingState() << CASTLING_SHIFT | (board.getEnPassantTile() + 1) << EN_PASSANT_SHIFT;
+		return new BoardSnapshot(occupiedTiles, pieces[0], pieces[1], state);
+	}
+
+	/**
+	 * Builds the board of the snapshot
+	 * @return A new board
+	 */
+	public Board inflate() {
+		final Board.Builder builder = new Board.Builder();
+		for (long tiles = this.occupiedTiles; tiles != 0; tiles &= tiles - 1) {
+			builder.setPiece(getPiece(Long.numberOfTrailingZeros(tiles)));
+		}
+		return builder.setMoveMaker(getMoveMaker())
+				.setCastlingState(getCastlingState())
+				.setEnPassantTile(getEnPassantTile())
+				.build();
+	}
+
+	/**
+	 * Gets the piece of a tile
+	 * @param tileCoord The tile coordinate
+	 * @return The shared instance of the piece, or null if the tile is empty
+	 */
+	public Piece getPiece(final int tileCoord) {
+		final long tileBit = 1L << tileCoord;
+		if ((this.occupiedTiles & tileBit) == 0) {
+			return null;
+		}
+		// The index of the piece is the number of pieces on the tiles before it
+		final int index = Long.bitCount(this.occupiedTiles & (tileBit - 1));
+		final long pieces = index < PIECES_PER_LONG ? this.lowPieces : this.highPieces;
+		final int code = (int) (pieces >>> (index % PIECES_PER_LONG * PIECE_CODE_BITS)) & ((1 << PIECE_CODE_BITS) - 1);
+		return PieceUtils.getPiece(PieceType.values()[code % NUM_PIECE_TYPES], Alliance.values()[code / NUM_PIECE_TYPES],
+				tileCoord, true);
+	}
+
+	/**
+	 * Gets the player to move
+	 * @return The alliance of the player to move
+	 */
+	public Alliance getMoveMaker() {
+		return (this.state & BLACK_TO_MOVE) != 0 ? Alliance.BLACK : Alliance.WHITE;
+	}
+
+	/**
+	 * Gets the castling state : the castling rights and the castles already done
+	 * @return The castling state bits, see {@link Board#WHITE_KING_SIDE_CASTLE} and {@link Board#WHITE_CASTLED}
+	 */
+	public int getCastlingState() {
+		return (this.state >>> CASTLING_SHIFT) & CASTLING_MASK;
+	}
+
+	/**
+	 * Gets the tile a pawn can move to when taking en passant
+	 * @return The en passant tile, {@link Board#NO_EN_PASSANT} if there is none
+	 */
+	public int getEnPassantTile() {
+		return (this.state >>> EN_PASSANT_SHIFT) - 1;
+	}
+
+	@Override
+	public boolean equals(final Object other) {
+		if (this == other) {
+			return true;
+		}
+		if (!(other instanceof BoardSnapshot)) {
+			return false;
+		}
+		final BoardSnapshot snapshot = (BoardSnapshot) other;
+		return this.occupiedTiles == snapshot.occupiedTiles && this.lowPieces == snapshot.lowPieces &&
+				this.highPieces == snapshot.highPieces && this.state == snapshot.state;
+	}
+
+	@Override
+	public int hashCode() {
+		long hash = this.occupiedTiles * 31 + this.lowPieces;
+		hash = hash * 31 + this.highPieces;
+		hash = hash * 31 + this.state;
+		return (int) (hash ^ (hash >>> 32));
+	}
+}
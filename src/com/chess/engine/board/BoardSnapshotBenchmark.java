@@ -0,0 +1,140 @@
+package com.chess.engine.board;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.chess.engine.player.MoveTransition;
+
+/**
+ * Measures the heap used by game histories kept as boards and as {@link BoardSnapshot},
+ * and the time needed to inflate the snapshots. The games are random games, played
+ * with a fixed seed so that both histories hold the same positions
+ * @author antsalin
+ *
+ */
+public final class BoardSnapshotBenchmark {
+
+	/**
+	 * Useless constructor
+	 */
+	private BoardSnapshotBenchmark() {
+		throw new RuntimeException("You can't instanciate this class");
+	}
+
+	/**
+	 * Runs the benchmark from the command line.
+	 * Options : -games N, -plies N (maximum half moves of each game), -seed N
+	 * @param args The command line options
+	 * @throws InterruptedException If the benchmark is interrupted
+	 */
+	public static void main(final String[] args) throws InterruptedException {
+		int games = 200;
+		int plies = 100;
+		long seed = 1;
+		for (int i = 0; i + 1 < args.length; i += 2) {
+			final String value = args[i + 1];
+			switch (args[i]) {
+			case "-games":
+				games = Integer.parseInt(value);
+				break;
+			case "-plies":
+				plies = Integer.parseInt(value);
+				break;
+			case "-seed":
+				seed = Long.parseLong(value);
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown option : " + args[i]);
+			}
+		}
+
+		long heapBefore = usedHeap();
+		final List<List<Board>> boardHistories = playGames(games, plies, seed);
+		final long boardBytes = usedHeap() - heapBefore;
+		final int positions = countPositions(boardHistories);
+		System.out.println(String.format("%d games, %d positions kept as boards : %d bytes, %d bytes per position",
+				games, positions, boardBytes, boardBytes / positions));
+
+		// The snapshots are measured while the boards are still alive
+		heapBefore = usedHeap();
+		final List<List<BoardSnapshot>> snapshotHistories = new ArrayList<>(games);
+		for (final List<Board> history : boardHistories) {
+			final List<BoardSnapshot> snapshots = new ArrayList<>(history.size());
+			for (final Board board : history) {
+				snapshots.add(BoardSnapshot.of(board));
+			}
+			snapshotHistories.add(snapshots);
+		}
+		final long snapshotBytes = usedHeap() - heapBefore;
+		boardHistories.clear();
+		System.out.println(String.format("%d games, %d positions kept as snapshots : %d bytes, %d bytes per position (%.1f%%)",
+				games, positions, snapshotBytes, snapshotBytes / positions, 100.0 * snapshotBytes / Math.max(1, boardBytes)));
+
+		final long start = System.nanoTime();
+		long checksum = 0;
+		for (final List<BoardSnapshot> history : snapshotHistories) {
+			for (final BoardSnapshot snapshot : history) {
+				checksum += snapshot.inflate().getZobristHash();
+			}
+		}
+		final long nanos = System.nanoTime() - start;
+		System.out.println(String.format("inflated %d snapshots in %d ms, %.1f us per board (checksum %x)",
+				positions, nanos / 1000000, nanos / 1000.0 / positions, checksum));
+	}
+
+	/**
+	 * Plays random games and keeps every board of each game
+	 * @param games The number of games
+	 * @param plies The maximum number of half moves of a game
+	 * @param seed The seed of the random moves
+	 * @return The boards of each game
+	 */
+	private static List<List<Board>> playGames(final int games, final int plies, final long seed) {
+		final Random random = new Random(seed);
+		final List<List<Board>> histories = new ArrayList<>(games);
+		for (int game = 0; game < games; game++) {
+			final List<Board> history = new ArrayList<>();
+			Board board = Board.createStandardBoard();
+			history.add(board);
+			for (int ply = 0; ply < plies && !board.getGameStatus().isGameOver(); ply++) {
+				final List<Move> moves = new ArrayList<>(board.currentPlayer().getLegalMoves());
+				MoveTransition transition;
+				do {
+					transition = board.currentPlayer().makeMove(moves.remove(random.nextInt(moves.size())));
+				} while (!transition.getMoveStatus().isDone());
+				board = transition.getTransitionBoard();
+				history.add(board);
+			}
+			histories.add(history);
+		}
+		return histories;
+	}
+
+	/**
+	 * Counts the positions of the games
+	 * @param histories The boards of each game
+	 * @return The number of boards
+	 */
+	private static int countPositions(final List<List<Board>> histories) {
+		int positions = 0;
+		for (final List<Board> history : histories) {
+			positions += history.size();
+		}
+		return Math.max(1, positions);
+	}
+
+	/**
+	 * Measures the memory used by the live objects
+	 * @return The used heap, in bytes
+	 * @throws InterruptedException If the thread is interrupted while waiting for the garbage collection
+	 */
+	private static long usedHeap() throws InterruptedException {
+		final Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+			Thread.sleep(50);
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
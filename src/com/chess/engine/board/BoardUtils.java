@@ -1,5 +1,10 @@
 package com.chess.engine.board;
 
+import java.util.HashMap;
+import java.util.Map;
+
+import com.google.common.collect.ImmutableMap;
+
 /**
  * Class used to describe some utils for the board
  * @author antho
@@ -9,26 +14,34 @@ public class BoardUtils {
 	/** Array that tells you if the position is in the first column */
 	public static final boolean[] FIRST_COLUMN = initColumn(0);
 	
-	/** Array that tells you if the position is in the second column */
-	public static final boolean[] SECOND_COLUMN = initColumn(1);
-
-	/** Array that tells you if the position is in the seventh column */
-	public static final boolean[] SEVENTH_COLUMN = initColumn(6);
-
 	/** Array that tells you if the position is in the seventh column */
 	public static final boolean[] EIGHTH_COLUMN = initColumn(7);
 	
-	/** Array that tells you if the position is in the second row */
-	public static final boolean[] SECOND_ROW = initRow(8);
-	
-	/** Array that tells you if the position is in the seventh row */
-	public static final boolean[] SEVENTH_ROW = initRow(48);
-	
 	/** Number of tiles on the board */
 	public static final int NUM_TILES = 64;
 	
 	/** Number of tiles per row */
 	public static final int NUM_TILES_PER_ROW = 8;
+	
+	/** The algebraic notation of each tile : coordinate 0 is a8, coordinate 63 is h1 */
+	public static final String[] ALGEBRAIC_NOTATION = initializeAlgebraicNotation();
+	
+	/** Associates each algebraic notation (e2, g8,...) to its tile coordinate */
+	public static final Map<String, Integer> POSITION_TO_COORDINATE = initializePositionToCoordinateMap();
+	
+	/** The tiles a knight attacks from each tile, as a bitboard : bit i is set when the tile i is attacked */
+	public static final long[] KNIGHT_ATTACKS = initLeaperAttacks(new int[][] {
+		{-2, -1}, {-2, 1}, {-1, -2}, {-1, 2}, {1, -2}, {1, 2}, {2, -1}, {2, 1}});
+	
+	/** The tiles a king attacks from each tile, as a bitboard : bit i is set when the tile i is attacked */
+	public static final long[] KING_ATTACKS = initLeaperAttacks(new int[][] {
+		{-1, -1}, {-1, 0}, {-1, 1}, {0, -1}, {0, 1}, {1, -1}, {1, 0}, {1, 1}});
+	
+	/** The tiles a knight attacks from each tile, as a list of tile coordinates */
+	public static final byte[][] KNIGHT_TARGETS = initTargets(KNIGHT_ATTACKS);
+	
+	/** The tiles a king attacks from each tile, as a list of tile coordinates */
+	public static final byte[][] KING_TARGETS = initTargets(KING_ATTACKS);
 
 	/**
 	 * Useless constructor
@@ -37,23 +50,6 @@ public class BoardUtils {
 		throw new RuntimeException("You can't instanciate this class");
 	}
 
-	/**
-	 * Function used to generate the array that tells you 
-	 * whether the coordinate is in the n row
-	 * @param rowNumber The number of the first tile
-	 * @return An array with the tiles that are in the columnNb column
-	 */
-	private static boolean[] initRow(int rowNumber) {
-		final boolean[] row = new boolean[NUM_TILES];
-		
-		do {
-			row[rowNumber] = true;
-			rowNumber++;
-		} while (rowNumber % NUM_TILES_PER_ROW != 0);
-		
-		return row;
-	}
-
 	/**
 	 * Function used to generate the array that tells you 
 	 * whether the coordinate is in the n column
@@ -71,6 +67,104 @@ public class BoardUtils {
 		return column;
 	}
 
+	/**
+	 * Function used to generate the tiles a piece jumping a fixed number of rows
+	 * and columns (a knight or a king) attacks from each tile
+	 * @param steps The row and column steps of the piece
+	 * @return The bitboard of the attacked tiles, for each tile
+	 */
+	private static long[] initLeaperAttacks(final int[][] steps) {
+		final long[] attacks = new long[NUM_TILES];
+		for (int i = 0; i < NUM_TILES; i++) {
+			final int row = i / NUM_TILES_PER_ROW;
+			final int column = i % NUM_TILES_PER_ROW;
+			for (final int[] step : steps) {
+				final int targetRow = row + step[0];
+				final int targetColumn = column + step[1];
+				// The steps going out of the board from the sides are excluded here once and for all
+				if (targetRow >= 0 && targetRow < NUM_TILES_PER_ROW && targetColumn >= 0 && targetColumn < NUM_TILES_PER_ROW) {
+					attacks[i] |= 1L << (targetRow * NUM_TILES_PER_ROW + targetColumn);
+				}
+			}
+		}
+		return attacks;
+	}
+
+	/**
+	 * Function used to turn bitboards of attacked tiles into lists of tile coordinates
+	 * @param attacks The bitboard of the attacked tiles, for each tile
+	 * @return The coordinates of the attacked tiles, for each tile
+	 */
+	private static byte[][] initTargets(final long[] attacks) {
+		final byte[][] targets = new byte[NUM_TILES][];
+		for (int i = 0; i < NUM_TILES; i++) {
+			targets[i] = new byte[Long.bitCount(attacks[i])];
+			int index = 0;
+			for (long tiles = attacks[i]; tiles != 0; tiles &= tiles - 1) {
+				targets[i][index++] = (byte) Long.numberOfTrailingZeros(tiles);
+			}
+		}
+		return targets;
+	}
+
+	/**
+	 * Function used to generate the algebraic notation of all the tiles
+	 * @return An array with the algebraic notation of each tile
+	 */
+	private static String[] initializeAlgebraicNotation() {
+		final String[] notation = new String[NUM_TILES];
+		for (int i = 0; i < NUM_TILES; i++) {
+			final char file = (char) ('a' + (i % NUM_TILES_PER_ROW));
+			final int rank = NUM_TILES_PER_ROW - (i / NUM_TILES_PER_ROW);
+			notation[i] = "" + file + rank;
+		}
+		return notation;
+	}
+
+	/**
+	 * Function used to generate the map that gives the coordinate of a tile
+	 * from its algebraic notation
+	 * @return An immutable map associating each algebraic notation to its coordinate
+	 */
+	private static Map<String, Integer> initializePositionToCoordinateMap() {
+		final Map<String, Integer> positionToCoordinate = new HashMap<>();
+		for (int i = 0; i < NUM_TILES; i++) {
+			positionToCoordinate.put(ALGEBRAIC_NOTATION[i], i);
+		}
+		return ImmutableMap.copyOf(positionToCoordinate);
+	}
+
+	/**
+	 * Tells if a text is the algebraic notation of a tile
+	 * @param position The text
+	 * @return A boolean telling whether the text names a tile (e2, g8,...) or not
+	 */
+	public static boolean isValidTilePosition(final String position) {
+		return POSITION_TO_COORDINATE.containsKey(position);
+	}
+
+	/**
+	 * Gets the coordinate of a tile from its algebraic notation
+	 * @param position The algebraic notation of the tile (e2, g8,...)
+	 * @return The coordinate of the tile
+	 */
+	public static int getCoordinateAtPosition(final String position) {
+		final Integer coordinate = POSITION_TO_COORDINATE.get(position);
+		if (coordinate == null) {
+			throw new IllegalArgumentException("Invalid tile position : " + position);
+		}
+		return coordinate;
+	}
+
+	/**
+	 * Gets the algebraic notation of a tile from its coordinate
+	 * @param coordinate The coordinate of the tile
+	 * @return The algebraic notation of the tile (e2, g8,...)
+	 */
+	public static String getPositionAtCoordinate(final int coordinate) {
+		return ALGEBRAIC_NOTATION[coordinate];
+	}
+
 	/**
 	 * Function that tells if a destination coordinate is valid
 	 * (if it doesn't go out of bounds)
@@ -0,0 +1,32 @@
+package com.chess.engine.board;
+
+/**
+ * Describes the status of a game from the point of view of the player that has to move
+ * @author antho
+ *
+ */
+public enum GameStatus {
+
+	IN_PROGRESS {
+		@Override
+		public boolean isGameOver() {
+			return false;
+		}
+	}, CHECKMATE {
+		@Override
+		public boolean isGameOver() {
+			return true;
+		}
+	}, STALEMATE {
+		@Override
+		public boolean isGameOver() {
+			return true;
+		}
+	};
+
+	/**
+	 * Tells if the game is over or not
+	 * @return A boolean telling whether the game is over or not
+	 */
+	public abstract boolean isGameOver();
+}
@@ -1,7 +1,11 @@
 package com.chess.engine.board;
 
+import java.util.Objects;
+
 import com.chess.engine.board.Board.Builder;
 import com.chess.engine.pieces.Piece;
+import com.chess.engine.pieces.Piece.PieceType;
+import com.chess.engine.pieces.PieceUtils;
 
 /**
  * Class used to represent a chess move
@@ -51,12 +55,135 @@ public abstract class Move {
 	public Piece getMovedPiece() {
 		return this.movedPiece;
 	}
+	
+	/**
+	 * Gets the coordinate the moved piece is leaving
+	 * @return The current coordinate of the moved piece
+	 */
+	public int getCurrentCoordinate() {
+		return this.movedPiece.getPiecePosition();
+	}
+	
+	/**
+	 * Gets the board in which the move is done
+	 * @return The board in which the move is done
+	 */
+	public Board getBoard() {
+		return this.board;
+	}
+	
+	/**
+	 * Tells if the move captures a piece
+	 * @return A boolean telling whether the move is a capture or not
+	 */
+	public boolean isAttack() {
+		return false;
+	}
+	
+	/**
+	 * Gets the piece captured by this move
+	 * @return The captured piece, or null if the move is not a capture
+	 */
+	public Piece getAttackedPiece() {
+		return null;
+	}
 
 	/**
-	 * Executes the move : creates a new board in which the move is done
+	 * Gets the type of the piece a pawn is promoted to
+	 * @return The type of the new piece, or null if the move is not a promotion
+	 */
+	public PieceType getPromotionType() {
+		return null;
+	}
+
+	/**
+	 * Tells if the move is a castle
+	 * @return A boolean telling whether the move is a castle or not
+	 */
+	public boolean isCastlingMove() {
+		return false;
+	}
+
+	/**
+	 * Executes the move : creates a new board in which the move is done.
+	 * The new board starts from a copy of the pieces of the current board,
+	 * and only the tiles touched by the move are changed
 	 * @return A new board in which the move has been made
 	 */
-	public abstract Board execute();
+	public Board execute() {
+		final Builder builder = new Builder(this.board);
+		placePieces(builder);
+		builder.setCastlingState(calculateCastlingState());
+		builder.setEnPassantTile(calculateEnPassantTile());
+		builder.setMoveMaker(this.board.currentPlayer().getOpponent().getAlliance());
+		builder.setPreviousBoard(this.board);
+		
+		return builder.build();
+	}
+
+	/**
+	 * Changes the tiles touched by the move : the captured piece is removed,
+	 * and the moved piece leaves its tile for the destination tile
+	 * @param builder The builder of the new board, holding the pieces of the current board
+	 */
+	void placePieces(final Builder builder) {
+		final Piece attackedPiece = getAttackedPiece();
+		if (attackedPiece != null) {
+			builder.clearTile(attackedPiece.getPiecePosition());
+		}
+		builder.clearTile(getCurrentCoordinate());
+		builder.setPiece(this.movedPiece.movePiece(this));
+	}
+
+	/**
+	 * Calculates the castling state of the new board
+	 * @return The castling state once the move is done
+	 */
+	int calculateCastlingState() {
+		return Board.updateCastlingState(this.board.getCastlingState(), getCurrentCoordinate(), this.destinationCoord);
+	}
+
+	/**
+	 * Calculates the en passant tile of the new board
+	 * @return The en passant tile once the move is done, {@link Board#NO_EN_PASSANT} if there is none
+	 */
+	int calculateEnPassantTile() {
+		return Board.NO_EN_PASSANT;
+	}
+	
+	@Override
+	public boolean equals(final Object other) {
+		if (this == other) {
+			return true;
+		}
+		if (!(other instanceof Move)) {
+			return false;
+		}
+		// Two moves are equal when they move the same piece to the same tile,
+		// capture the same piece and promote to the same type
+		final Move otherMove = (Move) other;
+		return this.destinationCoord == otherMove.destinationCoord &&
+				this.movedPiece.equals(otherMove.movedPiece) &&
+				Objects.equals(getAttackedPiece(), otherMove.getAttackedPiece()) &&
+				getPromotionType() == otherMove.getPromotionType();
+	}
+
+	@Override
+	public int hashCode() {
+		int result = this.movedPiece.hashCode();
+		result = 31 * result + this.destinationCoord;
+		result = 31 * result + Objects.hashCode(getAttackedPiece());
+		result = 31 * result + Objects.hashCode(getPromotionType());
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		// Coordinate notation : e2e4, g8f6,...
+		final String notation = BoardUtils.getPositionAtCoordinate(getCurrentCoordinate()) +
+				BoardUtils.getPositionAtCoordinate(this.destinationCoord);
+		return getPromotionType() == null ? notation : notation + getPromotionType().toString().toLowerCase();
+	}
 	
 	/**
 	 * Class used to describe a major move
@@ -75,29 +202,6 @@ public abstract class Move {
 			super(board, movedPiece, destinationaCoord);
 		}
 
-		@Override
-		public Board execute() {
-			final Builder builder = new Builder();
-			//TODO : create a hashcode and equals methods for the Piece class
-			// Setting up all the current player's pieces except the one he has moved
-			for (final Piece piece : this.board.currentPlayer().getActivePieces()) {
-				if (!this.movedPiece.equals(piece)) {
-					builder.setPiece(piece);
-				}
-			}
-			
-			// Setting up all the opponent player's pieces
-			for (final Piece piece : this.board.currentPlayer().getOpponent().getActivePieces()) {
-				builder.setPiece(piece);
-			}
-			
-			// Setting up the piece moved by the current player and changing the current player
-			builder.setPiece(this.movedPiece.movePiece(this));
-			builder.setMoveMaker(this.board.currentPlayer().getOpponent().getAlliance());
-			
-			return builder.build();
-		}
-		
 	}
 	
 	/**
@@ -124,10 +228,296 @@ public abstract class Move {
 		}
 
 		@Override
-		public Board execute() {
-			return null;
+		public boolean isAttack() {
+			return true;
+		}
+
+		@Override
+		public Piece getAttackedPiece() {
+			return this.attackedPiece;
+		}
+		
+	}
+	
+	/**
+	 * Class used to describe the first move of a pawn, jumping over a tile
+	 * @author antho
+	 */
+	public static final class PawnJump extends Move {
+		
+		/**
+		 * Constructor
+		 * @param board The board in which the move is done
+		 * @param movedPiece The pawn that was moved
+		 * @param destinationCoord The destination coordinate
+		 */
+		public PawnJump(final Board board, final Piece movedPiece, final int destinationCoord) {
+			super(board, movedPiece, destinationCoord);
+		}
+
+		@Override
+		int calculateEnPassantTile() {
+			// The tile jumped over is only kept when an enemy pawn stands next to the pawn, so
+			// that the boards where no pawn can be taken en passant keep the same hash
+			final int column = this.destinationCoord % BoardUtils.NUM_TILES_PER_ROW;
+			if ((column > 0 && isEnemyPawn(this.destinationCoord - 1)) ||
+					(column < BoardUtils.NUM_TILES_PER_ROW - 1 && isEnemyPawn(this.destinationCoord + 1))) {
+				return (getCurrentCoordinate() + this.destinationCoord) / 2;
+			}
+			return Board.NO_EN_PASSANT;
+		}
+
+		/**
+		 * Tells if a tile holds a pawn of the opponent
+		 * @param tileCoord The tile coordinate
+		 * @return A boolean telling whether the tile holds an enemy pawn or not
+		 */
+		private boolean isEnemyPawn(final int tileCoord) {
+			final Piece piece = this.board.getTile(tileCoord).getPiece();
+			return piece != null && piece.getPieceType() == PieceType.PAWN &&
+					piece.getAlliance() != this.movedPiece.getAlliance();
+		}
+	}
+	
+	/**
+	 * Class used to describe a pawn taking en passant a pawn that has just jumped
+	 * @author antho
+	 */
+	public static final class EnPassantAttack extends Move {
+		
+		/**
+		 * The pawn that is being taken
+		 */
+		final Piece attackedPiece;
+		
+		/**
+		 * Constructor
+		 * @param board The board in which the move is done
+		 * @param movedPiece The pawn that was moved
+		 * @param destinationCoord The destination coordinate (the en passant tile)
+		 * @param attackedPiece The pawn that is being taken, next to the moved pawn
+		 */
+		public EnPassantAttack(final Board board, final Piece movedPiece, final int destinationCoord,
+				final Piece attackedPiece) {
+			super(board, movedPiece, destinationCoord);
+			this.attackedPiece = attackedPiece;
+		}
+
+		@Override
+		public boolean isAttack() {
+			return true;
+		}
+
+		@Override
+		public Piece getAttackedPiece() {
+			return this.attackedPiece;
+		}
+	}
+	
+	/**
+	 * Class used to describe a pawn reaching the last row and becoming another piece
+	 * @author antho
+	 */
+	public static final class PawnPromotion extends Move {
+		
+		/**
+		 * The piece that is being attacked, null if the pawn does not capture
+		 */
+		final Piece attackedPiece;
+		
+		/**
+		 * The type of the piece the pawn becomes
+		 */
+		final PieceType promotionType;
+		
+		/**
+		 * Constructor
+		 * @param board The board in which the move is done
+		 * @param movedPiece The pawn that was moved
+		 * @param destinationCoord The destination coordinate
+		 * @param attackedPiece The piece that is being attacked, null if the pawn does not capture
+		 * @param promotionType The type of the piece the pawn becomes
+		 */
+		public PawnPromotion(final Board board, final Piece movedPiece, final int destinationCoord,
+				final Piece attackedPiece, final PieceType promotionType) {
+			super(board, movedPiece, destinationCoord);
+			this.attackedPiece = attackedPiece;
+			this.promotionType = promotionType;
+		}
+
+		@Override
+		public boolean isAttack() {
+			return this.attackedPiece != null;
+		}
+
+		@Override
+		public Piece getAttackedPiece() {
+			return this.attackedPiece;
+		}
+
+		@Override
+		public PieceType getPromotionType() {
+			return this.promotionType;
+		}
+
+		@Override
+		void placePieces(final Builder builder) {
+			builder.clearTile(getCurrentCoordinate());
+			builder.setPiece(PieceUtils.getPiece(this.promotionType, this.movedPiece.getAlliance(),
+					this.destinationCoord, false));
+		}
+	}
+	
+	/**
+	 * Class used to describe a castle : the king moves two tiles toward a rook,
+	 * and the rook jumps over the king
+	 * @author antho
+	 */
+	public static final class CastleMove extends Move {
+		
+		/**
+		 * The rook moved with the king
+		 */
+		final Piece castleRook;
+		
+		/**
+		 * The destination coordinate of the rook
+		 */
+		final int castleRookDestination;
+		
+		/**
+		 * Constructor
+		 * @param board The board in which the move is done
+		 * @param movedPiece The king
+		 * @param destinationCoord The destination coordinate of the king
+		 * @param castleRook The rook moved with the king
+		 * @param castleRookDestination The destination coordinate of the rook
+		 */
+		public CastleMove(final Board board, final Piece movedPiece, final int destinationCoord,
+				final Piece castleRook, final int castleRookDestination) {
+			super(board, movedPiece, destinationCoord);
+			this.castleRook = castleRook;
+			this.castleRookDestination = castleRookDestination;
+		}
+
+		/**
+		 * Gets the rook moved with the king
+		 * @return The rook
+		 */
+		public Piece getCastleRook() {
+			return this.castleRook;
+		}
+
+		/**
+		 * Tells if the castle is on the king side
+		 * @return A boolean telling whether the castle is on the king side or not
+		 */
+		public boolean isKingSideCastle() {
+			return this.destinationCoord > getCurrentCoordinate();
+		}
+
+		@Override
+		public boolean isCastlingMove() {
+			return true;
+		}
+
+		@Override
+		void placePieces(final Builder builder) {
+			builder.clearTile(getCurrentCoordinate());
+			builder.clearTile(this.castleRook.getPiecePosition());
+			builder.setPiece(this.movedPiece.movePiece(this));
+			builder.setPiece(PieceUtils.getMovedRook(this.castleRook.getAlliance(), this.castleRookDestination));
 		}
+
+		@Override
+		int calculateCastlingState() {
+			return super.calculateCastlingState() |
+					(this.movedPiece.getAlliance().isWhite() ? Board.WHITE_CASTLED : Board.BLACK_CASTLED);
+		}
+	}
+	
+	/**
+	 * Class used to find a move from its coordinates
+	 * @author antho
+	 */
+	public static final class MoveFactory {
 		
+		/**
+		 * Useless constructor
+		 */
+		private MoveFactory() {
+			throw new RuntimeException("You can't instanciate this class");
+		}
+		
+		/**
+		 * Finds a move of the current player from its coordinates
+		 * @param board The board in which the move is done
+		 * @param currentCoordinate The coordinate of the moved piece
+		 * @param destinationCoordinate The destination coordinate
+		 * @return The move, or null if the current player has no such move
+		 */
+		public static Move createMove(final Board board, final int currentCoordinate, final int destinationCoordinate) {
+			return createMove(board, currentCoordinate, destinationCoordinate, null);
+		}
+
+		/**
+		 * Finds a move of the current player from its coordinates and its promotion
+		 * @param board The board in which the move is done
+		 * @param currentCoordinate The coordinate of the moved piece
+		 * @param destinationCoordinate The destination coordinate
+		 * @param promotionType The type of the piece a pawn is promoted to, null if the move is not a promotion
+		 * @return The move, or null if the current player has no such move
+		 */
+		public static Move createMove(final Board board, final int currentCoordinate, final int destinationCoordinate,
+				final PieceType promotionType) {
+			return board.currentPlayer().findLegalMove(currentCoordinate, destinationCoordinate, promotionType);
+		}
+		
+		/**
+		 * Finds a move of the current player from its coordinate notation
+		 * @param board The board in which the move is done
+		 * @param notation The coordinate notation of the move (e2e4, g8f6, e7e8q,...)
+		 * @return The move, or null if the notation is invalid or the current player has no such move
+		 */
+		public static Move createMove(final Board board, final String notation) {
+			if (notation.length() < 4 || notation.length() > 5) {
+				return null;
+			}
+			final String currentPosition = notation.substring(0, 2);
+			final String destinationPosition = notation.substring(2, 4);
+			if (!BoardUtils.isValidTilePosition(currentPosition) || !BoardUtils.isValidTilePosition(destinationPosition)) {
+				return null;
+			}
+			PieceType promotionType = null;
+			if (notation.length() == 5) {
+				promotionType = getPromotionType(notation.charAt(4));
+				if (promotionType == null) {
+					return null;
+				}
+			}
+			return createMove(board, BoardUtils.getCoordinateAtPosition(currentPosition),
+					BoardUtils.getCoordinateAtPosition(destinationPosition), promotionType);
+		}
+
+		/**
+		 * Gives the promotion type matching a letter of the coordinate notation
+		 * @param letter The letter (n, b, r or q)
+		 * @return The type of the piece, or null if the letter is not a promotion
+		 */
+		private static PieceType getPromotionType(final char letter) {
+			switch (Character.toLowerCase(letter)) {
+			case 'n':
+				return PieceType.KNIGHT;
+			case 'b':
+				return PieceType.BISHOP;
+			case 'r':
+				return PieceType.ROOK;
+			case 'q':
+				return PieceType.QUEEN;
+			default:
+				return null;
+			}
+		}
 	}
 	
 }
@@ -0,0 +1,317 @@
+package com.chess.engine.board;
+
+import java.util.Collection;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.pieces.Pawn;
+import com.chess.engine.pieces.Piece;
+import com.chess.engine.pieces.Piece.PieceType;
+
+/**
+ * Counts the legal moves of a side without creating them nor the boards they lead to.
+ * The king, its checkers and the pieces pinned against it are found once, which gives
+ * for each piece the tiles it is allowed to reach : the count of its moves is then
+ * the number of bits of its targets restricted to these tiles.
+ * The castles are not counted here, as they are calculated by the players
+ * @author antsalin
+ *
+ */
+public final class MoveCounter {
+
+	/** The board */
+	private final Board board;
+
+	/** The side whose moves are counted */
+	private final Alliance alliance;
+
+	/** The side of the opponent */
+	private final Alliance opponent;
+
+	/** The tile of the king of the side */
+	private final int kingTile;
+
+	/** The tiles of the pieces of the side */
+	private final long ownTiles;
+
+	/** The tiles of all the pieces */
+	private final long occupiedTiles;
+
+	/** The number of pieces giving check */
+	private final int checkers;
+
+	/** The tiles a piece can move to in order to stop the check, all the tiles if there is no check */
+	private long checkMask;
+
+	/** The tiles behind the king on the rays of the sliders giving check : the king can't escape there */
+	private long kingXRays;
+
+	/** For each tile holding a pinned piece, the tiles of the ray it can still move along, 0 for the other tiles */
+	private final long[] pinRays = new long[BoardUtils.NUM_TILES];
+
+	/**
+	 * Constructor : finds the checkers and the pinned pieces
+	 * @param board The board
+	 * @param alliance The side whose moves are counted
+	 */
+	private MoveCounter(final Board board, final Alliance alliance) {
+		this.board = board;
+		this.alliance = alliance;
+		this.opponent = alliance.isWhite() ? Alliance.BLACK : Alliance.WHITE;
+		this.kingTile = (alliance.isWhite() ? board.getWhitePlayer() : board.getBlackPlayer()).getPlayerKing()
+				.getPiecePosition();
+		this.ownTiles = board.getOccupiedTiles(alliance);
+		this.occupiedTiles = this.ownTiles | board.getOccupiedTiles(this.opponent);
+		this.checkers = board.getAttackerCount(this.kingTile, this.opponent);
+		findSliderChecksAndPins();
+		if (this.checkers == 0) {
+			this.checkMask = ~0L;
+		} else if (this.checkMask == 0) {
+			// The only checker is a knight or a pawn : it has to be captured
+			this.checkMask = findLeaperCheckers();
+		}
+	}
+
+	/**
+	 * Counts the legal moves of a side, castles excluded
+	 * @param board The board
+	 * @param alliance The side
+	 * @return The number of legal moves of the side
+	 */
+	public static int countLegalMoves(final Board board, final Alliance alliance) {
+		final MoveCounter counter = new MoveCounter(board, alliance);
+		int count = counter.countKingMoves();
+		if (counter.checkers > 1) {
+			// Only the king can escape a double check
+			return count;
+		}
+		final Collection<Piece> pieces = alliance.isWhite() ? board.getWhitePieces() : board.getBlackPieces();
+		long pawns = 0L;
+		for (final Piece piece : pieces) {
+			final int position = piece.getPiecePosition();
+			if (piece.getPieceType() == PieceType.PAWN && counter.pinRays[position] == 0) {
+				// The pawns that are not pinned are counted all at once
+				pawns |= 1L << position;
+			} else if (!piece.getPieceType().isKing()) {
+				count += counter.countPieceMoves(piece);
+			}
+		}
+		return count + Pawn.countPawnMoves(board, alliance, pawns, counter.checkMask) +
+				counter.countEnPassantMoves(pawns);
+	}
+
+	/**
+	 * Counts the legal moves of a piece, castles excluded
+	 * @param board The board
+	 * @param piece The piece
+	 * @return The number of legal moves of the piece
+	 */
+	public static int countLegalMoves(final Board board, final Piece piece) {
+		final MoveCounter counter = new MoveCounter(board, piece.getAlliance());
+		if (piece.getPieceType().isKing()) {
+			return counter.countKingMoves();
+		}
+		return counter.checkers > 1 ? 0 : counter.countPieceMoves(piece);
+	}
+
+	/**
+	 * Counts the moves of the king : the tiles around it that are not attacked
+	 * @return The number of moves of the king
+	 */
+	private int countKingMoves() {
+		return Long.bitCount(BoardUtils.KING_ATTACKS[this.kingTile] & ~this.ownTiles &
+				~this.board.getAttackedTiles(this.opponent) & ~this.kingXRays);
+	}
+
+	/**
+	 * Counts the moves of a piece other than the king, when there is at most one checker
+	 * @param piece The piece
+	 * @return The number of moves of the piece
+	 */
+	private int countPieceMoves(final Piece piece) {
+		final int position = piece.getPiecePosition();
+		final long allowedTiles = this.checkMask & (this.pinRays[position] == 0 ? ~0L : this.pinRays[position]);
+		switch (piece.getPieceType()) {
+		case PAWN:
+			return Pawn.countPawnMoves(this.board, this.alliance, 1L << position, allowedTiles) +
+					countEnPassantMoves(1L << position);
+		case KNIGHT:
+			return Long.bitCount(BoardUtils.KNIGHT_ATTACKS[position] & ~this.ownTiles & allowedTiles);
+		default:
+			return Long.bitCount(calculateSliderTargets(position, piece.getPieceType()) & ~this.ownTiles & allowedTiles);
+		}
+	}
+
+	/**
+	 * Counts the legal en passant captures of some pawns. Two pawns leave the row of the
+	 * en passant tile, so each capture is checked by looking at the king rays once it is done
+	 * @param pawns The tiles of the pawns, as a bitboard
+	 * @return The number of legal en passant captures
+	 */
+	private int countEnPassantMoves(final long pawns) {
+		final int enPassantTile = this.board.getEnPassantTile();
+		if (enPassantTile == Board.NO_EN_PASSANT) {
+			return 0;
+		}
+		final int forward = this.alliance.getDirection() * BoardUtils.NUM_TILES_PER_ROW;
+		final int jumpedPawnTile = enPassantTile - forward;
+		final int column = enPassantTile % BoardUtils.NUM_TILES_PER_ROW;
+		int count = 0;
+		// The capturing pawns stand next to the jumped pawn
+		if (column > 0 && (pawns & (1L << (jumpedPawnTile - 1))) != 0 &&
+				!isKingAttackedAfter(jumpedPawnTile - 1, jumpedPawnTile, enPassantTile)) {
+			count++;
+		}
+		if (column < BoardUtils.NUM_TILES_PER_ROW - 1 && (pawns & (1L << (jumpedPawnTile + 1))) != 0 &&
+				!isKingAttackedAfter(jumpedPawnTile + 1, jumpedPawnTile, enPassantTile)) {
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Tells if the king is attacked after an en passant capture
+	 * @param pawnTile The tile of the capturing pawn
+	 * @param jumpedPawnTile The tile of the captured pawn
+	 * @param enPassantTile The destination of the capturing pawn
+	 * @return A boolean telling whether the king is attacked or not
+	 */
+	private boolean isKingAttackedAfter(final int pawnTile, final int jumpedPawnTile, final int enPassantTile) {
+		final Piece[] boardConfig = this.board.getBoardConfig();
+		final long occupied = (this.occupiedTiles & ~(1L << pawnTile) & ~(1L << jumpedPawnTile)) | (1L << enPassantTile);
+		// The checks of the knights and of the pawns other than the captured one are not stopped by the capture
+		final long leaperCheckers = findLeaperCheckers() & ~(1L << jumpedPawnTile);
+		if (leaperCheckers != 0) {
+			return true;
+		}
+		for (int ray = 0; ray < AttackMap.RAY_STEPS.length; ray++) {
+			final int tile = findFirstPiece(this.kingTile, ray, occupied);
+			if (tile >= 0 && boardConfig[tile] != null && boardConfig[tile].getAlliance() == this.opponent &&
+					AttackMap.isSliderOfRay(boardConfig[tile].getPieceType(), ray)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Walks the rays of the king : the sliders of the opponent found first give check,
+	 * and the ones found behind a single piece of the side pin it
+	 */
+	private void findSliderChecksAndPins() {
+		final Piece[] boardConfig = this.board.getBoardConfig();
+		for (int ray = 0; ray < AttackMap.RAY_STEPS.length; ray++) {
+			final int rowStep = AttackMap.RAY_STEPS[ray][0];
+			final int columnStep = AttackMap.RAY_STEPS[ray][1];
+			int row = this.kingTile / BoardUtils.NUM_TILES_PER_ROW + rowStep;
+			int column = this.kingTile % BoardUtils.NUM_TILES_PER_ROW + columnStep;
+			long rayTiles = 0L;
+			int pinnedTile = -1;
+			while (AttackMap.isOnBoard(row, column)) {
+				final int tile = row * BoardUtils.NUM_TILES_PER_ROW + column;
+				rayTiles |= 1L << tile;
+				final Piece piece = boardConfig[tile];
+				if (piece != null) {
+					if (piece.getAlliance() == this.alliance) {
+						if (pinnedTile >= 0) {
+							// Two pieces of the side on the ray : none of them is pinned
+							break;
+						}
+						pinnedTile = tile;
+					} else {
+						if (AttackMap.isSliderOfRay(piece.getPieceType(), ray)) {
+							if (pinnedTile < 0) {
+								this.checkMask |= rayTiles;
+								final int behindRow = this.kingTile / BoardUtils.NUM_TILES_PER_ROW - rowStep;
+								final int behindColumn = this.kingTile % BoardUtils.NUM_TILES_PER_ROW - columnStep;
+								if (AttackMap.isOnBoard(behindRow, behindColumn)) {
+									this.kingXRays |= 1L << (behindRow * BoardUtils.NUM_TILES_PER_ROW + behindColumn);
+								}
+							} else {
+								this.pinRays[pinnedTile] = rayTiles;
+							}
+						}
+						break;
+					}
+				}
+				row += rowStep;
+				column += columnStep;
+			}
+		}
+	}
+
+	/**
+	 * Finds the knights and the pawns of the opponent attacking the king
+	 * @return The tiles of these pieces, as a bitboard
+	 */
+	private long findLeaperCheckers() {
+		final Piece[] boardConfig = this.board.getBoardConfig();
+		long checkerTiles = 0L;
+		for (final byte tile : BoardUtils.KNIGHT_TARGETS[this.kingTile]) {
+			final Piece piece = boardConfig[tile];
+			if (piece != null && piece.getAlliance() == this.opponent && piece.getPieceType() == PieceType.KNIGHT) {
+				checkerTiles |= 1L << tile;
+			}
+		}
+		// An enemy pawn attacks the king from the row in front of the king, from the point of view of the side
+		final int pawnRow = this.kingTile / BoardUtils.NUM_TILES_PER_ROW + this.alliance.getDirection();
+		final int column = this.kingTile % BoardUtils.NUM_TILES_PER_ROW;
+		for (int pawnColumn = column - 1; pawnColumn <= column + 1; pawnColumn += 2) {
+			if (AttackMap.isOnBoard(pawnRow, pawnColumn)) {
+				final int tile = pawnRow * BoardUtils.NUM_TILES_PER_ROW + pawnColumn;
+				final Piece piece = boardConfig[tile];
+				if (piece != null && piece.getAlliance() == this.opponent && piece.getPieceType() == PieceType.PAWN) {
+					checkerTiles |= 1L << tile;
+				}
+			}
+		}
+		return checkerTiles;
+	}
+
+	/**
+	 * Calculates the tiles a slider attacks
+	 * @param position The tile of the slider
+	 * @param pieceType The type of the slider
+	 * @return The attacked tiles, as a bitboard
+	 */
+	private long calculateSliderTargets(final int position, final PieceType pieceType) {
+		long targets = 0L;
+		for (int ray = 0; ray < AttackMap.RAY_STEPS.length; ray++) {
+			if (!AttackMap.isSliderOfRay(pieceType, ray)) {
+				continue;
+			}
+			int row = position / BoardUtils.NUM_TILES_PER_ROW + AttackMap.RAY_STEPS[ray][0];
+			int column = position % BoardUtils.NUM_TILES_PER_ROW + AttackMap.RAY_STEPS[ray][1];
+			while (AttackMap.isOnBoard(row, column)) {
+				final int tile = row * BoardUtils.NUM_TILES_PER_ROW + column;
+				targets |= 1L << tile;
+				if ((this.occupiedTiles & (1L << tile)) != 0) {
+					break;
+				}
+				row += AttackMap.RAY_STEPS[ray][0];
+				column += AttackMap.RAY_STEPS[ray][1];
+			}
+		}
+		return targets;
+	}
+
+	/**
+	 * Finds the first occupied tile of a ray
+	 * @param tile The start of the ray
+	 * @param ray The index of the ray in {@link AttackMap#RAY_STEPS}
+	 * @param occupied The occupied tiles, as a bitboard
+	 * @return The first occupied tile, -1 if the ray reaches the side of the board
+	 */
+	private static int findFirstPiece(final int tile, final int ray, final long occupied) {
+		int row = tile / BoardUtils.NUM_TILES_PER_ROW + AttackMap.RAY_STEPS[ray][0];
+		int column = tile % BoardUtils.NUM_TILES_PER_ROW + AttackMap.RAY_STEPS[ray][1];
+		while (AttackMap.isOnBoard(row, column)) {
+			final int current = row * BoardUtils.NUM_TILES_PER_ROW + column;
+			if ((occupied & (1L << current)) != 0) {
+				return current;
+			}
+			row += AttackMap.RAY_STEPS[ray][0];
+			column += AttackMap.RAY_STEPS[ray][1];
+		}
+		return -1;
+	}
+}
@@ -26,7 +26,7 @@ public class OccupiedTile extends Tile {
 
 	@Override
 	public boolean isTileOccupied() {
-		return false;
+		return true;
 	}
 
 	@Override
@@ -0,0 +1,98 @@
+package com.chess.engine.board;
+
+import java.util.Random;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.pieces.Piece;
+
+/**
+ * Class used to compute the Zobrist hash of a board : a 64 bits key
+ * that is (almost) unique for each position
+ * @author antho
+ */
+public final class Zobrist {
+
+	/** The seed of the random keys : always the same so that the hashes are reproducible */
+	private static final long SEED = 0x5EED_C4E55L;
+
+	/** A random key for each piece type, alliance and tile */
+	private static final long[][] PIECE_KEYS = new long[2 * 6][BoardUtils.NUM_TILES];
+
+	/** The key added when the black player has to move */
+	private static final long BLACK_TO_MOVE_KEY;
+
+	/** A key for each combination of castling rights, the key of no right being 0 */
+	private static final long[] CASTLING_KEYS = new long[Board.ALL_CASTLING_RIGHTS + 1];
+
+	/** A random key for each column of the en passant tile */
+	private static final long[] EN_PASSANT_KEYS = new long[BoardUtils.NUM_TILES_PER_ROW];
+
+	static {
+		final Random random = new Random(SEED);
+		for (int i = 0; i < PIECE_KEYS.length; i++) {
+			for (int j = 0; j < BoardUtils.NUM_TILES; j++) {
+				PIECE_KEYS[i][j] = random.nextLong();
+			}
+		}
+		BLACK_TO_MOVE_KEY = random.nextLong();
+		// One random key per castling right, the key of several rights is the xor of their keys
+		final long[] castlingRightKeys = new long[4];
+		for (int i = 0; i < castlingRightKeys.length; i++) {
+			castlingRightKeys[i] = random.nextLong();
+		}
+		for (int rights = 0; rights < CASTLING_KEYS.length; rights++) {
+			for (int i = 0; i < castlingRightKeys.length; i++) {
+				if ((rights & (1 << i)) != 0) {
+					CASTLING_KEYS[rights] ^= castlingRightKeys[i];
+				}
+			}
+		}
+		for (int i = 0; i < EN_PASSANT_KEYS.length; i++) {
+			EN_PASSANT_KEYS[i] = random.nextLong();
+		}
+	}
+
+	/**
+	 * Useless constructor
+	 */
+	private Zobrist() {
+		throw new RuntimeException("You can't instanciate this class");
+	}
+
+	/**
+	 * Gets the key of a piece on its tile
+	 * @param piece The piece
+	 * @return The random key of the piece
+	 */
+	public static long pieceKey(final Piece piece) {
+		final int index = piece.getPieceType().ordinal() + (piece.getAlliance().isWhite() ? 0 : 6);
+		return PIECE_KEYS[index][piece.getPiecePosition()];
+	}
+
+	/**
+	 * Gets the key of the player to move
+	 * @param moveMaker The player to move
+	 * @return The random key of the player to move
+	 */
+	public static long moveMakerKey(final Alliance moveMaker) {
+		return moveMaker.isBlack() ? BLACK_TO_MOVE_KEY : 0L;
+	}
+
+	/**
+	 * Gets the key of the castling rights
+	 * @param castlingRights The castling rights bits, see {@link Board#WHITE_KING_SIDE_CASTLE}
+	 * @return The key of the castling rights, 0 if there is none
+	 */
+	public static long castlingKey(final int castlingRights) {
+		return CASTLING_KEYS[castlingRights & Board.ALL_CASTLING_RIGHTS];
+	}
+
+	/**
+	 * Gets the key of the en passant tile
+	 * @param enPassantTile The en passant tile, {@link Board#NO_EN_PASSANT} if there is none
+	 * @return The key of the en passant tile, 0 if there is none
+	 */
+	public static long enPassantKey(final int enPassantTile) {
+		return enPassantTile == Board.NO_EN_PASSANT ? 0L : EN_PASSANT_KEYS[enPassantTile % BoardUtils.NUM_TILES_PER_ROW];
+	}
+}
@@ -0,0 +1,46 @@
+package com.chess.engine.index;
+
+/**
+ * A game read from a game archive
+ * @author antsalin
+ *
+ */
+public final class ArchivedGame {
+
+	/** The offset of the game in the archive, in bytes */
+	private final long offset;
+
+	/** The moves of the game, in coordinate notation, separated by spaces */
+	private final String moves;
+
+	/**
+	 * Constructor
+	 * @param offset The offset of the game in the archive
+	 * @param moves The moves of the game
+	 */
+	ArchivedGame(final long offset, final String moves) {
+		this.offset = offset;
+		this.moves = moves;
+	}
+
+	/**
+	 * Gets the offset of the game in the archive
+	 * @return The offset, in bytes
+	 */
+	public long getOffset() {
+		return this.offset;
+	}
+
+	/**
+	 * Gets the moves of the game
+	 * @return The moves in coordinate notation, separated by spaces
+	 */
+	public String getMoves() {
+		return this.moves;
+	}
+
+	@Override
+	public String toString() {
+		return this.offset + " : " + this.moves;
+	}
+}
@@ -0,0 +1,28 @@
+package com.chess.engine.index;
+
+/**
+ * Iterates over index entries (position hash, game offset) sorted by hash, then by offset.
+ * The hashes are compared as unsigned numbers
+ * @author antsalin
+ *
+ */
+interface EntryCursor {
+
+	/**
+	 * Moves to the next entry
+	 * @return False if there is no more entry
+	 */
+	boolean next();
+
+	/**
+	 * Gets the position hash of the current entry
+	 * @return The hash
+	 */
+	long getHash();
+
+	/**
+	 * Gets the game offset of the current entry
+	 * @return The offset of the game in the archive
+	 */
+	long getOffset();
+}
@@ -0,0 +1,138 @@
+package com.chess.engine.index;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import com.chess.engine.board.Move;
+
+/**
+ * A file holding games, one game per line : the moves from the standard position,
+ * in coordinate notation, separated by spaces. The lines starting with # are ignored.
+ * A game is identified by its offset in the file, which never changes as the games are only appended.
+ * @author antsalin
+ *
+ */
+public final class GameArchive {
+
+	/** The path of the archive */
+	private final Path path;
+
+	/**
+	 * Constructor
+	 * @param path The path of the archive
+	 */
+	public GameArchive(final Path path) {
+		this.path = path;
+	}
+
+	/**
+	 * Gets the path of the archive
+	 * @return The path
+	 */
+	public Path getPath() {
+		return this.path;
+	}
+
+	/**
+	 * Gets the size of the archive
+	 * @return The size in bytes, 0 if the archive does not exist yet
+	 * @throws IOException If the size can't be read
+	 */
+	public long length() throws IOException {
+		return Files.exists(this.path) ? Files.size(this.path) : 0;
+	}
+
+	/**
+	 * Appends a game to the archive
+	 * @param moves The moves of the game
+	 * @return The offset of the game
+	 * @throws IOException If the archive can't be written
+	 */
+	public synchronized long appendGame(final List<Move> moves) throws IOException {
+		final StringBuilder line = new StringBuilder();
+		for (final Move move : moves) {
+			if (line.length() > 0) {
+				line.append(' ');
+			}
+			line.append(move);
+		}
+		line.append('\n');
+		final long offset = length();
+		Files.write(this.path, line.toString().getBytes(StandardCharsets.US_ASCII),
+				StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+		return offset;
+	}
+
+	/**
+	 * Reads the game at an offset
+	 * @param offset The offset of the game
+	 * @return The moves of the game
+	 * @throws IOException If the archive can't be read
+	 */
+	public String readGame(final long offset) throws IOException {
+		try (RandomAccessFile file = new RandomAccessFile(this.path.toFile(), "r")) {
+			file.seek(offset);
+			final InputStream input = new BufferedInputStream(Channels.newInputStream(file.getChannel()));
+			return readLine(input);
+		}
+	}
+
+	/**
+	 * Reads games
+	 * @param fromOffset The offset of the first game to read
+	 * @param maxGames The maximum number of games to read
+	 * @param games The list receiving the games
+	 * @return The offset following the last game read
+	 * @throws IOException If the archive can't be read
+	 */
+	public long readGames(final long fromOffset, final int maxGames, final List<ArchivedGame> games)
+			throws IOException {
+		long offset = fromOffset;
+		try (RandomAccessFile file = new RandomAccessFile(this.path.toFile(), "r")) {
+			file.seek(fromOffset);
+			final InputStream input = new BufferedInputStream(Channels.newInputStream(file.getChannel()), 1 << 16);
+			int count = 0;
+			while (count < maxGames) {
+				final String line = readLine(input);
+				if (line == null) {
+					break;
+				}
+				if (!line.isEmpty() && !line.startsWith("#")) {
+					games.add(new ArchivedGame(offset, line));
+					count++;
+				}
+				// The archive is ASCII : one byte per character, plus the end of line
+				offset += line.length() + 1;
+			}
+		}
+		return offset;
+	}
+
+	/**
+	 * Reads a line of ASCII text
+	 * @param input The stream
+	 * @return The line without its end, or null at the end of the stream or on an unfinished line
+	 * @throws IOException If the stream can't be read
+	 */
+	private static String readLine(final InputStream input) throws IOException {
+		final ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+		int c;
+		while ((c = input.read()) != '\n') {
+			if (c < 0) {
+				// A line still being written is read at the next update
+				return null;
+			}
+			line.write(c);
+		}
+		return new String(line.toByteArray(), StandardCharsets.US_ASCII);
+	}
+}
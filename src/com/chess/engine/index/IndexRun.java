@@ -0,0 +1,250 @@
+package com.chess.engine.index;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+
+/**
+ * A sorted run of the position index : an immutable file of entries (position hash, game offset)
+ * sorted by unsigned hash, then by offset. The file is memory mapped, and its fence pointers
+ * (the first hash of each block of {@link #BLOCK_ENTRIES} entries, one disk page) are kept in memory,
+ * so that a lookup reads the pages holding the searched hash and nothing else.
+ * <pre>
+ * header : magic, number of entries, number of blocks, archive length indexed (4 longs)
+ * entries : hash, offset (2 longs each)
+ * fences : first hash of each block (1 long each)
+ * </pre>
+ * @author antsalin
+ *
+ */
+final class IndexRun {
+
+	/** The first bytes of a run file */
+	private static final long MAGIC = 0x4348494458303031L; // "CHIDX001"
+
+	/** Size of the header, in bytes */
+	private static final int HEADER_SIZE = 4 * Long.BYTES;
+
+	/** Size of an entry, in bytes */
+	private static final int ENTRY_SIZE = 2 * Long.BYTES;
+
+	/** Number of entries in a block : a block is a 4 KB page */
+	static final int BLOCK_ENTRIES = 4096 / ENTRY_SIZE;
+
+	/** The maximum number of entries of a run, so that a run can be mapped at once */
+	static final int MAX_ENTRIES = (Integer.MAX_VALUE - HEADER_SIZE) / (ENTRY_SIZE + Long.BYTES);
+
+	/** The path of the run */
+	private final Path path;
+
+	/** The mapped file */
+	private final MappedByteBuffer buffer;
+
+	/** The number of entries */
+	private final int size;
+
+	/** The length of the archive indexed when the run was written */
+	private final long archiveLength;
+
+	/** The first hash of each block */
+	private final long[] fences;
+
+	/**
+	 * Constructor : maps a run file
+	 * @param path The path of the run
+	 * @throws IOException If the file can't be read or is not a run
+	 */
+	IndexRun(final Path path) throws IOException {
+		this.path = path;
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		if (this.buffer.capacity() < HEADER_SIZE || this.buffer.getLong(0) != MAGIC) {
+			throw new IOException("Not an index run : " + path);
+		}
+		this.size = (int) this.buffer.getLong(Long.BYTES);
+		final int blocks = (int) this.buffer.getLong(2 * Long.BYTES);
+		this.archiveLength = this.buffer.getLong(3 * Long.BYTES);
+		this.fences = new long[blocks];
+		final int fencesPosition = HEADER_SIZE + this.size * ENTRY_SIZE;
+		for (int i = 0; i < blocks; i++) {
+			this.fences[i] = this.buffer.getLong(fencesPosition + i * Long.BYTES);
+		}
+	}
+
+	/**
+	 * Finds the games that reached a position
+	 * @param hash The hash of the position
+	 * @param offsets The collection receiving the offsets of the games
+	 */
+	void find(final long hash, final Collection<Long> offsets) {
+		// The last block beginning strictly before the hash : the entries of the hash can begin in it
+		int low = 0;
+		int high = this.fences.length - 1;
+		int block = 0;
+		while (low <= high) {
+			final int middle = (low + high) >>> 1;
+			if (Long.compareUnsigned(this.fences[middle], hash) < 0) {
+				block = middle;
+				low = middle + 1;
+			} else {
+				high = middle - 1;
+			}
+		}
+		for (int i = block * BLOCK_ENTRIES; i < this.size; i++) {
+			final int comparison = Long.compareUnsigned(getHash(i), hash);
+			if (comparison > 0) {
+				break;
+			}
+			if (comparison == 0) {
+				offsets.add(getOffset(i));
+			}
+		}
+	}
+
+	/**
+	 * Gets the hash of an entry
+	 * @param index The index of the entry
+	 * @return The position hash
+	 */
+	private long getHash(final int index) {
+		return this.buffer.getLong(HEADER_SIZE + index * ENTRY_SIZE);
+	}
+
+	/**
+	 * Gets the offset of an entry
+	 * @param index The index of the entry
+	 * @return The game offset
+	 */
+	private long getOffset(final int index) {
+		return this.buffer.getLong(HEADER_SIZE + index * ENTRY_SIZE + Long.BYTES);
+	}
+
+	/**
+	 * Gets the number of entries
+	 * @return The number of entries
+	 */
+	int size() {
+		return this.size;
+	}
+
+	/**
+	 * Gets the length of the archive indexed when the run was written : the games
+	 * beginning after it are in the next runs
+	 * @return The length of the archive, in bytes
+	 */
+	long getArchiveLength() {
+		return this.archiveLength;
+	}
+
+	/**
+	 * Gets the path of the run
+	 * @return The path
+	 */
+	Path getPath() {
+		return this.path;
+	}
+
+	/**
+	 * Creates a cursor over the entries
+	 * @return The cursor, placed before the first entry
+	 */
+	EntryCursor cursor() {
+		return new EntryCursor() {
+			/** The index of the current entry */
+			private int index = -1;
+
+			@Override
+			public boolean next() {
+				return ++this.index < IndexRun.this.size;
+			}
+
+			@Override
+			public long getHash() {
+				return IndexRun.this.getHash(this.index);
+			}
+
+			@Override
+			public long getOffset() {
+				return IndexRun.this.getOffset(this.index);
+			}
+		};
+	}
+
+	/**
+	 * Writes a run from sorted entries. The file is written next to its final path
+	 * and then renamed, so that a run is never seen half written
+	 * @param path The path of the run
+	 * @param entries The entries, sorted by unsigned hash then offset : the duplicates are removed
+	 * @param archiveLength The length of the archive indexed by this run and the previous ones
+	 * @return The number of entries written
+	 * @throws IOException If the run can't be written
+	 */
+	static int write(final Path path, final EntryCursor entries, final long archiveLength) throws IOException {
+		final Path temporaryPath = path.resolveSibling(path.getFileName() + ".tmp");
+		final PositionEntries fences = new PositionEntries(1024);
+		int size = 0;
+		try (FileChannel channel = FileChannel.open(temporaryPath, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			final ByteBuffer output = ByteBuffer.allocateDirect(1 << 16);
+			channel.position(HEADER_SIZE);
+			long previousHash = 0;
+			long previousOffset = -1;
+			while (entries.next()) {
+				final long hash = entries.getHash();
+				final long offset = entries.getOffset();
+				if (hash == previousHash && offset == previousOffset) {
+					continue;
+				}
+				if (size == MAX_ENTRIES) {
+					throw new IOException("Too many entries for one run");
+				}
+				if (size % BLOCK_ENTRIES == 0) {
+					fences.add(hash, 0);
+				}
+				if (output.remaining() < ENTRY_SIZE) {
+					flush(channel, output);
+				}
+				output.putLong(hash).putLong(offset);
+				previousHash = hash;
+				previousOffset = offset;
+				size++;
+			}
+			final EntryCursor fenceCursor = fences.cursor();
+			while (fenceCursor.next()) {
+				if (output.remaining() < Long.BYTES) {
+					flush(channel, output);
+				}
+				output.putLong(fenceCursor.getHash());
+			}
+			flush(channel, output);
+
+			output.putLong(MAGIC).putLong(size).putLong(fences.size()).putLong(archiveLength);
+			output.flip();
+			channel.write(output, 0);
+			channel.force(true);
+		}
+		Files.move(temporaryPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		return size;
+	}
+
+	/**
+	 * Writes the content of a buffer to a file
+	 * @param channel The file
+	 * @param output The buffer, emptied
+	 * @throws IOException If the file can't be written
+	 */
+	private static void flush(final FileChannel channel, final ByteBuffer output) throws IOException {
+		output.flip();
+		while (output.hasRemaining()) {
+			channel.write(output);
+		}
+		output.clear();
+	}
+}
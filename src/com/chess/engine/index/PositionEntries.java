@@ -0,0 +1,113 @@
+package com.chess.engine.index;
+
+import java.util.Arrays;
+
+/**
+ * A growable list of index entries (position hash, game offset) held in primitive arrays
+ * @author antsalin
+ *
+ */
+final class PositionEntries {
+
+	/** The position hashes */
+	private long[] hashes;
+
+	/** The game offsets, at the same index as their hash */
+	private long[] offsets;
+
+	/** The number of entries */
+	private int size;
+
+	/**
+	 * Constructor
+	 * @param capacity The initial capacity
+	 */
+	PositionEntries(final int capacity) {
+		this.hashes = new long[Math.max(16, capacity)];
+		this.offsets = new long[this.hashes.length];
+	}
+
+	/**
+	 * Adds an entry
+	 * @param hash The position hash
+	 * @param offset The game offset
+	 */
+	void add(final long hash, final long offset) {
+		if (this.size == this.hashes.length) {
+			this.hashes = Arrays.copyOf(this.hashes, this.size * 2);
+			this.offsets = Arrays.copyOf(this.offsets, this.size * 2);
+		}
+		this.hashes[this.size] = hash;
+		this.offsets[this.size] = offset;
+		this.size++;
+	}
+
+	/**
+	 * Gets the number of entries
+	 * @return The number of entries
+	 */
+	int size() {
+		return this.size;
+	}
+
+	/**
+	 * Sorts the entries by unsigned hash. The sort is a radix sort on the 8 bytes of the hashes :
+	 * it is stable, so the entries added in offset order stay in offset order for the same hash
+	 */
+	void sort() {
+		long[] hashes = this.hashes;
+		long[] offsets = this.offsets;
+		long[] sortedHashes = new long[this.size];
+		long[] sortedOffsets = new long[this.size];
+		final int[] counts = new int[257];
+		for (int shift = 0; shift < Long.SIZE; shift += Byte.SIZE) {
+			Arrays.fill(counts, 0);
+			for (int i = 0; i < this.size; i++) {
+				counts[(int) (hashes[i] >>> shift & 0xFF) + 1]++;
+			}
+			for (int b = 0; b < 256; b++) {
+				counts[b + 1] += counts[b];
+			}
+			for (int i = 0; i < this.size; i++) {
+				final int target = counts[(int) (hashes[i] >>> shift & 0xFF)]++;
+				sortedHashes[target] = hashes[i];
+				sortedOffsets[target] = offsets[i];
+			}
+			final long[] swapHashes = hashes;
+			final long[] swapOffsets = offsets;
+			hashes = sortedHashes;
+			offsets = sortedOffsets;
+			sortedHashes = swapHashes;
+			sortedOffsets = swapOffsets;
+		}
+		// After an even number of passes, the sorted entries are back in the first arrays
+		this.hashes = hashes;
+		this.offsets = offsets;
+	}
+
+	/**
+	 * Creates a cursor over the entries
+	 * @return The cursor, placed before the first entry
+	 */
+	EntryCursor cursor() {
+		return new EntryCursor() {
+			/** The index of the current entry */
+			private int index = -1;
+
+			@Override
+			public boolean next() {
+				return ++this.index < PositionEntries.this.size;
+			}
+
+			@Override
+			public long getHash() {
+				return PositionEntries.this.hashes[this.index];
+			}
+
+			@Override
+			public long getOffset() {
+				return PositionEntries.this.offsets[this.index];
+			}
+		};
+	}
+}
@@ -0,0 +1,332 @@
+package com.chess.engine.index;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+import com.chess.engine.board.Move.MoveFactory;
+import com.chess.pgn.FenUtilities;
+
+/**
+ * Index of the positions reached by the games of an archive : for a position hash
+ * (see {@link Board#getZobristHash()}), it gives the offsets of the games that reached it.
+ * The index is a directory of sorted runs (see {@link IndexRun}). Each update replays the games
+ * appended to the archive since the previous update, in parallel, and writes them as new runs;
+ * {@link #compact()} merges all the runs into one.
+ * @author antsalin
+ *
+ */
+public final class PositionIndex {
+
+	/** The number of games indexed in one run by an update */
+	private static final int GAMES_PER_RUN = 100000;
+
+	/** The average number of positions of a game, used to size the buffers */
+	private static final int POSITIONS_PER_GAME = 80;
+
+	/** The name of the runs, followed by their number */
+	private static final String RUN_PREFIX = "run-";
+
+	/** The extension of the runs */
+	private static final String RUN_SUFFIX = ".idx";
+
+	/** The directory of the index */
+	private final Path directory;
+
+	/** The runs, from the oldest to the newest */
+	private final List<IndexRun> runs;
+
+	/** The number of the next run */
+	private int nextRunNumber;
+
+	/**
+	 * Constructor : opens an index, creating its directory if needed
+	 * @param directory The directory of the index
+	 * @throws IOException If the index can't be read
+	 */
+	public PositionIndex(final Path directory) throws IOException {
+		this.directory = directory;
+		this.runs = new ArrayList<>();
+		Files.createDirectories(directory);
+		final List<Path> paths = new ArrayList<>();
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, RUN_PREFIX + "*" + RUN_SUFFIX)) {
+			for (final Path path : stream) {
+				paths.add(path);
+			}
+		}
+		// The run numbers have a fixed width : the names sort like the numbers
+		paths.sort(null);
+		for (final Path path : paths) {
+			this.runs.add(new IndexRun(path));
+			this.nextRunNumber = Math.max(this.nextRunNumber, runNumber(path) + 1);
+		}
+	}
+
+	/**
+	 * Gets the length of the archive already indexed
+	 * @return The length, in bytes
+	 */
+	public synchronized long getIndexedLength() {
+		return this.runs.isEmpty() ? 0 : this.runs.get(this.runs.size() - 1).getArchiveLength();
+	}
+
+	/**
+	 * Gets the number of runs of the index
+	 * @return The number of runs
+	 */
+	public synchronized int getRunCount() {
+		return this.runs.size();
+	}
+
+	/**
+	 * Indexes the games appended to an archive since the last update
+	 * @param archive The archive
+	 * @param threads The number of threads replaying the games
+	 * @return The number of games indexed
+	 * @throws IOException If the archive can't be read or the index can't be written
+	 */
+	public synchronized int update(final GameArchive archive, final int threads) throws IOException {
+		int indexedGames = 0;
+		long offset = getIndexedLength();
+		while (offset < archive.length()) {
+			final List<ArchivedGame> games = new ArrayList<>();
+			final long nextOffset = archive.readGames(offset, GAMES_PER_RUN, games);
+			if (nextOffset == offset) {
+				// Only an unfinished line remains
+				break;
+			}
+			final List<PositionEntries> chunks = replayGames(games, threads);
+			final Path path = this.directory.resolve(String.format("%s%06d%s", RUN_PREFIX, this.nextRunNumber++, RUN_SUFFIX));
+			final List<EntryCursor> cursors = new ArrayList<>();
+			for (final PositionEntries chunk : chunks) {
+				cursors.add(chunk.cursor());
+			}
+			IndexRun.write(path, merge(cursors), nextOffset);
+			this.runs.add(new IndexRun(path));
+			indexedGames += games.size();
+			offset = nextOffset;
+		}
+		return indexedGames;
+	}
+
+	/**
+	 * Replays games in parallel : each thread replays a chunk of the games and sorts its entries
+	 * @param games The games
+	 * @param threads The number of threads
+	 * @return The sorted entries of each chunk
+	 */
+	private static List<PositionEntries> replayGames(final List<ArchivedGame> games, final int threads) {
+		final int chunkCount = Math.max(1, Math.min(games.size(), threads * 4));
+		final List<PositionEntries> chunks = new ArrayList<>();
+		for (int c = 0; c < chunkCount; c++) {
+			chunks.add(null);
+		}
+		final ForkJoinPool pool = new ForkJoinPool(threads);
+		try {
+			pool.submit(() -> IntStream.range(0, chunkCount).parallel().forEach(c -> {
+				final int start = (int) ((long) games.size() * c / chunkCount);
+				final int end = (int) ((long) games.size() * (c + 1) / chunkCount);
+				final PositionEntries entries = new PositionEntries((end - start) * POSITIONS_PER_GAME);
+				for (int i = start; i < end; i++) {
+					replayGame(games.get(i), entries);
+				}
+				entries.sort();
+				chunks.set(c, entries);
+			})).get();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("The indexing was interrupted", e);
+		} catch (final ExecutionException e) {
+			throw new IllegalStateException("A game could not be replayed", e.getCause());
+		} finally {
+			pool.shutdown();
+		}
+		return chunks;
+	}
+
+	/**
+	 * Replays a game and adds its positions to the entries. The moves are executed without
+	 * checking that they leave the king safe : the games of the archive were legal when played.
+	 * A game stops at its first unknown move
+	 * @param game The game
+	 * @param entries The entries receiving the positions of the game
+	 */
+	private static void replayGame(final ArchivedGame game, final PositionEntries entries) {
+		Board board = Board.createStandardBoard();
+		entries.add(board.getZobristHash(), game.getOffset());
+		for (final String notation : game.getMoves().trim().split("\\s+")) {
+			if (notation.isEmpty()) {
+				continue;
+			}
+			final Move move = MoveFactory.createMove(board, notation);
+			if (move == null) {
+				return;
+			}
+			board = move.execute();
+			entries.add(board.getZobristHash(), game.getOffset());
+		}
+	}
+
+	/**
+	 * Finds the games that reached a position
+	 * @param hash The hash of the position
+	 * @return The offsets of the games in the archive, in increasing order
+	 */
+	public synchronized List<Long> findGames(final long hash) {
+		final TreeSet<Long> offsets = new TreeSet<>();
+		for (final IndexRun run : this.runs) {
+			run.find(hash, offsets);
+		}
+		return new ArrayList<>(offsets);
+	}
+
+	/**
+	 * Finds the games that reached a position
+	 * @param board The position
+	 * @return The offsets of the games in the archive, in increasing order
+	 */
+	public List<Long> findGames(final Board board) {
+		return findGames(board.getZobristHash());
+	}
+
+	/**
+	 * Merges all the runs into one
+	 * @throws IOException If the index can't be written
+	 */
+	public synchronized void compact() throws IOException {
+		if (this.runs.size() <= 1) {
+			return;
+		}
+		final List<EntryCursor> cursors = new ArrayList<>();
+		for (final IndexRun run : this.runs) {
+			cursors.add(run.cursor());
+		}
+		final Path path = this.directory.resolve(String.format("%s%06d%s", RUN_PREFIX, this.nextRunNumber++, RUN_SUFFIX));
+		IndexRun.write(path, merge(cursors), getIndexedLength());
+		for (final IndexRun run : this.runs) {
+			Files.delete(run.getPath());
+		}
+		this.runs.clear();
+		this.runs.add(new IndexRun(path));
+	}
+
+	/**
+	 * Merges sorted cursors into one sorted cursor
+	 * @param cursors The sorted cursors
+	 * @return The merged cursor
+	 */
+	private static EntryCursor merge(final List<EntryCursor> cursors) {
+		final PriorityQueue<EntryCursor> queue = new PriorityQueue<>(Math.max(1, cursors.size()),
+				(cursor1, cursor2) -> {
+					final int comparison = Long.compareUnsigned(cursor1.getHash(), cursor2.getHash());
+					return comparison != 0 ? comparison : Long.compare(cursor1.getOffset(), cursor2.getOffset());
+				});
+		for (final EntryCursor cursor : cursors) {
+			if (cursor.next()) {
+				queue.add(cursor);
+			}
+		}
+		return new EntryCursor() {
+			/** The cursor holding the current entry */
+			private EntryCursor current;
+
+			@Override
+			public boolean next() {
+				if (this.current != null && this.current.next()) {
+					queue.add(this.current);
+				}
+				this.current = queue.poll();
+				return this.current != null;
+			}
+
+			@Override
+			public long getHash() {
+				return this.current.getHash();
+			}
+
+			@Override
+			public long getOffset() {
+				return this.current.getOffset();
+			}
+		};
+	}
+
+	/**
+	 * Gives the number of a run from its path
+	 * @param path The path of the run
+	 * @return The number of the run
+	 */
+	private static int runNumber(final Path path) {
+		final String name = path.getFileName().toString();
+		return Integer.parseInt(name.substring(RUN_PREFIX.length(), name.length() - RUN_SUFFIX.length()));
+	}
+
+	/**
+	 * Indexes an archive or queries the index from the command line.
+	 * Options : -archive file, -index directory, -threads N, -find FEN (lists the games reaching the position),
+	 * -compact true (merges the runs)
+	 * @param args The command line options
+	 * @throws IOException If the archive or the index can't be read or written
+	 */
+	public static void main(final String[] args) throws IOException {
+		String archivePath = null;
+		String indexPath = null;
+		int threads = Runtime.getRuntime().availableProcessors();
+		String fen = null;
+		boolean compact = false;
+		for (int i = 0; i + 1 < args.length; i += 2) {
+			final String value = args[i + 1];
+			switch (args[i]) {
+			case "-archive":
+				archivePath = value;
+				break;
+			case "-index":
+				indexPath = value;
+				break;
+			case "-threads":
+				threads = Integer.parseInt(value);
+				break;
+			case "-find":
+				fen = value;
+				break;
+			case "-compact":
+				compact = Boolean.parseBoolean(value);
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown option : " + args[i]);
+			}
+		}
+		if (archivePath == null || indexPath == null) {
+			throw new IllegalArgumentException("The archive and the index are required : -archive file -index directory");
+		}
+
+		final GameArchive archive = new GameArchive(Paths.get(archivePath));
+		final PositionIndex index = new PositionIndex(Paths.get(indexPath));
+		final long startTime = System.currentTimeMillis();
+		final int games = index.update(archive, threads);
+		System.out.println(String.format("%d new games indexed in %d ms with %d threads, %d runs", games,
+				System.currentTimeMillis() - startTime, threads, index.getRunCount()));
+		if (compact) {
+			index.compact();
+			System.out.println("index compacted");
+		}
+		if (fen != null) {
+			final List<Long> offsets = index.findGames(FenUtilities.createGameFromFEN(fen));
+			System.out.println(offsets.size() + " games reach this position");
+			for (final Long offset : offsets) {
+				System.out.println(offset + " : " + archive.readGame(offset));
+			}
+		}
+	}
+}
@@ -0,0 +1,196 @@
+package com.chess.engine.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import com.chess.engine.pieces.Piece.PieceType;
+import com.chess.engine.player.MoveStatus;
+
+/**
+ * Counters and histograms describing where the engine spends its time.
+ * They are switched on with the system property -Dchess.metrics=true. The callers test
+ * {@link #ENABLED} before each update : as it is a static final constant, the JIT removes
+ * the disabled updates completely. The counters are striped (LongAdder) so that many
+ * search threads can update them without contention.
+ * @author antsalin
+ *
+ */
+public final class EngineMetrics {
+
+	/** Tells if the metrics are collected */
+	public static final boolean ENABLED = Boolean.getBoolean("chess.metrics");
+
+	/** Number of boards built */
+	private static final LongAdder BOARDS_BUILT = new LongAdder();
+
+	/** Number of moves generated, for each piece type */
+	private static final LongAdder[] MOVES_GENERATED = createAdders(PieceType.values().length);
+
+	/** Number of moves made, for each move status */
+	private static final LongAdder[] MOVES_MADE = createAdders(MoveStatus.values().length);
+
+	/** Number of transposition table probes */
+	private static final LongAdder TABLE_PROBES = new LongAdder();
+
+	/** Number of transposition table probes that found their board */
+	private static final LongAdder TABLE_HITS = new LongAdder();
+
+	/** Number of searches cut by a transposition table score */
+	private static final LongAdder TABLE_CUTOFFS = new LongAdder();
+
+	/** Number of beta cutoffs in the search */
+	private static final LongAdder BETA_CUTOFFS = new LongAdder();
+
+	/** Number of principal variation searches repeated with a full window after a null window fail high */
+	private static final LongAdder PVS_RESEARCHES = new LongAdder();
+
+	/** Number of root searches repeated after failing low or high of their aspiration window, indexed by fail high */
+	private static final LongAdder[] ASPIRATION_RESEARCHES = createAdders(2);
+
+	/** The durations of the search iterations */
+	private static final LatencyHistogram SEARCH_ITERATIONS = new LatencyHistogram("search iterations");
+
+	/**
+	 * Useless constructor
+	 */
+	private EngineMetrics() {
+		throw new RuntimeException("You can't instanciate this class");
+	}
+
+	/**
+	 * Counts a board built
+	 */
+	public static void boardBuilt() {
+		BOARDS_BUILT.increment();
+	}
+
+	/**
+	 * Counts generated moves
+	 * @param pieceType The type of the piece that generated the moves
+	 * @param count The number of moves
+	 */
+	public static void movesGenerated(final PieceType pieceType, final int count) {
+		MOVES_GENERATED[pieceType.ordinal()].add(count);
+	}
+
+	/**
+	 * Counts a move made by a player
+	 * @param moveStatus The status of the move
+	 */
+	public static void moveMade(final MoveStatus moveStatus) {
+		MOVES_MADE[moveStatus.ordinal()].increment();
+	}
+
+	/**
+	 * Counts a transposition table probe
+	 * @param hit Tells if the probe found its board
+	 */
+	public static void tableProbed(final boolean hit) {
+		TABLE_PROBES.increment();
+		if (hit) {
+			TABLE_HITS.increment();
+		}
+	}
+
+	/**
+	 * Counts a search cut by a transposition table score
+	 */
+	public static void tableCutoff() {
+		TABLE_CUTOFFS.increment();
+	}
+
+	/**
+	 * Counts a beta cutoff
+	 */
+	public static void betaCutoff() {
+		BETA_CUTOFFS.increment();
+	}
+
+	/**
+	 * Counts a move searched again with a full window after failing high of its null window
+	 */
+	public static void pvsReSearch() {
+		PVS_RESEARCHES.increment();
+	}
+
+	/**
+	 * Counts a root search repeated with a wider aspiration window
+	 * @param failHigh Tells if the search failed high (true) or low (false)
+	 */
+	public static void aspirationReSearch(final boolean failHigh) {
+		ASPIRATION_RESEARCHES[failHigh ? 1 : 0].increment();
+	}
+
+	/**
+	 * Records the duration of a search iteration
+	 * @param nanos The duration, in nanoseconds
+	 */
+	public static void iterationCompleted(final long nanos) {
+		SEARCH_ITERATIONS.record(nanos);
+	}
+
+	/**
+	 * Resets all the counters and histograms
+	 */
+	public static void reset() {
+		BOARDS_BUILT.reset();
+		for (final LongAdder adder : MOVES_GENERATED) {
+			adder.reset();
+		}
+		for (final LongAdder adder : MOVES_MADE) {
+			adder.reset();
+		}
+		TABLE_PROBES.reset();
+		TABLE_HITS.reset();
+		TABLE_CUTOFFS.reset();
+		BETA_CUTOFFS.reset();
+		PVS_RESEARCHES.reset();
+		for (final LongAdder adder : ASPIRATION_RESEARCHES) {
+			adder.reset();
+		}
+		SEARCH_ITERATIONS.reset();
+	}
+
+	/**
+	 * Describes the current values of the metrics, one metric per line
+	 * @return The report of the metrics
+	 */
+	public static String report() {
+		if (!ENABLED) {
+			return "metrics disabled (run with -Dchess.metrics=true)";
+		}
+		final StringBuilder report = new StringBuilder();
+		report.append("boards built ").append(BOARDS_BUILT.sum()).append('\n');
+		report.append("moves generated");
+		for (final PieceType pieceType : PieceType.values()) {
+			report.append(' ').append(pieceType).append('=').append(MOVES_GENERATED[pieceType.ordinal()].sum());
+		}
+		report.append('\n');
+		report.append("moves made");
+		for (final MoveStatus moveStatus : MoveStatus.values()) {
+			report.append(' ').append(moveStatus).append('=').append(MOVES_MADE[moveStatus.ordinal()].sum());
+		}
+		report.append('\n');
+		report.append("transposition table probes ").append(TABLE_PROBES.sum())
+				.append(" hits ").append(TABLE_HITS.sum())
+				.append(" cutoffs ").append(TABLE_CUTOFFS.sum()).append('\n');
+		report.append("beta cutoffs ").append(BETA_CUTOFFS.sum()).append('\n');
+		report.append("re-searches pvs ").append(PVS_RESEARCHES.sum())
+				.append(" aspiration fail low ").append(ASPIRATION_RESEARCHES[0].sum())
+				.append(" fail high ").append(ASPIRATION_RESEARCHES[1].sum()).append('\n');
+		report.append(SEARCH_ITERATIONS);
+		return report.toString();
+	}
+
+	/**
+	 * Creates an array of counters
+	 * @param size The number of counters
+	 * @return The new counters
+	 */
+	private static LongAdder[] createAdders(final int size) {
+		final LongAdder[] adders = new LongAdder[size];
+		for (int i = 0; i < size; i++) {
+			adders[i] = new LongAdder();
+		}
+		return adders;
+	}
+}
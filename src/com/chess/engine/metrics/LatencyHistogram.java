@@ -0,0 +1,106 @@
+package com.chess.engine.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of durations with one bucket per power of 2 nanoseconds.
+ * Recording is lock-free and can be done by many threads at the same time.
+ * @author antsalin
+ *
+ */
+public final class LatencyHistogram {
+
+	/** Number of buckets : one per bit of a long */
+	private static final int BUCKETS = 64;
+
+	/** The name of the histogram, used in the reports */
+	private final String name;
+
+	/** Number of durations recorded in each bucket : bucket i holds the durations in [2^(i-1), 2^i[ */
+	private final LongAdder[] buckets;
+
+	/** The sum of all the recorded durations, in nanoseconds */
+	private final LongAdder totalNanos;
+
+	/**
+	 * Constructor
+	 * @param name The name of the histogram
+	 */
+	public LatencyHistogram(final String name) {
+		this.name = name;
+		this.buckets = new LongAdder[BUCKETS];
+		for (int i = 0; i < BUCKETS; i++) {
+			this.buckets[i] = new LongAdder();
+		}
+		this.totalNanos = new LongAdder();
+	}
+
+	/**
+	 * Records a duration
+	 * @param nanos The duration, in nanoseconds
+	 */
+	public void record(final long nanos) {
+		final long duration = Math.max(0, nanos);
+		this.buckets[Math.min(BUCKETS - 1, BUCKETS - Long.numberOfLeadingZeros(duration))].increment();
+		this.totalNanos.add(duration);
+	}
+
+	/**
+	 * Gets the number of recorded durations
+	 * @return The number of durations
+	 */
+	public long getCount() {
+		long count = 0;
+		for (final LongAdder bucket : this.buckets) {
+			count += bucket.sum();
+		}
+		return count;
+	}
+
+	/**
+	 * Gets the mean of the recorded durations
+	 * @return The mean duration, in nanoseconds
+	 */
+	public long getMeanNanos() {
+		final long count = getCount();
+		return count == 0 ? 0 : this.totalNanos.sum() / count;
+	}
+
+	/**
+	 * Gets an upper bound of a percentile of the recorded durations
+	 * @param percentile The percentile, between 0 and 100
+	 * @return The upper bound of the bucket holding the percentile, in nanoseconds
+	 */
+	public long getPercentileNanos(final double percentile) {
+		final long count = getCount();
+		if (count == 0) {
+			return 0;
+		}
+		final long rank = (long) Math.ceil(count * percentile / 100);
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += this.buckets[i].sum();
+			if (seen >= rank) {
+				return i == 0 ? 0 : (i >= BUCKETS - 1 ? Long.MAX_VALUE : 1L << i);
+			}
+		}
+		return Long.MAX_VALUE;
+	}
+
+	/**
+	 * Removes all the recorded durations
+	 */
+	public void reset() {
+		for (final LongAdder bucket : this.buckets) {
+			bucket.reset();
+		}
+		this.totalNanos.reset();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s : count %d, mean %.3f ms, p50 < %.3f ms, p90 < %.3f ms, p99 < %.3f ms",
+				this.name, getCount(), getMeanNanos() / 1e6, getPercentileNanos(50) / 1e6,
+				getPercentileNanos(90) / 1e6, getPercentileNanos(99) / 1e6);
+	}
+}
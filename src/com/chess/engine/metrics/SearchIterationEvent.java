@@ -0,0 +1,40 @@
+package com.chess.engine.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Flight Recorder event covering one iteration of a search.
+ * It costs almost nothing when no recording is running.
+ * @author antsalin
+ *
+ */
+@Name("com.chess.engine.SearchIteration")
+@Label("Search Iteration")
+@Category({"Chess", "Search"})
+@Description("One iteration of the iterative deepening search")
+public final class SearchIterationEvent extends Event {
+
+	/** The depth of the iteration */
+	@Label("Depth")
+	public int depth;
+
+	/** The number of nodes visited by the search since its beginning */
+	@Label("Nodes")
+	public long nodes;
+
+	/** The score of the best move, from the point of view of the player to move */
+	@Label("Score")
+	public int score;
+
+	/** The best move of the iteration, in coordinate notation */
+	@Label("Best Move")
+	public String bestMove;
+
+	/** Tells if the iteration was interrupted before its end */
+	@Label("Interrupted")
+	public boolean interrupted;
+}
@@ -27,12 +27,22 @@ public class Bishop extends Piece {
 	private final static int[] CANDIDATE_MOVE_VECTOR_COORDINATES = {-9, -7, 7, 9};
 
 	/**
-	 * Constructor
+	 * Constructor of a piece that has not moved yet
 	 * @param piecePos The position of the bishop in the board
 	 * @param pieceAll The alliance of the bishop : black or white
 	 */
 	public Bishop(int piecePos, Alliance pieceAll) {
-		super(piecePos, pieceAll, PieceType.BISHOP);
+		this(piecePos, pieceAll, true);
+	}
+
+	/**
+	 * Constructor
+	 * @param piecePos The position of the bishop in the board
+	 * @param pieceAll The alliance of the bishop : black or white
+	 * @param isFirstMove Tells if the bishop has not moved yet
+	 */
+	public Bishop(final int piecePos, final Alliance pieceAll, final boolean isFirstMove) {
+		super(piecePos, pieceAll, PieceType.BISHOP, isFirstMove);
 	}
 
 	@Override
@@ -107,7 +117,7 @@ public class Bishop extends Piece {
 
 	@Override
 	public Bishop movePiece(Move move) {
-		return new Bishop(move.getDestinationCoordinate(), move.getMovedPiece().getAlliance());
+		return PieceUtils.getMovedBishop(move.getMovedPiece().getAlliance(), move.getDestinationCoordinate());
 	}
 
 }
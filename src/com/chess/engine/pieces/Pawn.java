@@ -8,7 +8,11 @@ import com.chess.engine.Alliance;
 import com.chess.engine.board.Board;
 import com.chess.engine.board.BoardUtils;
 import com.chess.engine.board.Move;
+import com.chess.engine.board.Move.AttackMove;
+import com.chess.engine.board.Move.EnPassantAttack;
 import com.chess.engine.board.Move.MajorMove;
+import com.chess.engine.board.Move.PawnJump;
+import com.chess.engine.board.Move.PawnPromotion;
 import com.google.common.collect.ImmutableList;
 
 /**
@@ -18,77 +22,191 @@ import com.google.common.collect.ImmutableList;
 public class Pawn extends Piece {
 
 	/**
-	 * An array of all the candidate moves that a pawn is allowed to do
-	 * /!\ A Pawn can't always do all of these moves
+	 * The types of piece a pawn can become, the best first
 	 */
-	private final static int[] CANDIDATE_MOVE_COORDINATES = {7, 8, 9, 16};
+	private final static PieceType[] PROMOTION_TYPES = {PieceType.QUEEN, PieceType.KNIGHT, PieceType.ROOK, PieceType.BISHOP};
 	
 	/**
-	 * Constructor
+	 * The tiles of the first column (a), as a bitboard
+	 */
+	private final static long FIRST_COLUMN_TILES = 0x0101010101010101L;
+	
+	/**
+	 * The tiles of the eighth column (h), as a bitboard
+	 */
+	private final static long EIGHTH_COLUMN_TILES = 0x8080808080808080L;
+	
+	/**
+	 * The tiles a white pawn reaches with its first single push (the 3rd rank), as a bitboard
+	 */
+	private final static long WHITE_JUMP_TILES = 0xFFL << 40;
+	
+	/**
+	 * The tiles a black pawn reaches with its first single push (the 6th rank), as a bitboard
+	 */
+	private final static long BLACK_JUMP_TILES = 0xFFL << 16;
+	
+	/**
+	 * The tiles where the white pawns are promoted (the 8th rank), as a bitboard
+	 */
+	private final static long WHITE_PROMOTION_TILES = 0xFFL;
+	
+	/**
+	 * The tiles where the black pawns are promoted (the 1st rank), as a bitboard
+	 */
+	private final static long BLACK_PROMOTION_TILES = 0xFFL << 56;
+	
+	/** Kind of the pawn moves of a set of targets : a single push */
+	private final static int PUSH = 0;
+	
+	/** Kind of the pawn moves of a set of targets : a first move jumping over a tile */
+	private final static int JUMP = 1;
+	
+	/** Kind of the pawn moves of a set of targets : a capture, maybe en passant */
+	private final static int CAPTURE = 2;
+	
+	/**
+	 * Constructor of a piece that has not moved yet
 	 * @param piecePos The position of the pawn in the board
 	 * @param pieceAll The alliance of the rook : black or white
 	 */
 	public Pawn(int piecePos, Alliance pieceAll) {
-		super(piecePos, pieceAll, PieceType.PAWN);
+		this(piecePos, pieceAll, true);
+	}
+
+	/**
+	 * Constructor
+	 * @param piecePos The position of the pawn in the board
+	 * @param pieceAll The alliance of the rook : black or white
+	 * @param isFirstMove Tells if the pawn has not moved yet
+	 */
+	public Pawn(final int piecePos, final Alliance pieceAll, final boolean isFirstMove) {
+		super(piecePos, pieceAll, PieceType.PAWN, isFirstMove);
 	}
 
 	@Override
 	public Collection<Move> calculateLegalMoves(Board board) {
+		return calculatePawnMoves(board, this.pieceAlliance, 1L << this.piecePosition);
+	}
+
+	/**
+	 * Calculates the moves of a set of pawns all at once : the pushes, the jumps and the
+	 * captures of all the pawns are computed with a few shifts and masks of bitboards
+	 * (bit i is the tile i), and only then turned into moves
+	 * @param board The board in which the pawns are
+	 * @param alliance The alliance of the pawns
+	 * @param pawns The tiles of the pawns, as a bitboard
+	 * @return A list containing all the moves of the pawns
+	 */
+	public static Collection<Move> calculatePawnMoves(final Board board, final Alliance alliance, final long pawns) {
 		final List<Move> legalMoves = new ArrayList<>();
-		
-		for (final int currentCandidateOffset : CANDIDATE_MOVE_COORDINATES) {
-			final int candidateDestinationCoordinate = this.piecePosition + (this.pieceAlliance.getDirection() * currentCandidateOffset);
+		final Alliance opponent = alliance.isWhite() ? Alliance.BLACK : Alliance.WHITE;
+		final long emptyTiles = ~(board.getOccupiedTiles(Alliance.WHITE) | board.getOccupiedTiles(Alliance.BLACK));
+		long captureTiles = board.getOccupiedTiles(opponent);
+		if (board.getEnPassantTile() != Board.NO_EN_PASSANT && board.getMoveMaker() == alliance) {
+			// Only the player to move can take en passant
+			captureTiles |= 1L << board.getEnPassantTile();
+		}
+		// A pawn goes one row forward, toward the lower tiles for white and the higher tiles for black
+		final int forward = alliance.getDirection() * BoardUtils.NUM_TILES_PER_ROW;
+		final long promotionTiles = alliance.isWhite() ? WHITE_PROMOTION_TILES : BLACK_PROMOTION_TILES;
 
-			if (!BoardUtils.isValidTileCoordinate(candidateDestinationCoordinate)) {
-				continue;
-			}
-			
-			if (currentCandidateOffset == 8 && !board.getTile(candidateDestinationCoordinate).isTileOccupied()) {
-				
-				// Management of the normal pawn move
-				//TODO There's more work to do here (deal with promotions)...
-				legalMoves.add(new MajorMove(board, this, candidateDestinationCoordinate));
-			} else if (currentCandidateOffset == 16 && this.isFirstMove() && 
-					((BoardUtils.SECOND_ROW[this.piecePosition] && this.getAlliance().isBlack()) || 
-					(BoardUtils.SEVENTH_ROW[this.piecePosition] && this.getAlliance().isWhite()))) {
-				
-				// Management of the 2 tile jump for the pawns in their first move
-				final int behindCandidateDestinationCoordinate = this.piecePosition + (this.getAlliance().getDirection() * 8);
-				if (!board.getTile(behindCandidateDestinationCoordinate).isTileOccupied() && 
-						!board.getTile(candidateDestinationCoordinate).isTileOccupied()) {
-					legalMoves.add(new MajorMove(board, this, candidateDestinationCoordinate));
-				}
-			} else if (currentCandidateOffset == 7 &&
-					!((BoardUtils.EIGHTH_COLUMN[this.piecePosition] && this.pieceAlliance.isWhite()) ||
-					(BoardUtils.FIRST_COLUMN[this.piecePosition] && this.pieceAlliance.isBlack()))) {
-				
-				if (board.getTile(candidateDestinationCoordinate).isTileOccupied()) {
-					final Piece pieceOnCandidate = board.getTile(candidateDestinationCoordinate).getPiece();
-					if (this.pieceAlliance != pieceOnCandidate.pieceAlliance) {
-						
-						// There's an enemy piece that can be attacked with the pawn to its left
-						//TODO There's more work to do here
-						legalMoves.add(new MajorMove(board, this, candidateDestinationCoordinate));
+		final long singlePushes = shift(pawns, forward) & emptyTiles;
+		final long jumps = shift(singlePushes & (alliance.isWhite() ? WHITE_JUMP_TILES : BLACK_JUMP_TILES), forward) & emptyTiles;
+		// The pawns of the first (eighth) column can't capture toward the left (right) : they would wrap around the board
+		final long leftCaptures = shift(pawns & ~FIRST_COLUMN_TILES, forward - 1) & captureTiles;
+		final long rightCaptures = shift(pawns & ~EIGHTH_COLUMN_TILES, forward + 1) & captureTiles;
+
+		addPawnMoves(legalMoves, board, singlePushes, forward, PUSH, promotionTiles);
+		addPawnMoves(legalMoves, board, jumps, 2 * forward, JUMP, promotionTiles);
+		addPawnMoves(legalMoves, board, leftCaptures, forward - 1, CAPTURE, promotionTiles);
+		addPawnMoves(legalMoves, board, rightCaptures, forward + 1, CAPTURE, promotionTiles);
+		return ImmutableList.copyOf(legalMoves);
+	}
+
+	/**
+	 * Counts the moves of a set of pawns without creating them, the same way as
+	 * {@link #calculatePawnMoves(Board, Alliance, long)} : a promotion counts as 4 moves.
+	 * The en passant captures are not counted, as their legality depends on two pawns leaving their tiles
+	 * @param board The board in which the pawns are
+	 * @param alliance The alliance of the pawns
+	 * @param pawns The tiles of the pawns, as a bitboard
+	 * @param allowedTiles The tiles the pawns are allowed to reach, as a bitboard
+	 * @return The number of moves of the pawns
+	 */
+	public static int countPawnMoves(final Board board, final Alliance alliance, final long pawns,
+			final long allowedTiles) {
+		final Alliance opponent = alliance.isWhite() ? Alliance.BLACK : Alliance.WHITE;
+		final long emptyTiles = ~(board.getOccupiedTiles(Alliance.WHITE) | board.getOccupiedTiles(Alliance.BLACK));
+		final long captureTiles = board.getOccupiedTiles(opponent) & allowedTiles;
+		final int forward = alliance.getDirection() * BoardUtils.NUM_TILES_PER_ROW;
+		final long promotionTiles = alliance.isWhite() ? WHITE_PROMOTION_TILES : BLACK_PROMOTION_TILES;
+
+		final long singlePushes = shift(pawns, forward) & emptyTiles;
+		final long jumps = shift(singlePushes & (alliance.isWhite() ? WHITE_JUMP_TILES : BLACK_JUMP_TILES), forward) &
+				emptyTiles & allowedTiles;
+		final long allowedPushes = singlePushes & allowedTiles;
+		final long leftCaptures = shift(pawns & ~FIRST_COLUMN_TILES, forward - 1) & captureTiles;
+		final long rightCaptures = shift(pawns & ~EIGHTH_COLUMN_TILES, forward + 1) & captureTiles;
+
+		final int promotions = Long.bitCount(allowedPushes & promotionTiles) + Long.bitCount(leftCaptures & promotionTiles) +
+				Long.bitCount(rightCaptures & promotionTiles);
+		return Long.bitCount(allowedPushes) + Long.bitCount(jumps) + Long.bitCount(leftCaptures) +
+				Long.bitCount(rightCaptures) + (PROMOTION_TYPES.length - 1) * promotions;
+	}
+
+	/**
+	 * Shifts a bitboard
+	 * @param tiles The bitboard
+	 * @param offset The offset added to each tile, negative to go toward the lower tiles
+	 * @return The shifted bitboard
+	 */
+	private static long shift(final long tiles, final int offset) {
+		return offset > 0 ? tiles << offset : tiles >>> -offset;
+	}
+
+	/**
+	 * Turns a set of target tiles into pawn moves
+	 * @param legalMoves The list receiving the moves
+	 * @param board The board in which the pawns are
+	 * @param targets The destination tiles, as a bitboard
+	 * @param offset The offset from the tile of the moved pawn to its destination
+	 * @param kind The kind of the moves : {@link #PUSH}, {@link #JUMP} or {@link #CAPTURE}
+	 * @param promotionTiles The tiles where the pawns are promoted, as a bitboard
+	 */
+	private static void addPawnMoves(final List<Move> legalMoves, final Board board, final long targets,
+			final int offset, final int kind, final long promotionTiles) {
+		for (long tiles = targets; tiles != 0; tiles &= tiles - 1) {
+			final int destinationCoordinate = Long.numberOfTrailingZeros(tiles);
+			final Piece pawn = board.getTile(destinationCoordinate - offset).getPiece();
+			Piece attackedPiece = null;
+			if (kind == CAPTURE) {
+				attackedPiece = board.getTile(destinationCoordinate).getPiece();
+				if (attackedPiece == null) {
+					// The only empty tile a pawn can capture on is the en passant tile :
+					// the jumped pawn is one row behind it, from the point of view of the moved pawn
+					final int forward = pawn.getAlliance().getDirection() * BoardUtils.NUM_TILES_PER_ROW;
+					final Piece jumpedPawn = board.getTile(destinationCoordinate - forward).getPiece();
+					if (jumpedPawn != null && jumpedPawn.getPieceType() == PieceType.PAWN &&
+							jumpedPawn.getAlliance() != pawn.getAlliance()) {
+						// An en passant tile without the pawn that jumped over it (an inconsistent FEN string) gives no move
+						legalMoves.add(new EnPassantAttack(board, pawn, destinationCoordinate, jumpedPawn));
 					}
+					continue;
 				}
-				
-			} else if (currentCandidateOffset == 9 &&
-					!((BoardUtils.FIRST_COLUMN[this.piecePosition] && this.pieceAlliance.isWhite()) ||
-					(BoardUtils.EIGHTH_COLUMN[this.piecePosition] && this.pieceAlliance.isBlack()))) {
-				
-				if (board.getTile(candidateDestinationCoordinate).isTileOccupied()) {
-					final Piece pieceOnCandidate = board.getTile(candidateDestinationCoordinate).getPiece();
-					if (this.pieceAlliance != pieceOnCandidate.pieceAlliance) {
-						// There's an enemy piece that can be attacked with the pawn to its right
-						//TODO There's more work to do here
-						legalMoves.add(new MajorMove(board, this, candidateDestinationCoordinate));
-					}
+			}
+			if ((promotionTiles & (1L << destinationCoordinate)) != 0) {
+				for (final PieceType promotionType : PROMOTION_TYPES) {
+					legalMoves.add(new PawnPromotion(board, pawn, destinationCoordinate, attackedPiece, promotionType));
 				}
+			} else if (kind == CAPTURE) {
+				legalMoves.add(new AttackMove(board, pawn, destinationCoordinate, attackedPiece));
+			} else if (kind == JUMP) {
+				legalMoves.add(new PawnJump(board, pawn, destinationCoordinate));
+			} else {
+				legalMoves.add(new MajorMove(board, pawn, destinationCoordinate));
 			}
-			
 		}
-		
-		return ImmutableList.copyOf(legalMoves);
 	}
 
 	@Override
@@ -98,6 +216,6 @@ public class Pawn extends Piece {
 
 	@Override
 	public Pawn movePiece(Move move) {
-		return new Pawn(move.getDestinationCoordinate(), move.getMovedPiece().getAlliance());
+		return PieceUtils.getMovedPawn(move.getMovedPiece().getAlliance(), move.getDestinationCoordinate());
 	}
 }
@@ -1,10 +1,15 @@
 package com.chess.engine.pieces;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 import com.chess.engine.Alliance;
 import com.chess.engine.board.Board;
 import com.chess.engine.board.Move;
+import com.chess.engine.board.Move.AttackMove;
+import com.chess.engine.board.Move.MajorMove;
+import com.google.common.collect.ImmutableList;
 
 /**
  * Class used to describe on of the chess pieces
@@ -20,7 +25,7 @@ public abstract class Piece {
 	protected final Alliance pieceAlliance;
 	
 	/**	Boolean value telling whether the piece has already moved or not */
-	protected final Boolean isFirstMove;
+	protected final boolean isFirstMove;
 	
 	/** This piece piece type : Bishop, Pawn, Rook,... */
 	protected final PieceType pieceType;
@@ -30,12 +35,12 @@ public abstract class Piece {
 	 * @param piecePos The position of the piece in the board (a Tile)
 	 * @param pieceAll The alliance of the piece : black or white
 	 * @param pieceType The piece type : bishop, knight,...
+	 * @param isFirstMove Tells if the piece has not moved yet
 	 */
-	Piece(final int piecePos, final Alliance pieceAll, final PieceType pieceType) {
+	Piece(final int piecePos, final Alliance pieceAll, final PieceType pieceType, final boolean isFirstMove) {
 		this.pieceAlliance = pieceAll;
 		this.piecePosition = piecePos;
-		//TODO More work here...
-		this.isFirstMove = false;
+		this.isFirstMove = isFirstMove;
 		this.pieceType = pieceType;
 	}
 	
@@ -46,6 +51,28 @@ public abstract class Piece {
 	 */
 	public abstract Collection<Move> calculateLegalMoves(final Board board);
 	
+	/**
+	 * Calculates the moves of a piece jumping to a fixed set of tiles (a knight or a king) :
+	 * the tiles of the pieces of its own alliance are removed from the set, the other
+	 * tiles are either empty or hold a piece to capture
+	 * @param board The board in which the piece is
+	 * @param attacks The bitboard of the tiles the piece attacks from its tile
+	 * @return A list containing the moves of the piece
+	 */
+	Collection<Move> calculateJumpMoves(final Board board, final long attacks) {
+		final List<Move> legalMoves = new ArrayList<>(Long.bitCount(attacks));
+		for (long targets = attacks & ~board.getOccupiedTiles(this.pieceAlliance); targets != 0; targets &= targets - 1) {
+			final int candidateDestinationCoord = Long.numberOfTrailingZeros(targets);
+			final Piece pieceAtLocation = board.getTile(candidateDestinationCoord).getPiece();
+			if (pieceAtLocation == null) {
+				legalMoves.add(new MajorMove(board, this, candidateDestinationCoord));
+			} else {
+				legalMoves.add(new AttackMove(board, this, candidateDestinationCoord, pieceAtLocation));
+			}
+		}
+		return ImmutableList.copyOf(legalMoves);
+	}
+	
 	/**
 	 * Moves the piece: creates a new piece that will be the in the move destination tile
 	 * @param move The move the piece will do
@@ -65,7 +92,7 @@ public abstract class Piece {
 	 * Function that tells if the piece has already moved or not
 	 * @return A boolean telling whether the piece has already moved or not
 	 */
-	public Boolean isFirstMove() {
+	public boolean isFirstMove() {
 		return this.isFirstMove;
 	}
 
@@ -84,6 +111,28 @@ public abstract class Piece {
 	public PieceType getPieceType() {
 		return pieceType;
 	}
+
+	@Override
+	public boolean equals(final Object other) {
+		if (this == other) {
+			return true;
+		}
+		if (!(other instanceof Piece)) {
+			return false;
+		}
+		final Piece otherPiece = (Piece) other;
+		return this.piecePosition == otherPiece.piecePosition && this.pieceType == otherPiece.pieceType &&
+				this.pieceAlliance == otherPiece.pieceAlliance && this.isFirstMove == otherPiece.isFirstMove;
+	}
+
+	@Override
+	public int hashCode() {
+		int result = this.pieceType.hashCode();
+		result = 31 * result + this.pieceAlliance.hashCode();
+		result = 31 * result + this.piecePosition;
+		result = 31 * result + (this.isFirstMove ? 1 : 0);
+		return result;
+	}
 	
 	/**
 	 * Enum type to describe different pieces
@@ -92,27 +141,27 @@ public abstract class Piece {
 	 */
 	public enum PieceType {
 		
-		PAWN("P") {
+		PAWN("P", 100) {
 			@Override
 			public boolean isKing() { return false; }
 		},
-		KNIGHT("N") {
+		KNIGHT("N", 300) {
 			@Override
 			public boolean isKing() { return false; }
 		},
-		BISHOP("B") {
+		BISHOP("B", 330) {
 			@Override
 			public boolean isKing() { return false; }
 		},
-		ROOK("R") {
+		ROOK("R", 500) {
 			@Override
 			public boolean isKing() { return false; }
 		},
-		QUEEN("Q") {
+		QUEEN("Q", 900) {
 			@Override
 			public boolean isKing() { return false; }
 		},
-		KING("K") {
+		KING("K", 10000) {
 			@Override
 			public boolean isKing() { return true; }
 		};
@@ -122,12 +171,27 @@ public abstract class Piece {
 		 */
 		private String pieceName;
 		
+		/**
+		 * The material value of the piece, in centipawns
+		 */
+		private final int pieceValue;
+		
 		/**
 		 * Constructor
 		 * @param pieceName The type of piece
+		 * @param pieceValue The material value of the piece
 		 */
-		PieceType(String pieceName) {
+		PieceType(String pieceName, final int pieceValue) {
 			this.pieceName = pieceName;
+			this.pieceValue = pieceValue;
+		}
+		
+		/**
+		 * Gets the material value of the piece
+		 * @return The value of the piece, in centipawns
+		 */
+		public int getPieceValue() {
+			return this.pieceValue;
 		}
 
 		@Override
@@ -0,0 +1,135 @@
+package com.chess.engine.pieces;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.pieces.Piece.PieceType;
+
+/**
+ * Class holding every piece that can ever exist : as the pieces are immutable,
+ * each combination of type, alliance, tile and first move flag is created once
+ * and then shared by all the boards (flyweight), the same way the empty tiles are.
+ * @author antho
+ */
+public final class PieceUtils {
+
+	/** Number of piece types */
+	private static final int NUM_PIECE_TYPES = PieceType.values().length;
+
+	/** All the pieces that will ever exist, see {@link #index(PieceType, Alliance, int, boolean)} */
+	private static final Piece[] ALL_POSSIBLE_PIECES = createAllPossiblePieces();
+
+	/**
+	 * Useless constructor
+	 */
+	private PieceUtils() {
+		throw new RuntimeException("You can't instanciate this class");
+	}
+
+	/**
+	 * Gets a piece
+	 * @param pieceType The type of the piece
+	 * @param alliance The alliance of the piece
+	 * @param position The tile of the piece
+	 * @param isFirstMove Tells if the piece has not moved yet
+	 * @return The shared instance of this piece
+	 */
+	public static Piece getPiece(final PieceType pieceType, final Alliance alliance, final int position,
+			final boolean isFirstMove) {
+		return ALL_POSSIBLE_PIECES[index(pieceType, alliance, position, isFirstMove)];
+	}
+
+	/**
+	 * Gets a pawn that has already moved
+	 * @param alliance The alliance of the pawn
+	 * @param position The tile of the pawn
+	 * @return The shared instance of this pawn
+	 */
+	public static Pawn getMovedPawn(final Alliance alliance, final int position) {
+		return (Pawn) getPiece(PieceType.PAWN, alliance, position, false);
+	}
+
+	/**
+	 * Gets a knight that has already moved
+	 * @param alliance The alliance of the knight
+	 * @param position The tile of the knight
+	 * @return The shared instance of this knight
+	 */
+	public static Knight getMovedKnight(final Alliance alliance, final int position) {
+		return (Knight) getPiece(PieceType.KNIGHT, alliance, position, false);
+	}
+
+	/**
+	 * Gets a bishop that has already moved
+	 * @param alliance The alliance of the bishop
+	 * @param position The tile of the bishop
+	 * @return The shared instance of this bishop
+	 */
+	public static Bishop getMovedBishop(final Alliance alliance, final int position) {
+		return (Bishop) getPiece(PieceType.BISHOP, alliance, position, false);
+	}
+
+	/**
+	 * Gets a rook that has already moved
+	 * @param alliance The alliance of the rook
+	 * @param position The tile of the rook
+	 * @return The shared instance of this rook
+	 */
+	public static Rook getMovedRook(final Alliance alliance, final int position) {
+		return (Rook) getPiece(PieceType.ROOK, alliance, position, false);
+	}
+
+	/**
+	 * Gets a queen that has already moved
+	 * @param alliance The alliance of the queen
+	 * @param position The tile of the queen
+	 * @return The shared instance of this queen
+	 */
+	public static Queen getMovedQueen(final Alliance alliance, final int position) {
+		return (Queen) getPiece(PieceType.QUEEN, alliance, position, false);
+	}
+
+	/**
+	 * Gets a king that has already moved
+	 * @param alliance The alliance of the king
+	 * @param position The tile of the king
+	 * @return The shared instance of this king
+	 */
+	public static King getMovedKing(final Alliance alliance, final int position) {
+		return (King) getPiece(PieceType.KING, alliance, position, false);
+	}
+
+	/**
+	 * Function that creates all the pieces that will ever exist
+	 * @return An array containing all the pieces, see {@link #index(PieceType, Alliance, int, boolean)}
+	 */
+	private static Piece[] createAllPossiblePieces() {
+		final Piece[] pieces = new Piece[2 * NUM_PIECE_TYPES * BoardUtils.NUM_TILES * 2];
+		for (final Alliance alliance : Alliance.values()) {
+			for (int position = 0; position < BoardUtils.NUM_TILES; position++) {
+				for (final boolean isFirstMove : new boolean[] {false, true}) {
+					pieces[index(PieceType.PAWN, alliance, position, isFirstMove)] = new Pawn(position, alliance, isFirstMove);
+					pieces[index(PieceType.KNIGHT, alliance, position, isFirstMove)] = new Knight(position, alliance, isFirstMove);
+					pieces[index(PieceType.BISHOP, alliance, position, isFirstMove)] = new Bishop(position, alliance, isFirstMove);
+					pieces[index(PieceType.ROOK, alliance, position, isFirstMove)] = new Rook(position, alliance, isFirstMove);
+					pieces[index(PieceType.QUEEN, alliance, position, isFirstMove)] = new Queen(position, alliance, isFirstMove);
+					pieces[index(PieceType.KING, alliance, position, isFirstMove)] = new King(position, alliance, isFirstMove);
+				}
+			}
+		}
+		return pieces;
+	}
+
+	/**
+	 * Gives the index of a piece in the flyweight array
+	 * @param pieceType The type of the piece
+	 * @param alliance The alliance of the piece
+	 * @param position The tile of the piece
+	 * @param isFirstMove Tells if the piece has not moved yet
+	 * @return The index of the piece
+	 */
+	private static int index(final PieceType pieceType, final Alliance alliance, final int position,
+			final boolean isFirstMove) {
+		return (((alliance.ordinal() * NUM_PIECE_TYPES + pieceType.ordinal()) * BoardUtils.NUM_TILES + position) << 1) |
+				(isFirstMove ? 1 : 0);
+	}
+}
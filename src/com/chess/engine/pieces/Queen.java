@@ -28,12 +28,22 @@ public class Queen extends Piece {
 	private final static int[] CANDIDATE_MOVE_VECTOR_COORDINATES = {-9, -8, -7, -1, 1, 7, 8, 9};
 	
 	/**
-	 * Constructor
+	 * Constructor of a piece that has not moved yet
 	 * @param piecePos The position of the queen in the board
 	 * @param pieceAll The alliance of the queen : black or white
 	 */
 	public Queen(int piecePos, Alliance pieceAll) {
-		super(piecePos, pieceAll, PieceType.QUEEN);
+		this(piecePos, pieceAll, true);
+	}
+
+	/**
+	 * Constructor
+	 * @param piecePos The position of the queen in the board
+	 * @param pieceAll The alliance of the queen : black or white
+	 * @param isFirstMove Tells if the queen has not moved yet
+	 */
+	public Queen(final int piecePos, final Alliance pieceAll, final boolean isFirstMove) {
+		super(piecePos, pieceAll, PieceType.QUEEN, isFirstMove);
 	}
 
 	@Override
@@ -108,6 +118,6 @@ public class Queen extends Piece {
 
 	@Override
 	public Queen movePiece(Move move) {
-		return new Queen(move.getDestinationCoordinate(), move.getMovedPiece().getAlliance());
+		return PieceUtils.getMovedQueen(move.getMovedPiece().getAlliance(), move.getDestinationCoordinate());
 	}
 }
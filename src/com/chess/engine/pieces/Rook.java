@@ -27,12 +27,22 @@ public class Rook extends Piece {
 	private final static int[] CANDIDATE_MOVE_VECTOR_COORDINATES = {-8, -1, 1, 8};
 
 	/**
-	 * Constructor
+	 * Constructor of a piece that has not moved yet
 	 * @param piecePos The position of the rook in the board
 	 * @param pieceAll The alliance of the rook : black or white
 	 */
 	public Rook(int piecePos, Alliance pieceAll) {
-		super(piecePos, pieceAll, PieceType.ROOK);
+		this(piecePos, pieceAll, true);
+	}
+
+	/**
+	 * Constructor
+	 * @param piecePos The position of the rook in the board
+	 * @param pieceAll The alliance of the rook : black or white
+	 * @param isFirstMove Tells if the rook has not moved yet
+	 */
+	public Rook(final int piecePos, final Alliance pieceAll, final boolean isFirstMove) {
+		super(piecePos, pieceAll, PieceType.ROOK, isFirstMove);
 	}
 
 	@Override
@@ -107,6 +117,6 @@ public class Rook extends Piece {
 
 	@Override
 	public Rook movePiece(Move move) {
-		return new Rook(move.getDestinationCoordinate(), move.getMovedPiece().getAlliance());
+		return PieceUtils.getMovedRook(move.getMovedPiece().getAlliance(), move.getDestinationCoordinate());
 	}
 }
@@ -1,11 +1,14 @@
 package com.chess.engine.player;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 import com.chess.engine.Alliance;
 import com.chess.engine.board.Board;
 import com.chess.engine.board.Move;
 import com.chess.engine.pieces.Piece;
+import com.google.common.collect.ImmutableList;
 
 /**
  * Describes the black pieces player
@@ -25,6 +28,21 @@ public class BlackPlayer extends Player {
 		super(board, blackStandardLegalMoves, whiteStandardLegalMoves);
 	}
 
+	@Override
+	protected Collection<Move> calculateKingCastles() {
+		final List<Move> kingCastles = new ArrayList<>();
+		// The king starts on e8, the rooks in the corners of the first row of the player
+		final Move kingSideCastle = calculateCastle(Board.BLACK_KING_SIDE_CASTLE, 4, 7, 6);
+		if (kingSideCastle != null) {
+			kingCastles.add(kingSideCastle);
+		}
+		final Move queenSideCastle = calculateCastle(Board.BLACK_QUEEN_SIDE_CASTLE, 4, 0, 2);
+		if (queenSideCastle != null) {
+			kingCastles.add(queenSideCastle);
+		}
+		return ImmutableList.copyOf(kingCastles);
+	}
+
 	@Override
 	public Collection<Piece> getActivePieces() {
 		return this.board.getBlackPieces();
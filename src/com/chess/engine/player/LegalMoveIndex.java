@@ -0,0 +1,101 @@
+package com.chess.engine.player;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import com.chess.engine.board.Move;
+import com.chess.engine.pieces.Piece.PieceType;
+
+/**
+ * Index of the legal moves of a player, to find a move from its coordinates in constant time.
+ * The moves are stored in an open addressing hash table whose keys are primitive integers
+ * built from the current coordinate, the destination coordinate and the promotion of the move
+ * @author antsalin
+ *
+ */
+final class LegalMoveIndex {
+
+	/** The key of the empty slots */
+	private static final int EMPTY = -1;
+
+	/** The keys of the moves, {@link #EMPTY} for the empty slots */
+	private final int[] keys;
+
+	/** The moves, at the same index as their key */
+	private final Move[] moves;
+
+	/** The mask giving a slot from a hash (the capacity is a power of two) */
+	private final int mask;
+
+	/**
+	 * Constructor
+	 * @param legalMoves The legal moves to index
+	 */
+	LegalMoveIndex(final Collection<Move> legalMoves) {
+		// At most half of the slots are used, so that the probe sequences stay short
+		final int capacity = Math.max(16, Integer.highestOneBit(Math.max(1, legalMoves.size())) << 2);
+		this.keys = new int[capacity];
+		this.moves = new Move[capacity];
+		this.mask = capacity - 1;
+		Arrays.fill(this.keys, EMPTY);
+		for (final Move move : legalMoves) {
+			final int key = key(move);
+			int slot = slot(key);
+			while (this.keys[slot] != EMPTY && this.keys[slot] != key) {
+				slot = (slot + 1) & this.mask;
+			}
+			this.keys[slot] = key;
+			this.moves[slot] = move;
+		}
+	}
+
+	/**
+	 * Finds a move from its coordinates
+	 * @param currentCoordinate The coordinate of the moved piece
+	 * @param destinationCoordinate The destination coordinate
+	 * @param promotionType The type of the piece a pawn is promoted to, null if the move is not a promotion
+	 * @return The move, or null if there is no such move
+	 */
+	Move find(final int currentCoordinate, final int destinationCoordinate, final PieceType promotionType) {
+		final int key = key(currentCoordinate, destinationCoordinate, promotionType);
+		int slot = slot(key);
+		while (this.keys[slot] != EMPTY) {
+			if (this.keys[slot] == key) {
+				return this.moves[slot];
+			}
+			slot = (slot + 1) & this.mask;
+		}
+		return null;
+	}
+
+	/**
+	 * Gives the first slot where a key can be stored
+	 * @param key The key
+	 * @return The slot
+	 */
+	private int slot(final int key) {
+		// Fibonacci hashing spreads the coordinates over the whole table
+		return (key * 0x9E3779B9 >>> 16) & this.mask;
+	}
+
+	/**
+	 * Gives the key of a move
+	 * @param move The move
+	 * @return The key of the move
+	 */
+	static int key(final Move move) {
+		return key(move.getCurrentCoordinate(), move.getDestinationCoordinate(), move.getPromotionType());
+	}
+
+	/**
+	 * Gives the key of a move from its coordinates : 6 bits for each coordinate and 3 bits for the promotion
+	 * @param currentCoordinate The coordinate of the moved piece
+	 * @param destinationCoordinate The destination coordinate
+	 * @param promotionType The type of the piece a pawn is promoted to, null if the move is not a promotion
+	 * @return The key of the move
+	 */
+	static int key(final int currentCoordinate, final int destinationCoordinate, final PieceType promotionType) {
+		final int promotion = promotionType == null ? 0 : promotionType.ordinal() + 1;
+		return currentCoordinate | destinationCoordinate << 6 | promotion << 12;
+	}
+}
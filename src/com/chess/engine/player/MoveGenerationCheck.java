@@ -0,0 +1,106 @@
+package com.chess.engine.player;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+import com.chess.engine.board.Move.EnPassantAttack;
+import com.chess.engine.board.Move.MoveFactory;
+import com.chess.pgn.FenUtilities;
+
+/**
+ * Checks the move generation and the validation of the moves built by a client on cases
+ * that went wrong once, beside the benchmarks.
+ * Each check throws an IllegalStateException when it fails
+ * @author antsalin
+ *
+ */
+public final class MoveGenerationCheck {
+
+	/**
+	 * Useless constructor
+	 */
+	private MoveGenerationCheck() {
+		throw new RuntimeException("You can't instanciate this class");
+	}
+
+	/**
+	 * Runs the checks from the command line
+	 * @param args Unused
+	 */
+	public static void main(final String[] args) {
+		checkEnPassant();
+		checkClientMoves();
+		System.out.println("Move generation checks passed");
+	}
+
+	/**
+	 * Checks that only the player to move can take en passant, and only a pawn that jumped
+	 */
+	private static void checkEnPassant() {
+		// After 1.e4 with a black pawn on d4 : black can take on e3, white can't move to e3 by capture
+		final Board enPassant = FenUtilities.createGameFromFEN("rnbqkbnr/ppp1pppp/8/8/3pP3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1");
+		final Board noEnPassant = FenUtilities.createGameFromFEN("rnbqkbnr/ppp1pppp/8/8/3pP3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1");
+		checkCount("white moves", noEnPassant.getWhitePlayer().getLegalMoves().size(),
+				enPassant.getWhitePlayer().getLegalMoves().size());
+		checkCount("black moves", noEnPassant.getBlackPlayer().getLegalMoves().size() + 1,
+				enPassant.getBlackPlayer().getLegalMoves().size());
+		checkCount("perft 1", Perft.perft(noEnPassant, 1) + 1, Perft.perft(enPassant, 1));
+		checkAttackedPieces(enPassant);
+
+		// An en passant tile without the pawn that jumped over it gives no move
+		final Board inconsistent = FenUtilities.createGameFromFEN("rnbqkbnr/pppp1ppp/8/4P3/8/8/PPPP1PPP/RNBQKBNR w KQkq d6 0 1");
+		for (final Move move : inconsistent.getWhitePlayer().getLegalMoves()) {
+			if (move instanceof EnPassantAttack) {
+				throw new IllegalStateException("En passant move without a jumped pawn : " + move);
+			}
+		}
+		checkAttackedPieces(inconsistent);
+	}
+
+	/**
+	 * Checks that a move built on another board is executed on the board of the player,
+	 * and that an invalid coordinate notation gives no move
+	 */
+	private static void checkClientMoves() {
+		final Board board = Board.createStandardBoard();
+		final Board otherBoard = FenUtilities.createGameFromFEN("rnbqkbnr/pppp1ppp/8/4p3/4P3/8/PPPP1PPP/RNBQKBNR w KQkq - 0 2");
+		final MoveTransition transition = board.currentPlayer().makeMove(MoveFactory.createMove(otherBoard, "g1f3"));
+		final String fen = FenUtilities.createFENFromGame(transition.getTransitionBoard());
+		if (!transition.getMoveStatus().isDone() || !fen.startsWith("rnbqkbnr/pppppppp/8/8/8/5N2/PPPPPPPP/RNBQKB1R ")) {
+			throw new IllegalStateException("A move of another board is not played on the board of the player : " + fen);
+		}
+		if (transition.getMove().getBoard() != board) {
+			throw new IllegalStateException("The transition does not hold the move of the board of the player");
+		}
+		for (final String notation : new String[] {"z9e4", "e2e9", "e2-e4", "e7e8k"}) {
+			if (MoveFactory.createMove(board, notation) != null) {
+				throw new IllegalStateException("The invalid notation " + notation + " gives a move");
+			}
+		}
+	}
+
+	/**
+	 * Checks that every en passant move of both players captures a pawn
+	 * @param board The board
+	 */
+	private static void checkAttackedPieces(final Board board) {
+		for (final Player player : new Player[] {board.getWhitePlayer(), board.getBlackPlayer()}) {
+			for (final Move move : player.getLegalMoves()) {
+				if (move instanceof EnPassantAttack && move.getAttackedPiece() == null) {
+					throw new IllegalStateException("En passant move capturing nothing : " + move);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Checks a count
+	 * @param name The name of the count
+	 * @param expected The expected count
+	 * @param actual The actual count
+	 */
+	private static void checkCount(final String name, final long expected, final long actual) {
+		if (expected != actual) {
+			throw new IllegalStateException(name + " : " + actual + " instead of " + expected);
+		}
+	}
+}
@@ -39,5 +39,20 @@ public class MoveTransition {
 		return this.moveStatus;
 	}
 	
+	/**
+	 * Gets the board after the transition
+	 * @return The board after the move if it was done, the original board otherwise
+	 */
+	public Board getTransitionBoard() {
+		return this.transitionBoard;
+	}
+	
+	/**
+	 * Gets the move of this transition
+	 * @return The move the player wanted to make
+	 */
+	public Move getMove() {
+		return this.move;
+	}
 	
 }
@@ -0,0 +1,67 @@
+package com.chess.engine.player;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+
+/**
+ * Counts the positions reached after a number of legal moves (performance test), which
+ * checks the move generation against known counts and measures its speed.
+ * The moves of the last ply are counted without being made
+ * @author antsalin
+ *
+ */
+public final class Perft {
+
+	/**
+	 * Useless constructor
+	 */
+	private Perft() {
+		throw new RuntimeException("You can't instanciate this class");
+	}
+
+	/**
+	 * Counts the positions reached after a number of legal moves
+	 * @param board The starting board
+	 * @param depth The number of moves
+	 * @return The number of positions (leaves of the tree of the legal moves)
+	 */
+	public static long perft(final Board board, final int depth) {
+		if (depth <= 0) {
+			return 1;
+		}
+		final Player player = board.currentPlayer();
+		if (depth == 1) {
+			// Bulk counting : the leaves are counted, not made
+			return player.countLegalMoves();
+		}
+		long nodes = 0;
+		for (final Move move : player.getLegalMoves()) {
+			final MoveTransition transition = player.makeMove(move);
+			if (transition.getMoveStatus().isDone()) {
+				nodes += perft(transition.getTransitionBoard(), depth - 1);
+			}
+		}
+		return nodes;
+	}
+
+	/**
+	 * Counts the positions reached after a number of legal moves, for each legal move of the board
+	 * @param board The starting board
+	 * @param depth The number of moves, the first one included
+	 * @return The number of positions reached after each legal move, in the order of the moves
+	 */
+	public static Map<Move, Long> divide(final Board board, final int depth) {
+		final Map<Move, Long> nodes = new LinkedHashMap<>();
+		final Player player = board.currentPlayer();
+		for (final Move move : player.getLegalMoves()) {
+			final MoveTransition transition = player.makeMove(move);
+			if (transition.getMoveStatus().isDone()) {
+				nodes.put(move, perft(transition.getTransitionBoard(), depth - 1));
+			}
+		}
+		return nodes;
+	}
+}
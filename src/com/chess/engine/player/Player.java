@@ -1,15 +1,19 @@
 package com.chess.engine.player;
 
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
 import com.chess.engine.Alliance;
 import com.chess.engine.board.Board;
 import com.chess.engine.board.Move;
+import com.chess.engine.board.Move.CastleMove;
+import com.chess.engine.board.MoveCounter;
+import com.chess.engine.metrics.EngineMetrics;
 import com.chess.engine.pieces.King;
 import com.chess.engine.pieces.Piece;
+import com.chess.engine.pieces.Piece.PieceType;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
 
 /**
  * Describes a player
@@ -29,37 +33,79 @@ public abstract class Player {
 	
 	/** A boolean that tells if the player is in check or not */
 	private final boolean isInCheck;
+
+	/** The number of castles the player can make */
+	private final int kingCastleCount;
+
+	/** Tells if the player can make a move : 0 if not computed yet, 1 if he can, -1 if he can't */
+	private byte hasAnyLegalMove;
+
+	/** The index of the legal moves, built the first time a move is looked up */
+	private LegalMoveIndex legalMoveIndex;
 	
 	/**
 	 * Constructor
 	 * @param board The current state of the board
-	 * @param legalMoves Most legal moves the player can make (excluding en passant, castle,...)
-	 * @param opponentLegalMoves Most legal moves the opponent can make (excluding en passant, castle,...)
+	 * @param legalMoves The legal moves of the pieces of the player (excluding castles)
+	 * @param opponentLegalMoves The legal moves of the pieces of the opponent (excluding castles)
 	 */
 	protected Player(final Board board, final Collection<Move> legalMoves, final Collection<Move> opponentLegalMoves) {
 		this.board = board;
 		this.playerKing = getKing();
-		this.legalMoves = legalMoves;
-		this.isInCheck = !Player.calculateAttacksOnTile(this.getPlayerKing().getPiecePosition(), opponentLegalMoves)
-				.isEmpty();
+		this.isInCheck = board.isTileAttacked(this.playerKing.getPiecePosition(), getOpponentAlliance());
+		final Collection<Move> kingCastles = calculateKingCastles();
+		this.kingCastleCount = kingCastles.size();
+		this.legalMoves = kingCastles.isEmpty() ? legalMoves :
+				ImmutableList.copyOf(Iterables.concat(legalMoves, kingCastles));
 	}
 
 	/**
-	 * Calculates all the moves of the opponent that attack a tile
-	 * @param tileCoordinate The tile coordinate
-	 * @param opponentLegalMoves All the legal moves the opponent can make
-	 * @return A list of the moves the of the opponent that attack a tile
+	 * Calculates the castles the player can make
+	 * @return The castles of the player
 	 */
-	private static Collection<Move> calculateAttacksOnTile(final Integer tileCoordinate,
-			final Collection<Move> opponentLegalMoves) {
-		
-		final List<Move> attackMoves = new ArrayList<>();
-		for (final Move move : opponentLegalMoves) {
-			if (tileCoordinate == move.getDestinationCoordinate()) {
-				attackMoves.add(move);
+	protected abstract Collection<Move> calculateKingCastles();
+
+	/**
+	 * Calculates a castle of the player : the player must still have the castling right,
+	 * all the tiles between the king and the rook must be empty and the king must not be
+	 * in check nor go through an attacked tile
+	 * @param castlingRight The castling right needed, see {@link Board#WHITE_KING_SIDE_CASTLE}
+	 * @param kingTile The starting tile of the king
+	 * @param rookTile The starting tile of the rook
+	 * @param kingDestination The destination of the king
+	 * @return The castle, or null if the player can't castle
+	 */
+	protected Move calculateCastle(final int castlingRight, final int kingTile, final int rookTile,
+			final int kingDestination) {
+		if (this.isInCheck || !this.board.hasCastlingRight(castlingRight) ||
+				this.playerKing.getPiecePosition() != kingTile) {
+			return null;
+		}
+		final Piece rook = this.board.getTile(rookTile).getPiece();
+		if (rook == null || rook.getPieceType() != PieceType.ROOK || rook.getAlliance() != getAlliance()) {
+			return null;
+		}
+		final int step = rookTile > kingTile ? 1 : -1;
+		for (int tile = kingTile + step; tile != rookTile; tile += step) {
+			if (this.board.getTile(tile).isTileOccupied()) {
+				return null;
+			}
+		}
+		final Alliance opponentAlliance = getOpponentAlliance();
+		for (int tile = kingTile + step; tile != kingDestination + step; tile += step) {
+			if (this.board.isTileAttacked(tile, opponentAlliance)) {
+				return null;
 			}
 		}
-		return ImmutableList.copyOf(attackMoves);
+		return new CastleMove(this.board, this.playerKing, kingDestination, rook, kingDestination - step);
+	}
+
+	/**
+	 * Gets the alliance of the opponent
+	 * @return The alliance of the opponent
+	 */
+	private Alliance getOpponentAlliance() {
+		return getAlliance().isWhite() ? Alliance.BLACK : Alliance.WHITE;
 	}
 
 	/**
@@ -86,7 +132,37 @@ public abstract class Player {
 	 * @return A boolean telling if the move is legal or not
 	 */
 	public boolean isMoveLegal(final Move move) {
-		return this.legalMoves.contains(move);
+		return findCanonicalMove(move) != null;
+	}
+
+	/**
+	 * Finds the move of this player's board that matches a move : a move built on another
+	 * board can equal a move of this board, but only the move of this board can be executed here
+	 * @param move The move
+	 * @return The matching move of this board, or null if the player has no such move
+	 */
+	private Move findCanonicalMove(final Move move) {
+		final Move legalMove = findLegalMove(move.getCurrentCoordinate(), move.getDestinationCoordinate(),
+				move.getPromotionType());
+		return move.equals(legalMove) ? legalMove : null;
+	}
+
+	/**
+	 * Finds a legal move of the player from its coordinates, in constant time
+	 * @param currentCoordinate The coordinate of the moved piece
+	 * @param destinationCoordinate The destination coordinate
+	 * @param promotionType The type of the piece a pawn is promoted to, null if the move is not a promotion
+	 * @return The move, or null if the player has no such move
+	 */
+	public Move findLegalMove(final int currentCoordinate, final int destinationCoordinate,
+			final PieceType promotionType) {
+		LegalMoveIndex index = this.legalMoveIndex;
+		if (index == null) {
+			// Two threads can build the index at the same time, but they build the same one
+			index = new LegalMoveIndex(this.legalMoves);
+			this.legalMoveIndex = index;
+		}
+		return index.find(currentCoordinate, destinationCoordinate, promotionType);
 	}
 	
 	/**
@@ -102,30 +178,36 @@ public abstract class Player {
 	 * @return A boolean telling whether the player is in check mate or not
 	 */
 	public boolean isInCheckMate() {
-		return this.isInCheck && !hasEscapeMoves();
+		return this.isInCheck && !hasAnyLegalMove();
+	}
+
+	/**
+	 * Tells if the player is in a stale mate position
+	 * @return A boolean telling whether the player is in stale mate or not
+	 */
+	public boolean isInStaleMate() {
+		return !this.isInCheck && !hasAnyLegalMove();
 	}
 
 	/**
-	 * Tells if the player has some legal move that can be done
+	 * Tells if the player has some legal move that can be done. The legal moves are
+	 * counted without making them, and the answer is kept for the next calls
 	 * @return A boolean telling if the player has some legal move that can be done
 	 */
-	protected boolean hasEscapeMoves() {
-		boolean res = false;
-		for (final Move move : this.legalMoves) {
-			final MoveTransition transition = makeMove(move);
-			if (transition.getMoveStatus().isDone()) {
-				res = true;
-			}
+	public boolean hasAnyLegalMove() {
+		if (this.hasAnyLegalMove == 0) {
+			this.hasAnyLegalMove = countLegalMoves() > 0 ? (byte) 1 : (byte) -1;
 		}
-		return res;
+		return this.hasAnyLegalMove > 0;
 	}
 
 	/**
-	 * Tells if the player is in a stale mate position
-	 * @return A boolean telling whether the player is in stale mate or not
+	 * Counts the legal moves of the player (the moves that don't leave the king in check),
+	 * without making them nor creating the boards they lead to
+	 * @return The number of legal moves
 	 */
-	public boolean isInStaleMate() {
-		return !this.isInCheck && !hasEscapeMoves();
+	public int countLegalMoves() {
+		return MoveCounter.countLegalMoves(this.board, getAlliance()) + this.kingCastleCount;
 	}
 	
 	/**
@@ -133,8 +215,7 @@ public abstract class Player {
 	 * @return A boolean that tells if the player is castled or not
 	 */
 	public boolean isCastled() {
-		//TODO Implement this method
-		return false;
+		return this.board.hasCastled(getAlliance());
 	}
 	
 	/**
@@ -144,20 +225,22 @@ public abstract class Player {
 	 */
 	public MoveTransition makeMove(final Move move) {
 		MoveTransition res = null;
-		if (!isMoveLegal(move)) {
+		final Move legalMove = findCanonicalMove(move);
+		if (legalMove == null) {
 			res = new MoveTransition(this.board, move, MoveStatus.ILLEGAL_MOVE);
 		} else {
-			final Board transitionBoard = move.execute();
+			final Board transitionBoard = legalMove.execute();
 			final int kingsPosition = transitionBoard.currentPlayer().getOpponent().getPlayerKing().getPiecePosition();
-			final Collection<Move> opponentLegalMoves = transitionBoard.currentPlayer().getLegalMoves();
-			final Collection<Move> kingAttacks = calculateAttacksOnTile(kingsPosition, opponentLegalMoves);
 			
-			if (!kingAttacks.isEmpty()) {
-				res = new MoveTransition(this.board, move, MoveStatus.LEAVES_PLAYER_IN_CHECK);
+			if (transitionBoard.isTileAttacked(kingsPosition, transitionBoard.currentPlayer().getAlliance())) {
+				res = new MoveTransition(this.board, legalMove, MoveStatus.LEAVES_PLAYER_IN_CHECK);
 			} else {
-				res = new MoveTransition(this.board, move, MoveStatus.DONE);
+				res = new MoveTransition(transitionBoard, legalMove, MoveStatus.DONE);
 			}
 		}
+		if (EngineMetrics.ENABLED) {
+			EngineMetrics.moveMade(res.getMoveStatus());
+		}
 		return res;
 	}
 	
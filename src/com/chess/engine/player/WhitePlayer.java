@@ -1,11 +1,14 @@
 package com.chess.engine.player;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 import com.chess.engine.Alliance;
 import com.chess.engine.board.Board;
 import com.chess.engine.board.Move;
 import com.chess.engine.pieces.Piece;
+import com.google.common.collect.ImmutableList;
 
 /**
  * Describes the white pieces player
@@ -25,6 +28,21 @@ public class WhitePlayer extends Player {
 		super(board, whiteStandardLegalMoves, blackStandardLegalMoves);
 	}
 
+	@Override
+	protected Collection<Move> calculateKingCastles() {
+		final List<Move> kingCastles = new ArrayList<>();
+		// The king starts on e1, the rooks in the corners of the first row of the player
+		final Move kingSideCastle = calculateCastle(Board.WHITE_KING_SIDE_CASTLE, 60, 63, 62);
+		if (kingSideCastle != null) {
+			kingCastles.add(kingSideCastle);
+		}
+		final Move queenSideCastle = calculateCastle(Board.WHITE_QUEEN_SIDE_CASTLE, 60, 56, 58);
+		if (queenSideCastle != null) {
+			kingCastles.add(queenSideCastle);
+		}
+		return ImmutableList.copyOf(kingCastles);
+	}
+
 	@Override
 	public Collection<Piece> getActivePieces() {
 		return this.board.getWhitePieces();
@@ -0,0 +1,826 @@
+package com.chess.engine.player.ai;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BooleanSupplier;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.board.Move;
+import com.chess.engine.metrics.EngineMetrics;
+import com.chess.engine.metrics.SearchIterationEvent;
+import com.chess.engine.player.MoveTransition;
+import com.chess.engine.player.Player;
+
+/**
+ * An iterative deepening alpha-beta search (negamax formulation) using a transposition table.
+ * Only the first move of each node is searched with the full window : the other moves are
+ * searched with a null window to prove that they are worse, and searched again when they are not
+ * (principal variation search). Each iteration begins with a narrow window around the score of
+ * the previous iteration, widened when the score falls out of it (aspiration windows)
+ * /!\ An instance is not thread safe : use one instance per thread
+ * @author antsalin
+ *
+ */
+public class AlphaBeta implements MoveStrategy {
+
+	/** The score of a checkmate : mates found closer to the root score higher */
+	public static final int MATE_SCORE = 100000;
+
+	/** A score greater than every possible score */
+	private static final int INFINITY = MATE_SCORE + 1;
+
+	/** The lowest score of a mate */
+	private static final int MATE_BOUND = MATE_SCORE - SearchLimits.MAX_DEPTH;
+
+	/** Number of nodes between two checks of the clock : a power of 2 */
+	private static final int CLOCK_CHECK_INTERVAL = 1024;
+
+	/** Orders the captures first, the most valuable victims and the least valuable attackers first */
+	private static final Comparator<Move> MVV_LVA = new Comparator<Move>() {
+		@Override
+		public int compare(final Move move1, final Move move2) {
+			return Integer.compare(captureScore(move2), captureScore(move1));
+		}
+	};
+
+	/** Number of killer moves kept for each ply */
+	private static final int KILLERS_PER_PLY = 2;
+
+	/** The history score from which all the history scores are halved */
+	private static final int HISTORY_LIMIT = 1 << 20;
+
+	/** The ordering score of the captures, to which their MVV-LVA score is added */
+	private static final int CAPTURE_ORDER = 1 << 30;
+
+	/** The ordering score of the first killer move, the next ones score one less each */
+	private static final int KILLER_ORDER = 1 << 29;
+
+	/** The half width of the first aspiration window, doubled after each failure */
+	private static final int ASPIRATION_WINDOW = 25;
+
+	/** The first depth searched with an aspiration window */
+	private static final int ASPIRATION_MIN_DEPTH = 4;
+
+	/** The function used to evaluate the leaves of the search */
+	private final BoardEvaluator evaluator;
+
+	/** The depth used by {@link #execute(Board)} */
+	private final int searchDepth;
+
+	/** The table storing the results of the searched boards, kept from one search to the next */
+	private final TranspositionTable transpositionTable;
+
+	/** The object notified after each iteration, may be null */
+	private SearchListener listener;
+
+	/** Tells the searches when their caller gave up on them, may be null */
+	private BooleanSupplier cancellation;
+
+	/** Tells if each search starts a new generation of the transposition table */
+	private boolean tableAging = true;
+
+	/** The number of nodes visited by the current search */
+	private long nodes;
+
+	/** The number of nodes the current search can visit (negative if unlimited) */
+	private long maxNodes;
+
+	/** The time at which the current search has to stop, in milliseconds (negative if unlimited) */
+	private volatile long deadline;
+
+	/** Tells if the current search has to stop as soon as possible */
+	private volatile boolean stopRequested;
+
+	/** Counted down by the next search once its deadline and stop state are set, may be null */
+	private volatile CountDownLatch startSignal;
+
+	/** The number of moves of the current search searched again after failing high of their null window */
+	private long pvsReSearches;
+
+	/** The number of root searches of the current search repeated with a wider aspiration window */
+	private long aspirationReSearches;
+
+	/** The best move found by the last root search, see {@link #searchRoot(Board, List, List, int, int, int, boolean)} */
+	private Move rootBestMove;
+
+	/** The number of nodes searched below the best move of the last root search */
+	private long rootBestMoveNodes;
+
+	/** The number of legal moves searched by the last root search */
+	private int rootLegalMoves;
+
+	/** The last quiet moves that caused a beta cutoff at each ply (encoded, see {@link TranspositionTable#encodeMove(Move)}) */
+	private final int[][] killerMoves = new int[SearchLimits.MAX_DEPTH + 1][KILLERS_PER_PLY];
+
+	/** How often each quiet move (by current and destination tiles) caused a beta cutoff, weighted by the depth */
+	private final int[] historyScores = new int[BoardUtils.NUM_TILES * BoardUtils.NUM_TILES];
+
+	/**
+	 * Constructor
+	 * @param evaluator The function used to evaluate the leaves of the search
+	 * @param searchDepth The depth used when choosing a move with {@link #execute(Board)}
+	 */
+	public AlphaBeta(final BoardEvaluator evaluator, final int searchDepth) {
+		this(evaluator, searchDepth, new TranspositionTable(TranspositionTable.DEFAULT_SIZE_MB));
+	}
+
+	/**
+	 * Constructor
+	 * @param evaluator The function used to evaluate the leaves of the search
+	 * @param searchDepth The depth used when choosing a move with {@link #execute(Board)}
+	 * @param transpositionTable The table storing the results of the searched boards
+	 */
+	public AlphaBeta(final BoardEvaluator evaluator, final int searchDepth,
+			final TranspositionTable transpositionTable) {
+		this.evaluator = evaluator;
+		this.searchDepth = searchDepth;
+		this.transpositionTable = transpositionTable;
+	}
+
+	@Override
+	public Move execute(final Board board) {
+		return search(board, SearchLimits.depth(this.searchDepth)).getBestMove();
+	}
+
+	/**
+	 * Sets the object notified after each iteration
+	 * @param listener The listener, or null to remove it
+	 */
+	public void setListener(final SearchListener listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * Tells whether each search starts a new generation of the transposition table (the default).
+	 * The owner of a table shared by concurrent searches starts the generations itself, so that
+	 * a search doesn't age the entries of the searches still running
+	 * @param tableAging False to leave the generation of the table to its owner
+	 */
+	public void setTableAging(final boolean tableAging) {
+		this.tableAging = tableAging;
+	}
+
+	/**
+	 * Sets the object telling the searches when their caller gave up on them : it is checked
+	 * with the clock, and the search stops as if its time was over
+	 * @param cancellation Returns true when the current search has to stop, or null to remove it
+	 */
+	public void setCancellation(final BooleanSupplier cancellation) {
+		this.cancellation = cancellation;
+	}
+
+	/**
+	 * Searches the best move of the current player
+	 * @param board The board to search
+	 * @param limits When the search has to stop
+	 * @return The result of the last completed iteration
+	 */
+	public SearchResult search(final Board board, final SearchLimits limits) {
+		final long startTime = System.currentTimeMillis();
+		final TimeManager timeManager = limits.createTimeManager();
+		this.nodes = 0;
+		this.pvsReSearches = 0;
+		this.aspirationReSearches = 0;
+		this.stopRequested = false;
+		this.maxNodes = limits.getNodes();
+		this.deadline = calculateDeadline(startTime, limits, timeManager);
+		// Signaled after the deadline and the stop state are set : a stop or a deadline given once it is seen is kept
+		final CountDownLatch signal = this.startSignal;
+		if (signal != null) {
+			this.startSignal = null;
+			signal.countDown();
+		}
+		if (this.tableAging) {
+			this.transpositionTable.newSearch();
+		}
+		for (final int[] killers : this.killerMoves) {
+			Arrays.fill(killers, 0);
+		}
+		ageHistory();
+
+		final List<Move> rootMoves = orderMoves(board.currentPlayer().getLegalMoves(),
+				TranspositionTable.getMove(this.transpositionTable.probe(board.getZobristHash())), 0);
+		SearchResult result = new SearchResult(null, 0, 0, 0, 0, new ArrayList<Move>());
+		final int multiPv = Math.min(limits.getMultiPv(), Math.max(1, rootMoves.size()));
+		// The moves of the lines already found in the current iteration
+		final List<Move> lineMoves = new ArrayList<>(multiPv);
+		int previousScore = 0;
+
+		for (int depth = 1; depth <= limits.getDepth(); depth++) {
+			final long iterationStartTime = System.nanoTime();
+			final SearchIterationEvent event = new SearchIterationEvent();
+			event.begin();
+			final long iterationStartNodes = this.nodes;
+			lineMoves.clear();
+			boolean interrupted = false;
+			int legalMoves = 0;
+			long bestMoveNodes = 0;
+			long firstLineNodes = 0;
+			int bestScore = 0;
+
+			// Each line searches the root moves that are not the first move of a previous line :
+			// the lines share the transposition table and the move ordering tables
+			for (int line = 1; line <= multiPv; line++) {
+				// An interrupted iteration is only used for the first line of the first depth, to always have a move
+				final boolean keepInterrupted = depth == 1 && line == 1;
+				int windowAlpha = -INFINITY;
+				int windowBeta = INFINITY;
+				int window = ASPIRATION_WINDOW;
+				if (line == 1 && depth >= ASPIRATION_MIN_DEPTH && Math.abs(previousScore) < MATE_BOUND) {
+					windowAlpha = previousScore - window;
+					windowBeta = previousScore + window;
+				}
+				int alpha = searchRoot(board, rootMoves, lineMoves, depth, windowAlpha, windowBeta, keepInterrupted);
+				while (!(this.stopRequested && !keepInterrupted) &&
+						((alpha <= windowAlpha && windowAlpha > -INFINITY) || (alpha >= windowBeta && windowBeta < INFINITY))) {
+					// Out of the window : searching again with a wider window on the side of the failure
+					final boolean failHigh = alpha >= windowBeta;
+					this.aspirationReSearches++;
+					if (EngineMetrics.ENABLED) {
+						EngineMetrics.aspirationReSearch(failHigh);
+					}
+					window *= 2;
+					if (failHigh) {
+						windowBeta = Math.min(alpha + window, INFINITY);
+					} else {
+						windowBeta = (windowAlpha + windowBeta) / 2;
+						windowAlpha = Math.max(alpha - window, -INFINITY);
+					}
+					alpha = searchRoot(board, rootMoves, lineMoves, depth, windowAlpha, windowBeta, keepInterrupted);
+				}
+				final Move lineBestMove = this.rootBestMove;
+				interrupted = this.stopRequested && !keepInterrupted;
+				if (line == 1) {
+					legalMoves = this.rootLegalMoves;
+					bestMoveNodes = this.rootBestMoveNodes;
+					bestScore = alpha;
+					previousScore = alpha;
+					firstLineNodes = this.nodes - iterationStartNodes;
+					recordIteration(event, iterationStartTime, depth, interrupted ? null : lineBestMove, alpha, interrupted);
+				}
+				if (interrupted || lineBestMove == null) {
+					// Interrupted, or no more legal move (checkmate or stalemate for the first line)
+					break;
+				}
+				lineMoves.add(lineBestMove);
+				final SearchResult lineResult = new SearchResult(lineBestMove, alpha, depth, this.nodes,
+						System.currentTimeMillis() - startTime, extractPrincipalVariation(board, lineBestMove, depth), line);
+				if (line == 1) {
+					this.transpositionTable.store(board.getZobristHash(), TranspositionTable.encodeMove(lineBestMove),
+							alpha, depth, TranspositionTable.EXACT);
+					result = lineResult;
+				}
+				if (this.listener != null) {
+					this.listener.onIteration(lineResult);
+				}
+				if (this.stopRequested) {
+					break;
+				}
+			}
+			if (lineMoves.isEmpty()) {
+				break;
+			}
+			if (this.stopRequested || (multiPv == 1 && Math.abs(bestScore) >= MATE_BOUND)) {
+				// The search was interrupted or a forced mate was found : searching deeper won't change anything
+				break;
+			}
+			final double bestMoveNodeShare = (double) bestMoveNodes / Math.max(1, firstLineNodes);
+			if (timeManager != null && timeManager.shouldStop(result, bestMoveNodeShare, legalMoves)) {
+				break;
+			}
+			// Searching the lines of the previous iteration first, in their order
+			rootMoves.removeAll(lineMoves);
+			rootMoves.addAll(0, lineMoves);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Searches the root moves that are not the first move of a previous line.
+	 * The best move, its number of nodes and the number of legal moves are kept in
+	 * {@link #rootBestMove}, {@link #rootBestMoveNodes} and {@link #rootLegalMoves}
+	 * @param board The board at the root of the search
+	 * @param rootMoves The ordered root moves
+	 * @param lineMoves The first moves of the previous lines, which are not searched
+	 * @param depth The depth of the iteration
+	 * @param alpha The lower bound of the search window
+	 * @param beta The upper bound of the search window
+	 * @param keepInterrupted Tells if the moves searched before an interruption are kept
+	 * @return The score of the best move : a lower bound if it is at least beta, an upper bound if it is at most alpha
+	 */
+	private int searchRoot(final Board board, final List<Move> rootMoves, final List<Move> lineMoves, final int depth,
+			int alpha, final int beta, final boolean keepInterrupted) {
+		this.rootBestMove = null;
+		this.rootBestMoveNodes = 0;
+		this.rootLegalMoves = 0;
+		int bestScore = -INFINITY;
+		for (final Move move : rootMoves) {
+			if (lineMoves.contains(move)) {
+				continue;
+			}
+			final MoveTransition transition = board.currentPlayer().makeMove(move);
+			if (!transition.getMoveStatus().isDone()) {
+				continue;
+			}
+			this.rootLegalMoves++;
+			final long moveStartNodes = this.nodes;
+			final int score = searchMove(transition.getTransitionBoard(), depth - 1, 1, alpha, beta, this.rootLegalMoves == 1);
+			if (this.stopRequested && !keepInterrupted) {
+				break;
+			}
+			if (score > bestScore) {
+				bestScore = score;
+				this.rootBestMove = move;
+				this.rootBestMoveNodes = this.nodes - moveStartNodes;
+				if (score > alpha) {
+					alpha = score;
+					if (alpha >= beta) {
+						break;
+					}
+				}
+			}
+		}
+		return bestScore;
+	}
+
+	/**
+	 * Searches the board reached by a move : the first move of a node is searched with the full window,
+	 * the other moves with a null window, and again with the full window if they fail high
+	 * @param board The board reached by the move
+	 * @param depth The remaining depth after the move
+	 * @param ply The distance of the board from the root of the search
+	 * @param alpha The lower bound of the search window, for the player who made the move
+	 * @param beta The upper bound of the search window, for the player who made the move
+	 * @param firstMove Tells if the move is the first move searched at its node
+	 * @return The score of the move, from the point of view of the player who made it
+	 */
+	private int searchMove(final Board board, final int depth, final int ply, final int alpha, final int beta,
+			final boolean firstMove) {
+		if (firstMove) {
+			return -negamax(board, depth, ply, -beta, -alpha);
+		}
+		final int score = -negamax(board, depth, ply, -alpha - 1, -alpha);
+		if (score > alpha && score < beta && !this.stopRequested) {
+			this.pvsReSearches++;
+			if (EngineMetrics.ENABLED) {
+				EngineMetrics.pvsReSearch();
+			}
+			return -negamax(board, depth, ply, -beta, -alpha);
+		}
+		return score;
+	}
+
+	/**
+	 * Records the end of an iteration in the metrics and the Flight Recorder
+	 * @param event The Flight Recorder event of the iteration
+	 * @param iterationStartTime When the iteration began, in nanoseconds
+	 * @param depth The depth of the iteration
+	 * @param bestMove The best move of the iteration, null if unknown
+	 * @param score The score of the best move
+	 * @param interrupted Tells if the iteration was interrupted before its end
+	 */
+	private void recordIteration(final SearchIterationEvent event, final long iterationStartTime, final int depth,
+			final Move bestMove, final int score, final boolean interrupted) {
+		if (EngineMetrics.ENABLED) {
+			EngineMetrics.iterationCompleted(System.nanoTime() - iterationStartTime);
+		}
+		event.end();
+		if (event.shouldCommit()) {
+			event.depth = depth;
+			event.nodes = this.nodes;
+			event.score = score;
+			event.bestMove = bestMove == null ? null : bestMove.toString();
+			event.interrupted = interrupted;
+			event.commit();
+		}
+	}
+
+	/**
+	 * Calculates the time at which a search has to stop
+	 * @param startTime The time at which the search begins, in milliseconds
+	 * @param limits The limits of the search
+	 * @param timeManager The object deciding the time of the search from the clock, may be null
+	 * @return The deadline in milliseconds, negative if unlimited
+	 */
+	private static long calculateDeadline(final long startTime, final SearchLimits limits, final TimeManager timeManager) {
+		long deadline = limits.isTimed() ? startTime + limits.getMoveTimeMillis() : -1;
+		if (timeManager != null) {
+			final long hardDeadline = startTime + timeManager.getHardLimitMillis();
+			deadline = deadline < 0 ? hardDeadline : Math.min(deadline, hardDeadline);
+		}
+		return deadline;
+	}
+
+	/**
+	 * Asks the current search to stop as soon as possible
+	 */
+	public void stop() {
+		this.stopRequested = true;
+	}
+
+	/**
+	 * Changes the time at which the current search has to stop
+	 * @param deadline The new deadline in milliseconds (as given by System.currentTimeMillis), negative if unlimited
+	 */
+	public void setDeadline(final long deadline) {
+		this.deadline = deadline;
+	}
+
+	/**
+	 * Sets the latch the next search counts down once it has begun. A search sets its own deadline
+	 * and stop state when it begins, so a call to {@link #stop()} or {@link #setDeadline(long)}
+	 * is only kept by the search once the latch is released
+	 * @param startSignal The latch released by the next search
+	 */
+	public void setStartSignal(final CountDownLatch startSignal) {
+		this.startSignal = startSignal;
+	}
+
+	/**
+	 * Gets the number of nodes visited by the current search
+	 * @return The number of nodes
+	 */
+	public long getNodes() {
+		return this.nodes;
+	}
+
+	/**
+	 * Gets the number of moves of the current search that were searched again with a full window
+	 * after failing high of their null window
+	 * @return The number of principal variation re-searches
+	 */
+	public long getPvsReSearches() {
+		return this.pvsReSearches;
+	}
+
+	/**
+	 * Gets the number of root searches of the current search that were repeated with a wider aspiration window
+	 * @return The number of aspiration re-searches
+	 */
+	public long getAspirationReSearches() {
+		return this.aspirationReSearches;
+	}
+
+	/**
+	 * Gets the table storing the results of the searched boards
+	 * @return The transposition table
+	 */
+	public TranspositionTable getTranspositionTable() {
+		return this.transpositionTable;
+	}
+
+	/**
+	 * Searches a board
+	 * @param board The board to search
+	 * @param depth The remaining depth
+	 * @param ply The distance from the root of the search
+	 * @param alpha The lower bound of the search window
+	 * @param beta The upper bound of the search window
+	 * @return The score of the board from the point of view of the player to move
+	 */
+	private int negamax(final Board board, final int depth, final int ply, int alpha, final int beta) {
+		this.nodes++;
+		checkLimits();
+		if (this.stopRequested) {
+			return 0;
+		}
+		if (depth == 0) {
+			return quiescence(board, ply, alpha, beta);
+		}
+
+		// Using the result of a previous search of this board
+		final long key = board.getZobristHash();
+		final long entry = this.transpositionTable.probe(key);
+		if (entry != 0 && TranspositionTable.getDepth(entry) >= depth) {
+			final int ttScore = scoreFromTable(TranspositionTable.getScore(entry), ply);
+			final int bound = TranspositionTable.getBound(entry);
+			if (bound == TranspositionTable.EXACT ||
+					(bound == TranspositionTable.LOWER_BOUND && ttScore >= beta) ||
+					(bound == TranspositionTable.UPPER_BOUND && ttScore <= alpha)) {
+				if (EngineMetrics.ENABLED) {
+					EngineMetrics.tableCutoff();
+				}
+				return ttScore;
+			}
+		}
+
+		final Player player = board.currentPlayer();
+		final int originalAlpha = alpha;
+		int bestScore = -INFINITY;
+		Move bestMove = null;
+		for (final Move move : orderMoves(player.getLegalMoves(), TranspositionTable.getMove(entry), ply)) {
+			final MoveTransition transition = player.makeMove(move);
+			if (!transition.getMoveStatus().isDone()) {
+				continue;
+			}
+			final int score = searchMove(transition.getTransitionBoard(), depth - 1, ply + 1, alpha, beta, bestMove == null);
+			if (this.stopRequested) {
+				return 0;
+			}
+			if (score > bestScore) {
+				bestScore = score;
+				bestMove = move;
+				if (score > alpha) {
+					alpha = score;
+					if (alpha >= beta) {
+						if (EngineMetrics.ENABLED) {
+							EngineMetrics.betaCutoff();
+						}
+						if (!move.isAttack()) {
+							recordQuietCutoff(move, depth, ply);
+						}
+						break;
+					}
+				}
+			}
+		}
+
+		if (bestMove == null) {
+			// Checkmate or stalemate
+			return player.isInCheck() ? -MATE_SCORE + ply : 0;
+		}
+
+		final int bound = bestScore >= beta ? TranspositionTable.LOWER_BOUND :
+			bestScore > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER_BOUND;
+		this.transpositionTable.store(key, TranspositionTable.encodeMove(bestMove),
+				scoreToTable(bestScore, ply), depth, bound);
+		return bestScore;
+	}
+
+	/**
+	 * Gives the score of a board once all its captures have been resolved
+	 * @param board The board to search
+	 * @return The score of the quiet position reached, from the point of view of the player to move
+	 */
+	public int quiescence(final Board board) {
+		this.nodes = 0;
+		this.stopRequested = false;
+		this.maxNodes = -1;
+		this.deadline = -1;
+		return quiescence(board, 0, -INFINITY, INFINITY);
+	}
+
+	/**
+	 * Searches only the captures of a board, so that the leaves of the search are never evaluated
+	 * in the middle of an exchange. The player to move can always refuse to capture (stand pat)
+	 * @param board The board to search
+	 * @param ply The distance from the root of the search
+	 * @param alpha The lower bound of the search window
+	 * @param beta The upper bound of the search window
+	 * @return The score of the board from the point of view of the player to move
+	 */
+	private int quiescence(final Board board, final int ply, int alpha, final int beta) {
+		this.nodes++;
+		checkLimits();
+		if (this.stopRequested) {
+			return 0;
+		}
+		final int standPat = evaluate(board, 0);
+		if (standPat >= beta || ply >= SearchLimits.MAX_DEPTH) {
+			return standPat;
+		}
+		if (standPat > alpha) {
+			alpha = standPat;
+		}
+
+		final Player player = board.currentPlayer();
+		for (final Move move : orderCaptures(player.getLegalMoves())) {
+			final MoveTransition transition = player.makeMove(move);
+			if (!transition.getMoveStatus().isDone()) {
+				continue;
+			}
+			final int score = -quiescence(transition.getTransitionBoard(), ply + 1, -beta, -alpha);
+			if (this.stopRequested) {
+				return 0;
+			}
+			if (score > alpha) {
+				alpha = score;
+				if (alpha >= beta) {
+					break;
+				}
+			}
+		}
+		return alpha;
+	}
+
+	/**
+	 * Stops the search if it has visited all its nodes, used all its time or was cancelled.
+	 * The clock and the cancellation are only read every {@link #CLOCK_CHECK_INTERVAL} nodes
+	 */
+	private void checkLimits() {
+		if (this.maxNodes >= 0 && this.nodes >= this.maxNodes) {
+			this.stopRequested = true;
+		} else if ((this.nodes & (CLOCK_CHECK_INTERVAL - 1)) == 0) {
+			final long currentDeadline = this.deadline;
+			if ((currentDeadline >= 0 && System.currentTimeMillis() >= currentDeadline) ||
+					(this.cancellation != null && this.cancellation.getAsBoolean())) {
+				this.stopRequested = true;
+			}
+		}
+	}
+
+	/**
+	 * Follows the best moves stored in the transposition table
+	 * @param board The board at the root of the search
+	 * @param bestMove The best move of the root
+	 * @param maxLength The maximum number of moves of the variation
+	 * @return The principal variation, beginning with the best move
+	 */
+	private List<Move> extractPrincipalVariation(final Board board, final Move bestMove, final int maxLength) {
+		final List<Move> principalVariation = new ArrayList<>();
+		final Set<Long> visitedBoards = new HashSet<>();
+		Board currentBoard = board;
+		Move move = bestMove;
+		while (move != null && principalVariation.size() < maxLength && visitedBoards.add(currentBoard.getZobristHash())) {
+			final MoveTransition transition = currentBoard.currentPlayer().makeMove(move);
+			if (!transition.getMoveStatus().isDone()) {
+				break;
+			}
+			principalVariation.add(move);
+			currentBoard = transition.getTransitionBoard();
+			move = findMove(currentBoard.currentPlayer().getLegalMoves(),
+					TranspositionTable.getMove(this.transpositionTable.probe(currentBoard.getZobristHash())));
+		}
+		return principalVariation;
+	}
+
+	/**
+	 * Evaluates a board from the point of view of the player to move
+	 * @param board The board to evaluate
+	 * @param depth The remaining depth
+	 * @return The score of the board
+	 */
+	private int evaluate(final Board board, final int depth) {
+		final int score = this.evaluator.evaluate(board, depth);
+		return board.currentPlayer().getAlliance().isWhite() ? score : -score;
+	}
+
+	/**
+	 * Converts a score to store it in the transposition table : mate scores are stored
+	 * relative to the stored board rather than to the root
+	 * @param score The score
+	 * @param ply The distance from the root
+	 * @return The score to store
+	 */
+	private static int scoreToTable(final int score, final int ply) {
+		if (score >= MATE_BOUND) {
+			return score + ply;
+		} else if (score <= -MATE_BOUND) {
+			return score - ply;
+		}
+		return score;
+	}
+
+	/**
+	 * Converts a score read from the transposition table
+	 * @param score The stored score
+	 * @param ply The distance from the root
+	 * @return The score relative to the root
+	 */
+	private static int scoreFromTable(final int score, final int ply) {
+		if (score >= MATE_BOUND) {
+			return score - ply;
+		} else if (score <= -MATE_BOUND) {
+			return score + ply;
+		}
+		return score;
+	}
+
+	/**
+	 * Orders the moves so that the best ones are searched first : the move of the transposition table,
+	 * then the captures (MVV-LVA), then the killer moves of the ply, then the other moves by history score
+	 * @param moves The moves to order
+	 * @param tableMove The encoded move of the transposition table, 0 if unknown
+	 * @param ply The distance from the root
+	 * @return A new list with the ordered moves
+	 */
+	private List<Move> orderMoves(final Collection<Move> moves, final int tableMove, final int ply) {
+		final Move[] orderedMoves = moves.toArray(new Move[moves.size()]);
+		final int[] scores = new int[orderedMoves.length];
+		final int[] killers = this.killerMoves[Math.min(ply, SearchLimits.MAX_DEPTH)];
+		for (int i = 0; i < orderedMoves.length; i++) {
+			final Move move = orderedMoves[i];
+			final int encodedMove = TranspositionTable.encodeMove(move);
+			if (encodedMove == tableMove) {
+				scores[i] = Integer.MAX_VALUE;
+			} else if (move.isAttack()) {
+				scores[i] = CAPTURE_ORDER + captureScore(move);
+			} else {
+				scores[i] = this.historyScores[historyIndex(move)];
+				for (int k = 0; k < KILLERS_PER_PLY; k++) {
+					if (killers[k] == encodedMove) {
+						scores[i] = KILLER_ORDER - k;
+						break;
+					}
+				}
+			}
+		}
+		// Insertion sort : there are only a few dozen moves, and the sort is stable
+		for (int i = 1; i < orderedMoves.length; i++) {
+			final Move move = orderedMoves[i];
+			final int score = scores[i];
+			int j = i - 1;
+			while (j >= 0 && scores[j] < score) {
+				orderedMoves[j + 1] = orderedMoves[j];
+				scores[j + 1] = scores[j];
+				j--;
+			}
+			orderedMoves[j + 1] = move;
+			scores[j + 1] = score;
+		}
+		return new ArrayList<>(Arrays.asList(orderedMoves));
+	}
+
+	/**
+	 * Remembers a quiet move that caused a beta cutoff : it becomes the first killer move of its ply
+	 * and its history score grows with the square of the depth
+	 * @param move The move
+	 * @param depth The remaining depth when the cutoff happened
+	 * @param ply The distance from the root
+	 */
+	private void recordQuietCutoff(final Move move, final int depth, final int ply) {
+		final int[] killers = this.killerMoves[Math.min(ply, SearchLimits.MAX_DEPTH)];
+		final int encodedMove = TranspositionTable.encodeMove(move);
+		if (killers[0] != encodedMove) {
+			System.arraycopy(killers, 0, killers, 1, KILLERS_PER_PLY - 1);
+			killers[0] = encodedMove;
+		}
+		final int index = historyIndex(move);
+		this.historyScores[index] += depth * depth;
+		if (this.historyScores[index] >= HISTORY_LIMIT) {
+			ageHistory();
+		}
+	}
+
+	/**
+	 * Halves all the history scores, so that the recent cutoffs count more than the old ones
+	 */
+	private void ageHistory() {
+		for (int i = 0; i < this.historyScores.length; i++) {
+			this.historyScores[i] >>= 1;
+		}
+	}
+
+	/**
+	 * Gives the index of a move in the history scores
+	 * @param move The move
+	 * @return The index of the move
+	 */
+	private static int historyIndex(final Move move) {
+		return move.getCurrentCoordinate() * BoardUtils.NUM_TILES + move.getDestinationCoordinate();
+	}
+
+	/**
+	 * Keeps only the captures, the best ones first
+	 * @param moves The moves
+	 * @return A new list with the ordered captures
+	 */
+	private static List<Move> orderCaptures(final Collection<Move> moves) {
+		final List<Move> captures = new ArrayList<>();
+		for (final Move move : moves) {
+			if (move.isAttack()) {
+				captures.add(move);
+			}
+		}
+		captures.sort(MVV_LVA);
+		return captures;
+	}
+
+	/**
+	 * Finds the move matching an encoded move
+	 * @param moves The moves
+	 * @param encodedMove The encoded move
+	 * @return The matching move, or null if there is none
+	 */
+	private static Move findMove(final Collection<Move> moves, final int encodedMove) {
+		if (encodedMove != 0) {
+			for (final Move move : moves) {
+				if (TranspositionTable.isSameMove(move, encodedMove)) {
+					return move;
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Gives a score to a move for the move ordering
+	 * @param move The move
+	 * @return The score of the move : 0 for a quiet move, higher for better captures
+	 */
+	private static int captureScore(final Move move) {
+		if (!move.isAttack()) {
+			return 0;
+		}
+		return 10 * move.getAttackedPiece().getPieceType().getPieceValue() -
+				move.getMovedPiece().getPieceType().getPieceValue() / 10 + 1;
+	}
+}
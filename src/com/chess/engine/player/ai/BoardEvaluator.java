@@ -0,0 +1,19 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.Board;
+
+/**
+ * Describes a function that gives a score to a board
+ * @author antsalin
+ *
+ */
+public interface BoardEvaluator {
+
+	/**
+	 * Evaluates a board
+	 * @param board The board to evaluate
+	 * @param depth The remaining search depth when the board is evaluated
+	 * @return The score of the board : positive if white is better, negative if black is better
+	 */
+	int evaluate(Board board, int depth);
+}
@@ -0,0 +1,200 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.Board;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.pieces.Piece;
+import com.chess.engine.pieces.Piece.PieceType;
+
+/**
+ * Specialised evaluations of the endgames the general evaluation gets wrong.
+ * Each one is selected from the material of the board (see {@link MaterialEntry}),
+ * and replaces the whole evaluation of the board
+ * @author antsalin
+ *
+ */
+public enum EndgameEvaluator {
+
+	/**
+	 * Neither side can mate : a bare king, or a king and a few minor pieces without pawns
+	 */
+	DRAW {
+		@Override
+		public int evaluate(final Board board, final Alliance strongSide, final int material) {
+			return 0;
+		}
+	},
+
+	/**
+	 * A side with some material against a lone king : the lone king is pushed to the side
+	 * of the board and the other king comes closer, so that the search finds the mate
+	 */
+	KXK {
+		@Override
+		public int evaluate(final Board board, final Alliance strongSide, final int material) {
+			final int strongKing = kingTile(board, strongSide);
+			final int weakKing = kingTile(board, opponent(strongSide));
+			int score = material + pushToEdge(weakKing) + pushClose(distance(strongKing, weakKing));
+			if (hasMatingMaterial(board, strongSide)) {
+				score += KNOWN_WIN;
+			}
+			return score;
+		}
+	},
+
+	/**
+	 * A bishop and a knight against a lone king : the mate is only possible in a corner
+	 * of the colour of the bishop, so the lone king is pushed toward these corners
+	 */
+	KBNK {
+		@Override
+		public int evaluate(final Board board, final Alliance strongSide, final int material) {
+			final int strongKing = kingTile(board, strongSide);
+			final int weakKing = kingTile(board, opponent(strongSide));
+			final Piece bishop = findPiece(board, strongSide, PieceType.BISHOP);
+			// a8 is a light tile : the light corners are a8 and h1, the dark corners h8 and a1
+			final int cornerDistance = isLightTile(bishop.getPiecePosition()) ?
+					Math.min(distance(weakKing, 0), distance(weakKing, 63)) :
+					Math.min(distance(weakKing, 7), distance(weakKing, 56));
+			return KNOWN_WIN + material + pushClose(distance(strongKing, weakKing)) +
+					CORNER_BONUS * (BoardUtils.NUM_TILES_PER_ROW - 1 - cornerDistance);
+		}
+	},
+
+	/**
+	 * A rook against a pawn : won when the strong king stops the pawn or the weak king
+	 * is too far from its pawn, close to a draw when the pawn is supported
+	 */
+	KRKP {
+		@Override
+		public int evaluate(final Board board, final Alliance strongSide, final int material) {
+			final Alliance weakSide = opponent(strongSide);
+			final int strongKing = kingTile(board, strongSide);
+			final int weakKing = kingTile(board, weakSide);
+			final int rook = findPiece(board, strongSide, PieceType.ROOK).getPiecePosition();
+			final int pawn = findPiece(board, weakSide, PieceType.PAWN).getPiecePosition();
+			final int column = pawn % BoardUtils.NUM_TILES_PER_ROW;
+			// The pawn walks toward the first row for white, toward the last row for black
+			final int queeningTile = weakSide.isWhite() ? column : column + BoardUtils.NUM_TILES - BoardUtils.NUM_TILES_PER_ROW;
+			final int tempo = board.currentPlayer().getAlliance() == weakSide ? 1 : 0;
+
+			final boolean kingInFront = strongKing % BoardUtils.NUM_TILES_PER_ROW == column &&
+					(weakSide.isWhite() ? strongKing < pawn : strongKing > pawn);
+			if (kingInFront || (distance(weakKing, pawn) >= 3 + tempo && distance(weakKing, rook) >= 3)) {
+				return material - distance(strongKing, pawn) * KING_DISTANCE_PENALTY;
+			}
+			// The pawn is supported by its king : the rook can hardly do better than a draw
+			return SUPPORTED_PAWN_SCORE - KING_DISTANCE_PENALTY * (distance(strongKing, queeningTile) -
+					distance(weakKing, queeningTile));
+		}
+	};
+
+	/** The score added when a side is sure to win */
+	public static final int KNOWN_WIN = 10000;
+
+	/** The bonus for each tile between the lone king and the side of the board, or a mating corner */
+	private static final int CORNER_BONUS = 20;
+
+	/** The penalty for each tile between the kings, or between the king and the pawn */
+	private static final int KING_DISTANCE_PENALTY = 8;
+
+	/** The score of the rook side when the pawn is supported by its king */
+	private static final int SUPPORTED_PAWN_SCORE = 80;
+
+	/**
+	 * Evaluates the board
+	 * @param board The board
+	 * @param strongSide The side with more material
+	 * @param material The material score of the strong side
+	 * @return The score of the board, from the point of view of the strong side
+	 */
+	public abstract int evaluate(Board board, Alliance strongSide, int material);
+
+	/**
+	 * Gives the other alliance
+	 * @param alliance The alliance
+	 * @return The opponent alliance
+	 */
+	static Alliance opponent(final Alliance alliance) {
+		return alliance.isWhite() ? Alliance.BLACK : Alliance.WHITE;
+	}
+
+	/**
+	 * Gets the tile of the king of a side
+	 * @param board The board
+	 * @param alliance The side
+	 * @return The tile of the king
+	 */
+	static int kingTile(final Board board, final Alliance alliance) {
+		return (alliance.isWhite() ? board.getWhitePlayer() : board.getBlackPlayer()).getPlayerKing().getPiecePosition();
+	}
+
+	/**
+	 * Finds a piece of a type and an alliance
+	 * @param board The board
+	 * @param alliance The alliance
+	 * @param pieceType The piece type
+	 * @return The first piece found, null if there is none
+	 */
+	static Piece findPiece(final Board board, final Alliance alliance, final PieceType pieceType) {
+		for (final Piece piece : alliance.isWhite() ? board.getWhitePieces() : board.getBlackPieces()) {
+			if (piece.getPieceType() == pieceType) {
+				return piece;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Gives the number of king moves between two tiles
+	 * @param first The first tile
+	 * @param second The second tile
+	 * @return The distance between the tiles
+	 */
+	static int distance(final int first, final int second) {
+		return Math.max(Math.abs(first / BoardUtils.NUM_TILES_PER_ROW - second / BoardUtils.NUM_TILES_PER_ROW),
+				Math.abs(first % BoardUtils.NUM_TILES_PER_ROW - second % BoardUtils.NUM_TILES_PER_ROW));
+	}
+
+	/**
+	 * Tells if a tile is light
+	 * @param tile The tile
+	 * @return A boolean telling whether the tile is light or dark
+	 */
+	static boolean isLightTile(final int tile) {
+		return (tile / BoardUtils.NUM_TILES_PER_ROW + tile % BoardUtils.NUM_TILES_PER_ROW) % 2 == 0;
+	}
+
+	/**
+	 * Gives a bonus growing as a king gets closer to the side of the board
+	 * @param tile The tile of the king
+	 * @return The bonus
+	 */
+	private static int pushToEdge(final int tile) {
+		final int row = tile / BoardUtils.NUM_TILES_PER_ROW;
+		final int column = tile % BoardUtils.NUM_TILES_PER_ROW;
+		return CORNER_BONUS * (6 - Math.min(row, 7 - row) - Math.min(column, 7 - column));
+	}
+
+	/**
+	 * Gives a bonus growing as the kings get closer
+	 * @param distance The distance between the kings
+	 * @return The bonus
+	 */
+	private static int pushClose(final int distance) {
+		return CORNER_BONUS * (BoardUtils.NUM_TILES_PER_ROW - distance);
+	}
+
+	/**
+	 * Tells if a side can force the mate of a lone king
+	 * @param board The board
+	 * @param alliance The side
+	 * @return A boolean telling whether the side has enough material or not
+	 */
+	private static boolean hasMatingMaterial(final Board board, final Alliance alliance) {
+		final long key = board.getMaterialKey();
+		final int bishops = Board.countPieces(key, alliance, PieceType.BISHOP);
+		return Board.countPieces(key, alliance, PieceType.QUEEN) > 0 || Board.countPieces(key, alliance, PieceType.ROOK) > 0 ||
+				bishops > 1 || (bishops > 0 && Board.countPieces(key, alliance, PieceType.KNIGHT) > 0);
+	}
+}
@@ -0,0 +1,338 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.Board;
+import com.chess.engine.pieces.Piece.PieceType;
+
+/**
+ * Everything the evaluation knows from the material of a board alone : the game phase,
+ * the material score with its imbalance terms, the specialised endgame evaluation and
+ * the scaling of the score of each side. The entries are immutable and built once per
+ * material key (see {@link Board#getMaterialKey()}), then shared through a {@link MaterialTable}
+ * @author antsalin
+ *
+ */
+public final class MaterialEntry {
+
+	/** The phase of the board with all the pieces, a board without pieces has phase 0 */
+	public static final int MAX_PHASE = 24;
+
+	/** The phase of each piece type */
+	private static final int[] PHASE_WEIGHTS = {0, 1, 1, 2, 4, 0};
+
+	/** Index of the bonus for having both bishops in the imbalance weights */
+	static final int BISHOP_PAIR = 0;
+
+	/** Index of the bonus of each knight for each own pawn above five in the imbalance weights, knights like closed boards */
+	static final int KNIGHT_PAWNS = 1;
+
+	/** Index of the penalty of each rook for each own pawn above five in the imbalance weights, rooks like open boards */
+	static final int ROOK_PAWNS = 2;
+
+	/** The material key of the entry */
+	private final long key;
+
+	/** The game phase */
+	private final int phase;
+
+	/** The material score, from the point of view of white */
+	private final int materialScore;
+
+	/** The specialised endgame evaluation, null for the standard evaluation */
+	private final EndgameEvaluator endgameEvaluator;
+
+	/** The side with more material, for the endgame evaluation */
+	private final Alliance strongSide;
+
+	/** The scale factor of the score of each side when it is ahead, indexed by alliance ordinal */
+	private final int[] scaleFactors;
+
+	/** The scaling function of each side when it is ahead (or null), indexed by alliance ordinal */
+	private final ScalingFunction[] scalingFunctions;
+
+	/**
+	 * Constructor
+	 * @param key The material key
+	 * @param pieceValues The value of each piece type, the king excepted
+	 * @param imbalanceWeights The weights of the imbalance terms, see {@link #BISHOP_PAIR}, {@link #KNIGHT_PAWNS} and {@link #ROOK_PAWNS}
+	 */
+	MaterialEntry(final long key, final int[] pieceValues, final int[] imbalanceWeights) {
+		this.key = key;
+		int phase = 0;
+		for (final PieceType pieceType : PieceType.values()) {
+			phase += PHASE_WEIGHTS[pieceType.ordinal()] *
+					(Board.countPieces(key, Alliance.WHITE, pieceType) + Board.countPieces(key, Alliance.BLACK, pieceType));
+		}
+		this.phase = Math.min(phase, MAX_PHASE);
+		this.materialScore = materialScore(key, Alliance.WHITE, pieceValues, imbalanceWeights) -
+				materialScore(key, Alliance.BLACK, pieceValues, imbalanceWeights);
+
+		EndgameEvaluator endgameEvaluator = null;
+		Alliance strongSide = Alliance.WHITE;
+		this.scaleFactors = new int[] {ScalingFunction.NORMAL_SCALE, ScalingFunction.NORMAL_SCALE};
+		this.scalingFunctions = new ScalingFunction[2];
+		if (!canMate(key, Alliance.WHITE) && !canMate(key, Alliance.BLACK)) {
+			endgameEvaluator = EndgameEvaluator.DRAW;
+		}
+		for (final Alliance alliance : Alliance.values()) {
+			final Alliance opponent = EndgameEvaluator.opponent(alliance);
+			if (endgameEvaluator == null) {
+				endgameEvaluator = findEndgameEvaluator(key, alliance, opponent);
+				strongSide = alliance;
+			}
+			this.scaleFactors[alliance.ordinal()] = scaleFactor(key, alliance, opponent, pieceValues);
+			this.scalingFunctions[alliance.ordinal()] = findScalingFunction(key, alliance, opponent);
+		}
+		this.endgameEvaluator = endgameEvaluator;
+		this.strongSide = strongSide;
+	}
+
+	/**
+	 * Gets the material key of the entry
+	 * @return The material key
+	 */
+	public long getKey() {
+		return this.key;
+	}
+
+	/**
+	 * Gets the game phase, from {@link #MAX_PHASE} with all the pieces to 0 with only kings and pawns
+	 * @return The game phase
+	 */
+	public int getPhase() {
+		return this.phase;
+	}
+
+	/**
+	 * Gets the material score : the piece values and the imbalance terms
+	 * @return The material score, from the point of view of white
+	 */
+	public int getMaterialScore() {
+		return this.materialScore;
+	}
+
+	/**
+	 * Tells if the board has a specialised endgame evaluation
+	 * @return A boolean telling whether {@link #evaluateEndgame(Board)} can be used or not
+	 */
+	public boolean hasEndgameEvaluator() {
+		return this.endgameEvaluator != null;
+	}
+
+	/**
+	 * Tells if the score of the boards of this material is the material score plus the other terms of
+	 * the evaluation : there is no specialised endgame evaluation and no scaling of the score
+	 * @return A boolean telling whether the score is a weighted sum of the features of the board or not
+	 */
+	public boolean isLinear() {
+		for (final Alliance alliance : Alliance.values()) {
+			if (this.scaleFactors[alliance.ordinal()] != ScalingFunction.NORMAL_SCALE ||
+					this.scalingFunctions[alliance.ordinal()] != null) {
+				return false;
+			}
+		}
+		return this.endgameEvaluator == null;
+	}
+
+	/**
+	 * Evaluates the board with the specialised endgame evaluation
+	 * @param board The board, which must have the material of the entry
+	 * @return The score of the board, from the point of view of white
+	 */
+	public int evaluateEndgame(final Board board) {
+		final int sign = this.strongSide.isWhite() ? 1 : -1;
+		return sign * this.endgameEvaluator.evaluate(board, this.strongSide, sign * this.materialScore);
+	}
+
+	/**
+	 * Scales a score toward a draw when the side that is ahead can hardly win
+	 * @param board The board, which must have the material of the entry
+	 * @param score The score, from the point of view of white
+	 * @return The scaled score
+	 */
+	public int scale(final Board board, final int score) {
+		final Alliance side = score > 0 ? Alliance.WHITE : Alliance.BLACK;
+		int scaleFactor = this.scaleFactors[side.ordinal()];
+		final ScalingFunction scalingFunction = this.scalingFunctions[side.ordinal()];
+		if (scalingFunction != null) {
+			scaleFactor = Math.min(scaleFactor, scalingFunction.scaleFactor(board, side));
+		}
+		return score * scaleFactor / ScalingFunction.NORMAL_SCALE;
+	}
+
+	/**
+	 * Calculates the material score of a side : the piece values and the imbalance terms
+	 * @param key The material key
+	 * @param alliance The side
+	 * @param pieceValues The value of each piece type, the king excepted
+	 * @param imbalanceWeights The weights of the imbalance terms
+	 * @return The material score of the side
+	 */
+	private static int materialScore(final long key, final Alliance alliance, final int[] pieceValues,
+			final int[] imbalanceWeights) {
+		int score = 0;
+		for (final PieceType pieceType : PieceType.values()) {
+			if (!pieceType.isKing()) {
+				score += pieceValues[pieceType.ordinal()] * Board.countPieces(key, alliance, pieceType);
+			}
+		}
+		score += imbalanceWeights[BISHOP_PAIR] * bishopPair(key, alliance);
+		score += imbalanceWeights[KNIGHT_PAWNS] * knightPawns(key, alliance);
+		score -= imbalanceWeights[ROOK_PAWNS] * rookPawns(key, alliance);
+		return score;
+	}
+
+	/**
+	 * Gives the imbalance term of the bishop pair of a side
+	 * @param key The material key
+	 * @param alliance The side
+	 * @return 1 if the side has both bishops, 0 otherwise
+	 */
+	static int bishopPair(final long key, final Alliance alliance) {
+		return Board.countPieces(key, alliance, PieceType.BISHOP) > 1 ? 1 : 0;
+	}
+
+	/**
+	 * Gives the imbalance term of the knights of a side
+	 * @param key The material key
+	 * @param alliance The side
+	 * @return The number of knights times the number of own pawns above five
+	 */
+	static int knightPawns(final long key, final Alliance alliance) {
+		return (Board.countPieces(key, alliance, PieceType.PAWN) - 5) * Board.countPieces(key, alliance, PieceType.KNIGHT);
+	}
+
+	/**
+	 * Gives the imbalance term of the rooks of a side
+	 * @param key The material key
+	 * @param alliance The side
+	 * @return The number of rooks times the number of own pawns above five
+	 */
+	static int rookPawns(final long key, final Alliance alliance) {
+		return (Board.countPieces(key, alliance, PieceType.PAWN) - 5) * Board.countPieces(key, alliance, PieceType.ROOK);
+	}
+
+	/**
+	 * Finds the specialised endgame evaluation of a side with more material
+	 * @param key The material key
+	 * @param strongSide The side with more material
+	 * @param weakSide The other side
+	 * @return The endgame evaluation, null if there is none
+	 */
+	private static EndgameEvaluator findEndgameEvaluator(final long key, final Alliance strongSide, final Alliance weakSide) {
+		final boolean weakBare = countNonKings(key, weakSide) == 0;
+		if (weakBare && countNonKings(key, strongSide) == 2 && Board.countPieces(key, strongSide, PieceType.BISHOP) == 1 &&
+				Board.countPieces(key, strongSide, PieceType.KNIGHT) == 1) {
+			return EndgameEvaluator.KBNK;
+		}
+		if (weakBare && hasMatingPieces(key, strongSide)) {
+			return EndgameEvaluator.KXK;
+		}
+		if (countNonKings(key, strongSide) == 1 && Board.countPieces(key, strongSide, PieceType.ROOK) == 1 &&
+				countNonKings(key, weakSide) == 1 && Board.countPieces(key, weakSide, PieceType.PAWN) == 1) {
+			return EndgameEvaluator.KRKP;
+		}
+		return null;
+	}
+
+	/**
+	 * Finds the scaling function of a side when it is ahead
+	 * @param key The material key
+	 * @param strongSide The side that is ahead
+	 * @param weakSide The other side
+	 * @return The scaling function, null if there is none
+	 */
+	private static ScalingFunction findScalingFunction(final long key, final Alliance strongSide, final Alliance weakSide) {
+		final int strongPawns = Board.countPieces(key, strongSide, PieceType.PAWN);
+		final int weakPawns = Board.countPieces(key, weakSide, PieceType.PAWN);
+		final boolean strongLoneBishop = countNonKings(key, strongSide) - strongPawns == 1 &&
+				Board.countPieces(key, strongSide, PieceType.BISHOP) == 1;
+		if (strongLoneBishop && strongPawns > 0 && countNonKings(key, weakSide) == 0) {
+			return ScalingFunction.WRONG_BISHOP;
+		}
+		if (strongLoneBishop && strongPawns + weakPawns > 0 && countNonKings(key, weakSide) - weakPawns == 1 &&
+				Board.countPieces(key, weakSide, PieceType.BISHOP) == 1) {
+			return ScalingFunction.OPPOSITE_BISHOPS;
+		}
+		return null;
+	}
+
+	/**
+	 * Calculates the scale factor of a side without pawns that is ahead by a minor piece at most
+	 * @param key The material key
+	 * @param strongSide The side that is ahead
+	 * @param weakSide The other side
+	 * @param pieceValues The value of each piece type, the king excepted
+	 * @return The scale factor of the side
+	 */
+	private static int scaleFactor(final long key, final Alliance strongSide, final Alliance weakSide, final int[] pieceValues) {
+		if (Board.countPieces(key, strongSide, PieceType.PAWN) > 0) {
+			return ScalingFunction.NORMAL_SCALE;
+		}
+		final int strongPieces = nonPawnMaterial(key, strongSide, pieceValues);
+		final int weakPieces = nonPawnMaterial(key, weakSide, pieceValues);
+		final int bishopValue = pieceValues[PieceType.BISHOP.ordinal()];
+		if (strongPieces - weakPieces > bishopValue) {
+			return ScalingFunction.NORMAL_SCALE;
+		}
+		if (strongPieces < pieceValues[PieceType.ROOK.ordinal()]) {
+			return 0;
+		}
+		return weakPieces <= bishopValue ? 4 : 14;
+	}
+
+	/**
+	 * Sums the values of the pieces of a side that are not pawns
+	 * @param key The material key
+	 * @param alliance The side
+	 * @param pieceValues The value of each piece type, the king excepted
+	 * @return The value of the pieces
+	 */
+	private static int nonPawnMaterial(final long key, final Alliance alliance, final int[] pieceValues) {
+		int material = 0;
+		for (final PieceType pieceType : PieceType.values()) {
+			if (pieceType != PieceType.PAWN && !pieceType.isKing()) {
+				material += pieceValues[pieceType.ordinal()] * Board.countPieces(key, alliance, pieceType);
+			}
+		}
+		return material;
+	}
+
+	/**
+	 * Counts the pieces of a side, the king excepted
+	 * @param key The material key
+	 * @param alliance The side
+	 * @return The number of pieces
+	 */
+	private static int countNonKings(final long key, final Alliance alliance) {
+		int count = 0;
+		for (final PieceType pieceType : PieceType.values()) {
+			if (!pieceType.isKing()) {
+				count += Board.countPieces(key, alliance, pieceType);
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Tells if the pieces of a side can force the mate of a lone king
+	 * @param key The material key
+	 * @param alliance The side
+	 * @return A boolean telling whether the side has enough pieces or not
+	 */
+	private static boolean hasMatingPieces(final long key, final Alliance alliance) {
+		final int bishops = Board.countPieces(key, alliance, PieceType.BISHOP);
+		return Board.countPieces(key, alliance, PieceType.QUEEN) > 0 || Board.countPieces(key, alliance, PieceType.ROOK) > 0 ||
+				bishops > 1 || (bishops > 0 && Board.countPieces(key, alliance, PieceType.KNIGHT) > 0);
+	}
+
+	/**
+	 * Tells if a side could ever mate : it has pawns or enough pieces
+	 * @param key The material key
+	 * @param alliance The side
+	 * @return A boolean telling whether the side could mate or not
+	 */
+	private static boolean canMate(final long key, final Alliance alliance) {
+		return Board.countPieces(key, alliance, PieceType.PAWN) > 0 || hasMatingPieces(key, alliance);
+	}
+}
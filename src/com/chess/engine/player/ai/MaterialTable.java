@@ -0,0 +1,59 @@
+package com.chess.engine.player.ai;
+
+/**
+ * A cache of the {@link MaterialEntry} of each material key. A game only goes through
+ * a few hundred material keys, so almost every probe finds its entry and the material
+ * part of the evaluation costs a single array access.
+ * The table needs no lock : the entries are immutable, so a thread that reads a stale
+ * slot or overwrites the entry of another thread only builds an entry again
+ * @author antsalin
+ *
+ */
+public final class MaterialTable {
+
+	/** The default number of entries, a power of two */
+	private static final int DEFAULT_SIZE = 1 << 13;
+
+	/** The multiplier mixing the material keys, which only use their low bits */
+	private static final long MIX = 0x9E3779B97F4A7C15L;
+
+	/** The entries, indexed by the mixed material key */
+	private final MaterialEntry[] entries;
+
+	/** The number of bits of an index */
+	private final int indexBits;
+
+	/** The value of each piece type, used to build the entries */
+	private final int[] pieceValues;
+
+	/** The weights of the imbalance terms, used to build the entries */
+	private final int[] imbalanceWeights;
+
+	/**
+	 * Constructor
+	 * @param pieceValues The value of each piece type, the king excepted
+	 * @param imbalanceWeights The bonus for the bishop pair, the bonus of each knight for each own pawn
+	 * above five and the penalty of each rook for each own pawn above five
+	 */
+	public MaterialTable(final int[] pieceValues, final int[] imbalanceWeights) {
+		this.entries = new MaterialEntry[DEFAULT_SIZE];
+		this.indexBits = Integer.numberOfTrailingZeros(DEFAULT_SIZE);
+		this.pieceValues = pieceValues.clone();
+		this.imbalanceWeights = imbalanceWeights.clone();
+	}
+
+	/**
+	 * Gets the entry of a material key, building it when it is not in the table
+	 * @param materialKey The material key
+	 * @return The entry of the material key
+	 */
+	public MaterialEntry probe(final long materialKey) {
+		final int index = (int) ((materialKey * MIX) >>> (Long.SIZE - this.indexBits));
+		MaterialEntry entry = this.entries[index];
+		if (entry == null || entry.getKey() != materialKey) {
+			entry = new MaterialEntry(materialKey, this.pieceValues, this.imbalanceWeights);
+			this.entries[index] = entry;
+		}
+		return entry;
+	}
+}
@@ -0,0 +1,19 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+
+/**
+ * Describes a way for the computer to choose a move
+ * @author antsalin
+ *
+ */
+public interface MoveStrategy {
+
+	/**
+	 * Chooses the move to play
+	 * @param board The board in which the move will be played
+	 * @return The chosen move
+	 */
+	Move execute(Board board);
+}
@@ -0,0 +1,74 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.Board;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.pieces.Piece;
+import com.chess.engine.pieces.Piece.PieceType;
+
+/**
+ * Functions reducing the score of the side that is ahead when its advantage is hard
+ * to convert. Each one is selected from the material of the board (see {@link MaterialEntry}),
+ * and then looks at the board
+ * @author antsalin
+ *
+ */
+public enum ScalingFunction {
+
+	/**
+	 * Each side has a single bishop and some pawns : when the bishops move on tiles
+	 * of different colours, a pawn or two more are often not enough to win
+	 */
+	OPPOSITE_BISHOPS {
+		@Override
+		public int scaleFactor(final Board board, final Alliance strongSide) {
+			final Piece strongBishop = EndgameEvaluator.findPiece(board, strongSide, PieceType.BISHOP);
+			final Piece weakBishop = EndgameEvaluator.findPiece(board, EndgameEvaluator.opponent(strongSide), PieceType.BISHOP);
+			if (EndgameEvaluator.isLightTile(strongBishop.getPiecePosition()) !=
+					EndgameEvaluator.isLightTile(weakBishop.getPiecePosition())) {
+				return NORMAL_SCALE / 2;
+			}
+			return NORMAL_SCALE;
+		}
+	},
+
+	/**
+	 * A bishop and pawns on a single rook column : when the bishop does not control the
+	 * promotion tile and the lone king stands on it, the game is a draw
+	 */
+	WRONG_BISHOP {
+		@Override
+		public int scaleFactor(final Board board, final Alliance strongSide) {
+			int column = -1;
+			for (final Piece piece : strongSide.isWhite() ? board.getWhitePieces() : board.getBlackPieces()) {
+				if (piece.getPieceType() == PieceType.PAWN) {
+					final int pawnColumn = piece.getPiecePosition() % BoardUtils.NUM_TILES_PER_ROW;
+					if ((pawnColumn != 0 && pawnColumn != BoardUtils.NUM_TILES_PER_ROW - 1) ||
+							(column >= 0 && column != pawnColumn)) {
+						return NORMAL_SCALE;
+					}
+					column = pawnColumn;
+				}
+			}
+			final int queeningTile = strongSide.isWhite() ? column : column + BoardUtils.NUM_TILES - BoardUtils.NUM_TILES_PER_ROW;
+			final Piece bishop = EndgameEvaluator.findPiece(board, strongSide, PieceType.BISHOP);
+			final int weakKing = EndgameEvaluator.kingTile(board, EndgameEvaluator.opponent(strongSide));
+			if (EndgameEvaluator.isLightTile(bishop.getPiecePosition()) != EndgameEvaluator.isLightTile(queeningTile) &&
+					EndgameEvaluator.distance(weakKing, queeningTile) <= 1) {
+				return 0;
+			}
+			return NORMAL_SCALE;
+		}
+	};
+
+	/** The scale factor of a score that is not reduced */
+	public static final int NORMAL_SCALE = 64;
+
+	/**
+	 * Calculates the scale factor of the score of the side that is ahead
+	 * @param board The board
+	 * @param strongSide The side that is ahead
+	 * @return The scale factor, from 0 (draw) to {@link #NORMAL_SCALE}
+	 */
+	public abstract int scaleFactor(Board board, Alliance strongSide);
+}
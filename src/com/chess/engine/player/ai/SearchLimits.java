@@ -0,0 +1,224 @@
+package com.chess.engine.player.ai;
+
+/**
+ * Describes when a search has to stop : maximum depth, time per move,...
+ * @author antsalin
+ *
+ */
+public final class SearchLimits {
+
+	/** The depth used when no maximum depth is given */
+	public static final int MAX_DEPTH = 64;
+
+	/** The maximum depth of the search */
+	private final int depth;
+
+	/** The time the search can use, in milliseconds (negative if unlimited) */
+	private final long moveTimeMillis;
+
+	/** The number of nodes the search can visit (negative if unlimited) */
+	private final long nodes;
+
+	/** The time left on the clock of the player to move, in milliseconds (negative if no clock) */
+	private final long timeLeftMillis;
+
+	/** The time added to the clock after each move, in milliseconds */
+	private final long incrementMillis;
+
+	/** The number of moves before the next time control, 0 if unknown */
+	private final int movesToGo;
+
+	/** The number of best moves searched (Multi-PV), 1 for a normal search */
+	private final int multiPv;
+
+	/**
+	 * Constructor
+	 * @param builder The builder used to create the limits
+	 */
+	private SearchLimits(final Builder builder) {
+		this.depth = builder.depth;
+		this.moveTimeMillis = builder.moveTimeMillis;
+		this.nodes = builder.nodes;
+		this.timeLeftMillis = builder.timeLeftMillis;
+		this.incrementMillis = builder.incrementMillis;
+		this.movesToGo = builder.movesToGo;
+		this.multiPv = builder.multiPv;
+	}
+
+	/**
+	 * Creates limits that only bound the depth of the search
+	 * @param depth The maximum depth
+	 * @return The search limits
+	 */
+	public static SearchLimits depth(final int depth) {
+		return new Builder().setDepth(depth).build();
+	}
+
+	/**
+	 * Gets the maximum depth of the search
+	 * @return The maximum depth
+	 */
+	public int getDepth() {
+		return this.depth;
+	}
+
+	/**
+	 * Gets the time the search can use
+	 * @return The time in milliseconds, negative if unlimited
+	 */
+	public long getMoveTimeMillis() {
+		return this.moveTimeMillis;
+	}
+
+	/**
+	 * Tells if the search is bounded by time
+	 * @return A boolean telling whether the search is bounded by time or not
+	 */
+	public boolean isTimed() {
+		return this.moveTimeMillis >= 0;
+	}
+
+	/**
+	 * Gets the number of nodes the search can visit
+	 * @return The number of nodes, negative if unlimited
+	 */
+	public long getNodes() {
+		return this.nodes;
+	}
+
+	/**
+	 * Tells if the player to move plays with a clock : the time of the search is then
+	 * decided by a {@link TimeManager}
+	 * @return A boolean telling whether the search uses the clock or not
+	 */
+	public boolean hasClock() {
+		return this.timeLeftMillis >= 0;
+	}
+
+	/**
+	 * Gets the number of best moves the search reports
+	 * @return The number of lines of the Multi-PV search, 1 for a normal search
+	 */
+	public int getMultiPv() {
+		return this.multiPv;
+	}
+
+	/**
+	 * Creates the object deciding the time of the search from the clock
+	 * @return A new time manager, or null if the player to move has no clock
+	 */
+	public TimeManager createTimeManager() {
+		return hasClock() ? new TimeManager(this.timeLeftMillis, this.incrementMillis, this.movesToGo) : null;
+	}
+
+	/**
+	 * Describes a search limits builder
+	 * @author antsalin
+	 *
+	 */
+	public static class Builder {
+
+		/** The maximum depth of the search */
+		int depth = MAX_DEPTH;
+
+		/** The time the search can use, in milliseconds */
+		long moveTimeMillis = -1;
+
+		/** The number of nodes the search can visit */
+		long nodes = -1;
+
+		/** The time left on the clock of the player to move */
+		long timeLeftMillis = -1;
+
+		/** The time added to the clock after each move */
+		long incrementMillis;
+
+		/** The number of moves before the next time control */
+		int movesToGo;
+
+		/** The number of best moves searched */
+		int multiPv = 1;
+
+		/**
+		 * Constructor of a builder without any limit
+		 */
+		public Builder() {
+		}
+
+		/**
+		 * Constructor of a builder beginning with the limits of other limits
+		 * @param limits The limits to copy
+		 */
+		public Builder(final SearchLimits limits) {
+			this.depth = limits.depth;
+			this.moveTimeMillis = limits.moveTimeMillis;
+			this.nodes = limits.nodes;
+			this.timeLeftMillis = limits.timeLeftMillis;
+			this.incrementMillis = limits.incrementMillis;
+			this.movesToGo = limits.movesToGo;
+			this.multiPv = limits.multiPv;
+		}
+
+		/**
+		 * Sets the maximum depth of the search
+		 * @param depth The maximum depth
+		 * @return The new limits builder
+		 */
+		public Builder setDepth(final int depth) {
+			this.depth = depth;
+			return this;
+		}
+
+		/**
+		 * Sets the time the search can use
+		 * @param moveTimeMillis The time in milliseconds
+		 * @return The new limits builder
+		 */
+		public Builder setMoveTime(final long moveTimeMillis) {
+			this.moveTimeMillis = moveTimeMillis;
+			return this;
+		}
+
+		/**
+		 * Sets the number of nodes the search can visit
+		 * @param nodes The number of nodes
+		 * @return The new limits builder
+		 */
+		public Builder setNodes(final long nodes) {
+			this.nodes = nodes;
+			return this;
+		}
+
+		/**
+		 * Sets the clock of the player to move
+		 * @param timeLeftMillis The time left on the clock, in milliseconds
+		 * @param incrementMillis The time added after each move, in milliseconds
+		 * @param movesToGo The number of moves before the next time control, 0 if unknown
+		 * @return The new limits builder
+		 */
+		public Builder setClock(final long timeLeftMillis, final long incrementMillis, final int movesToGo) {
+			this.timeLeftMillis = timeLeftMillis;
+			this.incrementMillis = incrementMillis;
+			this.movesToGo = movesToGo;
+			return this;
+		}
+
+		/**
+		 * Sets the number of best moves the search reports (Multi-PV)
+		 * @param multiPv The number of lines, 1 for a normal search
+		 * @return The new limits builder
+		 */
+		public Builder setMultiPv(final int multiPv) {
+			this.multiPv = Math.max(1, multiPv);
+			return this;
+		}
+
+		/**
+		 * Builds the search limits
+		 * @return The new search limits
+		 */
+		public SearchLimits build() {
+			return new SearchLimits(this);
+		}
+	}
+}
@@ -0,0 +1,15 @@
+package com.chess.engine.player.ai;
+
+/**
+ * Describes an object that follows the progress of a search
+ * @author antsalin
+ *
+ */
+public interface SearchListener {
+
+	/**
+	 * Called each time the search completes an iteration
+	 * @param result The result of the completed iteration
+	 */
+	void onIteration(SearchResult result);
+}
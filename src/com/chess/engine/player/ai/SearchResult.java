@@ -0,0 +1,157 @@
+package com.chess.engine.player.ai;
+
+import java.util.List;
+
+import com.chess.engine.board.Move;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Describes the result of a search : the best move and how it was found
+ * @author antsalin
+ *
+ */
+public final class SearchResult {
+
+	/** The best move found by the search */
+	private final Move bestMove;
+
+	/** The score of the best move, from the point of view of the player to move */
+	private final int score;
+
+	/** The depth of the last completed iteration */
+	private final int depth;
+
+	/** The number of nodes visited */
+	private final long nodes;
+
+	/** The time used by the search, in milliseconds */
+	private final long timeMillis;
+
+	/** The principal variation : the best line of play found by the search */
+	private final List<Move> principalVariation;
+
+	/** The rank of this line in a Multi-PV search : 1 for the best move, 2 for the second best,... */
+	private final int lineRank;
+
+	/**
+	 * Constructor
+	 * @param bestMove The best move found by the search
+	 * @param score The score of the best move
+	 * @param depth The depth of the last completed iteration
+	 * @param nodes The number of nodes visited
+	 * @param timeMillis The time used by the search
+	 * @param principalVariation The best line of play found by the search
+	 */
+	public SearchResult(final Move bestMove, final int score, final int depth, final long nodes,
+			final long timeMillis, final List<Move> principalVariation) {
+		this(bestMove, score, depth, nodes, timeMillis, principalVariation, 1);
+	}
+
+	/**
+	 * Constructor of a line of a Multi-PV search
+	 * @param bestMove The first move of the line
+	 * @param score The score of the line
+	 * @param depth The depth of the last completed iteration
+	 * @param nodes The number of nodes visited
+	 * @param timeMillis The time used by the search
+	 * @param principalVariation The moves of the line
+	 * @param lineRank The rank of the line : 1 for the best move, 2 for the second best,...
+	 */
+	public SearchResult(final Move bestMove, final int score, final int depth, final long nodes,
+			final long timeMillis, final List<Move> principalVariation, final int lineRank) {
+		this.bestMove = bestMove;
+		this.score = score;
+		this.depth = depth;
+		this.nodes = nodes;
+		this.timeMillis = timeMillis;
+		this.principalVariation = ImmutableList.copyOf(principalVariation);
+		this.lineRank = lineRank;
+	}
+
+	/**
+	 * Gets the rank of this line in a Multi-PV search
+	 * @return 1 for the best move, 2 for the second best,...
+	 */
+	public int getLineRank() {
+		return this.lineRank;
+	}
+
+	/**
+	 * Gets the best move found by the search
+	 * @return The best move, or null if the player has no legal move
+	 */
+	public Move getBestMove() {
+		return this.bestMove;
+	}
+
+	/**
+	 * Gets the score of the best move
+	 * @return The score, from the point of view of the player to move
+	 */
+	public int getScore() {
+		return this.score;
+	}
+
+	/**
+	 * Gets the depth of the last completed iteration
+	 * @return The depth reached by the search
+	 */
+	public int getDepth() {
+		return this.depth;
+	}
+
+	/**
+	 * Gets the number of nodes visited
+	 * @return The number of nodes
+	 */
+	public long getNodes() {
+		return this.nodes;
+	}
+
+	/**
+	 * Gets the time used by the search
+	 * @return The time in milliseconds
+	 */
+	public long getTimeMillis() {
+		return this.timeMillis;
+	}
+
+	/**
+	 * Gets the principal variation : the best line of play found by the search
+	 * @return The moves of the principal variation, beginning with the best move
+	 */
+	public List<Move> getPrincipalVariation() {
+		return this.principalVariation;
+	}
+
+	/**
+	 * Gets the number of nodes visited per second
+	 * @return The speed of the search
+	 */
+	public long getNodesPerSecond() {
+		return this.nodes * 1000 / Math.max(1, this.timeMillis);
+	}
+
+	/**
+	 * Tells if the score is a mate score
+	 * @return A boolean telling whether a forced mate was found or not
+	 */
+	public boolean isMateScore() {
+		return Math.abs(this.score) >= AlphaBeta.MATE_SCORE - SearchLimits.MAX_DEPTH;
+	}
+
+	/**
+	 * Gets the number of moves before the mate
+	 * @return The number of moves before the mate : positive if the player to move mates, negative otherwise
+	 */
+	public int getMateIn() {
+		final int plies = AlphaBeta.MATE_SCORE - Math.abs(this.score);
+		return this.score > 0 ? (plies + 1) / 2 : -(plies + 1) / 2;
+	}
+
+	@Override
+	public String toString() {
+		return "bestmove " + this.bestMove + " score " + this.score + " depth " + this.depth +
+				" nodes " + this.nodes + " time " + this.timeMillis;
+	}
+}
@@ -0,0 +1,171 @@
+package com.chess.engine.player.ai;
+
+import java.util.Arrays;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.pieces.Piece;
+import com.chess.engine.player.Player;
+
+/**
+ * The default board evaluator : material with its imbalance terms, mobility and check bonus.
+ * The material part comes from a {@link MaterialTable}, which also knows the specialised
+ * endgames and the scaling of drawish material. Apart from these two, the score is a weighted
+ * sum of features (see {@link #calculateFeatures(Board, int[])}), so that the weights can be
+ * tuned on the boards for which {@link #isLinear(Board)} is true
+ * @author antsalin
+ *
+ */
+public final class StandardBoardEvaluator implements BoardEvaluator {
+
+	/** Index of the weight of the pawns, followed by the knights, bishops, rooks and queens */
+	public static final int PAWN_WEIGHT = 0;
+
+	/** Index of the weight of each legal move */
+	public static final int MOBILITY_WEIGHT = 5;
+
+	/** Index of the bonus given to a player that gives check */
+	public static final int CHECK_WEIGHT = 6;
+
+	/** Index of the bonus for having both bishops */
+	public static final int BISHOP_PAIR_WEIGHT = 7;
+
+	/** Index of the bonus of each knight for each own pawn above five */
+	public static final int KNIGHT_PAWN_WEIGHT = 8;
+
+	/** Index of the penalty of each rook for each own pawn above five */
+	public static final int ROOK_PAWN_WEIGHT = 9;
+
+	/** Number of weights (and of features) */
+	public static final int NUM_WEIGHTS = 10;
+
+	/**
+	 * The default weights : the piece values, 2 for each legal move, 50 for a check,
+	 * then the imbalance terms : 30 for the bishop pair, 6 and 12 for the knights and rooks
+	 */
+	private static final int[] DEFAULT_WEIGHTS = {100, 300, 330, 500, 900, 2, 50, 30, 6, 12};
+
+	/** The weights of the features */
+	private final int[] weights;
+
+	/** The material entries, built from the piece weights */
+	private final MaterialTable materialTable;
+
+	/**
+	 * Constructor using the default weights
+	 */
+	public StandardBoardEvaluator() {
+		this(DEFAULT_WEIGHTS);
+	}
+
+	/**
+	 * Constructor
+	 * @param weights The weights of the features, see {@link #PAWN_WEIGHT}, {@link #MOBILITY_WEIGHT}, {@link #CHECK_WEIGHT},
+	 * {@link #BISHOP_PAIR_WEIGHT}, {@link #KNIGHT_PAWN_WEIGHT} and {@link #ROOK_PAWN_WEIGHT}
+	 */
+	public StandardBoardEvaluator(final int[] weights) {
+		if (weights.length != NUM_WEIGHTS) {
+			throw new IllegalArgumentException("The evaluator needs " + NUM_WEIGHTS + " weights");
+		}
+		this.weights = weights.clone();
+		this.materialTable = new MaterialTable(Arrays.copyOfRange(weights, PAWN_WEIGHT, MOBILITY_WEIGHT),
+				Arrays.copyOfRange(weights, BISHOP_PAIR_WEIGHT, NUM_WEIGHTS));
+	}
+
+	@Override
+	public int evaluate(final Board board, final int depth) {
+		final MaterialEntry entry = this.materialTable.probe(board.getMaterialKey());
+		if (entry.hasEndgameEvaluator()) {
+			return entry.evaluateEndgame(board);
+		}
+		final int score = entry.getMaterialScore() + scorePlayer(board.getWhitePlayer()) - scorePlayer(board.getBlackPlayer());
+		return entry.scale(board, score);
+	}
+
+	/**
+	 * Tells if the score of a board is the weighted sum of its features : the material table
+	 * has no specialised endgame evaluation and doesn't scale the score for its material
+	 * @param board The board
+	 * @return A boolean telling whether {@link #calculateFeatures(Board, int[])} describes the score of the board or not
+	 */
+	public boolean isLinear(final Board board) {
+		return this.materialTable.probe(board.getMaterialKey()).isLinear();
+	}
+
+	/**
+	 * Gets the weights of the evaluator
+	 * @return A copy of the weights
+	 */
+	public int[] getWeights() {
+		return this.weights.clone();
+	}
+
+	/**
+	 * Gets the default weights
+	 * @return A copy of the default weights
+	 */
+	public static int[] getDefaultWeights() {
+		return DEFAULT_WEIGHTS.clone();
+	}
+
+	/**
+	 * Calculates the features of a board : when {@link #isLinear(Board)} is true, the score
+	 * of the board is the sum of the features multiplied by their weights
+	 * @param board The board
+	 * @param features The array receiving the features, white minus black, one per weight
+	 */
+	public static void calculateFeatures(final Board board, final int[] features) {
+		Arrays.fill(features, 0);
+		addFeatures(board.getWhitePlayer(), board.getMaterialKey(), features, 1);
+		addFeatures(board.getBlackPlayer(), board.getMaterialKey(), features, -1);
+	}
+
+	/**
+	 * Adds the features of a player
+	 * @param player The player
+	 * @param materialKey The material key of the board
+	 * @param features The array receiving the features
+	 * @param sign 1 for white, -1 for black
+	 */
+	private static void addFeatures(final Player player, final long materialKey, final int[] features, final int sign) {
+		for (final Piece piece : player.getActivePieces()) {
+			if (!piece.getPieceType().isKing()) {
+				features[PAWN_WEIGHT + piece.getPieceType().ordinal()] += sign;
+			}
+		}
+		features[MOBILITY_WEIGHT] += sign * player.getLegalMoves().size();
+		if (player.getOpponent().isInCheck()) {
+			features[CHECK_WEIGHT] += sign;
+		}
+		features[BISHOP_PAIR_WEIGHT] += sign * MaterialEntry.bishopPair(materialKey, player.getAlliance());
+		features[KNIGHT_PAWN_WEIGHT] += sign * MaterialEntry.knightPawns(materialKey, player.getAlliance());
+		// The rook term is a penalty
+		features[ROOK_PAWN_WEIGHT] -= sign * MaterialEntry.rookPawns(materialKey, player.getAlliance());
+	}
+
+	/**
+	 * Gives a score to a player, the material excepted
+	 * @param player The player to score
+	 * @return The score of the player
+	 */
+	private int scorePlayer(final Player player) {
+		return mobility(player) + check(player);
+	}
+
+	/**
+	 * Scores the number of moves a player can make
+	 * @param player The player
+	 * @return The mobility score of the player
+	 */
+	private int mobility(final Player player) {
+		return this.weights[MOBILITY_WEIGHT] * player.getLegalMoves().size();
+	}
+
+	/**
+	 * Gives a bonus to a player that checks his opponent
+	 * @param player The player
+	 * @return The check bonus
+	 */
+	private int check(final Player player) {
+		return player.getOpponent().isInCheck() ? this.weights[CHECK_WEIGHT] : 0;
+	}
+}
@@ -0,0 +1,138 @@
+package com.chess.engine.player.ai;
+
+/**
+ * Decides how long a search can run when the engine plays with a clock.
+ * Each move gets a soft limit, checked between two iterations, and a hard limit,
+ * which the search uses as its deadline. The soft limit grows when the best move keeps changing
+ * or when the score drops, and shrinks when one root move dominates the others.
+ * @author antsalin
+ *
+ */
+public final class TimeManager {
+
+	/** Number of moves the time left is divided into, when the number of moves to go is unknown */
+	private static final int DEFAULT_MOVES_TO_GO = 30;
+
+	/** The maximum number of moves the time left is divided into */
+	private static final int MAX_MOVES_TO_GO = 50;
+
+	/** Time kept on the clock to absorb the overhead of a move, in milliseconds */
+	private static final long MOVE_OVERHEAD_MILLIS = 10;
+
+	/** How many times the soft limit the hard limit is */
+	private static final int HARD_LIMIT_FACTOR = 4;
+
+	/** The soft limit increase for each recent change of best move */
+	private static final double INSTABILITY_FACTOR = 0.5;
+
+	/** A score drop (in centipawns) from which the soft limit is extended */
+	private static final int SCORE_DROP_THRESHOLD = 30;
+
+	/** A score drop (in centipawns) from which the soft limit is extended even more */
+	private static final int BIG_SCORE_DROP_THRESHOLD = 100;
+
+	/** The share of the nodes of an iteration spent on the best move from which it is considered dominant */
+	private static final double DOMINANT_MOVE_NODE_SHARE = 0.85;
+
+	/** The soft limit factor when the best move dominates */
+	private static final double DOMINANT_MOVE_FACTOR = 0.5;
+
+	/** The depth from which the node share of the best move is trusted */
+	private static final int DOMINANT_MOVE_MIN_DEPTH = 3;
+
+	/** The time the search can use before deciding not to start a new iteration, in milliseconds */
+	private final long softLimitMillis;
+
+	/** The time the search can never exceed, in milliseconds */
+	private final long hardLimitMillis;
+
+	/** When the search began, in nanoseconds */
+	private final long startTime;
+
+	/** The best move of the previous iteration */
+	private int previousBestMove;
+
+	/** The score of the previous iteration */
+	private int previousScore;
+
+	/** The decayed number of best move changes of the recent iterations */
+	private double bestMoveChanges;
+
+	/**
+	 * Constructor
+	 * @param timeLeftMillis The time left on the clock of the player
+	 * @param incrementMillis The time added after each move
+	 * @param movesToGo The number of moves before the next time control, 0 if unknown
+	 */
+	public TimeManager(final long timeLeftMillis, final long incrementMillis, final int movesToGo) {
+		final long available = Math.max(1, timeLeftMillis - MOVE_OVERHEAD_MILLIS);
+		final int moves = movesToGo > 0 ? Math.min(movesToGo, MAX_MOVES_TO_GO) : DEFAULT_MOVES_TO_GO;
+		final long soft = Math.min(available, available / moves + incrementMillis * 3 / 4);
+		this.softLimitMillis = Math.max(1, soft);
+		this.hardLimitMillis = Math.max(1, Math.min(available, soft * HARD_LIMIT_FACTOR));
+		this.startTime = System.nanoTime();
+	}
+
+	/**
+	 * Gets the time the search can use before deciding not to start a new iteration
+	 * @return The soft limit, in milliseconds
+	 */
+	public long getSoftLimitMillis() {
+		return this.softLimitMillis;
+	}
+
+	/**
+	 * Gets the time the search can never exceed
+	 * @return The hard limit, in milliseconds
+	 */
+	public long getHardLimitMillis() {
+		return this.hardLimitMillis;
+	}
+
+	/**
+	 * Gets the time used since the beginning of the search
+	 * @return The elapsed time, in milliseconds
+	 */
+	public long getElapsedMillis() {
+		return (System.nanoTime() - this.startTime) / 1000000;
+	}
+
+	/**
+	 * Decides, after an iteration, whether a new iteration can be started
+	 * @param iteration The result of the completed iteration
+	 * @param bestMoveNodeShare The share of the nodes of the iteration spent on the best move
+	 * @param legalMoves The number of legal moves at the root
+	 * @return A boolean telling whether the search has to stop or not
+	 */
+	public boolean shouldStop(final SearchResult iteration, final double bestMoveNodeShare, final int legalMoves) {
+		if (legalMoves <= 1) {
+			// There is nothing to choose
+			return true;
+		}
+		final int bestMove = TranspositionTable.encodeMove(iteration.getBestMove());
+		this.bestMoveChanges /= 2;
+		if (iteration.getDepth() > 1 && bestMove != this.previousBestMove) {
+			this.bestMoveChanges += 1;
+		}
+
+		double factor = 1.0 + INSTABILITY_FACTOR * this.bestMoveChanges;
+		if (iteration.getDepth() > 1) {
+			final int scoreDrop = this.previousScore - iteration.getScore();
+			if (scoreDrop >= BIG_SCORE_DROP_THRESHOLD) {
+				factor *= 2.0;
+			} else if (scoreDrop >= SCORE_DROP_THRESHOLD) {
+				factor *= 1.5;
+			}
+		}
+		if (iteration.getDepth() >= DOMINANT_MOVE_MIN_DEPTH && bestMoveNodeShare >= DOMINANT_MOVE_NODE_SHARE) {
+			factor *= DOMINANT_MOVE_FACTOR;
+		}
+		this.previousBestMove = bestMove;
+		this.previousScore = iteration.getScore();
+
+		final double softLimit = Math.min(this.hardLimitMillis, this.softLimitMillis * factor);
+		// The next iteration takes several times longer than this one :
+		// it is only started if at least half of the soft limit remains
+		return getElapsedMillis() >= softLimit / 2;
+	}
+}
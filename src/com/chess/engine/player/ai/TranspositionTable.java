@@ -0,0 +1,221 @@
+package com.chess.engine.player.ai;
+
+import java.util.Arrays;
+
+import com.chess.engine.board.Move;
+import com.chess.engine.metrics.EngineMetrics;
+
+/**
+ * A hash table storing the results of the searched boards, indexed by Zobrist hash.
+ * The entries are packed in primitive arrays and each key is stored xored with its data,
+ * so that the table can be shared by several threads without locks : a torn entry
+ * simply doesn't match its key anymore.
+ * @author antsalin
+ *
+ */
+public final class TranspositionTable {
+
+	/** The stored score is the exact score of the board */
+	public static final int EXACT = 1;
+
+	/** The stored score is a lower bound of the score of the board (fail high) */
+	public static final int LOWER_BOUND = 2;
+
+	/** The stored score is an upper bound of the score of the board (fail low) */
+	public static final int UPPER_BOUND = 3;
+
+	/** The size of the table when none is given, in megabytes */
+	public static final int DEFAULT_SIZE_MB = 16;
+
+	/** The size of an entry : a key and its data */
+	private static final int ENTRY_BYTES = 16;
+
+	/** Number of entries sampled to estimate how full the table is */
+	private static final int HASHFULL_SAMPLE = 1000;
+
+	/** The keys of the entries, xored with their data */
+	private final long[] keys;
+
+	/** The data of the entries : move, depth, bound, generation and score */
+	private final long[] data;
+
+	/** The mask used to get an index from a key */
+	private final int mask;
+
+	/** The generation of the current search, used to replace the entries of the old searches */
+	private volatile int generation;
+
+	/**
+	 * Constructor
+	 * @param sizeMb The size of the table, in megabytes
+	 */
+	public TranspositionTable(final int sizeMb) {
+		final long requestedEntries = Math.max(2, (long) sizeMb * 1024 * 1024 / ENTRY_BYTES);
+		// The number of entries is a power of 2 so that the index is a simple mask
+		final int entries = (int) Math.min(1 << 30, Long.highestOneBit(requestedEntries));
+		this.keys = new long[entries];
+		this.data = new long[entries];
+		this.mask = entries - 1;
+	}
+
+	/**
+	 * Tells the table that a new search begins : the entries of the previous searches
+	 * are kept but will be replaced first
+	 */
+	public void newSearch() {
+		this.generation = (this.generation + 1) & 0x3F;
+	}
+
+	/**
+	 * Removes all the entries of the table
+	 */
+	public void clear() {
+		Arrays.fill(this.keys, 0L);
+		Arrays.fill(this.data, 0L);
+		this.generation = 0;
+	}
+
+	/**
+	 * Looks for the entry of a board
+	 * @param key The Zobrist hash of the board
+	 * @return The data of the entry, or 0 if the board is not in the table
+	 */
+	public long probe(final long key) {
+		final int index = (int) key & this.mask;
+		for (int i = index; i <= (index | 1); i++) {
+			final long entry = this.data[i];
+			if ((this.keys[i] ^ entry) == key && entry != 0) {
+				if (EngineMetrics.ENABLED) {
+					EngineMetrics.tableProbed(true);
+				}
+				return entry;
+			}
+		}
+		if (EngineMetrics.ENABLED) {
+			EngineMetrics.tableProbed(false);
+		}
+		return 0L;
+	}
+
+	/**
+	 * Stores the result of the search of a board.
+	 * Each key can go in two slots : the slot of the same board, else the slot
+	 * of an older search, else the slot searched with the lowest depth.
+	 * @param key The Zobrist hash of the board
+	 * @param move The encoded best move (see {@link #encodeMove(Move)}), 0 if unknown
+	 * @param score The score of the board
+	 * @param depth The depth of the search
+	 * @param bound The kind of score : {@link #EXACT}, {@link #LOWER_BOUND} or {@link #UPPER_BOUND}
+	 */
+	public void store(final long key, final int move, final int score, final int depth, final int bound) {
+		final int index = (int) key & this.mask;
+		int replaced = index;
+		int replacedPriority = Integer.MAX_VALUE;
+		for (int i = index; i <= (index | 1); i++) {
+			final long entry = this.data[i];
+			if ((this.keys[i] ^ entry) == key) {
+				replaced = i;
+				break;
+			}
+			final int priority = (getGeneration(entry) == this.generation ? 256 : 0) + getDepth(entry);
+			if (priority < replacedPriority) {
+				replaced = i;
+				replacedPriority = priority;
+			}
+		}
+		final long oldEntry = this.data[replaced];
+		final int storedMove = (move == 0 && (this.keys[replaced] ^ oldEntry) == key) ? getMove(oldEntry) : move;
+		final long entry = (storedMove & 0xFFFFL) |
+				((long) (depth & 0xFF) << 16) |
+				((long) bound << 24) |
+				((long) this.generation << 26) |
+				((long) score << 32);
+		this.keys[replaced] = key ^ entry;
+		this.data[replaced] = entry;
+	}
+
+	/**
+	 * Estimates how full the table is, counting the entries of the current search
+	 * @return The number of used entries per thousand
+	 */
+	public int hashfull() {
+		final int sample = Math.min(HASHFULL_SAMPLE, this.data.length);
+		int used = 0;
+		for (int i = 0; i < sample; i++) {
+			final long entry = this.data[i];
+			if (entry != 0 && getGeneration(entry) == this.generation) {
+				used++;
+			}
+		}
+		return used * 1000 / sample;
+	}
+
+	/**
+	 * Encodes a move in 16 bits : the current coordinate, the destination coordinate
+	 * and the type of the piece a pawn is promoted to
+	 * @param move The move
+	 * @return The encoded move, never 0 for a real move
+	 */
+	public static int encodeMove(final Move move) {
+		if (move == null) {
+			return 0;
+		}
+		final int promotion = move.getPromotionType() == null ? 0 : move.getPromotionType().ordinal();
+		return (move.getCurrentCoordinate() | (move.getDestinationCoordinate() << 6) | (promotion << 12)) + 1;
+	}
+
+	/**
+	 * Tells if a move matches an encoded move
+	 * @param move The move
+	 * @param encodedMove The encoded move
+	 * @return A boolean telling whether the move is the encoded move or not
+	 */
+	public static boolean isSameMove(final Move move, final int encodedMove) {
+		return encodedMove != 0 && encodeMove(move) == encodedMove;
+	}
+
+	/**
+	 * Gets the encoded best move of an entry
+	 * @param entry The entry
+	 * @return The encoded best move, 0 if unknown
+	 */
+	public static int getMove(final long entry) {
+		return (int) (entry & 0xFFFF);
+	}
+
+	/**
+	 * Gets the search depth of an entry
+	 * @param entry The entry
+	 * @return The depth of the search
+	 */
+	public static int getDepth(final long entry) {
+		return (int) ((entry >>> 16) & 0xFF);
+	}
+
+	/**
+	 * Gets the kind of score of an entry
+	 * @param entry The entry
+	 * @return {@link #EXACT}, {@link #LOWER_BOUND} or {@link #UPPER_BOUND}
+	 */
+	public static int getBound(final long entry) {
+		return (int) ((entry >>> 24) & 0x3);
+	}
+
+	/**
+	 * Gets the score of an entry
+	 * @param entry The entry
+	 * @return The score
+	 */
+	public static int getScore(final long entry) {
+		return (int) (entry >> 32);
+	}
+
+	/**
+	 * Gets the generation of the search that stored an entry
+	 * @param entry The entry
+	 * @return The generation
+	 */
+	private static int getGeneration(final long entry) {
+		return (int) ((entry >>> 26) & 0x3F);
+	}
+}
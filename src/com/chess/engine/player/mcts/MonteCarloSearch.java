@@ -0,0 +1,578 @@
+package com.chess.engine.player.mcts;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+import com.chess.engine.pieces.Piece.PieceType;
+import com.chess.engine.player.MoveTransition;
+import com.chess.engine.player.Player;
+import com.chess.engine.player.ai.BoardEvaluator;
+import com.chess.engine.player.ai.MoveStrategy;
+import com.chess.engine.player.ai.SearchLimits;
+import com.chess.engine.player.ai.SearchResult;
+import com.chess.engine.player.ai.StandardBoardEvaluator;
+import com.chess.engine.player.ai.TimeManager;
+import com.chess.engine.player.ai.TranspositionTable;
+import com.chess.pgn.FenUtilities;
+
+/**
+ * A best-first Monte-Carlo tree search. Each playout goes down the tree choosing the child
+ * with the best PUCT score (mean value plus an exploration bonus weighted by the prior of the move),
+ * expands the leaf it reaches, values it with a short random playout and the evaluator,
+ * then adds this value to every node of its path.
+ * Many threads run playouts on the same tree : a node being visited counts as a loss
+ * until its value is known (virtual loss), which spreads the threads over the tree.
+ * The tree lives in a preallocated {@link NodeArena}, and the subtree of the played moves
+ * is kept for the next search. A search stops when the arena is full, as its leaves could
+ * not grow any more (see {@link #isTreeFull()})
+ * @author antsalin
+ *
+ */
+public final class MonteCarloSearch implements MoveStrategy, AutoCloseable {
+
+	/** The default number of nodes of the arena */
+	public static final int DEFAULT_CAPACITY = 1 << 20;
+
+	/** The number of playouts of a search without any limit */
+	private static final long DEFAULT_PLAYOUTS = 20000;
+
+	/** The weight of the exploration bonus in the PUCT score */
+	private static final double EXPLORATION = 1.5;
+
+	/** The value of the loss counted for a visit in progress */
+	private static final int VIRTUAL_LOSS = 1;
+
+	/** The maximum number of nodes of a path from the root */
+	private static final int MAX_PATH_LENGTH = 256;
+
+	/** The duration of each warm-up search of the benchmark, in milliseconds */
+	private static final long WARM_UP_MILLIS = 500;
+
+	/** The largest arena the benchmark sizes by itself, about 350 MB */
+	private static final int MAX_BENCHMARK_CAPACITY = 1 << 23;
+
+	/** The score, in centipawns, of a value of about 0.5 : values are mapped to scores by a logistic curve */
+	private static final double SCORE_SCALE = 400.0;
+
+	/** The evaluator giving the values of the leaves */
+	private final BoardEvaluator evaluator;
+
+	/** The number of random moves played from a leaf before evaluating it, 0 to evaluate the leaf itself */
+	private final int playoutPlies;
+
+	/** The number of threads running playouts */
+	private final int threads;
+
+	/** The nodes of the tree */
+	private final NodeArena arena;
+
+	/** The threads running the playouts */
+	private final ForkJoinPool pool;
+
+	/** The root node of the tree, {@link NodeArena#NO_NODE} before the first search */
+	private int root = NodeArena.NO_NODE;
+
+	/** The number of playouts of the current search */
+	private final AtomicLong playouts = new AtomicLong();
+
+	/** The number of playouts the current search can run */
+	private long maxPlayouts;
+
+	/** The time at which the current search has to stop, in milliseconds (negative if unlimited) */
+	private volatile long deadline;
+
+	/** Tells if the current search has to stop as soon as possible */
+	private volatile boolean stopRequested;
+
+	/** Tells if the current search stopped because the arena was full */
+	private volatile boolean treeFull;
+
+	/**
+	 * Constructor
+	 * @param evaluator The evaluator giving the values of the leaves
+	 * @param playoutPlies The number of random moves played from a leaf before evaluating it, 0 to evaluate the leaf itself
+	 * @param threads The number of threads running playouts
+	 * @param capacity The maximum number of nodes of the tree
+	 */
+	public MonteCarloSearch(final BoardEvaluator evaluator, final int playoutPlies, final int threads, final int capacity) {
+		this.evaluator = evaluator;
+		this.playoutPlies = playoutPlies;
+		this.threads = threads;
+		this.arena = new NodeArena(capacity);
+		this.pool = new ForkJoinPool(threads);
+	}
+
+	@Override
+	public Move execute(final Board board) {
+		return search(board, new SearchLimits.Builder().setNodes(DEFAULT_PLAYOUTS).build()).getBestMove();
+	}
+
+	/**
+	 * Searches the best move of the current player. Only the node and time limits are used,
+	 * a search without them runs {@link #DEFAULT_PLAYOUTS} playouts
+	 * /!\ Only one search can run at a time
+	 * @param board The board to search
+	 * @param limits When the search has to stop : the nodes are the playouts
+	 * @return The result of the search : its depth is the length of the principal variation
+	 * and its nodes are the playouts
+	 */
+	public SearchResult search(final Board board, final SearchLimits limits) {
+		final long startTime = System.currentTimeMillis();
+		final TimeManager timeManager = limits.createTimeManager();
+		long searchDeadline = limits.isTimed() ? startTime + limits.getMoveTimeMillis() : -1;
+		if (timeManager != null) {
+			final long softDeadline = startTime + timeManager.getSoftLimitMillis();
+			searchDeadline = searchDeadline < 0 ? softDeadline : Math.min(searchDeadline, softDeadline);
+		}
+		this.deadline = searchDeadline;
+		this.maxPlayouts = limits.getNodes() >= 0 ? limits.getNodes() : searchDeadline < 0 ? DEFAULT_PLAYOUTS : Long.MAX_VALUE;
+		this.playouts.set(0);
+		this.stopRequested = false;
+		this.treeFull = false;
+		this.root = findRoot(board);
+
+		final List<ForkJoinTask<?>> tasks = new ArrayList<>(this.threads);
+		for (int t = 0; t < this.threads; t++) {
+			tasks.add(this.pool.submit(new Runnable() {
+				@Override
+				public void run() {
+					runPlayouts(board);
+				}
+			}));
+		}
+		for (final ForkJoinTask<?> task : tasks) {
+			task.join();
+		}
+		return createResult(board, System.currentTimeMillis() - startTime);
+	}
+
+	/**
+	 * Asks the current search to stop as soon as possible
+	 */
+	public void stop() {
+		this.stopRequested = true;
+	}
+
+	/**
+	 * Tells if the last search stopped because the arena was full, before its limits
+	 * @return A boolean telling whether the tree filled the arena or not
+	 */
+	public boolean isTreeFull() {
+		return this.treeFull;
+	}
+
+	/**
+	 * Gets the number of playouts of the current search
+	 * @return The number of playouts
+	 */
+	public long getPlayouts() {
+		return this.playouts.get();
+	}
+
+	/**
+	 * Gets the number of nodes of the tree
+	 * @return The number of nodes in use in the arena
+	 */
+	public int getTreeSize() {
+		return this.arena.size();
+	}
+
+	@Override
+	public void close() {
+		this.pool.shutdownNow();
+	}
+
+	/**
+	 * Finds the node of a board in the tree of the previous search : the root itself, or the board
+	 * reached after one or two moves. The tree is cleared when the board isn't found, or when
+	 * more than half of the arena is used (the nodes of the other subtrees can't be freed one by one)
+	 * @param board The board to search
+	 * @return The root node of the search
+	 */
+	private int findRoot(final Board board) {
+		int node = NodeArena.NO_NODE;
+		if (this.root != NodeArena.NO_NODE && this.arena.size() <= this.arena.getCapacity() / 2) {
+			node = findDescendant(this.root, board.getZobristHash(), 2);
+		}
+		if (node == NodeArena.NO_NODE) {
+			this.arena.clear();
+			node = this.arena.allocate(1);
+		}
+		this.arena.setKey(node, board.getZobristHash());
+		return node;
+	}
+
+	/**
+	 * Finds the node of a board among a node and its descendants
+	 * @param node The node
+	 * @param key The Zobrist key of the board
+	 * @param depth The maximum distance between the node and the board
+	 * @return The node of the board, {@link NodeArena#NO_NODE} if it isn't found
+	 */
+	private int findDescendant(final int node, final long key, final int depth) {
+		if (this.arena.getKey(node) == key) {
+			return node;
+		}
+		if (depth == 0 || this.arena.getState(node) != NodeArena.EXPANDED) {
+			return NodeArena.NO_NODE;
+		}
+		final int firstChild = this.arena.getFirstChild(node);
+		for (int child = firstChild; child < firstChild + this.arena.getChildCount(node); child++) {
+			final int found = findDescendant(child, key, depth - 1);
+			if (found != NodeArena.NO_NODE) {
+				return found;
+			}
+		}
+		return NodeArena.NO_NODE;
+	}
+
+	/**
+	 * Runs playouts until the end of the search
+	 * @param rootBoard The board of the root
+	 */
+	private void runPlayouts(final Board rootBoard) {
+		final int[] path = new int[MAX_PATH_LENGTH];
+		while (!this.stopRequested && this.playouts.get() < this.maxPlayouts) {
+			playout(rootBoard, path);
+			this.playouts.incrementAndGet();
+			final long currentDeadline = this.deadline;
+			if (currentDeadline >= 0 && System.currentTimeMillis() >= currentDeadline) {
+				this.stopRequested = true;
+			}
+		}
+	}
+
+	/**
+	 * Runs one playout : goes down the tree to a leaf, expands it, values it and updates the nodes of the path
+	 * @param rootBoard The board of the root
+	 * @param path The array receiving the nodes of the path
+	 */
+	private void playout(final Board rootBoard, final int[] path) {
+		Board board = rootBoard;
+		int node = this.root;
+		int length = 0;
+		this.arena.addVirtualLoss(node, VIRTUAL_LOSS);
+		path[length++] = node;
+		double value;
+		while (true) {
+			final int state = this.arena.getState(node);
+			if (state == NodeArena.TERMINAL) {
+				value = this.arena.getTerminalValue(node);
+				break;
+			}
+			if (state != NodeArena.EXPANDED) {
+				if (state == NodeArena.LEAF && length < MAX_PATH_LENGTH && this.arena.tryExpand(node)) {
+					value = expand(node, board);
+				} else {
+					// Another thread is expanding the node, or the path is too long
+					value = -evaluateLeaf(board);
+				}
+				break;
+			}
+			final int child = selectChild(node);
+			if (child == NodeArena.NO_NODE) {
+				// Every child is illegal : the expansion should have seen the end of the game
+				value = -evaluateLeaf(board);
+				break;
+			}
+			final MoveTransition transition = board.currentPlayer().makeMove(decodeMove(board.currentPlayer(), this.arena.getMove(child)));
+			if (!transition.getMoveStatus().isDone()) {
+				this.arena.setIllegal(child);
+				continue;
+			}
+			board = transition.getTransitionBoard();
+			this.arena.setKey(child, board.getZobristHash());
+			this.arena.addVirtualLoss(child, VIRTUAL_LOSS);
+			path[length++] = child;
+			node = child;
+		}
+		// Each node is valued from the point of view of the player who made its move
+		for (int i = length - 1; i >= 0; i--) {
+			this.arena.backup(path[i], value, VIRTUAL_LOSS);
+			value = -value;
+		}
+	}
+
+	/**
+	 * Chooses the child with the best PUCT score
+	 * @param node The expanded node
+	 * @return The chosen child, {@link NodeArena#NO_NODE} if every child is illegal
+	 */
+	private int selectChild(final int node) {
+		final double exploration = EXPLORATION * Math.sqrt(Math.max(1, this.arena.getVisits(node)));
+		final int firstChild = this.arena.getFirstChild(node);
+		int bestChild = NodeArena.NO_NODE;
+		double bestScore = Double.NEGATIVE_INFINITY;
+		for (int child = firstChild; child < firstChild + this.arena.getChildCount(node); child++) {
+			if (this.arena.getState(child) == NodeArena.ILLEGAL) {
+				continue;
+			}
+			final double score = this.arena.getMeanValue(child, 0) +
+					exploration * this.arena.getPrior(child) / (1 + this.arena.getVisits(child));
+			if (score > bestScore) {
+				bestScore = score;
+				bestChild = child;
+			}
+		}
+		return bestChild;
+	}
+
+	/**
+	 * Creates the children of a leaf, or marks it as terminal, then values it.
+	 * The children are created for every generated move : the moves leaving the king
+	 * in check are only found (and marked illegal) when a playout tries them
+	 * @param node The leaf, in the {@link NodeArena#EXPANDING} state
+	 * @param board The board of the leaf
+	 * @return The value of the leaf, from the point of view of the player who made its move
+	 */
+	private double expand(final int node, final Board board) {
+		final Player player = board.currentPlayer();
+		if (!player.hasAnyLegalMove()) {
+			// Checkmate is a win for the player who made the move, stalemate a draw
+			final double value = player.isInCheck() ? 1 : 0;
+			this.arena.setTerminal(node, value);
+			return value;
+		}
+		final Collection<Move> moves = player.getLegalMoves();
+		final int firstChild = this.arena.allocate(moves.size());
+		if (firstChild == NodeArena.NO_NODE) {
+			// The arena is full : the node stays a leaf, and the search stops
+			this.arena.cancelExpansion(node);
+			this.treeFull = true;
+			this.stopRequested = true;
+			return -evaluateLeaf(board);
+		}
+		double totalWeight = 0;
+		for (final Move move : moves) {
+			totalWeight += moveWeight(move);
+		}
+		int child = firstChild;
+		for (final Move move : moves) {
+			this.arena.setMove(child++, TranspositionTable.encodeMove(move), (float) (moveWeight(move) / totalWeight));
+		}
+		this.arena.setChildren(node, firstChild, moves.size());
+		return -evaluateLeaf(board);
+	}
+
+	/**
+	 * Gives the weight of a move in the prior probabilities : the captures of valuable pieces
+	 * and the promotions are tried before the quiet moves
+	 * @param move The move
+	 * @return The weight of the move
+	 */
+	private static double moveWeight(final Move move) {
+		double weight = 1;
+		if (move.isAttack()) {
+			weight += move.getAttackedPiece().getPieceType().getPieceValue() / 100.0;
+		}
+		if (move.getPromotionType() != null) {
+			weight += move.getPromotionType().getPieceValue() / 100.0;
+		}
+		return weight;
+	}
+
+	/**
+	 * Values a leaf : plays random moves from it, then evaluates the board reached
+	 * @param board The board of the leaf
+	 * @return The value of the leaf, from the point of view of the player to move, between -1 and 1
+	 */
+	private double evaluateLeaf(final Board board) {
+		final ThreadLocalRandom random = ThreadLocalRandom.current();
+		Board current = board;
+		for (int ply = 0; ply < this.playoutPlies; ply++) {
+			final Board next = playRandomMove(current, random);
+			if (next == null) {
+				final double value = current.currentPlayer().isInCheck() ? -1 : 0;
+				// The value is seen from the player to move at the leaf, ply moves earlier
+				return ply % 2 == 0 ? value : -value;
+			}
+			current = next;
+		}
+		final int score = this.evaluator.evaluate(current, 0);
+		final boolean whiteToMove = board.currentPlayer().getAlliance().isWhite();
+		return scoreToValue(whiteToMove ? score : -score);
+	}
+
+	/**
+	 * Plays a random legal move
+	 * @param board The board
+	 * @param random The random generator
+	 * @return The board after the move, null if the player to move has no legal move
+	 */
+	private static Board playRandomMove(final Board board, final ThreadLocalRandom random) {
+		final Player player = board.currentPlayer();
+		final List<Move> moves = new ArrayList<>(player.getLegalMoves());
+		final int start = moves.isEmpty() ? 0 : random.nextInt(moves.size());
+		for (int i = 0; i < moves.size(); i++) {
+			final MoveTransition transition = player.makeMove(moves.get((start + i) % moves.size()));
+			if (transition.getMoveStatus().isDone()) {
+				return transition.getTransitionBoard();
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Finds the move matching an encoded move
+	 * @param player The player to move
+	 * @param encodedMove The encoded move
+	 * @return The move, null if the player has no such move
+	 */
+	private static Move decodeMove(final Player player, final int encodedMove) {
+		final int move = encodedMove - 1;
+		final int promotion = (move >>> 12) & 0xF;
+		return player.findLegalMove(move & 0x3F, (move >>> 6) & 0x3F, promotion == 0 ? null : PieceType.values()[promotion]);
+	}
+
+	/**
+	 * Converts a score to a value
+	 * @param score The score, in centipawns
+	 * @return The value, between -1 and 1
+	 */
+	private static double scoreToValue(final int score) {
+		return 2 / (1 + Math.pow(10, -score / SCORE_SCALE)) - 1;
+	}
+
+	/**
+	 * Converts a value to a score
+	 * @param value The value, between -1 and 1
+	 * @return The score, in centipawns
+	 */
+	private static int valueToScore(final double value) {
+		final double clampedValue = Math.max(-0.999, Math.min(0.999, value));
+		return (int) Math.round(-SCORE_SCALE * Math.log10(2 / (clampedValue + 1) - 1));
+	}
+
+	/**
+	 * Builds the result of the search : the most visited line of the tree
+	 * @param board The board of the root
+	 * @param timeMillis The time used by the search
+	 * @return The result of the search
+	 */
+	private SearchResult createResult(final Board board, final long timeMillis) {
+		final List<Move> principalVariation = new ArrayList<>();
+		Board current = board;
+		int node = this.root;
+		double rootValue = 0;
+		while (this.arena.getState(node) == NodeArena.EXPANDED && principalVariation.size() < SearchLimits.MAX_DEPTH) {
+			final int child = mostVisitedChild(node);
+			if (child == NodeArena.NO_NODE) {
+				break;
+			}
+			if (node == this.root) {
+				rootValue = this.arena.getMeanValue(child, 0);
+			}
+			final Move move = decodeMove(current.currentPlayer(), this.arena.getMove(child));
+			final MoveTransition transition = current.currentPlayer().makeMove(move);
+			if (!transition.getMoveStatus().isDone()) {
+				break;
+			}
+			principalVariation.add(move);
+			current = transition.getTransitionBoard();
+			node = child;
+		}
+		final Move bestMove = principalVariation.isEmpty() ? null : principalVariation.get(0);
+		return new SearchResult(bestMove, valueToScore(rootValue), principalVariation.size(), this.playouts.get(),
+				timeMillis, principalVariation);
+	}
+
+	/**
+	 * Finds the legal child visited the most
+	 * @param node The expanded node
+	 * @return The most visited child, {@link NodeArena#NO_NODE} if no child was visited
+	 */
+	private int mostVisitedChild(final int node) {
+		final int firstChild = this.arena.getFirstChild(node);
+		int bestChild = NodeArena.NO_NODE;
+		int bestVisits = 0;
+		for (int child = firstChild; child < firstChild + this.arena.getChildCount(node); child++) {
+			final int visits = this.arena.getVisits(child);
+			if (visits > bestVisits && this.arena.getState(child) != NodeArena.ILLEGAL) {
+				bestVisits = visits;
+				bestChild = child;
+			}
+		}
+		return bestChild;
+	}
+
+	/**
+	 * Measures the playouts per second from the command line, with 1, 2, 4,... threads up to the given number.
+	 * Short searches as long as a run first warm the code up and measure how fast the tree grows, so that
+	 * the arena of each thread count (a new one per run) can hold the whole run when -nodes is not given.
+	 * A run still stops when its arena is full : the playouts wouldn't grow the tree any more and
+	 * would be cheaper, so the run is reported as such
+	 * Options : -fen "FEN" (default : the initial board), -threads N, -seconds N (per thread count),
+	 * -plies N (random moves of each playout), -nodes N (capacity of the arena)
+	 * @param args The command line options
+	 */
+	public static void main(final String[] args) {
+		String fen = FenUtilities.STANDARD_FEN;
+		int maxThreads = Runtime.getRuntime().availableProcessors();
+		int seconds = 5;
+		int plies = 0;
+		int capacity = -1;
+		for (int i = 0; i + 1 < args.length; i += 2) {
+			final String value = args[i + 1];
+			switch (args[i]) {
+			case "-fen":
+				fen = value;
+				break;
+			case "-threads":
+				maxThreads = Integer.parseInt(value);
+				break;
+			case "-seconds":
+				seconds = Integer.parseInt(value);
+				break;
+			case "-plies":
+				plies = Integer.parseInt(value);
+				break;
+			case "-nodes":
+				capacity = Integer.parseInt(value);
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown option : " + args[i]);
+			}
+		}
+
+		final Board board = FenUtilities.createGameFromFEN(fen);
+		// Short searches with one thread for as long as a run, until the code is compiled
+		double nodesPerMilli = 0;
+		final long warmUpEnd = System.currentTimeMillis() + seconds * 1000L;
+		while (System.currentTimeMillis() < warmUpEnd) {
+			try (MonteCarloSearch search = new MonteCarloSearch(new StandardBoardEvaluator(), plies, 1, DEFAULT_CAPACITY)) {
+				final SearchResult result = search.search(board, new SearchLimits.Builder().setMoveTime(WARM_UP_MILLIS).build());
+				nodesPerMilli = (double) search.getTreeSize() / Math.max(1, result.getTimeMillis());
+			}
+		}
+		if (capacity < 0) {
+			// The nodes the threads create during a run, with a margin
+			capacity = (int) Math.min(MAX_BENCHMARK_CAPACITY,
+					Math.max(DEFAULT_CAPACITY, 1.5 * nodesPerMilli * seconds * 1000 * maxThreads));
+		}
+		final SearchLimits limits = new SearchLimits.Builder().setMoveTime(seconds * 1000L).build();
+		double singleThreadSpeed = 0;
+		for (int threads = 1; ; threads = Math.min(2 * threads, maxThreads)) {
+			try (MonteCarloSearch search = new MonteCarloSearch(new StandardBoardEvaluator(), plies, threads, capacity)) {
+				final SearchResult result = search.search(board, limits);
+				final double speed = result.getNodes() * 1000.0 / Math.max(1, result.getTimeMillis());
+				if (threads == 1) {
+					singleThreadSpeed = speed;
+				}
+				System.out.println(String.format("%d threads : %d playouts in %d ms, %.0f playouts/s (x%.2f), %d nodes, bestmove %s%s",
+						threads, result.getNodes(), result.getTimeMillis(), speed, speed / Math.max(1, singleThreadSpeed),
+						search.getTreeSize(), result.getBestMove(),
+						search.isTreeFull() ? " (tree full, stopped early : use more -nodes or fewer -seconds)" : ""));
+			}
+			if (threads == maxThreads) {
+				break;
+			}
+		}
+	}
+}
@@ -0,0 +1,305 @@
+package com.chess.engine.player.mcts;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The nodes of a Monte-Carlo search tree, stored in preallocated arrays (one array per field)
+ * rather than in objects : a node is an index, and the children of a node are consecutive.
+ * The statistics are updated without locks by many threads. The other fields of a node are
+ * written by the thread that expands it before it publishes the new state of the node, so
+ * a thread that reads the state reads the fields written before it
+ * @author antsalin
+ *
+ */
+final class NodeArena {
+
+	/** The index of a missing node */
+	static final int NO_NODE = -1;
+
+	/** State of a node whose children are not created yet */
+	static final int LEAF = 0;
+
+	/** State of a node whose children are being created by a thread */
+	static final int EXPANDING = 1;
+
+	/** State of a node whose children can be searched */
+	static final int EXPANDED = 2;
+
+	/** State of a node that ends the game (checkmate or stalemate) */
+	static final int TERMINAL = 3;
+
+	/** State of a node whose move leaves the king of its player in check */
+	static final int ILLEGAL = 4;
+
+	/** The fixed point scale of the values : a value of 1 is stored as VALUE_SCALE */
+	private static final double VALUE_SCALE = 1 << 16;
+
+	/** The maximum number of nodes */
+	private final int capacity;
+
+	/** The number of nodes allocated (it can exceed the capacity after a failed allocation of several threads) */
+	private final AtomicInteger size = new AtomicInteger();
+
+	/** The Zobrist key of the board of each node, 0 while the board has not been built */
+	private final long[] keys;
+
+	/** The encoded move leading to each node (see {@link com.chess.engine.player.ai.TranspositionTable#encodeMove}) */
+	private final int[] moves;
+
+	/** The prior probability of the move leading to each node */
+	private final float[] priors;
+
+	/** The index of the first child of each node */
+	private final int[] firstChildren;
+
+	/** The number of children of each node */
+	private final short[] childCounts;
+
+	/** The value of each terminal node */
+	private final float[] terminalValues;
+
+	/** The state of each node : {@link #LEAF}, {@link #EXPANDING}, {@link #EXPANDED}, {@link #TERMINAL} or {@link #ILLEGAL} */
+	private final AtomicIntegerArray states;
+
+	/** The number of visits of each node, the visits in progress included */
+	private final AtomicIntegerArray visits;
+
+	/** The sum of the values of each node, in fixed point, from the point of view of the player who made its move */
+	private final AtomicLongArray valueSums;
+
+	/**
+	 * Constructor
+	 * @param capacity The maximum number of nodes
+	 */
+	NodeArena(final int capacity) {
+		this.capacity = capacity;
+		this.keys = new long[capacity];
+		this.moves = new int[capacity];
+		this.priors = new float[capacity];
+		this.firstChildren = new int[capacity];
+		this.childCounts = new short[capacity];
+		this.terminalValues = new float[capacity];
+		this.states = new AtomicIntegerArray(capacity);
+		this.visits = new AtomicIntegerArray(capacity);
+		this.valueSums = new AtomicLongArray(capacity);
+	}
+
+	/**
+	 * Removes all the nodes. No search can use the arena at the same time
+	 */
+	void clear() {
+		this.size.set(0);
+	}
+
+	/**
+	 * Gets the number of nodes in use
+	 * @return The number of nodes
+	 */
+	int size() {
+		return Math.min(this.size.get(), this.capacity);
+	}
+
+	/**
+	 * Gets the maximum number of nodes
+	 * @return The capacity of the arena
+	 */
+	int getCapacity() {
+		return this.capacity;
+	}
+
+	/**
+	 * Allocates consecutive nodes, in the {@link #LEAF} state and without statistics
+	 * @param count The number of nodes
+	 * @return The index of the first node, {@link #NO_NODE} if the arena is full
+	 */
+	int allocate(final int count) {
+		// Reading the size first keeps it from growing without bound once the arena is full
+		if (this.size.get() + count > this.capacity) {
+			return NO_NODE;
+		}
+		final int first = this.size.getAndAdd(count);
+		if (first + count > this.capacity) {
+			return NO_NODE;
+		}
+		for (int node = first; node < first + count; node++) {
+			this.keys[node] = 0L;
+			this.states.set(node, LEAF);
+			this.visits.set(node, 0);
+			this.valueSums.set(node, 0L);
+		}
+		return first;
+	}
+
+	/**
+	 * Tries to become the thread that expands a leaf
+	 * @param node The node
+	 * @return A boolean telling whether the node was a leaf and is now {@link #EXPANDING}
+	 */
+	boolean tryExpand(final int node) {
+		return this.states.compareAndSet(node, LEAF, EXPANDING);
+	}
+
+	/**
+	 * Sets the children of a node being expanded, and publishes them
+	 * @param node The node
+	 * @param firstChild The index of the first child
+	 * @param childCount The number of children
+	 */
+	void setChildren(final int node, final int firstChild, final int childCount) {
+		this.firstChildren[node] = firstChild;
+		this.childCounts[node] = (short) childCount;
+		this.states.set(node, EXPANDED);
+	}
+
+	/**
+	 * Marks a node as the end of the game
+	 * @param node The node
+	 * @param value The value of the node, from the point of view of the player who made its move
+	 */
+	void setTerminal(final int node, final double value) {
+		this.terminalValues[node] = (float) value;
+		this.states.set(node, TERMINAL);
+	}
+
+	/**
+	 * Puts back a node being expanded in the {@link #LEAF} state, when its children can't be allocated
+	 * @param node The node
+	 */
+	void cancelExpansion(final int node) {
+		this.states.set(node, LEAF);
+	}
+
+	/**
+	 * Marks a node whose move leaves the king of its player in check
+	 * @param node The node
+	 */
+	void setIllegal(final int node) {
+		this.states.set(node, ILLEGAL);
+	}
+
+	/**
+	 * Sets the move leading to a node and its prior probability
+	 * @param node The node
+	 * @param move The encoded move
+	 * @param prior The prior probability of the move
+	 */
+	void setMove(final int node, final int move, final float prior) {
+		this.moves[node] = move;
+		this.priors[node] = prior;
+	}
+
+	/**
+	 * Sets the Zobrist key of the board of a node
+	 * @param node The node
+	 * @param key The Zobrist key
+	 */
+	void setKey(final int node, final long key) {
+		this.keys[node] = key;
+	}
+
+	/**
+	 * Gets the Zobrist key of the board of a node
+	 * @param node The node
+	 * @return The Zobrist key, 0 if the board was never built
+	 */
+	long getKey(final int node) {
+		return this.keys[node];
+	}
+
+	/**
+	 * Gets the state of a node
+	 * @param node The node
+	 * @return The state of the node
+	 */
+	int getState(final int node) {
+		return this.states.get(node);
+	}
+
+	/**
+	 * Gets the encoded move leading to a node
+	 * @param node The node
+	 * @return The encoded move
+	 */
+	int getMove(final int node) {
+		return this.moves[node];
+	}
+
+	/**
+	 * Gets the prior probability of the move leading to a node
+	 * @param node The node
+	 * @return The prior probability
+	 */
+	float getPrior(final int node) {
+		return this.priors[node];
+	}
+
+	/**
+	 * Gets the index of the first child of an expanded node
+	 * @param node The node
+	 * @return The index of the first child
+	 */
+	int getFirstChild(final int node) {
+		return this.firstChildren[node];
+	}
+
+	/**
+	 * Gets the number of children of an expanded node
+	 * @param node The node
+	 * @return The number of children
+	 */
+	int getChildCount(final int node) {
+		return this.childCounts[node];
+	}
+
+	/**
+	 * Gets the value of a terminal node
+	 * @param node The node
+	 * @return The value, from the point of view of the player who made the move of the node
+	 */
+	double getTerminalValue(final int node) {
+		return this.terminalValues[node];
+	}
+
+	/**
+	 * Gets the number of visits of a node
+	 * @param node The node
+	 * @return The number of visits, the visits in progress included
+	 */
+	int getVisits(final int node) {
+		return this.visits.get(node);
+	}
+
+	/**
+	 * Gets the mean value of a node
+	 * @param node The node
+	 * @param defaultValue The value of a node that was never visited
+	 * @return The mean value, from the point of view of the player who made the move of the node
+	 */
+	double getMeanValue(final int node, final double defaultValue) {
+		final int nodeVisits = this.visits.get(node);
+		return nodeVisits == 0 ? defaultValue : this.valueSums.get(node) / VALUE_SCALE / nodeVisits;
+	}
+
+	/**
+	 * Counts a visit in progress as a loss, so that the other threads prefer the other nodes
+	 * (virtual loss). The loss is replaced by the real value in {@link #backup(int, double, int)}
+	 * @param node The node
+	 * @param virtualLoss The value of the loss
+	 */
+	void addVirtualLoss(final int node, final int virtualLoss) {
+		this.visits.incrementAndGet(node);
+		this.valueSums.addAndGet(node, -Math.round(virtualLoss * VALUE_SCALE));
+	}
+
+	/**
+	 * Replaces the virtual loss of a visit by the value it found
+	 * @param node The node
+	 * @param value The value found, from the point of view of the player who made the move of the node
+	 * @param virtualLoss The value of the virtual loss of the visit
+	 */
+	void backup(final int node, final double value, final int virtualLoss) {
+		this.valueSums.addAndGet(node, Math.round((value + virtualLoss) * VALUE_SCALE));
+	}
+}
@@ -0,0 +1,167 @@
+package com.chess.engine.server;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.BoardSnapshot;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.board.GameStatus;
+import com.chess.engine.board.Move;
+import com.chess.engine.board.Move.MoveFactory;
+import com.chess.engine.pieces.Piece.PieceType;
+import com.chess.engine.player.MoveTransition;
+import com.chess.pgn.FenUtilities;
+
+/**
+ * A game hosted by the session server. A live game only keeps its current position
+ * as a {@link BoardSnapshot} and its moves as an array of 16 bits integers : the board, with its
+ * move lists, is rebuilt when a move is submitted and dropped right after.
+ * The moves of a game are applied one at a time (the methods are synchronized on the session),
+ * but different games never wait for each other.
+ * @author antsalin
+ *
+ */
+public final class GameSession {
+
+	/** The initial size of the move history */
+	private static final int INITIAL_HISTORY_SIZE = 16;
+
+	/** The id of the game */
+	private final long id;
+
+	/** The current position */
+	private BoardSnapshot position;
+
+	/** The moves played, encoded by {@link #encodeMove(Move)} */
+	private short[] moves;
+
+	/** The number of moves played */
+	private int moveCount;
+
+	/** The status of the game */
+	private GameStatus status;
+
+	/**
+	 * Constructor
+	 * @param id The id of the game
+	 * @param board The initial position of the game
+	 */
+	GameSession(final long id, final Board board) {
+		this.id = id;
+		this.position = BoardSnapshot.of(board);
+		this.moves = new short[INITIAL_HISTORY_SIZE];
+		this.status = board.getGameStatus();
+	}
+
+	/**
+	 * Validates a move and plays it if it is legal
+	 * @param notation The move in coordinate notation (e2e4, e7e8q,...)
+	 * @return What happened to the move
+	 */
+	public synchronized MoveResult playMove(final String notation) {
+		if (this.status.isGameOver()) {
+			return new MoveResult(MoveResult.Status.GAME_OVER, notation, getFen(), this.status);
+		}
+		final Board board = this.position.inflate();
+		final Move move = MoveFactory.createMove(board, notation);
+		final MoveTransition transition = move == null ? null : board.currentPlayer().makeMove(move);
+		if (transition == null || !transition.getMoveStatus().isDone()) {
+			return new MoveResult(MoveResult.Status.ILLEGAL_MOVE, notation, getFen(), this.status);
+		}
+
+		final Board newBoard = transition.getTransitionBoard();
+		if (this.moveCount == this.moves.length) {
+			this.moves = Arrays.copyOf(this.moves, this.moves.length * 2);
+		}
+		this.moves[this.moveCount++] = encodeMove(move);
+		this.position = BoardSnapshot.of(newBoard);
+		this.status = newBoard.getGameStatus();
+		return new MoveResult(MoveResult.Status.ACCEPTED, move.toString(), getFen(), this.status);
+	}
+
+	/**
+	 * Gets the id of the game
+	 * @return The id of the game
+	 */
+	public long getId() {
+		return this.id;
+	}
+
+	/**
+	 * Gets the FEN string of the current position
+	 * @return The FEN string
+	 */
+	public synchronized String getFen() {
+		return FenUtilities.createFENFromSnapshot(this.position);
+	}
+
+	/**
+	 * Gets the status of the game
+	 * @return The status of the game
+	 */
+	public synchronized GameStatus getStatus() {
+		return this.status;
+	}
+
+	/**
+	 * Gets the number of moves played
+	 * @return The number of moves
+	 */
+	public synchronized int getMoveCount() {
+		return this.moveCount;
+	}
+
+	/**
+	 * Gets the moves played
+	 * @return The moves, in coordinate notation
+	 */
+	public synchronized List<String> getMoves() {
+		final List<String> history = new ArrayList<>(this.moveCount);
+		for (int i = 0; i < this.moveCount; i++) {
+			history.add(decodeMove(this.moves[i]));
+		}
+		return history;
+	}
+
+	/**
+	 * Describes the game as a JSON object
+	 * @return The JSON text
+	 */
+	public synchronized String toJson() {
+		final StringBuilder json = new StringBuilder("{\"id\":").append(this.id)
+				.append(",\"fen\":").append(JsonUtils.quote(getFen()))
+				.append(",\"status\":").append(JsonUtils.quote(this.status.name()))
+				.append(",\"moves\":[");
+		for (int i = 0; i < this.moveCount; i++) {
+			if (i > 0) {
+				json.append(',');
+			}
+			json.append(JsonUtils.quote(decodeMove(this.moves[i])));
+		}
+		return json.append("]}").toString();
+	}
+
+	/**
+	 * Encodes a move on 16 bits : 6 bits for each coordinate and 3 bits for the promotion
+	 * @param move The move
+	 * @return The encoded move
+	 */
+	private static short encodeMove(final Move move) {
+		final int promotion = move.getPromotionType() == null ? 0 : move.getPromotionType().ordinal() + 1;
+		return (short) (move.getCurrentCoordinate() | move.getDestinationCoordinate() << 6 | promotion << 12);
+	}
+
+	/**
+	 * Decodes a move encoded by {@link #encodeMove(Move)}
+	 * @param encodedMove The encoded move
+	 * @return The move in coordinate notation
+	 */
+	private static String decodeMove(final short encodedMove) {
+		final String notation = BoardUtils.getPositionAtCoordinate(encodedMove & 0x3F) +
+				BoardUtils.getPositionAtCoordinate((encodedMove >>> 6) & 0x3F);
+		final int promotion = (encodedMove >>> 12) & 0x7;
+		return promotion == 0 ? notation : notation + PieceType.values()[promotion - 1].toString().toLowerCase();
+	}
+}
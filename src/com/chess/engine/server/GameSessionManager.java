@@ -0,0 +1,109 @@
+package com.chess.engine.server;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.chess.engine.board.Board;
+import com.chess.pgn.FenUtilities;
+
+/**
+ * Keeps the live games of the session server. The games are stored in a concurrent map,
+ * so that creating, finding and removing games never takes a global lock; the moves of
+ * each game are serialized by the game itself (see {@link GameSession}).
+ * @author antsalin
+ *
+ */
+public final class GameSessionManager {
+
+	/** The live games, by id */
+	private final ConcurrentMap<Long, GameSession> sessions;
+
+	/** The id of the next game */
+	private final AtomicLong nextId;
+
+	/**
+	 * Constructor
+	 */
+	public GameSessionManager() {
+		this.sessions = new ConcurrentHashMap<>();
+		this.nextId = new AtomicLong(1);
+	}
+
+	/**
+	 * Creates a new game
+	 * @param fen The FEN string of the initial position, null for the standard position
+	 * @return The new game
+	 * @throws IllegalArgumentException If the FEN string is not valid, or if its position has not one king of each side
+	 */
+	public GameSession createGame(final String fen) {
+		if (fen != null) {
+			checkKings(fen);
+		}
+		final Board board = fen == null ? Board.createStandardBoard() : FenUtilities.createGameFromFEN(fen);
+		final GameSession session = new GameSession(this.nextId.getAndIncrement(), board);
+		this.sessions.put(session.getId(), session);
+		return session;
+	}
+
+	/**
+	 * Checks that the position of a FEN string has one king of each side, as a board can't be built without them
+	 * @param fen The FEN string
+	 * @throws IllegalArgumentException If a side has no king or several kings
+	 */
+	private static void checkKings(final String fen) {
+		final String placement = fen.trim().split("\\s+")[0];
+		int whiteKings = 0;
+		int blackKings = 0;
+		for (final char c : placement.toCharArray()) {
+			if (c == 'K') {
+				whiteKings++;
+			} else if (c == 'k') {
+				blackKings++;
+			}
+		}
+		if (whiteKings != 1 || blackKings != 1) {
+			throw new IllegalArgumentException("The position needs one king of each side : " + fen);
+		}
+	}
+
+	/**
+	 * Finds a game
+	 * @param id The id of the game
+	 * @return The game, or null if there is no game with this id
+	 */
+	public GameSession getGame(final long id) {
+		return this.sessions.get(id);
+	}
+
+	/**
+	 * Removes a game
+	 * @param id The id of the game
+	 * @return A boolean telling whether the game existed or not
+	 */
+	public boolean removeGame(final long id) {
+		return this.sessions.remove(id) != null;
+	}
+
+	/**
+	 * Validates a move and plays it if it is legal
+	 * @param id The id of the game
+	 * @param notation The move in coordinate notation (e2e4, e7e8q,...)
+	 * @return What happened to the move
+	 */
+	public MoveResult playMove(final long id, final String notation) {
+		final GameSession session = this.sessions.get(id);
+		if (session == null) {
+			return new MoveResult(MoveResult.Status.UNKNOWN_GAME, notation, null, null);
+		}
+		return session.playMove(notation);
+	}
+
+	/**
+	 * Gets the number of live games
+	 * @return The number of games
+	 */
+	public int getGameCount() {
+		return this.sessions.size();
+	}
+}
@@ -0,0 +1,39 @@
+package com.chess.engine.server;
+
+/**
+ * Helper functions to write the JSON answers of the session server
+ * @author antsalin
+ *
+ */
+final class JsonUtils {
+
+	/**
+	 * Useless constructor
+	 */
+	private JsonUtils() {
+		throw new RuntimeException("You can't instanciate this class");
+	}
+
+	/**
+	 * Writes a string as a JSON string
+	 * @param text The string, can be null
+	 * @return The quoted and escaped string, or null
+	 */
+	static String quote(final String text) {
+		if (text == null) {
+			return "null";
+		}
+		final StringBuilder json = new StringBuilder(text.length() + 2).append('"');
+		for (int i = 0; i < text.length(); i++) {
+			final char c = text.charAt(i);
+			if (c == '"' || c == '\\') {
+				json.append('\\').append(c);
+			} else if (c < 0x20) {
+				json.append(String.format("\\u%04x", (int) c));
+			} else {
+				json.append(c);
+			}
+		}
+		return json.append('"').toString();
+	}
+}
@@ -0,0 +1,94 @@
+package com.chess.engine.server;
+
+import com.chess.engine.board.GameStatus;
+
+/**
+ * Describes the answer to a move submitted to a game session
+ * @author antsalin
+ *
+ */
+public final class MoveResult {
+
+	/**
+	 * Describes what happened to the submitted move
+	 */
+	public enum Status {
+		/** The move was played */
+		ACCEPTED,
+		/** The move is not legal in the current position */
+		ILLEGAL_MOVE,
+		/** The game is already over */
+		GAME_OVER,
+		/** There is no game with this id */
+		UNKNOWN_GAME
+	}
+
+	/** What happened to the move */
+	private final Status status;
+
+	/** The submitted move, in coordinate notation */
+	private final String move;
+
+	/** The FEN string of the position after the move (or of the unchanged position) */
+	private final String fen;
+
+	/** The status of the game after the move */
+	private final GameStatus gameStatus;
+
+	/**
+	 * Constructor
+	 * @param status What happened to the move
+	 * @param move The submitted move, in coordinate notation
+	 * @param fen The FEN string of the position after the move, null for an unknown game
+	 * @param gameStatus The status of the game after the move, null for an unknown game
+	 */
+	MoveResult(final Status status, final String move, final String fen, final GameStatus gameStatus) {
+		this.status = status;
+		this.move = move;
+		this.fen = fen;
+		this.gameStatus = gameStatus;
+	}
+
+	/**
+	 * Gets what happened to the move
+	 * @return The status of the move
+	 */
+	public Status getStatus() {
+		return this.status;
+	}
+
+	/**
+	 * Gets the FEN string of the position after the move
+	 * @return The FEN string, null for an unknown game
+	 */
+	public String getFen() {
+		return this.fen;
+	}
+
+	/**
+	 * Gets the status of the game after the move
+	 * @return The status of the game, null for an unknown game
+	 */
+	public GameStatus getGameStatus() {
+		return this.gameStatus;
+	}
+
+	/**
+	 * Describes the result as a JSON object
+	 * @return The JSON text
+	 */
+	public String toJson() {
+		final StringBuilder json = new StringBuilder("{\"result\":").append(JsonUtils.quote(this.status.name()))
+				.append(",\"move\":").append(JsonUtils.quote(this.move));
+		if (this.fen != null) {
+			json.append(",\"fen\":").append(JsonUtils.quote(this.fen))
+					.append(",\"status\":").append(JsonUtils.quote(this.gameStatus.name()));
+		}
+		return json.append('}').toString();
+	}
+
+	@Override
+	public String toString() {
+		return toJson();
+	}
+}
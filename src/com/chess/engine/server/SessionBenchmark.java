@@ -0,0 +1,157 @@
+package com.chess.engine.server;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+import com.chess.pgn.FenUtilities;
+
+/**
+ * Measures the memory used by each live game and the number of moves per second
+ * the session manager validates and plays. Each client thread picks a random game,
+ * chooses one of its moves at random and submits it; a game that is over, or too long,
+ * is replaced by a new one. The time spent by the clients to choose their moves is
+ * not counted in the server time.
+ * @author antsalin
+ *
+ */
+public final class SessionBenchmark {
+
+	/** Number of half moves after which a game of the benchmark is replaced */
+	private static final int MAX_HALF_MOVES = 200;
+
+	/**
+	 * Useless constructor
+	 */
+	private SessionBenchmark() {
+		throw new RuntimeException("You can't instanciate this class");
+	}
+
+	/**
+	 * Runs the benchmark from the command line.
+	 * Options : -sessions N, -threads N, -seconds N
+	 * @param args The command line options
+	 * @throws InterruptedException If the benchmark is interrupted
+	 */
+	public static void main(final String[] args) throws InterruptedException {
+		int sessions = 10000;
+		int threads = Runtime.getRuntime().availableProcessors();
+		int seconds = 10;
+		for (int i = 0; i + 1 < args.length; i += 2) {
+			final String value = args[i + 1];
+			switch (args[i]) {
+			case "-sessions":
+				sessions = Integer.parseInt(value);
+				break;
+			case "-threads":
+				threads = Integer.parseInt(value);
+				break;
+			case "-seconds":
+				seconds = Integer.parseInt(value);
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown option : " + args[i]);
+			}
+		}
+
+		final GameSessionManager manager = new GameSessionManager();
+		final long heapBefore = usedHeap();
+		final AtomicLongArray ids = new AtomicLongArray(sessions);
+		for (int i = 0; i < sessions; i++) {
+			ids.set(i, manager.createGame(null).getId());
+		}
+		final long heapAfter = usedHeap();
+		System.out.println(String.format("%d sessions : %d bytes per game", sessions,
+				(heapAfter - heapBefore) / sessions));
+
+		final LongAdder movesPlayed = new LongAdder();
+		final LongAdder serverNanos = new LongAdder();
+		final long endTime = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+		final List<Thread> clients = new ArrayList<>();
+		for (int t = 0; t < threads; t++) {
+			final Thread client = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					playRandomMoves(manager, ids, endTime, movesPlayed, serverNanos);
+				}
+			}, "client-" + t);
+			clients.add(client);
+			client.start();
+		}
+		for (final Thread client : clients) {
+			client.join();
+		}
+
+		final long moves = Math.max(1, movesPlayed.sum());
+		System.out.println(String.format("%d threads : %d moves in %d s, %.0f moves/s, %.1f us of server time per move",
+				threads, moves, seconds, moves / (double) seconds, serverNanos.sum() / 1000.0 / moves));
+		System.out.println(String.format("%d live games, %d bytes per game", manager.getGameCount(),
+				(usedHeap() - heapBefore) / Math.max(1, manager.getGameCount())));
+	}
+
+	/**
+	 * Plays random moves in random games until the end of the benchmark
+	 * @param manager The live games
+	 * @param ids The ids of the games of the benchmark
+	 * @param endTime When the benchmark ends, in nanoseconds
+	 * @param movesPlayed Counts the moves played
+	 * @param serverNanos Counts the time spent in the session manager
+	 */
+	private static void playRandomMoves(final GameSessionManager manager, final AtomicLongArray ids,
+			final long endTime, final LongAdder movesPlayed, final LongAdder serverNanos) {
+		final ThreadLocalRandom random = ThreadLocalRandom.current();
+		while (System.nanoTime() < endTime) {
+			final int slot = random.nextInt(ids.length());
+			final long id = ids.get(slot);
+			final GameSession session = manager.getGame(id);
+			if (session == null) {
+				// Another client is replacing this game
+				continue;
+			}
+			if (session.getStatus().isGameOver() || session.getMoveCount() >= MAX_HALF_MOVES) {
+				final long newId = manager.createGame(null).getId();
+				if (ids.compareAndSet(slot, id, newId)) {
+					manager.removeGame(id);
+				} else {
+					manager.removeGame(newId);
+				}
+				continue;
+			}
+
+			// The client side : choose a move of the current position
+			final Board board = FenUtilities.createGameFromFEN(session.getFen());
+			final Collection<Move> moves = board.currentPlayer().getLegalMoves();
+			if (moves.isEmpty()) {
+				continue;
+			}
+			final String move = new ArrayList<>(moves).get(random.nextInt(moves.size())).toString();
+
+			final long start = System.nanoTime();
+			final MoveResult result = manager.playMove(id, move);
+			serverNanos.add(System.nanoTime() - start);
+			if (result.getStatus() == MoveResult.Status.ACCEPTED) {
+				movesPlayed.increment();
+			}
+		}
+	}
+
+	/**
+	 * Measures the memory used by the live objects
+	 * @return The used heap, in bytes
+	 * @throws InterruptedException If the thread is interrupted while waiting for the garbage collection
+	 */
+	private static long usedHeap() throws InterruptedException {
+		final Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+			Thread.sleep(50);
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
@@ -0,0 +1,237 @@
+package com.chess.engine.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Local HTTP server hosting games. The requests are handled by a pool of worker threads,
+ * one per core : validating and playing a move only uses the CPU, and the moves of different
+ * games run in parallel. All the answers are JSON objects.
+ * <ul>
+ * <li>POST /games : creates a game, the body can hold the FEN string of the initial position</li>
+ * <li>GET /games/{id} : describes a game (position, status, moves)</li>
+ * <li>POST /games/{id}/moves : plays the move in the body (coordinate notation, e2e4)</li>
+ * <li>DELETE /games/{id} : removes a game</li>
+ * <li>GET /stats : number of live games</li>
+ * </ul>
+ * @author antsalin
+ *
+ */
+public final class SessionServer {
+
+	/** The default port of the server */
+	public static final int DEFAULT_PORT = 8080;
+
+	/** The path of the games */
+	private static final String GAMES_PATH = "/games";
+
+	/** The live games */
+	private final GameSessionManager manager;
+
+	/** The HTTP server */
+	private final HttpServer server;
+
+	/** The threads handling the requests */
+	private final ExecutorService workers;
+
+	/**
+	 * Constructor
+	 * @param manager The live games
+	 * @param port The port of the server, on the loopback address
+	 * @param workerThreads The number of threads handling the requests
+	 * @throws IOException If the server can't be bound to the port
+	 */
+	public SessionServer(final GameSessionManager manager, final int port, final int workerThreads)
+			throws IOException {
+		this.manager = manager;
+		this.workers = Executors.newFixedThreadPool(workerThreads);
+		this.server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+		this.server.setExecutor(this.workers);
+		this.server.createContext(GAMES_PATH, new HttpHandler() {
+			@Override
+			public void handle(final HttpExchange exchange) throws IOException {
+				handleGames(exchange);
+			}
+		});
+		this.server.createContext("/stats", new HttpHandler() {
+			@Override
+			public void handle(final HttpExchange exchange) throws IOException {
+				send(exchange, 200, "{\"games\":" + SessionServer.this.manager.getGameCount() + "}");
+			}
+		});
+	}
+
+	/**
+	 * Starts the server
+	 */
+	public void start() {
+		this.server.start();
+	}
+
+	/**
+	 * Stops the server
+	 */
+	public void stop() {
+		this.server.stop(0);
+		this.workers.shutdownNow();
+	}
+
+	/**
+	 * Gets the port the server listens to
+	 * @return The port
+	 */
+	public int getPort() {
+		return this.server.getAddress().getPort();
+	}
+
+	/**
+	 * Handles a request on the games
+	 * @param exchange The request
+	 * @throws IOException If the answer can't be sent
+	 */
+	private void handleGames(final HttpExchange exchange) throws IOException {
+		final String method = exchange.getRequestMethod();
+		// "/games", "/games/{id}" or "/games/{id}/moves"
+		final String[] path = exchange.getRequestURI().getPath().substring(1).split("/");
+		try {
+			if (path.length == 1 && method.equals("POST")) {
+				final String fen = readBody(exchange);
+				final GameSession session = this.manager.createGame(fen.isEmpty() ? null : fen);
+				send(exchange, 201, session.toJson());
+				return;
+			}
+			final long id = path.length > 1 ? Long.parseLong(path[1]) : -1;
+			if (path.length == 2 && method.equals("GET")) {
+				final GameSession session = this.manager.getGame(id);
+				if (session == null) {
+					sendError(exchange, 404, "unknown game " + id);
+				} else {
+					send(exchange, 200, session.toJson());
+				}
+			} else if (path.length == 2 && method.equals("DELETE")) {
+				if (this.manager.removeGame(id)) {
+					send(exchange, 204, null);
+				} else {
+					sendError(exchange, 404, "unknown game " + id);
+				}
+			} else if (path.length == 3 && path[2].equals("moves") && method.equals("POST")) {
+				final MoveResult result = this.manager.playMove(id, readBody(exchange));
+				send(exchange, statusCode(result.getStatus()), result.toJson());
+			} else {
+				sendError(exchange, 404, "unknown request " + method + " " + exchange.getRequestURI());
+			}
+		} catch (final IllegalArgumentException e) {
+			// Invalid id or FEN string
+			sendError(exchange, 400, e.getMessage());
+		} catch (final RuntimeException e) {
+			// Any other failure still gets an answer, otherwise the client only sees a closed connection
+			sendError(exchange, 500, "internal error : " + e);
+		}
+	}
+
+	/**
+	 * Gives the HTTP status code of a move result
+	 * @param status The status of the move
+	 * @return The HTTP status code
+	 */
+	private static int statusCode(final MoveResult.Status status) {
+		switch (status) {
+		case ACCEPTED:
+			return 200;
+		case ILLEGAL_MOVE:
+			return 400;
+		case GAME_OVER:
+			return 409;
+		default:
+			return 404;
+		}
+	}
+
+	/**
+	 * Reads the body of a request
+	 * @param exchange The request
+	 * @return The body, trimmed
+	 * @throws IOException If the body can't be read
+	 */
+	private static String readBody(final HttpExchange exchange) throws IOException {
+		final ByteArrayOutputStream body = new ByteArrayOutputStream();
+		try (InputStream input = exchange.getRequestBody()) {
+			final byte[] buffer = new byte[256];
+			int read;
+			while ((read = input.read(buffer)) > 0) {
+				body.write(buffer, 0, read);
+			}
+		}
+		return new String(body.toByteArray(), StandardCharsets.UTF_8).trim();
+	}
+
+	/**
+	 * Sends an error
+	 * @param exchange The request
+	 * @param code The HTTP status code
+	 * @param message The description of the error
+	 * @throws IOException If the answer can't be sent
+	 */
+	private static void sendError(final HttpExchange exchange, final int code, final String message)
+			throws IOException {
+		send(exchange, code, "{\"error\":" + JsonUtils.quote(message) + "}");
+	}
+
+	/**
+	 * Sends an answer
+	 * @param exchange The request
+	 * @param code The HTTP status code
+	 * @param json The JSON body, null for an empty answer
+	 * @throws IOException If the answer can't be sent
+	 */
+	private static void send(final HttpExchange exchange, final int code, final String json) throws IOException {
+		if (json == null) {
+			exchange.sendResponseHeaders(code, -1);
+			exchange.close();
+			return;
+		}
+		final byte[] body = json.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "application/json");
+		exchange.sendResponseHeaders(code, body.length);
+		try (OutputStream output = exchange.getResponseBody()) {
+			output.write(body);
+		}
+	}
+
+	/**
+	 * Runs the server from the command line.
+	 * Options : -port N, -threads N
+	 * @param args The command line options
+	 * @throws IOException If the server can't be started
+	 */
+	public static void main(final String[] args) throws IOException {
+		int port = DEFAULT_PORT;
+		int threads = Runtime.getRuntime().availableProcessors();
+		for (int i = 0; i + 1 < args.length; i += 2) {
+			final String value = args[i + 1];
+			switch (args[i]) {
+			case "-port":
+				port = Integer.parseInt(value);
+				break;
+			case "-threads":
+				threads = Integer.parseInt(value);
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown option : " + args[i]);
+			}
+		}
+		final SessionServer server = new SessionServer(new GameSessionManager(), port, threads);
+		server.start();
+		System.out.println("Session server listening on http://localhost:" + server.getPort() + GAMES_PATH);
+	}
+}
@@ -0,0 +1,228 @@
+package com.chess.engine.solver;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+import com.chess.engine.player.MoveTransition;
+import com.chess.engine.player.Player;
+
+/**
+ * Answers "does the player to move force a mate in N moves?" with a depth-first proof-number search
+ * (df-pn). Instead of scores, each position gets a proof number and a disproof number : the minimum
+ * number of positions that still have to be solved to prove or to disprove the mate. The search
+ * always expands the most proving position, inside thresholds, and stores the numbers in a bounded
+ * {@link ProofTable}. The numbers are seen from the player to move : phi is his proof number
+ * and delta his disproof number, so the children swap them.
+ * /!\ An instance is not thread safe : use one instance per thread
+ * @author antsalin
+ *
+ */
+public final class ProofNumberSolver {
+
+	/** A proof or disproof number that can't be reached */
+	public static final int INFINITY = 100000000;
+
+	/** Mixes the remaining depth into the key of a position */
+	private static final long DEPTH_KEY = 0x9E3779B97F4A7C15L;
+
+	/** The table keeping the proof and disproof numbers */
+	private final ProofTable table;
+
+	/** The number of positions expanded by the current search */
+	private long nodes;
+
+	/** The number of positions the current search can expand (negative if unlimited) */
+	private long maxNodes;
+
+	/**
+	 * Constructor
+	 * @param table The table keeping the proof and disproof numbers
+	 */
+	public ProofNumberSolver(final ProofTable table) {
+		this.table = table;
+	}
+
+	/**
+	 * Searches a forced mate
+	 * @param board The position, the player to move being the attacker
+	 * @param mateInMoves The maximum number of moves of the attacker
+	 * @param maxNodes The number of positions the search can expand (negative if unlimited)
+	 * @return The answer of the search
+	 */
+	public SolverResult solve(final Board board, final int mateInMoves, final long maxNodes) {
+		final long startTime = System.currentTimeMillis();
+		this.nodes = 0;
+		this.maxNodes = maxNodes;
+		final int plies = 2 * mateInMoves - 1;
+		mid(board, plies, INFINITY, INFINITY);
+
+		final long key = key(board, plies);
+		final int index = this.table.find(key);
+		SolverResult.Status status = SolverResult.Status.UNKNOWN;
+		Move move = null;
+		if (index >= 0 && this.table.getPhi(index) == 0) {
+			status = SolverResult.Status.PROVEN;
+			move = findProvingMove(board, plies);
+		} else if (index >= 0 && this.table.getDelta(index) == 0) {
+			status = SolverResult.Status.DISPROVEN;
+		}
+		return new SolverResult(status, move, mateInMoves, this.nodes, System.currentTimeMillis() - startTime);
+	}
+
+	/**
+	 * Expands a position until its proof number reaches thPhi or its disproof number reaches thDelta
+	 * @param board The position
+	 * @param remainingPlies The number of half moves left to mate
+	 * @param thPhi The threshold of the proof number
+	 * @param thDelta The threshold of the disproof number
+	 */
+	private void mid(final Board board, final int remainingPlies, final int thPhi, final int thDelta) {
+		if (this.maxNodes >= 0 && this.nodes >= this.maxNodes) {
+			return;
+		}
+		this.nodes++;
+		final long key = key(board, remainingPlies);
+
+		final boolean attackerToMove = remainingPlies % 2 == 1;
+		final List<Board> children = expand(board, remainingPlies, attackerToMove);
+		if (children == null) {
+			// The position was solved without searching its children
+			return;
+		}
+
+		while (true) {
+			int minDelta = INFINITY;
+			int secondDelta = INFINITY;
+			int sumPhi = 0;
+			Board bestChild = null;
+			int bestChildPhi = 0;
+			for (final Board child : children) {
+				final int index = this.table.find(key(child, remainingPlies - 1));
+				final int childPhi = index < 0 ? 1 : this.table.getPhi(index);
+				final int childDelta = index < 0 ? 1 : this.table.getDelta(index);
+				sumPhi = Math.min(INFINITY, sumPhi + childPhi);
+				if (childDelta < minDelta) {
+					secondDelta = minDelta;
+					minDelta = childDelta;
+					bestChild = child;
+					bestChildPhi = childPhi;
+				} else if (childDelta < secondDelta) {
+					secondDelta = childDelta;
+				}
+			}
+			// The player to move wins if one child is lost for the opponent, and loses if all the children are won
+			final int phi = minDelta;
+			final int delta = sumPhi;
+			if (phi >= thPhi || delta >= thDelta || (this.maxNodes >= 0 && this.nodes >= this.maxNodes)) {
+				this.table.store(key, phi, delta);
+				return;
+			}
+			final int childThPhi = thDelta == INFINITY ? INFINITY : thDelta - delta + bestChildPhi;
+			final int childThDelta = Math.min(thPhi, secondDelta == INFINITY ? INFINITY : secondDelta + 1);
+			mid(bestChild, remainingPlies - 1, childThPhi, childThDelta);
+		}
+	}
+
+	/**
+	 * Generates the children of a position, or solves the position if it is terminal
+	 * @param board The position
+	 * @param remainingPlies The number of half moves left to mate
+	 * @param attackerToMove Tells if the attacker is the player to move
+	 * @return The boards after each legal move, or null if the position was solved
+	 */
+	private List<Board> expand(final Board board, final int remainingPlies, final boolean attackerToMove) {
+		final long key = key(board, remainingPlies);
+		final Player player = board.currentPlayer();
+		if (player.isInCheckMate()) {
+			// The player to move lost
+			this.table.store(key, INFINITY, 0);
+			return null;
+		}
+		if (player.isInStaleMate() || remainingPlies == 0) {
+			// No mate : the attacker failed
+			storeAttackerFailed(key, attackerToMove);
+			return null;
+		}
+		final List<Board> children = new ArrayList<>();
+		for (final Move move : player.getLegalMoves()) {
+			final MoveTransition transition = player.makeMove(move);
+			if (transition.getMoveStatus().isDone()) {
+				children.add(transition.getTransitionBoard());
+			}
+		}
+		if (remainingPlies == 1) {
+			// The last move of the attacker : only a checkmate proves the position
+			for (final Board child : children) {
+				if (child.currentPlayer().isInCheckMate()) {
+					this.table.store(key, 0, INFINITY);
+					return null;
+				}
+			}
+			storeAttackerFailed(key, attackerToMove);
+			return null;
+		}
+		return children;
+	}
+
+	/**
+	 * Stores a position in which the attacker can't mate anymore
+	 * @param key The key of the position
+	 * @param attackerToMove Tells if the attacker is the player to move
+	 */
+	private void storeAttackerFailed(final long key, final boolean attackerToMove) {
+		if (attackerToMove) {
+			this.table.store(key, INFINITY, 0);
+		} else {
+			this.table.store(key, 0, INFINITY);
+		}
+	}
+
+	/**
+	 * Finds the move of a proven position that leads to the mate
+	 * @param board The proven position
+	 * @param remainingPlies The number of half moves left to mate
+	 * @return The first move of the mate
+	 */
+	private Move findProvingMove(final Board board, final int remainingPlies) {
+		final Player player = board.currentPlayer();
+		for (final Move move : player.getLegalMoves()) {
+			final MoveTransition transition = player.makeMove(move);
+			if (!transition.getMoveStatus().isDone()) {
+				continue;
+			}
+			final Board child = transition.getTransitionBoard();
+			if (remainingPlies == 1) {
+				if (child.currentPlayer().isInCheckMate()) {
+					return move;
+				}
+				continue;
+			}
+			final int index = this.table.find(key(child, remainingPlies - 1));
+			if ((index >= 0 && this.table.getDelta(index) == 0) || child.currentPlayer().isInCheckMate()) {
+				return move;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Gives the key of a position in the table : the same position with another number of
+	 * half moves left is a different problem
+	 * @param board The position
+	 * @param remainingPlies The number of half moves left to mate
+	 * @return The key
+	 */
+	private static long key(final Board board, final int remainingPlies) {
+		return board.getZobristHash() ^ (remainingPlies + 1) * DEPTH_KEY;
+	}
+
+	/**
+	 * Gets the number of positions expanded by the last search
+	 * @return The number of nodes
+	 */
+	public long getNodes() {
+		return this.nodes;
+	}
+}
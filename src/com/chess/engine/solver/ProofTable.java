@@ -0,0 +1,136 @@
+package com.chess.engine.solver;
+
+import java.util.Arrays;
+
+/**
+ * A bounded hash table keeping the proof and disproof numbers of the positions searched by the solver.
+ * Its size is fixed : when a bucket is full, the unsolved entries are replaced first, so that the
+ * proofs and disproofs already found are kept as long as possible.
+ * /!\ A table is not thread safe : use one table per solver
+ * @author antsalin
+ *
+ */
+public final class ProofTable {
+
+	/** The default size of the table, in megabytes */
+	public static final int DEFAULT_SIZE_MB = 16;
+
+	/** Size of an entry : a key and the two numbers */
+	private static final int ENTRY_BYTES = 16;
+
+	/** The keys of the entries, 0 for an empty entry */
+	private final long[] keys;
+
+	/** The proof numbers of the entries, from the point of view of the player to move */
+	private final int[] phis;
+
+	/** The disproof numbers of the entries, from the point of view of the player to move */
+	private final int[] deltas;
+
+	/** The mask giving the first entry of a bucket of two entries from a key */
+	private final int mask;
+
+	/** The number of entries stored */
+	private int size;
+
+	/**
+	 * Constructor
+	 * @param sizeMb The size of the table, in megabytes
+	 */
+	public ProofTable(final int sizeMb) {
+		final long requestedEntries = Math.max(2, (long) sizeMb * 1024 * 1024 / ENTRY_BYTES);
+		final int entries = (int) Math.min(1 << 30, Long.highestOneBit(requestedEntries));
+		this.keys = new long[entries];
+		this.phis = new int[entries];
+		this.deltas = new int[entries];
+		this.mask = (entries - 1) & ~1;
+	}
+
+	/**
+	 * Finds the entry of a key
+	 * @param key The key
+	 * @return The index of the entry, or -1 if the key is not stored
+	 */
+	int find(final long key) {
+		final int index = (int) key & this.mask;
+		if (this.keys[index] == key) {
+			return index;
+		}
+		if (this.keys[index + 1] == key) {
+			return index + 1;
+		}
+		return -1;
+	}
+
+	/**
+	 * Gets the proof number of an entry
+	 * @param index The index of the entry
+	 * @return The proof number
+	 */
+	int getPhi(final int index) {
+		return this.phis[index];
+	}
+
+	/**
+	 * Gets the disproof number of an entry
+	 * @param index The index of the entry
+	 * @return The disproof number
+	 */
+	int getDelta(final int index) {
+		return this.deltas[index];
+	}
+
+	/**
+	 * Stores the numbers of a key
+	 * @param key The key
+	 * @param phi The proof number
+	 * @param delta The disproof number
+	 */
+	void store(final long key, final int phi, final int delta) {
+		int index = find(key);
+		if (index < 0) {
+			final int first = (int) key & this.mask;
+			// An empty entry, else an unsolved one, else the first one
+			if (this.keys[first] == 0) {
+				index = first;
+			} else if (this.keys[first + 1] == 0) {
+				index = first + 1;
+			} else if (!isSolved(first + 1)) {
+				index = first + 1;
+			} else {
+				index = first;
+			}
+			if (this.keys[index] == 0) {
+				this.size++;
+			}
+			this.keys[index] = key;
+		}
+		this.phis[index] = phi;
+		this.deltas[index] = delta;
+	}
+
+	/**
+	 * Tells if an entry is solved (proved or disproved)
+	 * @param index The index of the entry
+	 * @return A boolean telling whether the entry is solved or not
+	 */
+	private boolean isSolved(final int index) {
+		return this.phis[index] == 0 || this.deltas[index] == 0;
+	}
+
+	/**
+	 * Removes all the entries
+	 */
+	public void clear() {
+		Arrays.fill(this.keys, 0L);
+		this.size = 0;
+	}
+
+	/**
+	 * Gets the number of entries stored
+	 * @return The number of entries
+	 */
+	public int size() {
+		return this.size;
+	}
+}
@@ -0,0 +1,152 @@
+package com.chess.engine.solver;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.chess.engine.board.Board;
+import com.chess.pgn.FenUtilities;
+
+/**
+ * Solves a file of mate puzzles in parallel with the proof-number solver, and reports
+ * the number of puzzles solved per second and the rate of puzzles solved within the node budget.
+ * Each line of the file holds a FEN string (or EPD); the number of moves of the mate is read
+ * from the EPD operation "dm N" (direct mate) when there is one.
+ * @author antsalin
+ *
+ */
+public final class PuzzleSolver {
+
+	/**
+	 * Useless constructor
+	 */
+	private PuzzleSolver() {
+		throw new RuntimeException("You can't instanciate this class");
+	}
+
+	/**
+	 * Solves puzzles from the command line.
+	 * Options : -puzzles file (required), -mate N (default number of moves of the mates),
+	 * -nodes N (budget of each puzzle), -threads N, -hash MB (size of the table of each thread)
+	 * @param args The command line options
+	 * @throws IOException If the puzzle file can't be read
+	 * @throws InterruptedException If the solving is interrupted
+	 */
+	public static void main(final String[] args) throws IOException, InterruptedException {
+		String puzzleFile = null;
+		int defaultMate = 3;
+		long nodes = 100000;
+		int threads = Runtime.getRuntime().availableProcessors();
+		int hashMb = ProofTable.DEFAULT_SIZE_MB;
+		for (int i = 0; i + 1 < args.length; i += 2) {
+			final String value = args[i + 1];
+			switch (args[i]) {
+			case "-puzzles":
+				puzzleFile = value;
+				break;
+			case "-mate":
+				defaultMate = Integer.parseInt(value);
+				break;
+			case "-nodes":
+				nodes = Long.parseLong(value);
+				break;
+			case "-threads":
+				threads = Integer.parseInt(value);
+				break;
+			case "-hash":
+				hashMb = Integer.parseInt(value);
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown option : " + args[i]);
+			}
+		}
+		if (puzzleFile == null) {
+			throw new IllegalArgumentException("The puzzles are required : -puzzles file");
+		}
+
+		final List<String> puzzles = new ArrayList<>();
+		for (final String line : Files.readAllLines(Paths.get(puzzleFile), StandardCharsets.UTF_8)) {
+			if (!line.trim().isEmpty() && !line.startsWith("#")) {
+				puzzles.add(line.trim());
+			}
+		}
+
+		final int tableSizeMb = hashMb;
+		final long maxNodes = nodes;
+		final int mate = defaultMate;
+		final ThreadLocal<ProofNumberSolver> solvers = new ThreadLocal<ProofNumberSolver>() {
+			@Override
+			protected ProofNumberSolver initialValue() {
+				return new ProofNumberSolver(new ProofTable(tableSizeMb));
+			}
+		};
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		final CompletionService<SolverResult> completionService = new ExecutorCompletionService<>(executor);
+		final Map<Future<SolverResult>, String> futures = new HashMap<>();
+		final long startTime = System.currentTimeMillis();
+		for (final String puzzle : puzzles) {
+			futures.put(completionService.submit(() -> {
+				final Board board = FenUtilities.createGameFromFEN(puzzle);
+				return solvers.get().solve(board, mateMoves(puzzle, mate), maxNodes);
+			}), puzzle);
+		}
+
+		int proven = 0;
+		int disproven = 0;
+		long totalNodes = 0;
+		try {
+			for (int i = 0; i < puzzles.size(); i++) {
+				final Future<SolverResult> future = completionService.take();
+				final SolverResult result;
+				try {
+					result = future.get();
+				} catch (final ExecutionException e) {
+					System.out.println("ERROR " + e.getCause() + " : " + futures.get(future));
+					continue;
+				}
+				System.out.println(result + " : " + futures.get(future));
+				if (result.getStatus() == SolverResult.Status.PROVEN) {
+					proven++;
+				} else if (result.getStatus() == SolverResult.Status.DISPROVEN) {
+					disproven++;
+				}
+				totalNodes += result.getNodes();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		final long elapsedMillis = Math.max(1, System.currentTimeMillis() - startTime);
+		System.out.println(String.format("%d puzzles in %d ms with %d threads : %.1f puzzles/s", puzzles.size(),
+				elapsedMillis, threads, puzzles.size() * 1000.0 / elapsedMillis));
+		System.out.println(String.format("proven %d (%.1f%%), disproven %d, unknown %d, budget %d nodes, %d nodes/s",
+				proven, 100.0 * proven / Math.max(1, puzzles.size()), disproven, puzzles.size() - proven - disproven,
+				maxNodes, totalNodes * 1000 / elapsedMillis));
+	}
+
+	/**
+	 * Reads the number of moves of the mate from an EPD line ("dm N")
+	 * @param puzzle The line
+	 * @param defaultMate The number of moves if the line does not tell it
+	 * @return The number of moves of the mate
+	 */
+	private static int mateMoves(final String puzzle, final int defaultMate) {
+		final String[] tokens = puzzle.split("[\\s;]+");
+		for (int i = 0; i + 1 < tokens.length; i++) {
+			if (tokens[i].equals("dm")) {
+				return Integer.parseInt(tokens[i + 1]);
+			}
+		}
+		return defaultMate;
+	}
+}
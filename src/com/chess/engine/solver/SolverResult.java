@@ -0,0 +1,92 @@
+package com.chess.engine.solver;
+
+import com.chess.engine.board.Move;
+
+/**
+ * Describes the answer of the solver to "is there a forced mate?"
+ * @author antsalin
+ *
+ */
+public final class SolverResult {
+
+	/**
+	 * The possible answers
+	 */
+	public enum Status {
+		/** The player to move forces a mate */
+		PROVEN,
+		/** The player to move can't force a mate within the number of moves */
+		DISPROVEN,
+		/** The node budget was used before the answer was known */
+		UNKNOWN
+	}
+
+	/** The answer */
+	private final Status status;
+
+	/** The first move of the mate, null if the mate is not proven */
+	private final Move move;
+
+	/** The maximum number of moves of the mate searched */
+	private final int mateInMoves;
+
+	/** The number of nodes visited */
+	private final long nodes;
+
+	/** The time used, in milliseconds */
+	private final long timeMillis;
+
+	/**
+	 * Constructor
+	 * @param status The answer
+	 * @param move The first move of the mate, null if the mate is not proven
+	 * @param mateInMoves The maximum number of moves of the mate searched
+	 * @param nodes The number of nodes visited
+	 * @param timeMillis The time used
+	 */
+	SolverResult(final Status status, final Move move, final int mateInMoves, final long nodes, final long timeMillis) {
+		this.status = status;
+		this.move = move;
+		this.mateInMoves = mateInMoves;
+		this.nodes = nodes;
+		this.timeMillis = timeMillis;
+	}
+
+	/**
+	 * Gets the answer
+	 * @return The status of the search
+	 */
+	public Status getStatus() {
+		return this.status;
+	}
+
+	/**
+	 * Gets the first move of the mate
+	 * @return The move, null if the mate is not proven
+	 */
+	public Move getMove() {
+		return this.move;
+	}
+
+	/**
+	 * Gets the number of nodes visited
+	 * @return The number of nodes
+	 */
+	public long getNodes() {
+		return this.nodes;
+	}
+
+	/**
+	 * Gets the time used
+	 * @return The time, in milliseconds
+	 */
+	public long getTimeMillis() {
+		return this.timeMillis;
+	}
+
+	@Override
+	public String toString() {
+		return this.status + (this.move == null ? "" : " " + this.move) + " mate in " + this.mateInMoves +
+				" nodes " + this.nodes + " time " + this.timeMillis;
+	}
+}
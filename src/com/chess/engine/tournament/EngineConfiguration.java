@@ -0,0 +1,64 @@
+package com.chess.engine.tournament;
+
+import com.chess.engine.player.ai.AlphaBeta;
+import com.chess.engine.player.ai.BoardEvaluator;
+import com.chess.engine.player.ai.SearchLimits;
+
+/**
+ * Describes one of the engines playing in a tournament
+ * @author antsalin
+ *
+ */
+public final class EngineConfiguration {
+
+	/** The name of the engine, used in the reports */
+	private final String name;
+
+	/** The function the engine uses to evaluate the boards */
+	private final BoardEvaluator evaluator;
+
+	/** The maximum depth the engine searches, whatever its clock */
+	private final int maxDepth;
+
+	/**
+	 * Constructor
+	 * @param name The name of the engine
+	 * @param evaluator The function the engine uses to evaluate the boards
+	 * @param maxDepth The maximum depth the engine searches
+	 */
+	public EngineConfiguration(final String name, final BoardEvaluator evaluator, final int maxDepth) {
+		this.name = name;
+		this.evaluator = evaluator;
+		this.maxDepth = Math.min(maxDepth, SearchLimits.MAX_DEPTH);
+	}
+
+	/**
+	 * Creates a new search for this engine
+	 * A search is not thread safe, so each game creates its own
+	 * @return A new search using this configuration
+	 */
+	public AlphaBeta createSearch() {
+		return new AlphaBeta(this.evaluator, this.maxDepth);
+	}
+
+	/**
+	 * Gets the name of the engine
+	 * @return The name of the engine
+	 */
+	public String getName() {
+		return this.name;
+	}
+
+	/**
+	 * Gets the maximum depth the engine searches
+	 * @return The maximum depth
+	 */
+	public int getMaxDepth() {
+		return this.maxDepth;
+	}
+
+	@Override
+	public String toString() {
+		return this.name;
+	}
+}
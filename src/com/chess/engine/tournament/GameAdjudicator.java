@@ -0,0 +1,162 @@
+package com.chess.engine.tournament;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.GameStatus;
+import com.chess.engine.board.Move;
+import com.chess.engine.pieces.Piece;
+import com.chess.engine.pieces.Piece.PieceType;
+
+/**
+ * Decides when a game is over : checkmate, stalemate and the draw rules
+ * (fifty moves, threefold repetition, insufficient material, move limit)
+ * @author antsalin
+ *
+ */
+public final class GameAdjudicator {
+
+	/** Number of half moves without capture nor pawn move after which the game is drawn */
+	private static final int FIFTY_MOVES_HALF_MOVES = 100;
+
+	/** Number of times a position has to be repeated for the game to be drawn */
+	private static final int REPETITION_COUNT = 3;
+
+	/** Number of half moves after which the game is adjudicated as drawn */
+	private final int maxHalfMoves;
+
+	/** Number of times each position of the game was reached */
+	private final Map<Long, Integer> positionCounts;
+
+	/** Number of half moves since the last capture or pawn move */
+	private int halfMoveClock;
+
+	/** Number of half moves played in the game */
+	private int halfMoves;
+
+	/** Number of times the last position was reached */
+	private int lastPositionCount;
+
+	/** The reason of the end of the game */
+	private String termination;
+
+	/**
+	 * Constructor
+	 * @param startBoard The board at the beginning of the game
+	 * @param maxHalfMoves Number of half moves after which the game is adjudicated as drawn
+	 */
+	public GameAdjudicator(final Board startBoard, final int maxHalfMoves) {
+		this.maxHalfMoves = maxHalfMoves;
+		this.positionCounts = new HashMap<>();
+		this.lastPositionCount = countPosition(startBoard);
+	}
+
+	/**
+	 * Records a move played in the game
+	 * @param move The move that was played
+	 * @param boardAfterMove The board after the move
+	 */
+	public void recordMove(final Move move, final Board boardAfterMove) {
+		this.halfMoves++;
+		if (move.isAttack() || move.getMovedPiece().getPieceType() == PieceType.PAWN) {
+			this.halfMoveClock = 0;
+		} else {
+			this.halfMoveClock++;
+		}
+		this.lastPositionCount = countPosition(boardAfterMove);
+	}
+
+	/**
+	 * Tells if the game is over
+	 * @param board The current board of the game
+	 * @return The result of the game, or null if the game is not over
+	 */
+	public GameResult adjudicate(final Board board) {
+		final GameStatus status = board.getGameStatus();
+		if (status == GameStatus.CHECKMATE) {
+			this.termination = "checkmate";
+			return board.currentPlayer().getAlliance().isWhite() ? GameResult.BLACK_WINS : GameResult.WHITE_WINS;
+		}
+		if (status == GameStatus.STALEMATE) {
+			this.termination = "stalemate";
+			return GameResult.DRAW;
+		}
+		if (this.halfMoveClock >= FIFTY_MOVES_HALF_MOVES) {
+			this.termination = "fifty moves rule";
+			return GameResult.DRAW;
+		}
+		if (this.lastPositionCount >= REPETITION_COUNT) {
+			this.termination = "threefold repetition";
+			return GameResult.DRAW;
+		}
+		if (isInsufficientMaterial(board)) {
+			this.termination = "insufficient material";
+			return GameResult.DRAW;
+		}
+		if (this.halfMoves >= this.maxHalfMoves) {
+			this.termination = "move limit";
+			return GameResult.DRAW;
+		}
+		return null;
+	}
+
+	/**
+	 * Gets the reason of the end of the game
+	 * @return The reason of the end of the game, or null if the game is not over
+	 */
+	public String getTermination() {
+		return this.termination;
+	}
+
+	/**
+	 * Gets the number of half moves played in the game
+	 * @return The number of half moves
+	 */
+	public int getHalfMoves() {
+		return this.halfMoves;
+	}
+
+	/**
+	 * Counts a new occurrence of a position
+	 * @param board The board of the position
+	 * @return The number of times the position was reached
+	 */
+	private int countPosition(final Board board) {
+		return this.positionCounts.merge(board.getZobristHash(), 1, Integer::sum);
+	}
+
+	/**
+	 * Tells if none of the players can checkmate the other one
+	 * (only the kings, or only the kings and one knight or bishop)
+	 * @param board The board
+	 * @return A boolean telling whether the material is insufficient to mate or not
+	 */
+	private static boolean isInsufficientMaterial(final Board board) {
+		int minorPieces = 0;
+		for (final Piece piece : board.getWhitePieces()) {
+			minorPieces += minorPieceCount(piece);
+		}
+		for (final Piece piece : board.getBlackPieces()) {
+			minorPieces += minorPieceCount(piece);
+		}
+		return minorPieces <= 1;
+	}
+
+	/**
+	 * Counts a piece for the insufficient material rule
+	 * @param piece The piece
+	 * @return 0 for a king, 1 for a knight or a bishop, 2 for the pieces that can mate alone
+	 */
+	private static int minorPieceCount(final Piece piece) {
+		switch (piece.getPieceType()) {
+		case KING:
+			return 0;
+		case KNIGHT:
+		case BISHOP:
+			return 1;
+		default:
+			return 2;
+		}
+	}
+}
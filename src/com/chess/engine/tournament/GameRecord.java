@@ -0,0 +1,107 @@
+package com.chess.engine.tournament;
+
+/**
+ * Describes a game played in a tournament
+ * @author antsalin
+ *
+ */
+public final class GameRecord {
+
+	/** The engine that played the white pieces */
+	private final EngineConfiguration whiteEngine;
+
+	/** The engine that played the black pieces */
+	private final EngineConfiguration blackEngine;
+
+	/** The FEN string of the opening position */
+	private final String openingFen;
+
+	/** The result of the game */
+	private final GameResult result;
+
+	/** The reason of the end of the game */
+	private final String termination;
+
+	/** The moves of the game, in coordinate notation */
+	private final String moves;
+
+	/** The number of half moves played */
+	private final int halfMoves;
+
+	/**
+	 * Constructor
+	 * @param whiteEngine The engine that played the white pieces
+	 * @param blackEngine The engine that played the black pieces
+	 * @param openingFen The FEN string of the opening position
+	 * @param result The result of the game
+	 * @param termination The reason of the end of the game
+	 * @param moves The moves of the game
+	 * @param halfMoves The number of half moves played
+	 */
+	public GameRecord(final EngineConfiguration whiteEngine, final EngineConfiguration blackEngine,
+			final String openingFen, final GameResult result, final String termination,
+			final String moves, final int halfMoves) {
+		this.whiteEngine = whiteEngine;
+		this.blackEngine = blackEngine;
+		this.openingFen = openingFen;
+		this.result = result;
+		this.termination = termination;
+		this.moves = moves;
+		this.halfMoves = halfMoves;
+	}
+
+	/**
+	 * Gets the score of an engine in this game
+	 * @param engine The engine
+	 * @return 1 for a win, 0.5 for a draw, 0 for a loss
+	 */
+	public double getScore(final EngineConfiguration engine) {
+		return engine == this.whiteEngine ? this.result.getWhiteScore() : 1.0 - this.result.getWhiteScore();
+	}
+
+	/**
+	 * Gets the engine that played the white pieces
+	 * @return The white engine
+	 */
+	public EngineConfiguration getWhiteEngine() {
+		return this.whiteEngine;
+	}
+
+	/**
+	 * Gets the engine that played the black pieces
+	 * @return The black engine
+	 */
+	public EngineConfiguration getBlackEngine() {
+		return this.blackEngine;
+	}
+
+	/**
+	 * Gets the result of the game
+	 * @return The result of the game
+	 */
+	public GameResult getResult() {
+		return this.result;
+	}
+
+	/**
+	 * Gets the reason of the end of the game
+	 * @return The reason of the end of the game
+	 */
+	public String getTermination() {
+		return this.termination;
+	}
+
+	/**
+	 * Gets the number of half moves played
+	 * @return The number of half moves
+	 */
+	public int getHalfMoves() {
+		return this.halfMoves;
+	}
+
+	@Override
+	public String toString() {
+		return this.whiteEngine + " - " + this.blackEngine + " : " + this.result +
+				" (" + this.termination + ", " + this.halfMoves + " plies) [" + this.openingFen + "] " + this.moves;
+	}
+}
@@ -0,0 +1,50 @@
+package com.chess.engine.tournament;
+
+/**
+ * Describes the result of a game
+ * @author antsalin
+ *
+ */
+public enum GameResult {
+
+	WHITE_WINS("1-0") {
+		@Override
+		public double getWhiteScore() {
+			return 1.0;
+		}
+	},
+	BLACK_WINS("0-1") {
+		@Override
+		public double getWhiteScore() {
+			return 0.0;
+		}
+	},
+	DRAW("1/2-1/2") {
+		@Override
+		public double getWhiteScore() {
+			return 0.5;
+		}
+	};
+
+	/** The PGN notation of the result */
+	private final String notation;
+
+	/**
+	 * Constructor
+	 * @param notation The PGN notation of the result
+	 */
+	GameResult(final String notation) {
+		this.notation = notation;
+	}
+
+	/**
+	 * Gets the score of the white player : 1 for a win, 0.5 for a draw, 0 for a loss
+	 * @return The score of the white player
+	 */
+	public abstract double getWhiteScore();
+
+	@Override
+	public String toString() {
+		return this.notation;
+	}
+}
@@ -0,0 +1,103 @@
+package com.chess.engine.tournament;
+
+import java.util.concurrent.Callable;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+import com.chess.engine.player.MoveTransition;
+import com.chess.engine.player.ai.AlphaBeta;
+import com.chess.engine.player.ai.SearchLimits;
+import com.chess.engine.player.ai.SearchResult;
+import com.chess.pgn.FenUtilities;
+
+/**
+ * Plays one game between two engines from an opening position
+ * @author antsalin
+ *
+ */
+public final class MatchGame implements Callable<GameRecord> {
+
+	/** The engine playing the white pieces */
+	private final EngineConfiguration whiteEngine;
+
+	/** The engine playing the black pieces */
+	private final EngineConfiguration blackEngine;
+
+	/** The FEN string of the opening position */
+	private final String openingFen;
+
+	/** The time control of the game */
+	private final TimeControl timeControl;
+
+	/** Number of half moves after which the game is adjudicated as drawn */
+	private final int maxHalfMoves;
+
+	/**
+	 * Constructor
+	 * @param whiteEngine The engine playing the white pieces
+	 * @param blackEngine The engine playing the black pieces
+	 * @param openingFen The FEN string of the opening position
+	 * @param timeControl The time control of the game
+	 * @param maxHalfMoves Number of half moves after which the game is adjudicated as drawn
+	 */
+	public MatchGame(final EngineConfiguration whiteEngine, final EngineConfiguration blackEngine,
+			final String openingFen, final TimeControl timeControl, final int maxHalfMoves) {
+		this.whiteEngine = whiteEngine;
+		this.blackEngine = blackEngine;
+		this.openingFen = openingFen;
+		this.timeControl = timeControl;
+		this.maxHalfMoves = maxHalfMoves;
+	}
+
+	@Override
+	public GameRecord call() {
+		Board board = FenUtilities.createGameFromFEN(this.openingFen);
+		final GameAdjudicator adjudicator = new GameAdjudicator(board, this.maxHalfMoves);
+		final AlphaBeta whiteSearch = this.whiteEngine.createSearch();
+		final AlphaBeta blackSearch = this.blackEngine.createSearch();
+		long whiteClock = this.timeControl.getBaseTimeMillis();
+		long blackClock = this.timeControl.getBaseTimeMillis();
+		final StringBuilder moves = new StringBuilder();
+
+		GameResult result = adjudicator.adjudicate(board);
+		String termination = adjudicator.getTermination();
+		while (result == null) {
+			final boolean whiteToMove = board.currentPlayer().getAlliance().isWhite();
+			final AlphaBeta search = whiteToMove ? whiteSearch : blackSearch;
+			final EngineConfiguration engine = whiteToMove ? this.whiteEngine : this.blackEngine;
+			final long clock = whiteToMove ? whiteClock : blackClock;
+
+			final long startTime = System.currentTimeMillis();
+			final SearchResult searchResult = search.search(board, new SearchLimits.Builder()
+					.setDepth(engine.getMaxDepth())
+					.setClock(clock, this.timeControl.getIncrementMillis(), 0)
+					.build());
+			final long remainingTime = clock - (System.currentTimeMillis() - startTime);
+
+			if (remainingTime < 0) {
+				result = whiteToMove ? GameResult.BLACK_WINS : GameResult.WHITE_WINS;
+				termination = "time forfeit";
+				break;
+			}
+			if (whiteToMove) {
+				whiteClock = remainingTime + this.timeControl.getIncrementMillis();
+			} else {
+				blackClock = remainingTime + this.timeControl.getIncrementMillis();
+			}
+
+			final Move move = searchResult.getBestMove();
+			final MoveTransition transition = board.currentPlayer().makeMove(move);
+			if (!transition.getMoveStatus().isDone()) {
+				throw new IllegalStateException(engine + " played an illegal move : " + move);
+			}
+			board = transition.getTransitionBoard();
+			moves.append(move).append(' ');
+			adjudicator.recordMove(move, board);
+
+			result = adjudicator.adjudicate(board);
+			termination = adjudicator.getTermination();
+		}
+		return new GameRecord(this.whiteEngine, this.blackEngine, this.openingFen, result, termination,
+				moves.toString().trim(), adjudicator.getHalfMoves());
+	}
+}
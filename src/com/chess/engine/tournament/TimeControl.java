@@ -0,0 +1,65 @@
+package com.chess.engine.tournament;
+
+/**
+ * Describes the time control of a game : a base time and an increment per move
+ * @author antsalin
+ *
+ */
+public final class TimeControl {
+
+	/** The time each player has at the beginning of the game, in milliseconds */
+	private final long baseTimeMillis;
+
+	/** The time added to the clock of a player after each of his moves, in milliseconds */
+	private final long incrementMillis;
+
+	/**
+	 * Constructor
+	 * @param baseTimeMillis The time each player has at the beginning of the game
+	 * @param incrementMillis The time added after each move
+	 */
+	public TimeControl(final long baseTimeMillis, final long incrementMillis) {
+		if (baseTimeMillis <= 0 || incrementMillis < 0) {
+			throw new IllegalArgumentException("Invalid time control : " + baseTimeMillis + "+" + incrementMillis);
+		}
+		this.baseTimeMillis = baseTimeMillis;
+		this.incrementMillis = incrementMillis;
+	}
+
+	/**
+	 * Creates a time control from its usual notation : "base+increment" in seconds (e.g. 10+0.1)
+	 * @param timeControl The time control notation
+	 * @return The time control
+	 */
+	public static TimeControl parse(final String timeControl) {
+		final String[] parts = timeControl.split("\\+");
+		try {
+			final long base = Math.round(Double.parseDouble(parts[0]) * 1000);
+			final long increment = parts.length > 1 ? Math.round(Double.parseDouble(parts[1]) * 1000) : 0;
+			return new TimeControl(base, increment);
+		} catch (final NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid time control : " + timeControl, e);
+		}
+	}
+
+	/**
+	 * Gets the time each player has at the beginning of the game
+	 * @return The base time in milliseconds
+	 */
+	public long getBaseTimeMillis() {
+		return this.baseTimeMillis;
+	}
+
+	/**
+	 * Gets the time added after each move
+	 * @return The increment in milliseconds
+	 */
+	public long getIncrementMillis() {
+		return this.incrementMillis;
+	}
+
+	@Override
+	public String toString() {
+		return (this.baseTimeMillis / 1000.0) + "+" + (this.incrementMillis / 1000.0);
+	}
+}
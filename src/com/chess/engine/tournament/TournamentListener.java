@@ -0,0 +1,16 @@
+package com.chess.engine.tournament;
+
+/**
+ * Describes an object that follows the progress of a {@link TournamentRunner}
+ * @author antsalin
+ *
+ */
+public interface TournamentListener {
+
+	/**
+	 * Called each time a game of the tournament ends, once its result is counted
+	 * @param record The record of the game
+	 * @param statistics The results of the tournament, including the game
+	 */
+	void onGame(GameRecord record, TournamentStatistics statistics);
+}
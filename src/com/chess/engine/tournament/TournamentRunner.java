@@ -0,0 +1,224 @@
+package com.chess.engine.tournament;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.chess.engine.player.ai.StandardBoardEvaluator;
+import com.chess.pgn.FenUtilities;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Plays a match between two engines from a set of opening positions.
+ * Each opening is played twice, each engine playing both colors.
+ * The games run in parallel, as many at a time as the CPU budget allows.
+ * @author antsalin
+ *
+ */
+public final class TournamentRunner {
+
+	/** The openings used when no opening file is given */
+	private static final List<String> DEFAULT_OPENINGS = ImmutableList.of(
+			FenUtilities.STANDARD_FEN,
+			"rnbqkbnr/pppp1ppp/8/4p3/4P3/8/PPPP1PPP/RNBQKBNR w KQkq - 0 2",
+			"rnbqkbnr/pp1ppppp/8/2p5/4P3/8/PPPP1PPP/RNBQKBNR w KQkq - 0 2",
+			"rnbqkbnr/ppp1pppp/8/3p4/3P4/8/PPP1PPPP/RNBQKBNR w KQkq - 0 2",
+			"rnbqkb1r/pppppppp/5n2/8/2P5/8/PP1PPPPP/RNBQKBNR w KQkq - 1 2",
+			"rnbqkbnr/pppp1ppp/4p3/8/3PP3/8/PPP2PPP/RNBQKBNR b KQkq - 0 2");
+
+	/** Number of games between two progress reports of the command line */
+	private static final int REPORT_INTERVAL = 10;
+
+	/** The first engine : the statistics are given from its point of view */
+	private final EngineConfiguration firstEngine;
+
+	/** The second engine */
+	private final EngineConfiguration secondEngine;
+
+	/** The FEN strings of the opening positions */
+	private final List<String> openings;
+
+	/** The time control of each game */
+	private final TimeControl timeControl;
+
+	/** Number of games that can be played at the same time */
+	private final int concurrency;
+
+	/** Number of half moves after which a game is adjudicated as drawn */
+	private final int maxHalfMoves;
+
+	/** The results of the tournament */
+	private final TournamentStatistics statistics;
+
+	/**
+	 * Constructor
+	 * @param firstEngine The first engine
+	 * @param secondEngine The second engine
+	 * @param openings The FEN strings of the opening positions
+	 * @param timeControl The time control of each game
+	 * @param concurrency Number of games that can be played at the same time
+	 * @param maxHalfMoves Number of half moves after which a game is adjudicated as drawn
+	 * @param statistics The statistics that will accumulate the results
+	 */
+	public TournamentRunner(final EngineConfiguration firstEngine, final EngineConfiguration secondEngine,
+			final List<String> openings, final TimeControl timeControl, final int concurrency,
+			final int maxHalfMoves, final TournamentStatistics statistics) {
+		if (openings.isEmpty()) {
+			throw new IllegalArgumentException("A tournament needs at least one opening");
+		}
+		this.firstEngine = firstEngine;
+		this.secondEngine = secondEngine;
+		this.openings = ImmutableList.copyOf(openings);
+		this.timeControl = timeControl;
+		this.concurrency = concurrency;
+		this.maxHalfMoves = maxHalfMoves;
+		this.statistics = statistics;
+	}
+
+	/**
+	 * Plays the tournament. It stops early as soon as the SPRT accepts one of its hypotheses.
+	 * @param games The maximum number of games to play
+	 * @param listener Follows the games as they end, may be null
+	 * @return The results of the tournament
+	 * @throws InterruptedException If the thread is interrupted while waiting for the games
+	 */
+	public TournamentStatistics run(final int games, final TournamentListener listener) throws InterruptedException {
+		final ExecutorService executor = Executors.newFixedThreadPool(this.concurrency);
+		final CompletionService<GameRecord> completionService = new ExecutorCompletionService<>(executor);
+		final List<Future<GameRecord>> futures = new ArrayList<>();
+
+		try {
+			for (int i = 0; i < games; i++) {
+				// Each opening is played twice in a row, with the colors reversed
+				final String opening = this.openings.get((i / 2) % this.openings.size());
+				final boolean firstIsWhite = i % 2 == 0;
+				futures.add(completionService.submit(new MatchGame(
+						firstIsWhite ? this.firstEngine : this.secondEngine,
+						firstIsWhite ? this.secondEngine : this.firstEngine,
+						opening, this.timeControl, this.maxHalfMoves)));
+			}
+
+			for (int i = 0; i < games; i++) {
+				final GameRecord record;
+				try {
+					record = completionService.take().get();
+				} catch (final ExecutionException e) {
+					throw new IllegalStateException("A game of the tournament failed", e.getCause());
+				}
+				this.statistics.addGame(record.getScore(this.firstEngine));
+				if (listener != null) {
+					listener.onGame(record, this.statistics);
+				}
+				if (this.statistics.isSprtFinished()) {
+					break;
+				}
+			}
+		} finally {
+			for (final Future<GameRecord> future : futures) {
+				future.cancel(true);
+			}
+			executor.shutdownNow();
+		}
+		return this.statistics;
+	}
+
+	/**
+	 * Runs a tournament from the command line.
+	 * Options : -games N, -concurrency N, -tc base+inc (seconds), -depth1 N, -depth2 N,
+	 * -openings file (one FEN per line), -maxplies N, -sprt elo0,elo1
+	 * @param args The command line options
+	 * @throws IOException If the opening file can't be read
+	 * @throws InterruptedException If the tournament is interrupted
+	 */
+	public static void main(final String[] args) throws IOException, InterruptedException {
+		int games = 100;
+		int concurrency = Runtime.getRuntime().availableProcessors();
+		TimeControl timeControl = TimeControl.parse("10+0.1");
+		int firstDepth = 4;
+		int secondDepth = 3;
+		List<String> openings = DEFAULT_OPENINGS;
+		int maxHalfMoves = 400;
+		double elo0 = 0;
+		double elo1 = 10;
+
+		for (int i = 0; i + 1 < args.length; i += 2) {
+			final String value = args[i + 1];
+			switch (args[i]) {
+			case "-games":
+				games = Integer.parseInt(value);
+				break;
+			case "-concurrency":
+				concurrency = Integer.parseInt(value);
+				break;
+			case "-tc":
+				timeControl = TimeControl.parse(value);
+				break;
+			case "-depth1":
+				firstDepth = Integer.parseInt(value);
+				break;
+			case "-depth2":
+				secondDepth = Integer.parseInt(value);
+				break;
+			case "-openings":
+				openings = readOpenings(value);
+				break;
+			case "-maxplies":
+				maxHalfMoves = Integer.parseInt(value);
+				break;
+			case "-sprt":
+				final String[] bounds = value.split(",");
+				elo0 = Double.parseDouble(bounds[0]);
+				elo1 = Double.parseDouble(bounds[1]);
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown option : " + args[i]);
+			}
+		}
+
+		final EngineConfiguration first = new EngineConfiguration("depth" + firstDepth,
+				new StandardBoardEvaluator(), firstDepth);
+		final EngineConfiguration second = new EngineConfiguration("depth" + secondDepth,
+				new StandardBoardEvaluator(), secondDepth);
+		final long startTime = System.currentTimeMillis();
+		final TournamentStatistics statistics = new TournamentRunner(first, second, openings, timeControl, concurrency,
+				maxHalfMoves, new TournamentStatistics(elo0, elo1, 0.05, 0.05)).run(games, new TournamentListener() {
+					@Override
+					public void onGame(final GameRecord record, final TournamentStatistics current) {
+						System.out.println(record);
+						if (current.getGames() % REPORT_INTERVAL == 0) {
+							System.out.println(current);
+						}
+					}
+				});
+		final long elapsedMillis = Math.max(1, System.currentTimeMillis() - startTime);
+		System.out.println(statistics);
+		System.out.println(String.format("%.0f games/hour with %d concurrent games",
+				statistics.getGames() * 3600000.0 / elapsedMillis, concurrency));
+	}
+
+	/**
+	 * Reads the opening positions from a file
+	 * @param path The path of the file : one FEN string per line, lines starting with # are ignored
+	 * @return The FEN strings of the openings
+	 * @throws IOException If the file can't be read
+	 */
+	private static List<String> readOpenings(final String path) throws IOException {
+		final List<String> openings = new ArrayList<>();
+		for (final String line : Files.readAllLines(Paths.get(path), StandardCharsets.UTF_8)) {
+			final String fen = line.trim();
+			if (!fen.isEmpty() && !fen.startsWith("#")) {
+				openings.add(fen);
+			}
+		}
+		return openings;
+	}
+}
@@ -0,0 +1,183 @@
+package com.chess.engine.tournament;
+
+/**
+ * Accumulates the results of a tournament from the point of view of the first engine :
+ * Elo difference with its error bars and sequential probability ratio test (SPRT)
+ * @author antsalin
+ *
+ */
+public final class TournamentStatistics {
+
+	/** The quantile of the normal distribution used for the 95% error bars */
+	private static final double NORMAL_QUANTILE_95 = 1.959964;
+
+	/** The Elo difference of the null hypothesis of the SPRT */
+	private final double elo0;
+
+	/** The Elo difference of the alternative hypothesis of the SPRT */
+	private final double elo1;
+
+	/** The lower bound of the log-likelihood ratio : the null hypothesis is accepted below it */
+	private final double lowerBound;
+
+	/** The upper bound of the log-likelihood ratio : the alternative hypothesis is accepted above it */
+	private final double upperBound;
+
+	/** Number of games won by the first engine */
+	private int wins;
+
+	/** Number of drawn games */
+	private int draws;
+
+	/** Number of games lost by the first engine */
+	private int losses;
+
+	/**
+	 * Constructor
+	 * @param elo0 The Elo difference of the null hypothesis of the SPRT
+	 * @param elo1 The Elo difference of the alternative hypothesis of the SPRT
+	 * @param alpha The probability to accept the alternative hypothesis when the null one is true
+	 * @param beta The probability to accept the null hypothesis when the alternative one is true
+	 */
+	public TournamentStatistics(final double elo0, final double elo1, final double alpha, final double beta) {
+		this.elo0 = elo0;
+		this.elo1 = elo1;
+		this.lowerBound = Math.log(beta / (1 - alpha));
+		this.upperBound = Math.log((1 - beta) / alpha);
+	}
+
+	/**
+	 * Adds the result of a game
+	 * @param score The score of the first engine : 1 for a win, 0.5 for a draw, 0 for a loss
+	 */
+	public synchronized void addGame(final double score) {
+		if (score > 0.5) {
+			this.wins++;
+		} else if (score < 0.5) {
+			this.losses++;
+		} else {
+			this.draws++;
+		}
+	}
+
+	/**
+	 * Gets the number of games played
+	 * @return The number of games
+	 */
+	public synchronized int getGames() {
+		return this.wins + this.draws + this.losses;
+	}
+
+	/**
+	 * Gets the mean score of the first engine
+	 * @return The mean score, between 0 and 1
+	 */
+	public synchronized double getScore() {
+		final int games = getGames();
+		return games == 0 ? 0.5 : (this.wins + 0.5 * this.draws) / games;
+	}
+
+	/**
+	 * Gets the Elo difference between the first and the second engine
+	 * @return The Elo difference
+	 */
+	public synchronized double getEloDifference() {
+		return scoreToElo(getScore());
+	}
+
+	/**
+	 * Gets the half width of the 95% confidence interval of the Elo difference
+	 * @return The error bar of the Elo difference
+	 */
+	public synchronized double getEloError() {
+		final int games = getGames();
+		if (games == 0) {
+			return Double.POSITIVE_INFINITY;
+		}
+		final double score = getScore();
+		final double standardError = Math.sqrt(getScoreVariance() / games);
+		final double low = scoreToElo(score - NORMAL_QUANTILE_95 * standardError);
+		final double high = scoreToElo(score + NORMAL_QUANTILE_95 * standardError);
+		return (high - low) / 2;
+	}
+
+	/**
+	 * Gets the log-likelihood ratio of the alternative hypothesis against the null one,
+	 * using a normal approximation of the score distribution
+	 * @return The log-likelihood ratio
+	 */
+	public synchronized double getLogLikelihoodRatio() {
+		final int games = getGames();
+		final double variance = getScoreVariance();
+		if (games == 0 || variance == 0) {
+			return 0;
+		}
+		final double score0 = eloToScore(this.elo0);
+		final double score1 = eloToScore(this.elo1);
+		return games * (score1 - score0) * (2 * getScore() - score0 - score1) / (2 * variance);
+	}
+
+	/**
+	 * Tells if the SPRT has accepted one of the hypotheses
+	 * @return A boolean telling whether the tournament can stop or not
+	 */
+	public synchronized boolean isSprtFinished() {
+		final double llr = getLogLikelihoodRatio();
+		return llr <= this.lowerBound || llr >= this.upperBound;
+	}
+
+	/**
+	 * Gets the state of the SPRT
+	 * @return "H1 accepted", "H0 accepted" or "continue"
+	 */
+	public synchronized String getSprtState() {
+		final double llr = getLogLikelihoodRatio();
+		if (llr >= this.upperBound) {
+			return "H1 accepted";
+		} else if (llr <= this.lowerBound) {
+			return "H0 accepted";
+		}
+		return "continue";
+	}
+
+	/**
+	 * Gets the variance of the score of one game
+	 * @return The variance of the score
+	 */
+	private double getScoreVariance() {
+		final int games = getGames();
+		final double score = getScore();
+		return (this.wins * Math.pow(1 - score, 2) + this.draws * Math.pow(0.5 - score, 2) +
+				this.losses * Math.pow(score, 2)) / games;
+	}
+
+	/**
+	 * Converts a mean score to an Elo difference
+	 * @param score The mean score
+	 * @return The Elo difference
+	 */
+	private static double scoreToElo(final double score) {
+		if (score <= 0) {
+			return Double.NEGATIVE_INFINITY;
+		} else if (score >= 1) {
+			return Double.POSITIVE_INFINITY;
+		}
+		return -400 * Math.log10(1 / score - 1);
+	}
+
+	/**
+	 * Converts an Elo difference to an expected mean score
+	 * @param elo The Elo difference
+	 * @return The expected mean score
+	 */
+	private static double eloToScore(final double elo) {
+		return 1 / (1 + Math.pow(10, -elo / 400));
+	}
+
+	@Override
+	public synchronized String toString() {
+		return String.format("Games %d : +%d =%d -%d, score %.1f%%, Elo %+.1f +/- %.1f, LLR %.2f [%.2f, %.2f] (%s)",
+				getGames(), this.wins, this.draws, this.losses, 100 * getScore(), getEloDifference(),
+				getEloError(), getLogLikelihoodRatio(), this.lowerBound, this.upperBound, getSprtState());
+	}
+}
@@ -0,0 +1,251 @@
+package com.chess.engine.tuning;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import com.chess.engine.player.ai.StandardBoardEvaluator;
+
+/**
+ * Tunes the weights of the {@link StandardBoardEvaluator} on labelled positions (Texel's method).
+ * The score of each position is turned into an expected result by a sigmoid, and the tuner
+ * minimizes the mean squared difference with the real results by local search : each weight is
+ * moved up or down as long as the error decreases. The dataset only keeps the positions whose score
+ * is a weighted sum of features (no specialised endgame nor scaled score), and as the features are
+ * computed once when loading, an epoch over the positions is a few multiplications per position,
+ * split between the cores with fork/join.
+ * @author antsalin
+ *
+ */
+public final class TexelTuner {
+
+	/** Number of positions under which an error task is not split */
+	private static final int SPLIT_THRESHOLD = 1 << 14;
+
+	/** The positions */
+	private final TuningDataset dataset;
+
+	/** The pool computing the errors */
+	private final ForkJoinPool pool;
+
+	/** The scaling constant of the sigmoid */
+	private double scalingConstant = 1.0;
+
+	/** Number of evaluations of the error over the positions */
+	private int epochs;
+
+	/**
+	 * Constructor
+	 * @param dataset The positions
+	 * @param pool The pool computing the errors
+	 */
+	public TexelTuner(final TuningDataset dataset, final ForkJoinPool pool) {
+		if (dataset.size() == 0) {
+			throw new IllegalArgumentException("The tuner needs at least one position");
+		}
+		this.dataset = dataset;
+		this.pool = pool;
+	}
+
+	/**
+	 * Computes the mean squared error of weights over all the positions
+	 * @param weights The weights of the evaluation
+	 * @return The error
+	 */
+	public double error(final int[] weights) {
+		this.epochs++;
+		return this.pool.invoke(new ErrorTask(weights, this.scalingConstant, 0, this.dataset.size())) /
+				this.dataset.size();
+	}
+
+	/**
+	 * Finds the scaling constant of the sigmoid that best fits the current weights
+	 * (a ternary search, as the error is convex in the constant)
+	 * @param weights The weights of the evaluation
+	 * @return The scaling constant
+	 */
+	public double fitScalingConstant(final int[] weights) {
+		double low = 0.0;
+		double high = 5.0;
+		while (high - low > 0.001) {
+			final double third1 = low + (high - low) / 3;
+			final double third2 = high - (high - low) / 3;
+			this.scalingConstant = third1;
+			final double error1 = error(weights);
+			this.scalingConstant = third2;
+			final double error2 = error(weights);
+			if (error1 < error2) {
+				high = third2;
+			} else {
+				low = third1;
+			}
+		}
+		this.scalingConstant = (low + high) / 2;
+		return this.scalingConstant;
+	}
+
+	/**
+	 * Tunes weights by local search
+	 * @param initialWeights The weights to start from
+	 * @param maxPasses The maximum number of passes over the weights
+	 * @param listener Follows the progress of the tuning, may be null
+	 * @return The tuned weights
+	 */
+	public int[] tune(final int[] initialWeights, final int maxPasses, final TuningListener listener) {
+		final int[] weights = initialWeights.clone();
+		double bestError = error(weights);
+		for (int pass = 1; pass <= maxPasses; pass++) {
+			final long startTime = System.currentTimeMillis();
+			final int startEpochs = this.epochs;
+			boolean improved = false;
+			for (int i = 0; i < weights.length; i++) {
+				for (final int step : new int[] {1, -1}) {
+					// Keep moving the weight in the same direction while the error decreases
+					while (true) {
+						weights[i] += step;
+						final double error = error(weights);
+						if (error < bestError) {
+							bestError = error;
+							improved = true;
+						} else {
+							weights[i] -= step;
+							break;
+						}
+					}
+				}
+			}
+			if (listener != null) {
+				listener.onPass(pass, bestError, weights.clone(), this.epochs - startEpochs,
+						System.currentTimeMillis() - startTime);
+			}
+			if (!improved) {
+				break;
+			}
+		}
+		return weights;
+	}
+
+	/**
+	 * Computes the sum of the squared errors of a range of positions, split in halves
+	 * between the threads of the pool until the ranges are small enough
+	 */
+	private final class ErrorTask extends RecursiveTask<Double> {
+
+		/** Serialization number */
+		private static final long serialVersionUID = 1L;
+
+		/** The weights of the evaluation */
+		private final int[] weights;
+
+		/** The scaling constant of the sigmoid */
+		private final double scalingConstant;
+
+		/** The first position of the range */
+		private final int start;
+
+		/** The position after the last one of the range */
+		private final int end;
+
+		/**
+		 * Constructor
+		 * @param weights The weights of the evaluation
+		 * @param scalingConstant The scaling constant of the sigmoid
+		 * @param start The first position of the range
+		 * @param end The position after the last one of the range
+		 */
+		ErrorTask(final int[] weights, final double scalingConstant, final int start, final int end) {
+			this.weights = weights;
+			this.scalingConstant = scalingConstant;
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		protected Double compute() {
+			if (this.end - this.start > SPLIT_THRESHOLD) {
+				final int middle = (this.start + this.end) >>> 1;
+				final ErrorTask left = new ErrorTask(this.weights, this.scalingConstant, this.start, middle);
+				left.fork();
+				final double right = new ErrorTask(this.weights, this.scalingConstant, middle, this.end).compute();
+				return right + left.join();
+			}
+			final short[] features = TexelTuner.this.dataset.getFeatures();
+			final int numFeatures = TuningDataset.NUM_FEATURES;
+			// 10^(-K * score / 400) = e^(factor * score)
+			final double factor = -this.scalingConstant * Math.log(10) / 400;
+			double sum = 0;
+			for (int position = this.start; position < this.end; position++) {
+				final int offset = position * numFeatures;
+				int score = 0;
+				for (int f = 0; f < numFeatures; f++) {
+					score += this.weights[f] * features[offset + f];
+				}
+				final double expected = 1.0 / (1.0 + Math.exp(factor * score));
+				final double difference = TexelTuner.this.dataset.getResult(position) - expected;
+				sum += difference * difference;
+			}
+			return sum;
+		}
+	}
+
+	/**
+	 * Tunes the evaluation from the command line.
+	 * Options : -data file (required), -passes N, -quiet true|false (keep only the quiet positions),
+	 * -threads N
+	 * @param args The command line options
+	 * @throws IOException If the positions can't be read
+	 */
+	public static void main(final String[] args) throws IOException {
+		String data = null;
+		int passes = 100;
+		boolean quietOnly = true;
+		int threads = Runtime.getRuntime().availableProcessors();
+		for (int i = 0; i + 1 < args.length; i += 2) {
+			final String value = args[i + 1];
+			switch (args[i]) {
+			case "-data":
+				data = value;
+				break;
+			case "-passes":
+				passes = Integer.parseInt(value);
+				break;
+			case "-quiet":
+				quietOnly = Boolean.parseBoolean(value);
+				break;
+			case "-threads":
+				threads = Integer.parseInt(value);
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown option : " + args[i]);
+			}
+		}
+		if (data == null) {
+			throw new IllegalArgumentException("The positions are required : -data file");
+		}
+
+		final long startTime = System.currentTimeMillis();
+		final TuningDataset dataset = TuningDataset.load(data, quietOnly);
+		System.out.println(String.format("%d positions loaded in %d ms (%d not quiet, %d not linear)", dataset.size(),
+				System.currentTimeMillis() - startTime, dataset.getFiltered(), dataset.getNonLinear()));
+
+		final ForkJoinPool pool = new ForkJoinPool(threads);
+		try {
+			final TexelTuner tuner = new TexelTuner(dataset, pool);
+			final int[] initialWeights = StandardBoardEvaluator.getDefaultWeights();
+			final double scalingConstant = tuner.fitScalingConstant(initialWeights);
+			System.out.println(String.format("K %.3f, initial error %.6f", scalingConstant, tuner.error(initialWeights)));
+			final int[] weights = tuner.tune(initialWeights, passes, new TuningListener() {
+				@Override
+				public void onPass(final int pass, final double error, final int[] passWeights, final int epochs,
+						final long elapsedMillis) {
+					System.out.println(String.format("pass %d, error %.6f, %s, %d epochs, %.1f ms per epoch",
+							pass, error, Arrays.toString(passWeights), epochs, (double) Math.max(1, elapsedMillis) / Math.max(1, epochs)));
+				}
+			});
+			System.out.println("tuned weights " + Arrays.toString(weights));
+		} finally {
+			pool.shutdown();
+		}
+	}
+}
@@ -0,0 +1,236 @@
+package com.chess.engine.tuning;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.player.ai.AlphaBeta;
+import com.chess.engine.player.ai.StandardBoardEvaluator;
+import com.chess.pgn.FenUtilities;
+
+/**
+ * Labelled positions used to tune the evaluation. Only what the error needs is kept,
+ * in primitive arrays : the features of each position (see {@link StandardBoardEvaluator#calculateFeatures(Board, int[])})
+ * and the result of its game, so that millions of positions fit in memory.
+ * @author antsalin
+ *
+ */
+public final class TuningDataset {
+
+	/** Number of lines parsed at the same time */
+	private static final int BATCH_SIZE = 1 << 16;
+
+	/** Number of features of each position */
+	static final int NUM_FEATURES = StandardBoardEvaluator.NUM_WEIGHTS;
+
+	/** The evaluator with the default weights, used to test if the positions are quiet */
+	private static final StandardBoardEvaluator EVALUATOR = new StandardBoardEvaluator();
+
+	/** Result of a position that could not be used */
+	private static final byte SKIPPED = -1;
+
+	/** The features of the positions : position i uses the indexes i * NUM_FEATURES to (i + 1) * NUM_FEATURES - 1 */
+	private short[] features;
+
+	/** The results of the games, in half points for white : 0 (black wins), 1 (draw) or 2 (white wins) */
+	private byte[] results;
+
+	/** The number of positions */
+	private int size;
+
+	/** The number of positions removed because they were not quiet */
+	private int filtered;
+
+	/** The number of positions removed because their score is not the weighted sum of their features */
+	private int nonLinear;
+
+	/**
+	 * Constructor of an empty dataset
+	 */
+	private TuningDataset() {
+		this.features = new short[BATCH_SIZE * NUM_FEATURES];
+		this.results = new byte[BATCH_SIZE];
+	}
+
+	/**
+	 * Loads labelled positions. Each line holds a FEN string (or EPD) and the result of the game,
+	 * written as 1-0, 0-1 or 1/2-1/2, or as [1.0], [0.5] or [0.0]. The lines are parsed in parallel.
+	 * The positions whose score is not the weighted sum of their features are always removed
+	 * @param path The path of the file
+	 * @param quietOnly True to keep only the quiet positions : not in check, and whose score
+	 * is not changed by the quiescence search
+	 * @return The dataset
+	 * @throws IOException If the file can't be read
+	 */
+	public static TuningDataset load(final String path, final boolean quietOnly) throws IOException {
+		final TuningDataset dataset = new TuningDataset();
+		final ThreadLocal<AlphaBeta> searches = new ThreadLocal<AlphaBeta>() {
+			@Override
+			protected AlphaBeta initialValue() {
+				return new AlphaBeta(EVALUATOR, 1);
+			}
+		};
+		final List<String> lines = new ArrayList<>(BATCH_SIZE);
+		try (BufferedReader reader = Files.newBufferedReader(Paths.get(path), StandardCharsets.UTF_8)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				lines.add(line);
+				if (lines.size() == BATCH_SIZE) {
+					dataset.addBatch(lines, quietOnly, searches);
+					lines.clear();
+				}
+			}
+		}
+		dataset.addBatch(lines, quietOnly, searches);
+		return dataset;
+	}
+
+	/**
+	 * Parses a batch of lines in parallel and adds their positions
+	 * @param lines The lines
+	 * @param quietOnly True to keep only the quiet positions
+	 * @param searches The quiescence search of each thread
+	 */
+	private void addBatch(final List<String> lines, final boolean quietOnly, final ThreadLocal<AlphaBeta> searches) {
+		final short[] batchFeatures = new short[lines.size() * NUM_FEATURES];
+		final byte[] batchResults = new byte[lines.size()];
+		IntStream.range(0, lines.size()).parallel().forEach(i -> {
+			final int[] positionFeatures = new int[NUM_FEATURES];
+			batchResults[i] = parseLine(lines.get(i), quietOnly, searches.get(), positionFeatures);
+			for (int f = 0; f < NUM_FEATURES; f++) {
+				batchFeatures[i * NUM_FEATURES + f] = (short) positionFeatures[f];
+			}
+		});
+
+		for (int i = 0; i < lines.size(); i++) {
+			if (batchResults[i] == SKIPPED) {
+				continue;
+			}
+			if (this.size == this.results.length) {
+				this.results = Arrays.copyOf(this.results, this.results.length * 2);
+				this.features = Arrays.copyOf(this.features, this.features.length * 2);
+			}
+			System.arraycopy(batchFeatures, i * NUM_FEATURES, this.features, this.size * NUM_FEATURES, NUM_FEATURES);
+			this.results[this.size++] = batchResults[i];
+		}
+	}
+
+	/**
+	 * Parses a line of the file
+	 * @param line The line
+	 * @param quietOnly True to skip the positions that are not quiet
+	 * @param search The search used to test if the position is quiet
+	 * @param positionFeatures The array receiving the features of the position
+	 * @return The result of the game in half points for white, or {@link #SKIPPED}
+	 */
+	private byte parseLine(final String line, final boolean quietOnly, final AlphaBeta search,
+			final int[] positionFeatures) {
+		final byte result = parseResult(line);
+		final String[] fields = line.trim().split("\\s+");
+		if (result == SKIPPED || fields.length < 2) {
+			return SKIPPED;
+		}
+		final Board board;
+		try {
+			board = FenUtilities.createGameFromFEN(fields[0] + " " + fields[1]);
+		} catch (final IllegalArgumentException e) {
+			return SKIPPED;
+		}
+		if (!EVALUATOR.isLinear(board)) {
+			// The tuned weights can't describe a specialised endgame or a scaled score
+			synchronized (this) {
+				this.nonLinear++;
+			}
+			return SKIPPED;
+		}
+		if (quietOnly && !isQuiet(board, search)) {
+			synchronized (this) {
+				this.filtered++;
+			}
+			return SKIPPED;
+		}
+		StandardBoardEvaluator.calculateFeatures(board, positionFeatures);
+		return result;
+	}
+
+	/**
+	 * Tells if a position is quiet : the player to move is not in check and
+	 * no capture changes the score of the position
+	 * @param board The position
+	 * @param search The search running the quiescence search
+	 * @return A boolean telling whether the position is quiet or not
+	 */
+	private static boolean isQuiet(final Board board, final AlphaBeta search) {
+		if (board.currentPlayer().isInCheck()) {
+			return false;
+		}
+		final int staticScore = EVALUATOR.evaluate(board, 0);
+		final int sideToMoveScore = board.currentPlayer().getAlliance().isWhite() ? staticScore : -staticScore;
+		return search.quiescence(board) == sideToMoveScore;
+	}
+
+	/**
+	 * Finds the result of the game in a line
+	 * @param line The line
+	 * @return The result in half points for white, or {@link #SKIPPED} if there is none
+	 */
+	private static byte parseResult(final String line) {
+		if (line.contains("1/2-1/2") || line.contains("[0.5]")) {
+			return 1;
+		} else if (line.contains("1-0") || line.contains("[1.0]")) {
+			return 2;
+		} else if (line.contains("0-1") || line.contains("[0.0]")) {
+			return 0;
+		}
+		return SKIPPED;
+	}
+
+	/**
+	 * Gets the number of positions
+	 * @return The number of positions
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Gets the number of positions removed because they were not quiet
+	 * @return The number of removed positions
+	 */
+	public int getFiltered() {
+		return this.filtered;
+	}
+
+	/**
+	 * Gets the number of positions removed because the material table evaluates them with a specialised
+	 * endgame evaluation or scales their score, see {@link StandardBoardEvaluator#isLinear(Board)}
+	 * @return The number of removed positions
+	 */
+	public int getNonLinear() {
+		return this.nonLinear;
+	}
+
+	/**
+	 * Gets the features of all the positions
+	 * @return The features, {@link #NUM_FEATURES} per position
+	 */
+	short[] getFeatures() {
+		return this.features;
+	}
+
+	/**
+	 * Gets the result of the game of a position
+	 * @param position The index of the position
+	 * @return The score of white : 0, 0.5 or 1
+	 */
+	double getResult(final int position) {
+		return this.results[position] / 2.0;
+	}
+}
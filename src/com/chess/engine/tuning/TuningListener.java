@@ -0,0 +1,19 @@
+package com.chess.engine.tuning;
+
+/**
+ * Describes an object that follows the progress of a {@link TexelTuner}
+ * @author antsalin
+ *
+ */
+public interface TuningListener {
+
+	/**
+	 * Called each time the tuner completes a pass over the weights
+	 * @param pass The number of the pass, starting at 1
+	 * @param error The mean squared error of the weights after the pass
+	 * @param weights The weights after the pass
+	 * @param epochs The number of evaluations of the error during the pass
+	 * @param elapsedMillis The duration of the pass, in milliseconds
+	 */
+	void onPass(int pass, double error, int[] weights, int epochs, long elapsedMillis);
+}
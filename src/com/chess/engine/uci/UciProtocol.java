@@ -0,0 +1,454 @@
+package com.chess.engine.uci;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+import com.chess.engine.board.Move.MoveFactory;
+import com.chess.engine.metrics.EngineMetrics;
+import com.chess.engine.player.MoveTransition;
+import com.chess.engine.player.ai.AlphaBeta;
+import com.chess.engine.player.ai.SearchLimits;
+import com.chess.engine.player.ai.SearchListener;
+import com.chess.engine.player.ai.SearchResult;
+import com.chess.engine.player.ai.StandardBoardEvaluator;
+import com.chess.engine.player.ai.TimeManager;
+import com.chess.engine.player.ai.TranspositionTable;
+import com.chess.pgn.FenUtilities;
+
+/**
+ * A front end speaking the Universal Chess Interface (UCI) protocol over a text stream.
+ * The commands are read on the calling thread while the searches run on a background
+ * thread, so that "stop" and "ponderhit" are handled while the engine is thinking.
+ * The transposition table is kept from one move to the next.
+ * @author antsalin
+ *
+ */
+public final class UciProtocol {
+
+	/** The name of the engine given to the GUI */
+	private static final String ENGINE_NAME = "ChessGame";
+
+	/** The author of the engine given to the GUI */
+	private static final String ENGINE_AUTHOR = "antsalin";
+
+	/** The maximum size of the transposition table, in megabytes */
+	private static final int MAX_HASH_MB = 1024;
+
+	/** The maximum number of lines of the Multi-PV mode */
+	private static final int MAX_MULTI_PV = 64;
+
+	/** The commands sent by the GUI */
+	private final BufferedReader input;
+
+	/** The answers sent to the GUI */
+	private final PrintStream output;
+
+	/** The thread running the searches */
+	private final ExecutorService searchExecutor;
+
+	/** The table storing the results of the searched boards, kept from one move to the next */
+	private TranspositionTable transpositionTable;
+
+	/** The search used for every move */
+	private AlphaBeta search;
+
+	/** The current board, as set by the last "position" command */
+	private Board board;
+
+	/** The search running in the background, null if the engine is idle */
+	private Future<?> currentSearch;
+
+	/** Released when the result of a ponder or infinite search can be sent */
+	private CountDownLatch bestMoveRelease;
+
+	/** The number of best moves reported by the searches (MultiPV option) */
+	private int multiPv = 1;
+
+	/** The time the current ponder search can use once the opponent played the expected move */
+	private volatile long ponderHitMoveTime;
+
+	/** Released once the current search has set its deadline and stop state, or has failed before */
+	private CountDownLatch searchStarted;
+
+	/**
+	 * Constructor
+	 * @param input The stream of the commands sent by the GUI
+	 * @param output The stream of the answers sent to the GUI
+	 */
+	public UciProtocol(final InputStream input, final PrintStream output) {
+		this.input = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+		this.output = output;
+		this.searchExecutor = Executors.newSingleThreadExecutor(runnable -> {
+			final Thread thread = new Thread(runnable, "uci-search");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.board = Board.createStandardBoard();
+		resizeTranspositionTable(TranspositionTable.DEFAULT_SIZE_MB);
+	}
+
+	/**
+	 * Reads and executes the commands until "quit" or the end of the input
+	 * @throws IOException If the commands can't be read
+	 */
+	public void run() throws IOException {
+		String line;
+		while ((line = this.input.readLine()) != null) {
+			final String[] tokens = line.trim().split("\\s+");
+			try {
+				switch (tokens[0]) {
+				case "uci":
+					send("id name " + ENGINE_NAME);
+					send("id author " + ENGINE_AUTHOR);
+					send("option name Hash type spin default " + TranspositionTable.DEFAULT_SIZE_MB +
+							" min 1 max " + MAX_HASH_MB);
+					send("option name Ponder type check default false");
+					send("option name MultiPV type spin default 1 min 1 max " + MAX_MULTI_PV);
+					send("uciok");
+					break;
+				case "isready":
+					send("readyok");
+					break;
+				case "ucinewgame":
+					stopSearch();
+					this.transpositionTable.clear();
+					break;
+				case "setoption":
+					setOption(tokens);
+					break;
+				case "position":
+					stopSearch();
+					setPosition(tokens);
+					break;
+				case "go":
+					stopSearch();
+					go(tokens);
+					break;
+				case "stop":
+					stopSearch();
+					break;
+				case "ponderhit":
+					ponderHit();
+					break;
+				case "metrics":
+					// Not a UCI command : prints the engine metrics for debugging
+					for (final String metric : EngineMetrics.report().split("\n")) {
+						send("info string " + metric);
+					}
+					break;
+				case "quit":
+					stopSearch();
+					this.searchExecutor.shutdownNow();
+					return;
+				default:
+					// Unknown commands are ignored, as the protocol requires
+					break;
+				}
+			} catch (final RuntimeException e) {
+				send("info string error " + e.getMessage());
+			}
+		}
+		stopSearch();
+		this.searchExecutor.shutdownNow();
+	}
+
+	/**
+	 * Executes the "setoption" command : only the Hash and MultiPV options change something
+	 * @param tokens The tokens of the command
+	 */
+	private void setOption(final String[] tokens) {
+		final int nameIndex = indexOf(tokens, "name");
+		final int valueIndex = indexOf(tokens, "value");
+		if (nameIndex < 0 || valueIndex < 0 || valueIndex + 1 >= tokens.length) {
+			return;
+		}
+		if (tokens[nameIndex + 1].equalsIgnoreCase("Hash")) {
+			stopSearch();
+			final int sizeMb = Integer.parseInt(tokens[valueIndex + 1]);
+			resizeTranspositionTable(Math.max(1, Math.min(MAX_HASH_MB, sizeMb)));
+		} else if (tokens[nameIndex + 1].equalsIgnoreCase("MultiPV")) {
+			this.multiPv = Math.max(1, Math.min(MAX_MULTI_PV, Integer.parseInt(tokens[valueIndex + 1])));
+		}
+	}
+
+	/**
+	 * Creates a new transposition table, and the search using it
+	 * @param sizeMb The size of the table, in megabytes
+	 */
+	private void resizeTranspositionTable(final int sizeMb) {
+		this.transpositionTable = new TranspositionTable(sizeMb);
+		this.search = new AlphaBeta(new StandardBoardEvaluator(), SearchLimits.MAX_DEPTH, this.transpositionTable);
+		this.search.setListener(new SearchListener() {
+			@Override
+			public void onIteration(final SearchResult result) {
+				sendInfo(result);
+			}
+		});
+	}
+
+	/**
+	 * Executes the "position" command : "position [startpos | fen FEN] [moves m1 m2 ...]"
+	 * @param tokens The tokens of the command
+	 */
+	private void setPosition(final String[] tokens) {
+		final int movesIndex = indexOf(tokens, "moves");
+		final int end = movesIndex < 0 ? tokens.length : movesIndex;
+		Board newBoard;
+		if (tokens.length > 1 && tokens[1].equals("fen")) {
+			newBoard = FenUtilities.createGameFromFEN(String.join(" ", Arrays.copyOfRange(tokens, 2, end)));
+		} else {
+			newBoard = Board.createStandardBoard();
+		}
+		if (movesIndex >= 0) {
+			for (int i = movesIndex + 1; i < tokens.length; i++) {
+				final Move move = MoveFactory.createMove(newBoard, tokens[i]);
+				final MoveTransition transition = move == null ? null : newBoard.currentPlayer().makeMove(move);
+				if (transition == null || !transition.getMoveStatus().isDone()) {
+					throw new IllegalArgumentException("illegal move " + tokens[i]);
+				}
+				newBoard = transition.getTransitionBoard();
+			}
+		}
+		this.board = newBoard;
+	}
+
+	/**
+	 * Executes the "go" command : starts a search in the background
+	 * @param tokens The tokens of the command
+	 */
+	private void go(final String[] tokens) {
+		final boolean whiteToMove = this.board.currentPlayer().getAlliance().isWhite();
+		final SearchLimits.Builder limits = new SearchLimits.Builder();
+		long time = -1;
+		long increment = 0;
+		long moveTime = -1;
+		int movesToGo = 0;
+		boolean infinite = false;
+		boolean ponder = false;
+
+		for (int i = 1; i < tokens.length; i++) {
+			switch (tokens[i]) {
+			case "wtime":
+				final long whiteTime = Long.parseLong(tokens[++i]);
+				time = whiteToMove ? whiteTime : time;
+				break;
+			case "btime":
+				final long blackTime = Long.parseLong(tokens[++i]);
+				time = whiteToMove ? time : blackTime;
+				break;
+			case "winc":
+				final long whiteIncrement = Long.parseLong(tokens[++i]);
+				increment = whiteToMove ? whiteIncrement : increment;
+				break;
+			case "binc":
+				final long blackIncrement = Long.parseLong(tokens[++i]);
+				increment = whiteToMove ? increment : blackIncrement;
+				break;
+			case "movestogo":
+				movesToGo = Integer.parseInt(tokens[++i]);
+				break;
+			case "depth":
+				limits.setDepth(Math.min(SearchLimits.MAX_DEPTH, Integer.parseInt(tokens[++i])));
+				break;
+			case "nodes":
+				limits.setNodes(Long.parseLong(tokens[++i]));
+				break;
+			case "movetime":
+				moveTime = Long.parseLong(tokens[++i]);
+				break;
+			case "infinite":
+				infinite = true;
+				break;
+			case "ponder":
+				ponder = true;
+				break;
+			default:
+				break;
+			}
+		}
+
+		if (ponder) {
+			// The clock only starts when the opponent plays the expected move : the search is
+			// then given the soft limit of the time manager, which is never exceeded
+			this.ponderHitMoveTime = moveTime >= 0 || time < 0 ? moveTime :
+				new TimeManager(time, increment, movesToGo).getSoftLimitMillis();
+		} else {
+			if (moveTime >= 0) {
+				limits.setMoveTime(moveTime);
+			}
+			if (time >= 0) {
+				limits.setClock(time, increment, movesToGo);
+			}
+		}
+
+		final boolean waitForRelease = infinite || ponder;
+		final CountDownLatch release = new CountDownLatch(waitForRelease ? 1 : 0);
+		final Board searchedBoard = this.board;
+		final SearchLimits searchLimits = limits.setMultiPv(this.multiPv).build();
+		final CountDownLatch started = new CountDownLatch(1);
+		this.bestMoveRelease = release;
+		this.searchStarted = started;
+		this.currentSearch = this.searchExecutor.submit(new Runnable() {
+			@Override
+			public void run() {
+				final SearchResult result;
+				UciProtocol.this.search.setStartSignal(started);
+				try {
+					result = UciProtocol.this.search.search(searchedBoard, searchLimits);
+				} finally {
+					// Nobody waits forever for a search that failed before it began
+					started.countDown();
+				}
+				// The protocol forbids to answer a ponder or infinite search before "stop" or "ponderhit"
+				try {
+					release.await();
+				} catch (final InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				sendBestMove(result);
+			}
+		});
+	}
+
+	/**
+	 * Executes the "ponderhit" command : the opponent played the expected move,
+	 * so the ponder search becomes a normal search using the clock
+	 */
+	private void ponderHit() {
+		final CountDownLatch release = this.bestMoveRelease;
+		if (release == null) {
+			return;
+		}
+		final long moveTime = this.ponderHitMoveTime;
+		if (moveTime >= 0 && this.searchStarted != null) {
+			final long deadline = System.currentTimeMillis() + moveTime;
+			// The search sets its own deadline when it begins : the new one is given once it has begun
+			if (awaitStart(this.searchStarted)) {
+				this.search.setDeadline(deadline);
+			}
+		}
+		release.countDown();
+	}
+
+	/**
+	 * Stops the current search and waits until its best move is sent
+	 */
+	private void stopSearch() {
+		final Future<?> running = this.currentSearch;
+		if (running == null) {
+			return;
+		}
+		if (this.bestMoveRelease != null) {
+			this.bestMoveRelease.countDown();
+		}
+		// The search resets its stop state when it begins : it is stopped once it has begun
+		if (awaitStart(this.searchStarted)) {
+			this.search.stop();
+			try {
+				running.get();
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} catch (final ExecutionException e) {
+				send("info string error " + e.getCause());
+			}
+		}
+		this.currentSearch = null;
+		this.bestMoveRelease = null;
+		this.searchStarted = null;
+	}
+
+	/**
+	 * Waits until the current search has begun (or has failed before)
+	 * @param started The latch released by the search when it begins
+	 * @return A boolean telling if the search has begun, false if the wait was interrupted
+	 */
+	private static boolean awaitStart(final CountDownLatch started) {
+		try {
+			started.await();
+			return true;
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	/**
+	 * Sends the result of a completed iteration
+	 * @param result The result of the iteration
+	 */
+	private void sendInfo(final SearchResult result) {
+		final StringBuilder info = new StringBuilder("info");
+		info.append(" depth ").append(result.getDepth());
+		if (this.multiPv > 1) {
+			info.append(" multipv ").append(result.getLineRank());
+		}
+		if (result.isMateScore()) {
+			info.append(" score mate ").append(result.getMateIn());
+		} else {
+			info.append(" score cp ").append(result.getScore());
+		}
+		info.append(" nodes ").append(result.getNodes());
+		info.append(" nps ").append(result.getNodesPerSecond());
+		info.append(" hashfull ").append(this.transpositionTable.hashfull());
+		info.append(" time ").append(result.getTimeMillis());
+		info.append(" pv");
+		for (final Move move : result.getPrincipalVariation()) {
+			info.append(' ').append(move);
+		}
+		send(info.toString());
+	}
+
+	/**
+	 * Sends the best move of a search, with the expected answer of the opponent if known
+	 * @param result The result of the search
+	 */
+	private void sendBestMove(final SearchResult result) {
+		if (result.getBestMove() == null) {
+			// Checkmate or stalemate : there is no move to play
+			send("bestmove 0000");
+			return;
+		}
+		final List<Move> principalVariation = result.getPrincipalVariation();
+		send("bestmove " + result.getBestMove() +
+				(principalVariation.size() > 1 ? " ponder " + principalVariation.get(1) : ""));
+	}
+
+	/**
+	 * Sends a line to the GUI
+	 * @param line The line to send
+	 */
+	private void send(final String line) {
+		synchronized (this.output) {
+			this.output.println(line);
+			this.output.flush();
+		}
+	}
+
+	/**
+	 * Finds a token in a command
+	 * @param tokens The tokens of the command
+	 * @param token The token we look for
+	 * @return The index of the token, or -1 if the command doesn't contain it
+	 */
+	private static int indexOf(final String[] tokens, final String token) {
+		for (int i = 0; i < tokens.length; i++) {
+			if (tokens[i].equals(token)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+}
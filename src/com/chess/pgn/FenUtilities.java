@@ -0,0 +1,249 @@
+package com.chess.pgn;
+
+import com.chess.engine.Alliance;
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Board.Builder;
+import com.chess.engine.board.BoardSnapshot;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.pieces.Bishop;
+import com.chess.engine.pieces.King;
+import com.chess.engine.pieces.Knight;
+import com.chess.engine.pieces.Pawn;
+import com.chess.engine.pieces.Piece;
+import com.chess.engine.pieces.Queen;
+import com.chess.engine.pieces.Rook;
+
+/**
+ * Class used to read and write boards in the Forsyth-Edwards Notation (FEN)
+ * @author antho
+ */
+public class FenUtilities {
+
+	/** The FEN string of the initial board */
+	public static final String STANDARD_FEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+	/**
+	 * Useless constructor
+	 */
+	private FenUtilities() {
+		throw new RuntimeException("You can't instanciate this class");
+	}
+
+	/**
+	 * Creates a board from a FEN string. The castling and en passant fields can be missing,
+	 * and the fields after them (the clocks, or the operations of an EPD line) are ignored
+	 * @param fenString The FEN string describing the board
+	 * @return The board described by the FEN string
+	 */
+	public static Board createGameFromFEN(final String fenString) {
+		final String[] fenPartitions = fenString.trim().split("\\s+");
+		if (fenPartitions.length < 2) {
+			throw new IllegalArgumentException("Invalid FEN string : " + fenString);
+		}
+		final Builder builder = new Builder();
+
+		// Remember that coord 0 is the top left corner (a8), so we read the ranks from the 8th to the 1st
+		int coordinate = 0;
+		for (final char c : fenPartitions[0].toCharArray()) {
+			if (c == '/') {
+				continue;
+			}
+			if (Character.isDigit(c)) {
+				coordinate += c - '0';
+				continue;
+			}
+			if (coordinate >= BoardUtils.NUM_TILES) {
+				throw new IllegalArgumentException("Invalid FEN string : " + fenString);
+			}
+			builder.setPiece(createPiece(c, coordinate));
+			coordinate++;
+		}
+		if (coordinate != BoardUtils.NUM_TILES) {
+			throw new IllegalArgumentException("Invalid FEN string : " + fenString);
+		}
+
+		builder.setMoveMaker(moveMaker(fenPartitions[1]));
+		if (fenPartitions.length > 2) {
+			builder.setCastlingState(castlingRights(fenPartitions[2]));
+		}
+		if (fenPartitions.length > 3 && !fenPartitions[3].equals("-")) {
+			final Integer enPassantTile = BoardUtils.POSITION_TO_COORDINATE.get(fenPartitions[3]);
+			if (enPassantTile == null) {
+				throw new IllegalArgumentException("Invalid FEN en passant tile : " + fenPartitions[3]);
+			}
+			builder.setEnPassantTile(enPassantTile);
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Creates the FEN string of a board
+	 * @param board The board we want to describe
+	 * @return The FEN string describing the board
+	 */
+	public static String createFENFromGame(final Board board) {
+		// The board is read directly : a snapshot can't hold the boards with more than 32 pieces
+		final Piece[] pieces = new Piece[BoardUtils.NUM_TILES];
+		for (int i = 0; i < BoardUtils.NUM_TILES; i++) {
+			pieces[i] = board.getTile(i).getPiece();
+		}
+		return createFEN(pieces, board.currentPlayer().getAlliance(), board.getCastlingState(), board.getEnPassantTile());
+	}
+
+	/**
+	 * Creates the FEN string of a board snapshot, without building the board
+	 * @param snapshot The snapshot of the board we want to describe
+	 * @return The FEN string describing the board
+	 */
+	public static String createFENFromSnapshot(final BoardSnapshot snapshot) {
+		final Piece[] pieces = new Piece[BoardUtils.NUM_TILES];
+		for (int i = 0; i < BoardUtils.NUM_TILES; i++) {
+			pieces[i] = snapshot.getPiece(i);
+		}
+		return createFEN(pieces, snapshot.getMoveMaker(), snapshot.getCastlingState(), snapshot.getEnPassantTile());
+	}
+
+	/**
+	 * Creates a FEN string
+	 * @param pieces The piece of each tile (null for an empty tile)
+	 * @param moveMaker The player to move
+	 * @param castlingState The castling state of the board
+	 * @param enPassantTile The en passant tile of the board, {@link Board#NO_EN_PASSANT} if there is none
+	 * @return The FEN string describing the board
+	 */
+	private static String createFEN(final Piece[] pieces, final Alliance moveMaker, final int castlingState,
+			final int enPassantTile) {
+		return calculateBoardText(pieces) + " " +
+				(moveMaker.isWhite() ? "w" : "b") + " " +
+				calculateCastleText(castlingState) + " " +
+				(enPassantTile == Board.NO_EN_PASSANT ? "-" : BoardUtils.getPositionAtCoordinate(enPassantTile)) + " " +
+				"0 1";
+	}
+
+	/**
+	 * Calculates the castling availability part of the FEN string
+	 * @param castlingState The castling state of the board we want to describe
+	 * @return The castling rights of the board (KQkq,...), "-" if there is none
+	 */
+	private static String calculateCastleText(final int castlingState) {
+		final StringBuilder builder = new StringBuilder();
+		if ((castlingState & Board.WHITE_KING_SIDE_CASTLE) != 0) {
+			builder.append('K');
+		}
+		if ((castlingState & Board.WHITE_QUEEN_SIDE_CASTLE) != 0) {
+			builder.append('Q');
+		}
+		if ((castlingState & Board.BLACK_KING_SIDE_CASTLE) != 0) {
+			builder.append('k');
+		}
+		if ((castlingState & Board.BLACK_QUEEN_SIDE_CASTLE) != 0) {
+			builder.append('q');
+		}
+		return builder.length() == 0 ? "-" : builder.toString();
+	}
+
+	/**
+	 * Calculates the piece placement part of the FEN string
+	 * @param pieces The piece of each tile of the board we want to describe (null for an empty tile)
+	 * @return The piece placement of the board, rank by rank
+	 */
+	private static String calculateBoardText(final Piece[] pieces) {
+		final StringBuilder builder = new StringBuilder();
+		int emptyTiles = 0;
+		for (int i = 0; i < BoardUtils.NUM_TILES; i++) {
+			final Piece piece = pieces[i];
+			if (piece == null) {
+				emptyTiles++;
+			} else {
+				if (emptyTiles > 0) {
+					builder.append(emptyTiles);
+					emptyTiles = 0;
+				}
+				final String pieceText = piece.getPieceType().toString();
+				builder.append(piece.getAlliance().isBlack() ? pieceText.toLowerCase() : pieceText);
+			}
+			if (i % BoardUtils.NUM_TILES_PER_ROW == 7) {
+				// If we are at the end of the row
+				if (emptyTiles > 0) {
+					builder.append(emptyTiles);
+					emptyTiles = 0;
+				}
+				if (i != BoardUtils.NUM_TILES - 1) {
+					builder.append("/");
+				}
+			}
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * Creates the piece described by a FEN character
+	 * @param c The FEN character : upper case for white pieces, lower case for black pieces
+	 * @param coordinate The coordinate of the piece
+	 * @return The new piece
+	 */
+	private static Piece createPiece(final char c, final int coordinate) {
+		final Alliance alliance = Character.isUpperCase(c) ? Alliance.WHITE : Alliance.BLACK;
+		switch (Character.toLowerCase(c)) {
+		case 'p':
+			return new Pawn(coordinate, alliance);
+		case 'n':
+			return new Knight(coordinate, alliance);
+		case 'b':
+			return new Bishop(coordinate, alliance);
+		case 'r':
+			return new Rook(coordinate, alliance);
+		case 'q':
+			return new Queen(coordinate, alliance);
+		case 'k':
+			return new King(coordinate, alliance);
+		default:
+			throw new IllegalArgumentException("Invalid FEN piece : " + c);
+		}
+	}
+
+	/**
+	 * Gets the castling rights from the FEN castling availability field
+	 * @param castleString The castling availability field : "KQkq", "Kq", "-",...
+	 * @return The castling rights, see {@link Board#WHITE_KING_SIDE_CASTLE}
+	 */
+	private static int castlingRights(final String castleString) {
+		int castlingRights = 0;
+		if (castleString.equals("-")) {
+			return castlingRights;
+		}
+		for (final char c : castleString.toCharArray()) {
+			switch (c) {
+			case 'K':
+				castlingRights |= Board.WHITE_KING_SIDE_CASTLE;
+				break;
+			case 'Q':
+				castlingRights |= Board.WHITE_QUEEN_SIDE_CASTLE;
+				break;
+			case 'k':
+				castlingRights |= Board.BLACK_KING_SIDE_CASTLE;
+				break;
+			case 'q':
+				castlingRights |= Board.BLACK_QUEEN_SIDE_CASTLE;
+				break;
+			default:
+				throw new IllegalArgumentException("Invalid FEN castling availability : " + castleString);
+			}
+		}
+		return castlingRights;
+	}
+
+	/**
+	 * Gets the player that has to move from the FEN active color field
+	 * @param moveMakerString The active color field : "w" or "b"
+	 * @return The alliance of the player that has to move
+	 */
+	private static Alliance moveMaker(final String moveMakerString) {
+		if (moveMakerString.equals("w")) {
+			return Alliance.WHITE;
+		} else if (moveMakerString.equals("b")) {
+			return Alliance.BLACK;
+		}
+		throw new IllegalArgumentException("Invalid FEN active color : " + moveMakerString);
+	}
+}
@@ -0,0 +1,151 @@
+package com.chess.pgn;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.BoardUtils;
+import com.chess.engine.board.Move;
+import com.chess.engine.board.Move.MoveFactory;
+import com.chess.engine.pieces.Piece.PieceType;
+
+/**
+ * Class used to read moves in the Standard Algebraic Notation (SAN) : Nf3, exd5, O-O, e8=Q+,...
+ * @author antho
+ */
+public class SanUtilities {
+
+	/**
+	 * Useless constructor
+	 */
+	private SanUtilities() {
+		throw new RuntimeException("You can't instanciate this class");
+	}
+
+	/**
+	 * Finds the legal move of the current player described by a SAN move.
+	 * The coordinate notation (e2e4, e7e8q,...) is accepted too
+	 * @param board The board in which the move is done
+	 * @param san The SAN move : the check and annotation marks (+, #, !, ?) are ignored
+	 * @return The move
+	 * @throws IllegalArgumentException If the move is invalid, illegal or ambiguous
+	 */
+	public static Move createMoveFromSan(final Board board, final String san) {
+		String text = san.trim().replaceAll("[+#!?]+$", "");
+		if (text.matches("[a-h][1-8][a-h][1-8][nbrq]?")) {
+			final Move move = MoveFactory.createMove(board, text);
+			if (move == null || !board.currentPlayer().makeMove(move).getMoveStatus().isDone()) {
+				throw new IllegalArgumentException("Illegal move : " + san);
+			}
+			return move;
+		}
+
+		final String castle = text.replace('0', 'O');
+		if (castle.equals("O-O") || castle.equals("O-O-O")) {
+			// The king goes to the g column on the king side, to the c column on the queen side
+			return findMove(board, san, PieceType.KING, castle.equals("O-O") ? 'g' : 'c', (char) 0, -1, null, true);
+		}
+
+		PieceType promotionType = null;
+		final int promotionIndex = text.indexOf('=');
+		if (promotionIndex >= 0) {
+			promotionType = promotionType(text.substring(promotionIndex + 1), san);
+			text = text.substring(0, promotionIndex);
+		} else if (text.length() > 2 && "QRBN".indexOf(text.charAt(text.length() - 1)) >= 0 &&
+				Character.isDigit(text.charAt(text.length() - 2))) {
+			promotionType = promotionType(text.substring(text.length() - 1), san);
+			text = text.substring(0, text.length() - 1);
+		}
+
+		PieceType pieceType = PieceType.PAWN;
+		if (!text.isEmpty() && "KQRBN".indexOf(text.charAt(0)) >= 0) {
+			pieceType = pieceTypeOf(text.charAt(0));
+			text = text.substring(1);
+		}
+		text = text.replace("x", "").replace("-", "");
+		if (text.length() < 2) {
+			throw new IllegalArgumentException("Invalid SAN move : " + san);
+		}
+		final Integer destination = BoardUtils.POSITION_TO_COORDINATE.get(text.substring(text.length() - 2));
+		if (destination == null) {
+			throw new IllegalArgumentException("Invalid SAN move : " + san);
+		}
+
+		// What is left tells the column and/or the row of the moved piece
+		char fromColumn = 0;
+		char fromRow = 0;
+		for (final char c : text.substring(0, text.length() - 2).toCharArray()) {
+			if (c >= 'a' && c <= 'h') {
+				fromColumn = c;
+			} else if (c >= '1' && c <= '8') {
+				fromRow = c;
+			} else {
+				throw new IllegalArgumentException("Invalid SAN move : " + san);
+			}
+		}
+		return findMove(board, san, pieceType, fromColumn, fromRow, destination, promotionType, false);
+	}
+
+	/**
+	 * Finds the only legal move matching a description
+	 * @param board The board in which the move is done
+	 * @param san The SAN move, for the error messages
+	 * @param pieceType The type of the moved piece
+	 * @param column For a castle, the destination column of the king; otherwise the column of the moved piece, 0 if unknown
+	 * @param row The row of the moved piece, 0 if unknown
+	 * @param destination The destination coordinate, -1 for a castle
+	 * @param promotionType The type of the piece a pawn is promoted to, null if the move is not a promotion
+	 * @param castle Tells if the move is a castle
+	 * @return The move
+	 * @throws IllegalArgumentException If no legal move, or more than one, matches the description
+	 */
+	private static Move findMove(final Board board, final String san, final PieceType pieceType, final char column,
+			final char row, final int destination, final PieceType promotionType, final boolean castle) {
+		Move found = null;
+		for (final Move move : board.currentPlayer().getLegalMoves()) {
+			if (move.getMovedPiece().getPieceType() != pieceType || move.isCastlingMove() != castle ||
+					move.getPromotionType() != promotionType) {
+				continue;
+			}
+			final String from = BoardUtils.getPositionAtCoordinate(move.getCurrentCoordinate());
+			final String to = BoardUtils.getPositionAtCoordinate(move.getDestinationCoordinate());
+			final boolean matches = castle ? to.charAt(0) == column :
+				move.getDestinationCoordinate() == destination && (column == 0 || from.charAt(0) == column) &&
+				(row == 0 || from.charAt(1) == row);
+			if (matches && board.currentPlayer().makeMove(move).getMoveStatus().isDone()) {
+				if (found != null) {
+					throw new IllegalArgumentException("Ambiguous move : " + san);
+				}
+				found = move;
+			}
+		}
+		if (found == null) {
+			throw new IllegalArgumentException("Illegal move : " + san);
+		}
+		return found;
+	}
+
+	/**
+	 * Gives the type of the piece a pawn is promoted to
+	 * @param text The letter of the piece (Q, R, B or N)
+	 * @param san The SAN move, for the error messages
+	 * @return The type of the piece
+	 */
+	private static PieceType promotionType(final String text, final String san) {
+		if (text.length() != 1 || "QRBN".indexOf(text.charAt(0)) < 0) {
+			throw new IllegalArgumentException("Invalid SAN promotion : " + san);
+		}
+		return pieceTypeOf(text.charAt(0));
+	}
+
+	/**
+	 * Gives the piece type of a SAN letter
+	 * @param letter The letter (K, Q, R, B or N)
+	 * @return The piece type
+	 */
+	private static PieceType pieceTypeOf(final char letter) {
+		for (final PieceType pieceType : PieceType.values()) {
+			if (pieceType.toString().charAt(0) == letter) {
+				return pieceType;
+			}
+		}
+		throw new IllegalArgumentException("Invalid SAN piece : " + letter);
+	}
+}